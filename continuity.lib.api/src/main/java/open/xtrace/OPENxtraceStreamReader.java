@@ -0,0 +1,109 @@
+package open.xtrace;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.spec.research.open.xtrace.api.core.Trace;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+/**
+ * Reads the traces of an OPEN.xtrace JSON array one after another from Jackson's token stream.
+ * Hence, neither the whole JSON text nor all traces need to be held in memory at once. A single
+ * trace object instead of an array is read as one trace. <br>
+ *
+ * The traces are deserialized lazily and can be {@code null} if the respective element is not a
+ * valid trace. Errors while reading the stream are thrown as {@link UncheckedIOException}. Use
+ * {@link OPENxtraceUtils#streamTraces(java.io.InputStream)} or
+ * {@link OPENxtraceUtils#streamTraces(java.nio.ByteBuffer)} for creating a reader.
+ *
+ * @author Henning Schulz
+ *
+ */
+public class OPENxtraceStreamReader implements Iterator<Trace>, Closeable {
+
+	private final JsonParser parser;
+
+	private final boolean array;
+
+	private JsonToken current;
+
+	OPENxtraceStreamReader(JsonParser parser) throws IOException {
+		this.parser = parser;
+
+		JsonToken first = parser.nextToken();
+
+		if (first == null) {
+			this.array = false;
+			this.current = null;
+		} else if (first == JsonToken.START_ARRAY) {
+			this.array = true;
+			this.current = parser.nextToken();
+		} else if (first == JsonToken.START_OBJECT) {
+			this.array = false;
+			this.current = first;
+		} else {
+			parser.close();
+			throw new IOException("Expected the OPEN.xtrace to be a JSON array or object, but it started with " + first + "!");
+		}
+	}
+
+	@Override
+	public boolean hasNext() {
+		return (current != null) && (current != JsonToken.END_ARRAY);
+	}
+
+	@Override
+	public Trace next() {
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+
+		try {
+			Trace trace;
+
+			if (current == JsonToken.START_OBJECT) {
+				trace = OPENxtraceUtils.deserializeToTrace(parser);
+			} else {
+				parser.skipChildren();
+				trace = null;
+			}
+
+			current = array ? parser.nextToken() : null;
+
+			return trace;
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Creates a sequential {@link Stream} of the remaining traces. Closing the stream closes this
+	 * reader.
+	 *
+	 * @return The stream.
+	 */
+	public Stream<Trace> stream() {
+		return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED), false).onClose(() -> {
+			try {
+				close();
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		});
+	}
+
+	@Override
+	public void close() throws IOException {
+		parser.close();
+	}
+
+}
@@ -1,6 +1,10 @@
 package open.xtrace;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -26,6 +30,11 @@ import org.spec.research.open.xtrace.dflt.impl.serialization.realizations.JsonOP
 import org.spec.research.open.xtrace.dflt.impl.serialization.realizations.JsonOPENxtraceSerializer;
 import org.springframework.web.client.RestTemplate;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+
 public class OPENxtraceUtils {
 
 	private static final Logger LOGGER = LoggerFactory.getLogger(OPENxtraceUtils.class);
@@ -36,6 +45,8 @@ public class OPENxtraceUtils {
 
 	private static final String COOKIES_KEY = "cookie";
 
+	private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
 	private static JsonOPENxtraceSerializer serializer;
 
 	private static JsonOPENxtraceDeserializer deserializer;
@@ -97,6 +108,70 @@ public class OPENxtraceUtils {
 		}
 	}
 
+	/**
+	 * Deserializes the JSON object the parser currently points to into a {@link Trace}. Only this
+	 * object is copied, so the parser can be used for reading large arrays of traces one by one.
+	 * Afterwards, the parser points to the end of the object.
+	 *
+	 * @param parser
+	 *            The parser. Needs to point to the start of the trace object.
+	 * @return The deserialized trace or {@code null} if the object is not a valid trace.
+	 * @throws IOException
+	 *             If the parser cannot be read.
+	 */
+	public static Trace deserializeToTrace(JsonParser parser) throws IOException {
+		StringWriter json = new StringWriter();
+
+		// the OPEN.xtrace deserializer only accepts arrays
+		try (JsonGenerator generator = JSON_FACTORY.createGenerator(json)) {
+			generator.writeStartArray();
+			generator.copyCurrentStructure(parser);
+			generator.writeEndArray();
+		}
+
+		JsonOPENxtraceDeserializer deserializer = initAndGetDeserializer();
+
+		try {
+			return deserializer.deserialize(json.toString()).get(0);
+		} catch (IOException e) {
+			LOGGER.error("Could not deserialize trace! Returning null.", e);
+			return null;
+		}
+	}
+
+	/**
+	 * Creates a reader that deserializes the traces from a stream one after another. The stream
+	 * needs to hold an OPEN.xtrace JSON array or a single trace object.
+	 *
+	 * @param input
+	 *            The input stream. Will be closed when the reader is closed.
+	 * @return The reader.
+	 * @throws IOException
+	 *             If the start of the stream cannot be read or is not an array or object.
+	 */
+	public static OPENxtraceStreamReader streamTraces(InputStream input) throws IOException {
+		return new OPENxtraceStreamReader(JSON_FACTORY.createParser(input));
+	}
+
+	/**
+	 * Creates a reader that deserializes the traces from a buffer one after another. The buffer
+	 * needs to hold an OPEN.xtrace JSON array or a single trace object. Array-backed buffers are
+	 * read without copying. The position of the buffer is not changed.
+	 *
+	 * @param buffer
+	 *            The buffer.
+	 * @return The reader.
+	 * @throws IOException
+	 *             If the start of the buffer cannot be read or is not an array or object.
+	 */
+	public static OPENxtraceStreamReader streamTraces(ByteBuffer buffer) throws IOException {
+		if (buffer.hasArray()) {
+			return new OPENxtraceStreamReader(JSON_FACTORY.createParser(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining()));
+		} else {
+			return new OPENxtraceStreamReader(JSON_FACTORY.createParser(new ByteBufferBackedInputStream(buffer.duplicate())));
+		}
+	}
+
 	public static String serializeTraceListToJsonString(List<Trace> traces) {
 		JsonOPENxtraceSerializer serializer = initAndGetSerializer();
 		return serializer.serialize(traces);
@@ -114,6 +189,34 @@ public class OPENxtraceUtils {
 		return json.substring(1, json.length() - 1);
 	}
 
+	/**
+	 * Serializes traces into a JSON array one after another. Hence, the JSON text of only one trace
+	 * is held in memory at once.
+	 *
+	 * @param traces
+	 *            The traces to be serialized.
+	 * @param writer
+	 *            The writer to write the JSON array to. Will not be closed.
+	 * @throws IOException
+	 *             If writing fails.
+	 */
+	public static void serializeTraceList(Iterable<Trace> traces, Writer writer) throws IOException {
+		writer.write('[');
+		boolean first = true;
+
+		for (Trace trace : traces) {
+			if (!first) {
+				writer.write(',');
+			}
+
+			writer.write(serializeTraceToJsonString(trace));
+			first = false;
+		}
+
+		writer.write(']');
+		writer.flush();
+	}
+
 	/**
 	 * Extracts all httpRequestProcessingImpl callables
 	 *
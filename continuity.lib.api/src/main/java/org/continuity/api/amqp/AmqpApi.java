@@ -66,6 +66,27 @@ public class AmqpApi {
 
 	}
 
+	/**
+	 * AMQP API of the IDPA service.
+	 *
+	 * @author Henning Schulz
+	 *
+	 */
+	public static class Idpa {
+
+		private static final String SCOPE = "idpa";
+
+		public static final ExchangeDefinition<AppIdAndVersion> EVENT_CHANGED = ExchangeDefinition.event(SCOPE, "changed").nonDurable().autoDelete().withRoutingKey(AppIdAndVersion.INSTANCE);
+
+		public static final String CHANGED_APPLICATION = "application";
+
+		public static final String CHANGED_ANNOTATION = "annotation";
+
+		private Idpa() {
+		}
+
+	}
+
 	/**
 	 * AMQP API of the cobra service.
 	 *
@@ -83,6 +104,15 @@ public class AmqpApi {
 
 		public static final String HEADER_FINISH = "continuity.finish";
 
+		/** Index of the part of an upload that has been split, starting at 0. */
+		public static final String HEADER_UPLOAD_PART = "continuity.upload.part";
+
+		/** Total number of parts of an upload that has been split. */
+		public static final String HEADER_UPLOAD_PARTS = "continuity.upload.parts";
+
+		/** Marks the last part of an upload that has been split. */
+		public static final String HEADER_UPLOAD_LAST = "continuity.upload.last";
+
 		public static final Charset CONTENT_CHARSET = Charset.forName("UTF-8");
 
 		public static MessagePostProcessor finishHeader(boolean finish) {
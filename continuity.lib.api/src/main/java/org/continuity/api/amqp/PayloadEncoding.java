@@ -0,0 +1,167 @@
+package org.continuity.api.amqp;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.IllegalCharsetNameException;
+import java.nio.charset.UnsupportedCharsetException;
+import java.util.Locale;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Compression of AMQP message payloads. The encoding is stored in the content encoding of the
+ * message together with the charset, e.g., {@code gzip:UTF-8}. This is the same format as used by
+ * Spring's {@code GZipPostProcessor}. A content encoding without compression, e.g., {@code UTF-8},
+ * means plain text.
+ *
+ * @author Henning Schulz
+ *
+ */
+public enum PayloadEncoding {
+
+	IDENTITY {
+		@Override
+		public OutputStream encode(OutputStream out) {
+			return out;
+		}
+
+		@Override
+		public InputStream decode(InputStream in) {
+			return in;
+		}
+	},
+
+	GZIP {
+		@Override
+		public OutputStream encode(OutputStream out) throws IOException {
+			return new GZIPOutputStream(out, BUFFER_SIZE);
+		}
+
+		@Override
+		public InputStream decode(InputStream in) throws IOException {
+			return new GZIPInputStream(in, BUFFER_SIZE);
+		}
+	},
+
+	DEFLATE {
+		@Override
+		public OutputStream encode(OutputStream out) {
+			return new DeflaterOutputStream(out);
+		}
+
+		@Override
+		public InputStream decode(InputStream in) {
+			return new InflaterInputStream(in);
+		}
+	};
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	private static final String SEPARATOR = ":";
+
+	/**
+	 * Wraps a stream such that the written data is compressed.
+	 *
+	 * @param out
+	 *            The stream to write the compressed data to.
+	 * @return The compressing stream. Needs to be closed for writing all data.
+	 * @throws IOException
+	 *             If the compression header cannot be written.
+	 */
+	public abstract OutputStream encode(OutputStream out) throws IOException;
+
+	/**
+	 * Wraps a stream such that the read data is decompressed.
+	 *
+	 * @param in
+	 *            The stream holding the compressed data.
+	 * @return The decompressing stream.
+	 * @throws IOException
+	 *             If the compression header cannot be read.
+	 */
+	public abstract InputStream decode(InputStream in) throws IOException;
+
+	/**
+	 * Formats the content encoding of a message holding text.
+	 *
+	 * @param charset
+	 *            The charset of the text.
+	 * @return The content encoding, e.g., {@code gzip:UTF-8}.
+	 */
+	public String toContentEncoding(Charset charset) {
+		if (this == IDENTITY) {
+			return charset.name();
+		} else {
+			return toPrettyString() + SEPARATOR + charset.name();
+		}
+	}
+
+	/**
+	 * Extracts the compression from the content encoding of a message.
+	 *
+	 * @param contentEncoding
+	 *            The content encoding, e.g., {@code gzip:UTF-8}. Can be {@code null}.
+	 * @return The compression. {@link #IDENTITY} if there is none.
+	 */
+	public static PayloadEncoding fromContentEncoding(String contentEncoding) {
+		if (contentEncoding == null) {
+			return IDENTITY;
+		}
+
+		String prefix = contentEncoding.split(SEPARATOR, 2)[0].trim().toLowerCase(Locale.ENGLISH);
+
+		for (PayloadEncoding encoding : values()) {
+			if ((encoding != IDENTITY) && encoding.toPrettyString().equals(prefix)) {
+				return encoding;
+			}
+		}
+
+		return IDENTITY;
+	}
+
+	/**
+	 * Extracts the charset from the content encoding of a message.
+	 *
+	 * @param contentEncoding
+	 *            The content encoding, e.g., {@code gzip:UTF-8}. Can be {@code null}.
+	 * @param defaultCharset
+	 *            The charset to be used if the content encoding does not specify a valid one.
+	 * @return The charset.
+	 */
+	public static Charset charsetOf(String contentEncoding, Charset defaultCharset) {
+		if (contentEncoding == null) {
+			return defaultCharset;
+		}
+
+		String charset = contentEncoding;
+
+		if (fromContentEncoding(contentEncoding) != IDENTITY) {
+			String[] split = contentEncoding.split(SEPARATOR, 2);
+
+			if (split.length < 2) {
+				return defaultCharset;
+			}
+
+			charset = split[1];
+		}
+
+		try {
+			return Charset.forName(charset.trim());
+		} catch (IllegalCharsetNameException | UnsupportedCharsetException e) {
+			return defaultCharset;
+		}
+	}
+
+	public static PayloadEncoding fromPrettyString(String key) {
+		return (key == null) || key.isEmpty() ? IDENTITY : valueOf(key.toUpperCase(Locale.ENGLISH));
+	}
+
+	public String toPrettyString() {
+		return toString().toLowerCase(Locale.ENGLISH);
+	}
+
+}
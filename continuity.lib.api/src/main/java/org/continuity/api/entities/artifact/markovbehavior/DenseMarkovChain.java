@@ -0,0 +1,720 @@
+package org.continuity.api.entities.artifact.markovbehavior;
+
+import static org.continuity.api.entities.artifact.markovbehavior.AbstractMarkovChain.FINAL_STATE;
+import static org.continuity.api.entities.artifact.markovbehavior.AbstractMarkovChain.INITIAL_STATE;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Compact alternative to the {@link RelativeMarkovChain} for operations on large Markov chains,
+ * such as removing or replacing many states. The states are interned to integer IDs and the
+ * transitions are held in dense matrices of primitives, one per transition property. Hence,
+ * finding the incoming transitions of a state is a scan of one matrix column instead of a map
+ * lookup per state, and renaming a state does not touch any transition at all. <br>
+ *
+ * The operations have the same semantics as the ones of the {@link RelativeMarkovChain}. A chain
+ * can be converted from and to a {@link RelativeMarkovChain} without losing any information, e.g.,
+ * for (de)serializing it in the JSON format.
+ *
+ * @author Henning Schulz
+ *
+ */
+public class DenseMarkovChain {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(DenseMarkovChain.class);
+
+	private static final int INITIAL_CAPACITY = 16;
+
+	private static final String SUB_INITIAL_STATE = "SUB_INITIAL*";
+
+	private static final String SUB_FINAL_STATE = "SUB_$";
+
+	private static final String INITIAL_STATE_COL_HEADER = "INITIAL";
+
+	private static final String DEFAULT_ZERO_TRANSITION = "0.0; n(0 0)";
+
+	private String id;
+
+	private double frequency;
+
+	private long numSessions;
+
+	private double radius;
+
+	private final Map<String, Integer> stateIds = new HashMap<>();
+
+	/**
+	 * The state names per ID. Contains {@code null} for unused IDs.
+	 */
+	private final List<String> stateNames = new ArrayList<>();
+
+	private final Deque<Integer> freeIds = new ArrayDeque<>();
+
+	private int capacity = 0;
+
+	private BitSet present;
+
+	private double[] probabilities;
+
+	private double[] counts;
+
+	private double[] radii;
+
+	private double[] thinkTimeMeans;
+
+	private double[] thinkTimeVariances;
+
+	public DenseMarkovChain() {
+		grow(INITIAL_CAPACITY);
+	}
+
+	/**
+	 * Converts a {@link RelativeMarkovChain} into a {@link DenseMarkovChain}.
+	 *
+	 * @param chain
+	 *            The chain to be converted.
+	 * @return The converted chain.
+	 */
+	public static DenseMarkovChain fromMarkovChain(RelativeMarkovChain chain) {
+		DenseMarkovChain dense = new DenseMarkovChain();
+		dense.grow(Math.max(INITIAL_CAPACITY, chain.getTransitions().size()));
+
+		dense.setId(chain.getId());
+		dense.setFrequency(chain.getFrequency());
+		dense.setNumSessions(chain.getNumSessions());
+		dense.setRadius(chain.getRadius());
+
+		for (Map.Entry<String, Map<String, RelativeMarkovTransition>> row : chain.getTransitions().entrySet()) {
+			int from = dense.addState(row.getKey());
+
+			for (Map.Entry<String, RelativeMarkovTransition> entry : row.getValue().entrySet()) {
+				if (entry.getValue() != null) {
+					dense.put(from, dense.addState(entry.getKey()), entry.getValue());
+				}
+			}
+		}
+
+		return dense;
+	}
+
+	/**
+	 * Converts this chain into a {@link RelativeMarkovChain}.
+	 *
+	 * @return The converted chain.
+	 */
+	public RelativeMarkovChain toMarkovChain() {
+		RelativeMarkovChain chain = new RelativeMarkovChain();
+
+		chain.setId(id);
+		chain.setFrequency(frequency);
+		chain.setNumSessions(numSessions);
+		chain.setRadius(radius);
+
+		for (int from = 0; from < stateNames.size(); from++) {
+			String fromName = stateNames.get(from);
+
+			if (fromName == null) {
+				continue;
+			}
+
+			Map<String, RelativeMarkovTransition> row = chain.initState(fromName);
+
+			for (int to = 0; to < stateNames.size(); to++) {
+				if (isPresent(from, to)) {
+					row.put(stateNames.get(to), get(from, to));
+				}
+			}
+		}
+
+		return chain;
+	}
+
+	/**
+	 * Parses a {@link DenseMarkovChain} from a 2-dimensional matrix, as represented by a CSV file.
+	 *
+	 * @param csv
+	 *            The CSV file's content as matrix.
+	 * @return The parsed chain.
+	 * @see RelativeMarkovChain#fromCsv(String[][])
+	 */
+	public static DenseMarkovChain fromCsv(String[][] csv) {
+		return fromMarkovChain(RelativeMarkovChain.fromCsv(csv));
+	}
+
+	/**
+	 * Writes the represented Markov chain into a 2-dimensional matrix.
+	 *
+	 * @return The generated matrix.
+	 * @see RelativeMarkovChain#toCsv()
+	 */
+	public String[][] toCsv() {
+		List<String> allStates = getRequestStates();
+		allStates.add(0, INITIAL_STATE);
+		allStates.add(FINAL_STATE);
+
+		int[] ids = allStates.stream().mapToInt(this::requireId).toArray();
+		String[][] csv = new String[allStates.size()][];
+
+		String[] headers = new String[allStates.size() + 1];
+		headers[0] = "";
+		headers[1] = INITIAL_STATE_COL_HEADER;
+
+		for (int i = 1; i < allStates.size(); i++) {
+			headers[i + 1] = allStates.get(i);
+		}
+
+		csv[0] = headers;
+
+		for (int row = 0; row < (ids.length - 1); row++) {
+			String[] csvRow = new String[ids.length + 1];
+			csvRow[0] = allStates.get(row);
+
+			for (int col = 0; col < ids.length; col++) {
+				csvRow[col + 1] = isPresent(ids[row], ids[col]) ? get(ids[row], ids[col]).toString() : DEFAULT_ZERO_TRANSITION;
+			}
+
+			csv[row + 1] = csvRow;
+		}
+
+		return csv;
+	}
+
+	/**
+	 * @see AbstractMarkovChain#getId()
+	 */
+	public String getId() {
+		return id;
+	}
+
+	/**
+	 * @see AbstractMarkovChain#setId(String)
+	 */
+	public void setId(String id) {
+		this.id = id;
+	}
+
+	/**
+	 * @see AbstractMarkovChain#getFrequency()
+	 */
+	public double getFrequency() {
+		return frequency;
+	}
+
+	/**
+	 * @see AbstractMarkovChain#setFrequency(double)
+	 */
+	public void setFrequency(double frequency) {
+		this.frequency = frequency;
+	}
+
+	/**
+	 * @see AbstractMarkovChain#getNumSessions()
+	 */
+	public long getNumSessions() {
+		return numSessions;
+	}
+
+	/**
+	 * @see AbstractMarkovChain#setNumSessions(long)
+	 */
+	public void setNumSessions(long numSessions) {
+		this.numSessions = numSessions;
+	}
+
+	/**
+	 * @see AbstractMarkovChain#getRadius()
+	 */
+	public double getRadius() {
+		return radius;
+	}
+
+	/**
+	 * @see AbstractMarkovChain#setRadius(double)
+	 */
+	public void setRadius(double radius) {
+		this.radius = radius;
+	}
+
+	/**
+	 * Returns a sorted list of all request states contained in the Markov chain, i.e., all states
+	 * that are not {@value AbstractMarkovChain#INITIAL_STATE} or
+	 * {@value AbstractMarkovChain#FINAL_STATE}.
+	 *
+	 * @return The list of request states.
+	 */
+	public List<String> getRequestStates() {
+		List<String> states = stateIds.keySet().stream().filter(s -> !INITIAL_STATE.equals(s) && !FINAL_STATE.equals(s)).collect(Collectors.toList());
+		Collections.sort(states);
+		return states;
+	}
+
+	/**
+	 * Returns the number of request states contained in the Markov chain.
+	 *
+	 * @return The number of request states.
+	 */
+	public int getNumberOfRequestStates() {
+		return stateIds.size() - (stateIds.containsKey(INITIAL_STATE) ? 1 : 0) - (stateIds.containsKey(FINAL_STATE) ? 1 : 0);
+	}
+
+	/**
+	 * Checks whether a state is contained.
+	 *
+	 * @param state
+	 *            The state.
+	 * @return {@code true} if the state is contained.
+	 */
+	public boolean containsState(String state) {
+		return stateIds.containsKey(state);
+	}
+
+	/**
+	 * Adds a new Markov state that has no incoming or outgoing transitions. Does nothing if the
+	 * state already exists.
+	 *
+	 * @param state
+	 *            The state to be added.
+	 * @return The ID of the state.
+	 */
+	public int addState(String state) {
+		Integer existing = stateIds.get(state);
+
+		if (existing != null) {
+			return existing;
+		}
+
+		int stateId;
+
+		if (freeIds.isEmpty()) {
+			stateId = stateNames.size();
+			stateNames.add(state);
+
+			if (stateId >= capacity) {
+				grow(2 * capacity);
+			}
+		} else {
+			stateId = freeIds.pop();
+			stateNames.set(stateId, state);
+		}
+
+		stateIds.put(state, stateId);
+		return stateId;
+	}
+
+	/**
+	 * Returns the transition from the state {@code from} to the state {@code to}. <br>
+	 * <i>Changing the returned transition will not have any effect. Please make sure to call
+	 * {@link #setTransition(String, String, RelativeMarkovTransition)}.</i>
+	 *
+	 * @param from
+	 *            The source state of the transition.
+	 * @param to
+	 *            The destination state of the transition.
+	 * @return The transition. A zero transition if there is none.
+	 */
+	public RelativeMarkovTransition getTransition(String from, String to) {
+		Integer fromId = stateIds.get(from);
+		Integer toId = stateIds.get(to);
+
+		if ((fromId == null) || (toId == null) || !isPresent(fromId, toId)) {
+			return new RelativeMarkovTransition();
+		} else {
+			return get(fromId, toId);
+		}
+	}
+
+	/**
+	 * Sets the transition from the state {@code from} to the state {@code to}. Will overwrite an
+	 * existing transition. Transitions with zero probability are removed.
+	 *
+	 * @param from
+	 *            The source state of the transition.
+	 * @param to
+	 *            The destination state of the transition.
+	 * @param transition
+	 *            The transition. Can be {@code null}.
+	 */
+	public void setTransition(String from, String to, RelativeMarkovTransition transition) {
+		if ((transition == null) || transition.hasZeroProbability()) {
+			Integer fromId = stateIds.get(from);
+			Integer toId = stateIds.get(to);
+
+			if ((fromId != null) && (toId != null)) {
+				clear(fromId, toId);
+			}
+		} else {
+			put(addState(from), addState(to), transition);
+		}
+	}
+
+	/**
+	 * Merges a transition with the existing transition between the same states.
+	 *
+	 * @param from
+	 *            The source state of the transition.
+	 * @param to
+	 *            The destination state of the transition.
+	 * @param transition
+	 *            The "parallel" transition to be merged.
+	 * @see RelativeMarkovTransition#merge(RelativeMarkovTransition, RelativeMarkovTransition)
+	 */
+	public void mergeTransition(String from, String to, RelativeMarkovTransition transition) {
+		int fromId = addState(from);
+		int toId = addState(to);
+
+		set(fromId, toId, RelativeMarkovTransition.merge(isPresent(fromId, toId) ? get(fromId, toId) : null, transition));
+	}
+
+	/**
+	 * Returns the maximum probability of the transitions into a state, excluding a self-loop.
+	 *
+	 * @param state
+	 *            The state.
+	 * @return The maximum probability or 0 if there are no incoming transitions.
+	 */
+	public double getMaxIncomingProbability(String state) {
+		int to = requireId(state);
+		double max = 0;
+
+		for (int from = 0; from < stateNames.size(); from++) {
+			if ((from != to) && isPresent(from, to)) {
+				max = Math.max(max, probabilities[cell(from, to)]);
+			}
+		}
+
+		return max;
+	}
+
+	/**
+	 * Removes states from the Markov chain and fixes the broken transitions to and from the
+	 * removed states.
+	 *
+	 * @param stateIdentifier
+	 *            The predicate identifying the states to be removed.
+	 * @param stateDuration
+	 *            The duration of the states to be removed.
+	 * @return The number of states that have been removed.
+	 * @see RelativeMarkovChain#removeStates(Predicate, NormalDistribution)
+	 */
+	public int removeStates(Predicate<String> stateIdentifier, NormalDistribution stateDuration) {
+		List<String> statesToRemove = stateIds.keySet().stream().filter(stateIdentifier).sorted().collect(Collectors.toList());
+
+		for (String state : statesToRemove) {
+			removeState(state, stateDuration);
+		}
+
+		return statesToRemove.size();
+	}
+
+	/**
+	 * Removes a state from the Markov chain and fixes the broken transitions to and from the
+	 * removed state. A self-loop of the state is eliminated first by adding the expected time spent
+	 * in the loop to the outgoing transitions.
+	 *
+	 * @param state
+	 *            The state to be removed.
+	 * @param stateDuration
+	 *            The duration of the state to be removed. This duration will be added to the think
+	 *            times of the transitions from the state's predecessors to the successors.
+	 * @see RelativeMarkovChain#removeState(String, NormalDistribution)
+	 */
+	public void removeState(String state, NormalDistribution stateDuration) {
+		Integer stateId = stateIds.get(state);
+
+		if (stateId == null) {
+			throw new IllegalArgumentException("State " + state + " is not contained in the Markov chain!");
+		}
+
+		LOGGER.debug("Markov chain {}: Removing state {}...", id, state);
+
+		removeCycle(stateId, stateDuration);
+
+		int[] predecessors = incoming(stateId);
+		int[] successors = outgoing(stateId);
+
+		for (int pred : predecessors) {
+			RelativeMarkovTransition in = get(pred, stateId);
+
+			for (int succ : successors) {
+				RelativeMarkovTransition concat = RelativeMarkovTransition.concatenate(in, stateDuration, get(stateId, succ));
+
+				if (isPresent(pred, succ)) {
+					concat = RelativeMarkovTransition.merge(get(pred, succ), concat);
+				}
+
+				set(pred, succ, concat);
+			}
+		}
+
+		dropState(stateId);
+	}
+
+	/**
+	 * Replaces a Markov state with another Markov chain that will be integrated into this chain.
+	 * The initial and final states of the inserted chain will be removed. All added states will be
+	 * named {@code state#subStateName}. The sub chain is not changed.
+	 *
+	 * @param state
+	 *            The state to be replaced.
+	 * @param subChain
+	 *            The Markov chain to be added as a replacement of {@code state}.
+	 * @see RelativeMarkovChain#replaceState(String, RelativeMarkovChain)
+	 */
+	public void replaceState(String state, DenseMarkovChain subChain) {
+		int stateId = requireId(state);
+
+		LOGGER.debug("Markov chain {}: Replacing state {} with {} new states...", id, state, subChain.getNumberOfRequestStates());
+
+		int[] mapping = new int[subChain.stateNames.size()];
+
+		for (int subId = 0; subId < subChain.stateNames.size(); subId++) {
+			String subState = subChain.stateNames.get(subId);
+
+			if (subState == null) {
+				continue;
+			}
+
+			String newStateName;
+
+			if (INITIAL_STATE.equals(subState)) {
+				newStateName = SUB_INITIAL_STATE;
+			} else if (FINAL_STATE.equals(subState)) {
+				newStateName = SUB_FINAL_STATE;
+			} else {
+				newStateName = state + "#" + subState;
+			}
+
+			mapping[subId] = addState(newStateName);
+			clearRow(mapping[subId]);
+		}
+
+		for (int from = 0; from < subChain.stateNames.size(); from++) {
+			for (int to = 0; to < subChain.stateNames.size(); to++) {
+				if (subChain.isPresent(from, to)) {
+					put(mapping[from], mapping[to], subChain.get(from, to));
+				}
+			}
+		}
+
+		int subInitial = requireId(SUB_INITIAL_STATE);
+		int subFinal = requireId(SUB_FINAL_STATE);
+
+		clear(subFinal, subFinal);
+
+		for (int pred : incoming(stateId)) {
+			put(pred, subInitial, get(pred, stateId));
+			clear(pred, stateId);
+		}
+
+		for (int succ : outgoing(stateId)) {
+			put(subFinal, succ, get(stateId, succ));
+		}
+
+		dropState(stateId);
+
+		removeState(SUB_INITIAL_STATE, NormalDistribution.ZERO);
+		removeState(SUB_FINAL_STATE, NormalDistribution.ZERO);
+	}
+
+	/**
+	 * Renames a state. Does not touch any transition.
+	 *
+	 * @param origName
+	 *            The current name of the state.
+	 * @param newName
+	 *            The new name of the state. Must not exist yet.
+	 */
+	public void renameState(String origName, String newName) {
+		int stateId = requireId(origName);
+
+		if (stateIds.containsKey(newName)) {
+			throw new IllegalArgumentException("State " + newName + " is already contained in the Markov chain!");
+		}
+
+		stateIds.remove(origName);
+		stateIds.put(newName, stateId);
+		stateNames.set(stateId, newName);
+	}
+
+	private void removeCycle(int stateId, NormalDistribution stateDuration) {
+		if (!isPresent(stateId, stateId) || (probabilities[cell(stateId, stateId)] == 0.0)) {
+			return;
+		}
+
+		RelativeMarkovTransition cycle = get(stateId, stateId);
+		int[] successors = outgoing(stateId);
+
+		double p = cycle.getProbability();
+		double expectedSteps = (1.0 / (1.0 - p)) - 1.0; // geometric series
+		double overallProb = 0;
+		boolean hasOthers = false;
+
+		for (int succ : successors) {
+			if (succ != stateId) {
+				overallProb += probabilities[cell(stateId, succ)];
+				hasOthers = true;
+			}
+		}
+
+		if (!hasOthers) {
+			overallProb = 1.0;
+		}
+
+		NormalDistribution additionalThinkTime = NormalDistribution.add(cycle.getThinkTime(), stateDuration);
+
+		LOGGER.debug("Markov chain {}: Removing cycle of {} with {} expected steps.", id, stateNames.get(stateId), expectedSteps);
+
+		for (int succ : successors) {
+			if (succ != stateId) {
+				int c = cell(stateId, succ);
+				NormalDistribution thinkTime = NormalDistribution.combine(1, new NormalDistribution(thinkTimeMeans[c], thinkTimeVariances[c]), expectedSteps, additionalThinkTime);
+
+				probabilities[c] /= overallProb;
+				thinkTimeMeans[c] = thinkTime.getMean();
+				thinkTimeVariances[c] = thinkTime.getVariance();
+			}
+		}
+
+		clear(stateId, stateId);
+	}
+
+	private int[] incoming(int to) {
+		return idsOf(from -> isPresent(from, to));
+	}
+
+	private int[] outgoing(int from) {
+		return idsOf(to -> isPresent(from, to));
+	}
+
+	private int[] idsOf(IntPredicate filter) {
+		int[] ids = new int[stateNames.size()];
+		int num = 0;
+
+		for (int i = 0; i < stateNames.size(); i++) {
+			if ((stateNames.get(i) != null) && filter.test(i)) {
+				ids[num++] = i;
+			}
+		}
+
+		return Arrays.copyOf(ids, num);
+	}
+
+	private void dropState(int stateId) {
+		clearRow(stateId);
+
+		for (int from = 0; from < stateNames.size(); from++) {
+			clear(from, stateId);
+		}
+
+		stateIds.remove(stateNames.get(stateId));
+		stateNames.set(stateId, null);
+		freeIds.push(stateId);
+	}
+
+	private void clearRow(int from) {
+		present.clear(cell(from, 0), cell(from, 0) + capacity);
+	}
+
+	private int requireId(String state) {
+		Integer stateId = stateIds.get(state);
+
+		if (stateId == null) {
+			throw new IllegalArgumentException("State " + state + " is not contained in the Markov chain!");
+		}
+
+		return stateId;
+	}
+
+	private int cell(int from, int to) {
+		return (from * capacity) + to;
+	}
+
+	private boolean isPresent(int from, int to) {
+		return present.get(cell(from, to));
+	}
+
+	private RelativeMarkovTransition get(int from, int to) {
+		int c = cell(from, to);
+		return new RelativeMarkovTransition(probabilities[c], counts[c], radii[c], thinkTimeMeans[c], thinkTimeVariances[c]);
+	}
+
+	/**
+	 * Sets a transition, removing it if it has zero probability.
+	 */
+	private void set(int from, int to, RelativeMarkovTransition transition) {
+		if (transition.hasZeroProbability()) {
+			clear(from, to);
+		} else {
+			put(from, to, transition);
+		}
+	}
+
+	/**
+	 * Stores a transition as is.
+	 */
+	private void put(int from, int to, RelativeMarkovTransition transition) {
+		int c = cell(from, to);
+
+		present.set(c);
+		probabilities[c] = transition.getProbability();
+		counts[c] = transition.getCount();
+		radii[c] = transition.getRadius();
+		thinkTimeMeans[c] = transition.getThinkTime().getMean();
+		thinkTimeVariances[c] = transition.getThinkTime().getVariance();
+	}
+
+	private void clear(int from, int to) {
+		present.clear(cell(from, to));
+	}
+
+	private void grow(int newCapacity) {
+		if (newCapacity <= capacity) {
+			return;
+		}
+
+		BitSet newPresent = new BitSet(newCapacity * newCapacity);
+		double[] newProbabilities = new double[newCapacity * newCapacity];
+		double[] newCounts = new double[newCapacity * newCapacity];
+		double[] newRadii = new double[newCapacity * newCapacity];
+		double[] newThinkTimeMeans = new double[newCapacity * newCapacity];
+		double[] newThinkTimeVariances = new double[newCapacity * newCapacity];
+
+		for (int from = 0; from < capacity; from++) {
+			int oldRow = from * capacity;
+			int newRow = from * newCapacity;
+
+			System.arraycopy(probabilities, oldRow, newProbabilities, newRow, capacity);
+			System.arraycopy(counts, oldRow, newCounts, newRow, capacity);
+			System.arraycopy(radii, oldRow, newRadii, newRow, capacity);
+			System.arraycopy(thinkTimeMeans, oldRow, newThinkTimeMeans, newRow, capacity);
+			System.arraycopy(thinkTimeVariances, oldRow, newThinkTimeVariances, newRow, capacity);
+
+			for (int c = present.nextSetBit(oldRow); (c >= 0) && (c < (oldRow + capacity)); c = present.nextSetBit(c + 1)) {
+				newPresent.set(newRow + (c - oldRow));
+			}
+		}
+
+		this.present = newPresent;
+		this.probabilities = newProbabilities;
+		this.counts = newCounts;
+		this.radii = newRadii;
+		this.thinkTimeMeans = newThinkTimeMeans;
+		this.thinkTimeVariances = newThinkTimeVariances;
+		this.capacity = newCapacity;
+	}
+
+}
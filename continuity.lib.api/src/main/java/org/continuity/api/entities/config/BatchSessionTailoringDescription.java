@@ -0,0 +1,72 @@
+package org.continuity.api.entities.config;
+
+import java.util.List;
+
+import org.continuity.idpa.AppId;
+import org.continuity.idpa.VersionOrTimestamp;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Describes how to generate several tailored behavior models from sessions at once. One behavior
+ * model is generated per group and root endpoint of the group, as it would be done for a
+ * {@link SessionTailoringDescription} with the same properties.
+ *
+ * @author Henning Schulz
+ *
+ */
+public class BatchSessionTailoringDescription {
+
+	@JsonProperty("app-id")
+	private AppId aid;
+
+	private VersionOrTimestamp version;
+
+	@JsonProperty("include-pre-post-processing")
+	private boolean includePrePostProcessing;
+
+	private List<String> tailoring;
+
+	private List<SessionTailoringGroup> groups;
+
+	public AppId getAid() {
+		return aid;
+	}
+
+	public void setAid(AppId aid) {
+		this.aid = aid;
+	}
+
+	public VersionOrTimestamp getVersion() {
+		return version;
+	}
+
+	public void setVersion(VersionOrTimestamp version) {
+		this.version = version;
+	}
+
+	public boolean isIncludePrePostProcessing() {
+		return includePrePostProcessing;
+	}
+
+	public void setIncludePrePostProcessing(boolean includePrePostProcessing) {
+		this.includePrePostProcessing = includePrePostProcessing;
+	}
+
+	public List<String> getTailoring() {
+		return tailoring;
+	}
+
+	public void setTailoring(List<String> tailoring) {
+		this.tailoring = tailoring;
+	}
+
+	public List<SessionTailoringGroup> getGroups() {
+		return groups;
+	}
+
+	public void setGroups(List<SessionTailoringGroup> groups) {
+		this.groups = groups;
+	}
+
+}
@@ -0,0 +1,57 @@
+package org.continuity.api.entities.config;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * A group of sessions, e.g., a behavior group, for which tailored behavior models are to be
+ * generated for several root endpoints. Part of a {@link BatchSessionTailoringDescription}.
+ *
+ * @author Henning Schulz
+ *
+ */
+public class SessionTailoringGroup {
+
+	private String id;
+
+	@JsonProperty("session-ids")
+	private List<String> sessionIds;
+
+	@JsonProperty("root-endpoints")
+	private List<String> rootEndpoints;
+
+	public SessionTailoringGroup() {
+	}
+
+	public SessionTailoringGroup(String id, List<String> sessionIds, List<String> rootEndpoints) {
+		this.id = id;
+		this.sessionIds = sessionIds;
+		this.rootEndpoints = rootEndpoints;
+	}
+
+	public String getId() {
+		return id;
+	}
+
+	public void setId(String id) {
+		this.id = id;
+	}
+
+	public List<String> getSessionIds() {
+		return sessionIds;
+	}
+
+	public void setSessionIds(List<String> sessionIds) {
+		this.sessionIds = sessionIds;
+	}
+
+	public List<String> getRootEndpoints() {
+		return rootEndpoints;
+	}
+
+	public void setRootEndpoints(List<String> rootEndpoints) {
+		this.rootEndpoints = rootEndpoints;
+	}
+
+}
@@ -38,6 +38,8 @@ public class ClusteringConfiguration {
 
 	private boolean omit = false;
 
+	private ClusteringEngine engine = ClusteringEngine.CLUSTINATOR;
+
 	/**
 	 * The interval at which the clustering should be triggered.
 	 *
@@ -129,4 +131,17 @@ public class ClusteringConfiguration {
 		this.omit = omitSessionClustering;
 	}
 
+	/**
+	 * The engine to be used for clustering the sessions.
+	 *
+	 * @return The engine. Defaults to {@link ClusteringEngine#CLUSTINATOR}.
+	 */
+	public ClusteringEngine getEngine() {
+		return engine;
+	}
+
+	public void setEngine(ClusteringEngine engine) {
+		this.engine = engine;
+	}
+
 }
@@ -0,0 +1,34 @@
+package org.continuity.api.entities.config.cobra;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+/**
+ * The engine clustering the sessions.
+ *
+ * @author Henning Schulz
+ *
+ */
+public enum ClusteringEngine {
+
+	/**
+	 * The external clustinator, which is called via AMQP.
+	 */
+	CLUSTINATOR,
+
+	/**
+	 * The engine embedded into cobra, which clusters the sessions in the same JVM.
+	 */
+	EMBEDDED;
+
+	@JsonCreator
+	public static ClusteringEngine fromPrettyString(String key) {
+		return key == null ? null : valueOf(key.toUpperCase().replace("-", "_"));
+	}
+
+	@JsonValue
+	public String toPrettyString() {
+		return toString().toLowerCase().replace("_", "-");
+	}
+
+}
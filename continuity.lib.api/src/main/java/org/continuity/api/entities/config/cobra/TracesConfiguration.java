@@ -32,6 +32,9 @@ public class TracesConfiguration {
 	@JsonProperty("stop-on-failure")
 	private boolean stopOnFailue = true;
 
+	@JsonProperty("chunk-size")
+	private int chunkSize = 10000;
+
 	/**
 	 * Whether the uploaded traces should be mapped to IDPA endpoints. Setting it to {@code false}
 	 * disallows for tailoring and will use the provided business transactions as endpoint names.
@@ -92,4 +95,18 @@ public class TracesConfiguration {
 		this.stopOnFailue = stopOnFailue;
 	}
 
+	/**
+	 *
+	 * @return The maximum number of records (requests or sessions, depending on the data type) that
+	 *         are processed at once. Uploaded data is read and processed chunk by chunk, so this
+	 *         value bounds the memory required for processing. Defaults to 10000.
+	 */
+	public int getChunkSize() {
+		return chunkSize;
+	}
+
+	public void setChunkSize(int chunkSize) {
+		this.chunkSize = chunkSize;
+	}
+
 }
@@ -2,7 +2,9 @@ package org.continuity.api.entities.report;
 
 public enum TaskError {
 
-	MISSING_SOURCE("Required source information is missing."), ILLEGAL_TYPE("The source type is not supported."), INTERNAL_ERROR("An internal error occured.");
+	MISSING_SOURCE("Required source information is missing."), ILLEGAL_TYPE("The source type is not supported."), INTERNAL_ERROR("An internal error occured."),
+
+	REJECTED("The task has been rejected, as the service is overloaded."), CANCELLED("The task has been cancelled.");
 
 	private final String message;
 
@@ -346,6 +346,36 @@ public class RestApi {
 			}
 		}
 
+		/**
+		 * Execution API of the JMeter service.
+		 *
+		 * @author Henning Schulz
+		 *
+		 */
+		public static class Execution {
+
+			public static final String ROOT = "/execution";
+
+			/** {@value #ROOT}/ */
+			public static final RestEndpoint GET_ALL = RestEndpoint.of(SERVICE_NAME, ROOT, Paths.GET_ALL, RequestMethod.GET);
+
+			/** {@value #ROOT}/{task-id} */
+			public static final RestEndpoint CANCEL = RestEndpoint.of(SERVICE_NAME, ROOT, Paths.CANCEL, RequestMethod.DELETE);
+
+			private Execution() {
+			}
+
+			public static class Paths {
+
+				public static final String GET_ALL = "/";
+
+				public static final String CANCEL = "/{task-id}";
+
+				private Paths() {
+				}
+			}
+		}
+
 		/**
 		 * Report API of the JMeter service.
 		 *
@@ -359,6 +389,9 @@ public class RestApi {
 			/** {@value #ROOT}/{id} */
 			public static final RestEndpoint GET = RestEndpoint.of(SERVICE_NAME, ROOT, Paths.GET, RequestMethod.GET);
 
+			/** {@value #ROOT}/{id}/summary */
+			public static final RestEndpoint GET_SUMMARY = RestEndpoint.of(SERVICE_NAME, ROOT, Paths.GET_SUMMARY, RequestMethod.GET);
+
 			/** {@value #ROOT}/{id} */
 			public static final RestEndpoint DELETE = RestEndpoint.of(SERVICE_NAME, ROOT, Paths.DELETE, RequestMethod.DELETE);
 
@@ -369,6 +402,8 @@ public class RestApi {
 
 				public static final String GET = "/{id}";
 
+				public static final String GET_SUMMARY = "/{id}/summary";
+
 				public static final String DELETE = "/{id}";
 
 				private Paths() {
@@ -622,6 +657,9 @@ public class RestApi {
 			/** {@value #ROOT}/{app-id:.+}/{version:.+}/session-logs */
 			public static final RestEndpoint PUSH_SESSION_LOGS = RestEndpoint.of(SERVICE_NAME, ROOT, Paths.PUSH_SESSION_LOGS, RequestMethod.POST);
 
+			/** {@value #ROOT}/upload/{upload-id} */
+			public static final RestEndpoint GET_UPLOAD = RestEndpoint.of(SERVICE_NAME, ROOT, Paths.GET_UPLOAD, RequestMethod.GET);
+
 			/** {@value #ROOT}/{app-id:.+}/{version:.+}/{type} */
 			public static final Map<MeasurementDataType, RestEndpoint> PUSH_FOR_TYPE = new HashMap<>();
 
@@ -648,6 +686,8 @@ public class RestApi {
 
 				public static final String PUSH_SESSION_LOGS = "/{app-id:.+}/{version:.+}/session-logs";
 
+				public static final String GET_UPLOAD = "/upload/{upload-id}";
+
 				private Paths() {
 				}
 
@@ -691,6 +731,9 @@ public class RestApi {
 			/** {@value #ROOT}/create */
 			public static final RestEndpoint CREATE = RestEndpoint.of(SERVICE_NAME, ROOT, Paths.CREATE, RequestMethod.POST);
 
+			/** {@value #ROOT}/create-batch */
+			public static final RestEndpoint CREATE_BATCH = RestEndpoint.of(SERVICE_NAME, ROOT, Paths.CREATE_BATCH, RequestMethod.POST);
+
 			/** {@value #ROOT}/{app-id:.+}/{tailoring:.+}/{timestamp}/num-sessions */
 			public static final RestEndpoint UPDATE_NUM_SESSIONS = RestEndpoint.of(SERVICE_NAME, ROOT, Paths.UPDATE_NUM_SESSIONS, RequestMethod.POST);
 
@@ -703,6 +746,8 @@ public class RestApi {
 
 				public static final String CREATE = "/create";
 
+				public static final String CREATE_BATCH = "/create-batch";
+
 				public static final String UPDATE_NUM_SESSIONS = "/{app-id:.+}/{tailoring:.+}/{timestamp}/num-sessions";
 
 				private Paths() {
@@ -790,6 +835,27 @@ public class RestApi {
 
 		}
 
+		public static class Elasticsearch {
+
+			public static final String ROOT = "/elasticsearch";
+
+			/** {@value #ROOT}/bulk-metrics */
+			public static final RestEndpoint GET_BULK_METRICS = RestEndpoint.of(SERVICE_NAME, ROOT, Paths.GET_BULK_METRICS, RequestMethod.GET);
+
+			private Elasticsearch() {
+			}
+
+			public static class Paths {
+
+				public static final String GET_BULK_METRICS = "/bulk-metrics";
+
+				private Paths() {
+				}
+
+			}
+
+		}
+
 	}
 
 	public static class Forecastic {
@@ -2,6 +2,11 @@ package open.xtrace;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.List;
 
@@ -41,6 +46,49 @@ public class OpenXtraceDeSerializationTest {
 		assertThat(parsed).extracting(Trace::getRoot).extracting(SubTrace::getRoot).extracting(Callable::getTimestamp).containsExactlyInAnyOrder(1000000L, 1000000L, 3000000L);
 	}
 
+	@Test
+	public void testStreamFromInputStream() throws IOException {
+		List<Trace> traces = Arrays.asList(createTrace(123, 1000000), createTrace(456, 2000000), createTrace(789, 3000000));
+		byte[] json = OPENxtraceUtils.serializeTraceListToJsonString(traces).getBytes(StandardCharsets.UTF_8);
+
+		try (OPENxtraceStreamReader reader = OPENxtraceUtils.streamTraces(new ByteArrayInputStream(json))) {
+			assertThat(reader.stream()).extracting(Trace::getTraceId).containsExactly(123L, 456L, 789L);
+			assertThat(reader.hasNext()).isFalse();
+		}
+	}
+
+	@Test
+	public void testStreamFromByteBuffer() throws IOException {
+		List<Trace> traces = Arrays.asList(createTrace(123, 1000000), createTrace(456, 2000000));
+		StringWriter json = new StringWriter();
+		OPENxtraceUtils.serializeTraceList(traces, json);
+
+		ByteBuffer buffer = ByteBuffer.wrap(("xx" + json).getBytes(StandardCharsets.UTF_8));
+		buffer.position(2);
+
+		try (OPENxtraceStreamReader reader = OPENxtraceUtils.streamTraces(buffer)) {
+			assertThat(reader.next().getRoot().getRoot().getTimestamp()).isEqualTo(1000000L);
+			assertThat(reader.next().getRoot().getRoot().getTimestamp()).isEqualTo(2000000L);
+			assertThat(reader.hasNext()).isFalse();
+		}
+
+		assertThat(buffer.position()).isEqualTo(2);
+	}
+
+	@Test
+	public void testStreamSingleAndEmpty() throws IOException {
+		String json = OPENxtraceUtils.serializeTraceToJsonString(createTrace(42, 1000000));
+
+		try (OPENxtraceStreamReader reader = OPENxtraceUtils.streamTraces(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)))) {
+			assertThat(reader.next().getTraceId()).isEqualTo(42L);
+			assertThat(reader.hasNext()).isFalse();
+		}
+
+		try (OPENxtraceStreamReader reader = OPENxtraceUtils.streamTraces(new ByteArrayInputStream("[]".getBytes(StandardCharsets.UTF_8)))) {
+			assertThat(reader.hasNext()).isFalse();
+		}
+	}
+
 	private Trace createTrace(long id, long timestamp) {
 		TraceImpl trace = new TraceImpl(id);
 		SubTraceImpl subTrace = new SubTraceImpl();
@@ -0,0 +1,64 @@
+package org.continuity.api.amqp;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+import org.springframework.util.StreamUtils;
+
+public class PayloadEncodingTest {
+
+	private static final Charset DEFAULT = StandardCharsets.UTF_8;
+
+	@Test
+	public void testContentEncoding() {
+		assertThat(PayloadEncoding.GZIP.toContentEncoding(StandardCharsets.ISO_8859_1)).isEqualTo("gzip:ISO-8859-1");
+		assertThat(PayloadEncoding.IDENTITY.toContentEncoding(StandardCharsets.UTF_8)).isEqualTo("UTF-8");
+
+		assertThat(PayloadEncoding.fromContentEncoding("gzip:ISO-8859-1")).isEqualTo(PayloadEncoding.GZIP);
+		assertThat(PayloadEncoding.fromContentEncoding("deflate")).isEqualTo(PayloadEncoding.DEFLATE);
+		assertThat(PayloadEncoding.fromContentEncoding("UTF-8")).isEqualTo(PayloadEncoding.IDENTITY);
+		assertThat(PayloadEncoding.fromContentEncoding(null)).isEqualTo(PayloadEncoding.IDENTITY);
+
+		assertThat(PayloadEncoding.charsetOf("gzip:ISO-8859-1", DEFAULT)).isEqualTo(StandardCharsets.ISO_8859_1);
+		assertThat(PayloadEncoding.charsetOf("UTF-16", DEFAULT)).isEqualTo(StandardCharsets.UTF_16);
+		assertThat(PayloadEncoding.charsetOf("gzip", DEFAULT)).isEqualTo(DEFAULT);
+		assertThat(PayloadEncoding.charsetOf("foo", DEFAULT)).isEqualTo(DEFAULT);
+		assertThat(PayloadEncoding.charsetOf(null, DEFAULT)).isEqualTo(DEFAULT);
+	}
+
+	@Test
+	public void testRoundTrip() throws IOException {
+		StringBuilder text = new StringBuilder();
+
+		for (int i = 0; i < 10000; i++) {
+			text.append("127.0.0.1 - - [10/Oct/2000:13:55:36 -0700] \"GET /item?id=").append(i).append(" HTTP/1.1\" 200 2326\n");
+		}
+
+		byte[] plain = text.toString().getBytes(DEFAULT);
+
+		for (PayloadEncoding encoding : PayloadEncoding.values()) {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+			try (OutputStream out = encoding.encode(bytes)) {
+				out.write(plain);
+			}
+
+			if (encoding != PayloadEncoding.IDENTITY) {
+				assertThat(bytes.size()).isLessThan(plain.length / 4);
+			}
+
+			try (InputStream in = encoding.decode(new ByteArrayInputStream(bytes.toByteArray()))) {
+				assertThat(StreamUtils.copyToByteArray(in)).isEqualTo(plain);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,107 @@
+package org.continuity.api.entities.artifact.markovbehavior;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+
+import org.assertj.core.data.Offset;
+import org.continuity.api.entities.test.MarkovChainTestInstance;
+import org.junit.Test;
+
+public class DenseMarkovChainTest {
+
+	@Test
+	public void testConversion() throws IOException {
+		testConversion(MarkovChainTestInstance.SOCK_SHOP);
+		testConversion(MarkovChainTestInstance.SIMPLE);
+		testConversion(MarkovChainTestInstance.SIMPLE_WO_A);
+		testConversion(MarkovChainTestInstance.SIMPLE_INSERT);
+		testConversion(MarkovChainTestInstance.SIMPLE_WITH_INSERT);
+	}
+
+	private void testConversion(MarkovChainTestInstance instance) throws IOException {
+		String[][] csv = instance.getCsv();
+		RelativeMarkovChain chain = RelativeMarkovChain.fromCsv(csv);
+		chain.setId("chain");
+		chain.setFrequency(0.5);
+		chain.setNumSessions(42);
+		chain.setRadius(0.1);
+
+		DenseMarkovChain dense = DenseMarkovChain.fromMarkovChain(chain);
+
+		assertThat(dense.toCsv()).isEqualTo(csv);
+
+		RelativeMarkovChain converted = dense.toMarkovChain();
+
+		assertThat(converted.toCsv()).isEqualTo(csv);
+		assertThat(converted.getId()).isEqualTo("chain");
+		assertThat(converted.getFrequency()).isEqualTo(0.5);
+		assertThat(converted.getNumSessions()).isEqualTo(42);
+		assertThat(converted.getRadius()).isEqualTo(0.1);
+	}
+
+	@Test
+	public void testRemoveState() throws IOException {
+		DenseMarkovChain chain = DenseMarkovChain.fromCsv(MarkovChainTestInstance.SIMPLE.getCsv());
+
+		chain.removeState("a", NormalDistribution.ZERO);
+
+		assertThat(chain.toCsv()).isEqualTo(MarkovChainTestInstance.SIMPLE_WO_A.getCsv());
+	}
+
+	@Test
+	public void testRenameState() throws IOException {
+		String[][] csv = MarkovChainTestInstance.SOCK_SHOP.getCsv();
+		DenseMarkovChain chain = DenseMarkovChain.fromCsv(csv);
+
+		chain.renameState("cartUsingGET", "cart");
+
+		assertThat(chain.containsState("cartUsingGET")).isFalse();
+		assertThat(chain.getRequestStates()).contains("cart");
+
+		chain.renameState("cart", "cartUsingGET");
+
+		assertThat(chain.toCsv()).isEqualTo(csv);
+	}
+
+	@Test
+	public void testReplaceState() throws IOException {
+		DenseMarkovChain chain = DenseMarkovChain.fromCsv(MarkovChainTestInstance.SIMPLE.getCsv());
+		DenseMarkovChain insert = DenseMarkovChain.fromCsv(MarkovChainTestInstance.SIMPLE_INSERT.getCsv());
+
+		chain.replaceState("a", insert);
+
+		assertThat(chain.toCsv()).isEqualTo(MarkovChainTestInstance.SIMPLE_WITH_INSERT.getCsv());
+		assertThat(insert.toCsv()).isEqualTo(MarkovChainTestInstance.SIMPLE_INSERT.getCsv());
+	}
+
+	@Test
+	public void testThinkTimeAfterStateRemoval() throws IOException {
+		testThinkTimeAfterStateRemovals(MarkovChainTestInstance.SIMPLE, 34.833);
+		testThinkTimeAfterStateRemovals(MarkovChainTestInstance.SOCK_SHOP, 654368.40);
+	}
+
+	private void testThinkTimeAfterStateRemovals(MarkovChainTestInstance instance, double expectedThinkTime) throws IOException {
+		DenseMarkovChain chain = DenseMarkovChain.fromCsv(instance.getCsv());
+
+		chain.removeStates(s -> !RelativeMarkovChain.INITIAL_STATE.equals(s) && !RelativeMarkovChain.FINAL_STATE.equals(s), NormalDistribution.ZERO);
+
+		assertThat(chain.getRequestStates()).isEmpty();
+		assertThat(chain.getTransition(RelativeMarkovChain.INITIAL_STATE, RelativeMarkovChain.FINAL_STATE).getThinkTime().getMean()).isEqualTo(expectedThinkTime, Offset.offset(0.01));
+	}
+
+	@Test
+	public void testEquivalentToRelativeChain() throws IOException {
+		String[][] csv = MarkovChainTestInstance.SOCK_SHOP.getCsv();
+		RelativeMarkovChain relative = RelativeMarkovChain.fromCsv(csv);
+		DenseMarkovChain dense = DenseMarkovChain.fromCsv(csv);
+
+		for (String state : new String[] { "cartUsingGET", "loginUsingGET" }) {
+			relative.removeState(state, new NormalDistribution(10, 4));
+			dense.removeState(state, new NormalDistribution(10, 4));
+		}
+
+		assertThat(dense.toCsv()).isEqualTo(relative.toCsv());
+	}
+
+}
@@ -1,6 +1,10 @@
 package org.continuity.commons.accesslogs;
 
 import java.text.ParseException;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+import java.time.format.ResolverStyle;
 import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
@@ -47,7 +51,15 @@ public class AccessLogEntry {
 	private static final String[] DATE_FORMATS = { "dd/MMM/yyyy:HH:mm:ss Z", "dd/MMM/yyyy:HH:mm:ss", "dd/MMM/yyyy HH:mm:ss", "yyyy-MM-dd HH:mm:ss", "yyyy-MM-dd'T'HH:mm:ss.SSS",
 			"yyyy-MM-dd'T'HH:mm:ss", "yyyy-MM-dd'T'HH:mm", "yyyy-MM-dd'T'HH:mm:ss.SSSX", "yyyy-MM-dd'T'HH:mm:ssX" };
 
-	private static final String DEFAULT_PROTOCOL = "HTTP/1.1";
+	/**
+	 * The first of the {@link #DATE_FORMATS}, which is used by the default format. In contrast to
+	 * the other formats, it is parsed by a cached, thread-safe formatter.
+	 */
+	private static final DateTimeFormatter DEFAULT_DATE_FORMATTER = DateTimeFormatter.ofPattern("dd/MMM/uuuu:HH:mm:ss Z", Locale.ENGLISH).withResolverStyle(ResolverStyle.STRICT);
+
+	private static final int DEFAULT_DATE_LENGTH = "dd/MMM/yyyy:HH:mm:ss +0000".length();
+
+	static final String DEFAULT_PROTOCOL = "HTTP/1.1";
 
 	private String endpoint;
 
@@ -87,7 +99,31 @@ public class AccessLogEntry {
 		return fromLogLine(line, DEFAULT_PATTERN);
 	}
 
+	/**
+	 * Parses a log line using a regular expression. If the expression is the
+	 * {@link #DEFAULT_REGEX}, a faster hand-written parser is used for all lines that start with a
+	 * well-formed entry.
+	 *
+	 * @param line
+	 *            The log line.
+	 * @param pattern
+	 *            The compiled regular expression. There should be one capture group per property
+	 *            in the order of {@link #DEFAULT_REGEX}.
+	 * @return The parsed entry or {@code null} if the line cannot be parsed.
+	 */
 	public static AccessLogEntry fromLogLine(String line, Pattern pattern) {
+		if ((pattern == DEFAULT_PATTERN) || DEFAULT_REGEX.equals(pattern.pattern())) {
+			AccessLogEntry entry = CommonLogFormatParser.parse(line);
+
+			if (entry != null) {
+				return entry;
+			}
+		}
+
+		return fromLogLineWithRegex(line, pattern);
+	}
+
+	static AccessLogEntry fromLogLineWithRegex(String line, Pattern pattern) {
 		Matcher matcher = pattern.matcher(line);
 
 		if (matcher.find()) {
@@ -111,12 +147,7 @@ public class AccessLogEntry {
 					entry.setRequestMethod(matcher.group(group));
 					break;
 				case "path":
-					String[] pathAndQuery = matcher.group(group).split("\\?");
-					entry.setPath(pathAndQuery[0]);
-
-					if (pathAndQuery.length > 1) {
-						entry.setRequestParameters(Arrays.stream(pathAndQuery[1].split("&")).map(ParameterRecord::fromString).filter(Objects::nonNull).collect(Collectors.toList()));
-					}
+					CommonLogFormatParser.setPathAndQuery(entry, matcher.group(group));
 					break;
 				case "protocol":
 					String protocol = matcher.group(group);
@@ -192,6 +223,14 @@ public class AccessLogEntry {
 	}
 
 	public Date getAccessTimeAsDate() throws ParseException {
+		if ((accessTime != null) && (accessTime.length() == DEFAULT_DATE_LENGTH)) {
+			try {
+				return Date.from(DEFAULT_DATE_FORMATTER.parse(accessTime, Instant::from));
+			} catch (DateTimeException e) {
+				// fall back to the other formats
+			}
+		}
+
 		return DateUtils.parseDate(accessTime, Locale.ENGLISH, DATE_FORMATS);
 	}
 
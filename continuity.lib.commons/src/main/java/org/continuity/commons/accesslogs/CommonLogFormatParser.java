@@ -0,0 +1,315 @@
+package org.continuity.commons.accesslogs;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * Hand-written single-pass parser for access logs in the common or combined log format, i.e., in
+ * the format of {@link AccessLogEntry#DEFAULT_REGEX}. It yields the same entries as the regular
+ * expression for all lines starting with a well-formed entry. For all other lines, it returns
+ * {@code null} so that the caller can fall back to the regular expression.
+ *
+ * @author Henning Schulz
+ *
+ */
+class CommonLogFormatParser {
+
+	private CommonLogFormatParser() {
+	}
+
+	/**
+	 * Parses a log line.
+	 *
+	 * @param line
+	 *            The log line.
+	 * @return The parsed entry or {@code null} if the line does not start with an entry in the
+	 *         default format.
+	 */
+	static AccessLogEntry parse(String line) {
+		int length = line.length();
+
+		// clientHost remoteName user
+		int start = 0;
+		int end = line.indexOf(' ', start);
+
+		if (end <= start) {
+			return null;
+		}
+
+		String clientHost = line.substring(start, end);
+
+		start = end + 1;
+		end = line.indexOf(' ', start);
+
+		if (end <= start) {
+			return null;
+		}
+
+		String remoteName = line.substring(start, end);
+
+		start = end + 1;
+		end = line.indexOf(' ', start);
+
+		if (end <= start) {
+			return null;
+		}
+
+		String user = line.substring(start, end);
+
+		// [accessTime]
+		start = end + 1;
+
+		if ((start >= length) || (line.charAt(start) != '[')) {
+			return null;
+		}
+
+		end = line.indexOf(']', start + 1);
+
+		if (end <= (start + 1)) {
+			return null;
+		}
+
+		String accessTime = line.substring(start + 1, end);
+
+		// "requestMethod path protocol"
+		start = end + 1;
+
+		if (((start + 1) >= length) || (line.charAt(start) != ' ') || (line.charAt(start + 1) != '"')) {
+			return null;
+		}
+
+		start += 2;
+		end = start;
+
+		while ((end < length) && (line.charAt(end) >= 'A') && (line.charAt(end) <= 'Z')) {
+			end++;
+		}
+
+		if ((end == start) || (end >= length) || (line.charAt(end) != ' ')) {
+			return null;
+		}
+
+		String requestMethod = line.substring(start, end);
+
+		start = end + 1;
+		end = start;
+
+		while ((end < length) && (line.charAt(end) != ' ') && (line.charAt(end) != '"')) {
+			end++;
+		}
+
+		if (end == start) {
+			return null;
+		}
+
+		String pathAndQuery = line.substring(start, end);
+
+		start = ((end < length) && (line.charAt(end) == ' ')) ? end + 1 : end;
+		end = line.indexOf('"', start);
+
+		if (end < 0) {
+			return null;
+		}
+
+		String protocol = line.substring(start, end);
+
+		// statusCode responseBytes
+		start = end + 1;
+
+		if ((start >= length) || (line.charAt(start) != ' ')) {
+			return null;
+		}
+
+		start++;
+		end = endOfDigits(line, start);
+
+		if ((end == start) || (end >= length) || (line.charAt(end) != ' ')) {
+			return null;
+		}
+
+		long statusCode = parseDigits(line, start, end);
+
+		if ((statusCode < 0) || (statusCode > Integer.MAX_VALUE)) {
+			return null;
+		}
+
+		start = end + 1;
+		long responseBytes;
+
+		if ((start < length) && (line.charAt(start) == '-')) {
+			responseBytes = 0;
+			end = start + 1;
+		} else {
+			end = endOfDigits(line, start);
+
+			if (end == start) {
+				return null;
+			}
+
+			responseBytes = parseDigits(line, start, end);
+
+			if (responseBytes < 0) {
+				return null;
+			}
+		}
+
+		// optional "referer" "userAgent" responseTime
+		String referer = null;
+		String userAgent = null;
+		long responseTime = 0;
+
+		start = end;
+		end = endOfQuoted(line, start);
+
+		if (end > 0) {
+			referer = line.substring(start + 2, end - 1);
+			start = end;
+			end = endOfQuoted(line, start);
+
+			if (end > 0) {
+				userAgent = line.substring(start + 2, end - 1);
+				start = end;
+			}
+		}
+
+		if (((start + 1) < length) && (line.charAt(start) == ' ')) {
+			end = endOfDigits(line, start + 1);
+
+			if (end > (start + 1)) {
+				responseTime = parseDigits(line, start + 1, end);
+
+				if (responseTime < 0) {
+					return null;
+				}
+			}
+		}
+
+		AccessLogEntry entry = new AccessLogEntry();
+		entry.setClientHost(clientHost);
+		entry.setRemoteName(remoteName);
+		entry.setUser(user);
+		entry.setAccessTime(accessTime);
+		entry.setRequestMethod(requestMethod);
+		setPathAndQuery(entry, pathAndQuery);
+		entry.setProtocol(protocol.isEmpty() ? AccessLogEntry.DEFAULT_PROTOCOL : protocol);
+		entry.setStatusCode((int) statusCode);
+		entry.setResponseBytes(responseBytes);
+		entry.setReferer(referer);
+		entry.setUserAgent(userAgent);
+		entry.setResponseTime(responseTime);
+
+		return entry;
+	}
+
+	/**
+	 * Sets the path and request parameters of an entry. The result is the same as of splitting at
+	 * {@code ?} and {@code &}, but avoids the intermediate arrays.
+	 *
+	 * @param entry
+	 *            The entry to be updated.
+	 * @param pathAndQuery
+	 *            The path including the query.
+	 */
+	static void setPathAndQuery(AccessLogEntry entry, String pathAndQuery) {
+		int questionMark = pathAndQuery.indexOf('?');
+
+		if (questionMark < 0) {
+			entry.setPath(pathAndQuery);
+		} else if ((questionMark == 0) || (pathAndQuery.indexOf('?', questionMark + 1) >= 0)) {
+			// corner cases - let split decide
+			String[] split = pathAndQuery.split("\\?");
+			entry.setPath(split[0]);
+
+			if (split.length > 1) {
+				entry.setRequestParameters(Arrays.stream(split[1].split("&")).map(ParameterRecord::fromString).filter(Objects::nonNull).collect(Collectors.toList()));
+			}
+		} else {
+			entry.setPath(pathAndQuery.substring(0, questionMark));
+
+			if ((questionMark + 1) < pathAndQuery.length()) {
+				entry.setRequestParameters(parseQuery(pathAndQuery, questionMark + 1));
+			}
+		}
+	}
+
+	private static List<ParameterRecord> parseQuery(String pathAndQuery, int from) {
+		int to = pathAndQuery.length();
+
+		// trailing empty parameters are ignored silently
+		while ((to > from) && (pathAndQuery.charAt(to - 1) == '&')) {
+			to--;
+		}
+
+		List<ParameterRecord> params = new ArrayList<>();
+
+		if (to == from) {
+			return params;
+		}
+
+		int start = from;
+
+		while (start <= to) {
+			int end = pathAndQuery.indexOf('&', start);
+
+			if ((end < 0) || (end > to)) {
+				end = to;
+			}
+
+			ParameterRecord param = ParameterRecord.fromString(pathAndQuery.substring(start, end));
+
+			if (param != null) {
+				params.add(param);
+			}
+
+			start = end + 1;
+		}
+
+		return params;
+	}
+
+	/**
+	 * Returns the end of a quoted part {@code  "..."} starting at {@code start} or -1 if there is
+	 * none.
+	 */
+	private static int endOfQuoted(String line, int start) {
+		if (((start + 2) >= line.length()) || (line.charAt(start) != ' ') || (line.charAt(start + 1) != '"') || (line.charAt(start + 2) == '"')) {
+			return -1;
+		}
+
+		int closing = line.indexOf('"', start + 3);
+		return closing < 0 ? -1 : closing + 1;
+	}
+
+	private static int endOfDigits(String line, int start) {
+		int end = start;
+
+		while ((end < line.length()) && (line.charAt(end) >= '0') && (line.charAt(end) <= '9')) {
+			end++;
+		}
+
+		return end;
+	}
+
+	/**
+	 * Parses the digits between {@code start} and {@code end}. Returns -1 on overflow.
+	 */
+	private static long parseDigits(String line, int start, int end) {
+		long value = 0;
+
+		for (int i = start; i < end; i++) {
+			int digit = line.charAt(i) - '0';
+
+			if (value > ((Long.MAX_VALUE - digit) / 10)) {
+				return -1;
+			}
+
+			value = (value * 10) + digit;
+		}
+
+		return value;
+	}
+
+}
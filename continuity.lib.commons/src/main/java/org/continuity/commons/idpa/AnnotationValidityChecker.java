@@ -1,9 +1,7 @@
 package org.continuity.commons.idpa;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Objects;
-import java.util.stream.Collectors;
+import java.util.HashSet;
+import java.util.Set;
 
 import org.continuity.api.entities.report.AnnotationValidityReport;
 import org.continuity.api.entities.report.AnnotationViolation;
@@ -23,7 +21,8 @@ import org.continuity.idpa.visitor.IdpaByClassSearcher;
 /**
  * Compares application models and annotations against a base application model. E.g., can be used
  * to determine the differences of an old application model an the new one or to compare an
- * annotation against the new application model.
+ * annotation against the new application model. The references of the annotation are resolved
+ * using an {@link ApplicationIndex} of the application model.
  *
  * @author Henning Schulz
  *
@@ -60,11 +59,11 @@ public class AnnotationValidityChecker {
 	}
 
 	private void checkAnnotationInternally(ApplicationAnnotation annotation) {
-		List<Input> inputs = new ArrayList<>();
-		new IdpaByClassSearcher<>(Input.class, inputs::add).visit(annotation);
+		Set<String> inputIds = new HashSet<>();
+		new IdpaByClassSearcher<>(Input.class, input -> inputIds.add(input.getId())).visit(annotation);
 
 		IdpaByClassSearcher<ParameterAnnotation> paramSearcher = new IdpaByClassSearcher<>(ParameterAnnotation.class, ann -> {
-			boolean inputNotPresent = inputs.stream().map(Input::getId).filter(id -> Objects.equals(id, ann.getInput().getId())).collect(Collectors.toList()).isEmpty();
+			boolean inputNotPresent = (ann.getInput() == null) || !inputIds.contains(ann.getInput().getId());
 
 			if (inputNotPresent) {
 				ModelElementReference inputRef;
@@ -84,8 +83,10 @@ public class AnnotationValidityChecker {
 	}
 
 	private void checkAnnotationForExternalReferences(ApplicationAnnotation annotation) {
+		ApplicationIndex index = ApplicationIndex.of(newApplication);
+
 		IdpaByClassSearcher<EndpointAnnotation> interfaceSearcher = new IdpaByClassSearcher<>(EndpointAnnotation.class, ann -> {
-			Endpoint<?> interf = ann.getAnnotatedEndpoint().resolve(newApplication);
+			Endpoint<?> interf = ann.getAnnotatedEndpoint().resolveWith(index::getEndpoint);
 
 			if (interf == null) {
 				ModelElementReference interfRef = new ModelElementReference(ann.getAnnotatedEndpoint());
@@ -99,7 +100,7 @@ public class AnnotationValidityChecker {
 		interfaceSearcher.visit(annotation);
 
 		IdpaByClassSearcher<ParameterAnnotation> paramSearcher = new IdpaByClassSearcher<>(ParameterAnnotation.class, ann -> {
-			Parameter param = ann.getAnnotatedParameter().resolve(newApplication);
+			Parameter param = ann.getAnnotatedParameter().resolveWith(index::getParameter);
 
 			if (param == null) {
 				ModelElementReference paramRef = new ModelElementReference(ann.getAnnotatedParameter());
@@ -116,7 +117,7 @@ public class AnnotationValidityChecker {
 			EndpointOrInput eoi = extraction.getFrom();
 
 			if (eoi.isEndpoint()) {
-				Endpoint<?> interf = eoi.getEndpoint().resolve(newApplication);
+				Endpoint<?> interf = eoi.getEndpoint().resolveWith(index::getEndpoint);
 
 				if (interf == null) {
 					ModelElementReference interfRef = new ModelElementReference(eoi.getEndpoint());
@@ -1,10 +1,10 @@
 package org.continuity.commons.idpa;
 
 import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.HashSet;
-import java.util.List;
+import java.util.Map;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 import org.apache.commons.collections4.CollectionUtils;
 import org.continuity.api.entities.report.ApplicationChange;
@@ -16,11 +16,10 @@ import org.continuity.idpa.application.Endpoint;
 import org.continuity.idpa.application.Parameter;
 import org.continuity.idpa.visitor.IdpaByClassSearcher;
 
-import com.google.common.base.Objects;
-
 /**
  * Compares system models against a base system model. E.g., can be used to determine the
- * differences of an old system model and the new one.
+ * differences of an old system model and the new one. The endpoints and parameters are matched
+ * by their ids using hash maps, so that the comparison takes linear time.
  *
  * @author Henning Schulz
  *
@@ -55,29 +54,22 @@ public class ApplicationChangeDetector {
 	public void compareTo(Application oldSystemModel) {
 		reportBuilder.setBeforeChange(oldSystemModel.getVersionOrTimestamp());
 
+		final ApplicationIndex oldIndex = ApplicationIndex.of(oldSystemModel);
 		final Set<ModelElementReference> visited = new HashSet<>();
-		IdpaByClassSearcher<Endpoint<?>> searcher = new IdpaByClassSearcher<>(Endpoint.GENERIC_TYPE, inter -> checkInterface(inter, oldSystemModel, visited));
+		IdpaByClassSearcher<Endpoint<?>> searcher = new IdpaByClassSearcher<>(Endpoint.GENERIC_TYPE, inter -> checkInterface(inter, oldIndex, visited));
 		searcher.visit(newSystemModel);
 
 		searcher = new IdpaByClassSearcher<>(Endpoint.GENERIC_TYPE, inter -> reportRemovedInterface(inter, visited));
 		searcher.visit(oldSystemModel);
 	}
 
-	private boolean checkInterface(Endpoint<?> newInterf, Application oldSystemModel, Set<ModelElementReference> visited) {
-		final Holder<Endpoint<?>> interfHolder = new Holder<>();
-		IdpaByClassSearcher<Endpoint<?>> searcher = new IdpaByClassSearcher<>(Endpoint.GENERIC_TYPE, oldInterf -> {
-			if (oldInterf.getId().equals(newInterf.getId())) {
-				interfHolder.element = oldInterf;
-			}
-		});
-		searcher.visit(oldSystemModel);
-
+	private boolean checkInterface(Endpoint<?> newInterf, ApplicationIndex oldIndex, Set<ModelElementReference> visited) {
+		Endpoint<?> oldInterf = oldIndex.getEndpoint(newInterf.getId());
 		ModelElementReference ref = new ModelElementReference(newInterf);
 
-		if (interfHolder.element == null) {
+		if (oldInterf == null) {
 			reportBuilder.addChange(new ApplicationChange(ApplicationChangeType.ENDPOINT_ADDED, ref));
 		} else {
-			Endpoint<?> oldInterf = interfHolder.element;
 
 			for (String changedProperty : oldInterf.getDifferingProperties(newInterf)) {
 				if (!"parameters".equals(changedProperty)) {
@@ -107,28 +99,43 @@ public class ApplicationChangeDetector {
 			return;
 		}
 
+		Map<String, Parameter> oldParams = indexParameters(oldInterf);
+
 		for (Parameter param : newInterf.getParameters()) {
 			ModelElementReference ref = new ModelElementReference(param);
-			List<Parameter> oldParams = oldInterf.getParameters().stream().filter(p -> Objects.equal(param.getId(), p.getId())).collect(Collectors.toList());
+			Parameter oldParam = oldParams.get(param.getId());
 
-			if (oldParams.isEmpty()) {
+			if (oldParam == null) {
 				reportBuilder.addChange(new ApplicationChange(ApplicationChangeType.PARAMETER_ADDED, ref));
 			} else {
-				for (String changedProperty : param.getDifferingProperties(oldParams.get(0))) {
+				for (String changedProperty : param.getDifferingProperties(oldParam)) {
 					reportBuilder.addChange(new ApplicationChange(ApplicationChangeType.PARAMETER_CHANGED, ref, changedProperty));
 				}
 			}
 		}
 
-		for (Parameter param : oldInterf.getParameters()) {
-			List<Parameter> newParams = newInterf.getParameters().stream().filter(p -> Objects.equal(param.getId(), p.getId())).collect(Collectors.toList());
+		Map<String, Parameter> newParams = indexParameters(newInterf);
 
-			if (newParams.isEmpty()) {
+		for (Parameter param : oldInterf.getParameters()) {
+			if (!newParams.containsKey(param.getId())) {
 				reportBuilder.addChange(new ApplicationChange(ApplicationChangeType.PARAMETER_REMOVED, new ModelElementReference(param)));
 			}
 		}
 	}
 
+	/**
+	 * Maps the ids of the parameters of an endpoint to the first parameter with the id.
+	 */
+	private Map<String, Parameter> indexParameters(Endpoint<?> interf) {
+		Map<String, Parameter> paramsById = new HashMap<>();
+
+		for (Parameter param : interf.getParameters()) {
+			paramsById.putIfAbsent(param.getId(), param);
+		}
+
+		return paramsById;
+	}
+
 	/**
 	 * Gets a report based on the evaluations done before.
 	 *
@@ -137,8 +144,4 @@ public class ApplicationChangeDetector {
 	public ApplicationChangeReport getReport() {
 		return reportBuilder.buildReport();
 	}
-
-	private static class Holder<T> {
-		T element;
-	}
 }
@@ -0,0 +1,69 @@
+package org.continuity.commons.idpa;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.continuity.idpa.application.Application;
+import org.continuity.idpa.application.Endpoint;
+import org.continuity.idpa.application.Parameter;
+import org.continuity.idpa.visitor.IdpaByClassSearcher;
+
+/**
+ * Indexes the endpoints and parameters of an application model by their ids. The model is
+ * traversed once, so that subsequent lookups do not need to search the whole model. If several
+ * elements share the same id, the last one in depth-first order is returned, which is consistent
+ * with {@link org.continuity.idpa.WeakReference#resolve(org.continuity.idpa.IdpaElement)}. <br>
+ *
+ * The index is not updated if the application model changes.
+ *
+ * @author Henning Schulz
+ *
+ */
+public class ApplicationIndex {
+
+	private final Map<String, Endpoint<?>> endpoints = new HashMap<>();
+
+	private final Map<String, Parameter> parameters = new HashMap<>();
+
+	private ApplicationIndex() {
+	}
+
+	/**
+	 * Creates an index of the passed application model.
+	 *
+	 * @param application
+	 *            The application model to be indexed.
+	 * @return The index.
+	 */
+	public static ApplicationIndex of(Application application) {
+		ApplicationIndex index = new ApplicationIndex();
+
+		new IdpaByClassSearcher<>(Endpoint.GENERIC_TYPE, endpoint -> index.endpoints.put(endpoint.getId(), endpoint)).visit(application);
+		new IdpaByClassSearcher<>(Parameter.class, param -> index.parameters.put(param.getId(), param)).visit(application);
+
+		return index;
+	}
+
+	/**
+	 * Gets the endpoint with the passed id.
+	 *
+	 * @param id
+	 *            The id of the endpoint.
+	 * @return The endpoint or {@code null} if there is none.
+	 */
+	public Endpoint<?> getEndpoint(String id) {
+		return endpoints.get(id);
+	}
+
+	/**
+	 * Gets the parameter with the passed id.
+	 *
+	 * @param id
+	 *            The id of the parameter.
+	 * @return The parameter or {@code null} if there is none.
+	 */
+	public Parameter getParameter(String id) {
+		return parameters.get(id);
+	}
+
+}
@@ -1,23 +1,69 @@
 package org.continuity.commons.idpa;
 
-import java.util.Objects;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
 
 import org.continuity.idpa.application.Application;
 import org.continuity.idpa.application.HttpEndpoint;
 import org.continuity.idpa.visitor.IdpaByClassSearcher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
- * Can be used to map URIs of requests to {@link HttpEndpoint}s of a {@link Application}.
+ * Can be used to map URIs of requests to {@link HttpEndpoint}s of a {@link Application}. <br>
+ *
+ * The mapper compiles the endpoints of the application into an index once when it is created.
+ * Exact matches are looked up in a hash map per request method. Wildcard matches are looked up in
+ * a trie per request method that is keyed by the literal path segments preceding the first
+ * wildcard; only the endpoints along the path of the requested URI are tested against their
+ * precompiled patterns. If several endpoints match, the one declared first in the application
+ * wins, as it would when visiting the application sequentially. <br>
+ *
+ * <b>The mapper is immutable and can be shared between threads. Changes to the application after
+ * the creation of the mapper are not reflected.</b>
  *
  * @author Henning Schulz
  *
  */
 public class RequestUriMapper {
 
+	private static final Logger LOGGER = LoggerFactory.getLogger(RequestUriMapper.class);
+
+	private static final String REGEX_META_CHARACTERS = "\\.[]{}()*+?^$|";
+
 	private final Application application;
 
+	private final Map<String, Map<String, HttpEndpoint>> exactIndex = new HashMap<>();
+
+	private final Map<String, PathNode> wildcardIndex = new HashMap<>();
+
 	public RequestUriMapper(Application application) {
 		this.application = application;
+
+		List<HttpEndpoint> endpoints = new ArrayList<>();
+		IdpaByClassSearcher<HttpEndpoint> searcher = new IdpaByClassSearcher<>(HttpEndpoint.class, endpoints::add);
+		searcher.visit(application);
+
+		int order = 0;
+
+		for (HttpEndpoint endpoint : endpoints) {
+			index(endpoint, order++);
+		}
+	}
+
+	/**
+	 * Gets the application the mapper has been created for.
+	 *
+	 * @return The application.
+	 */
+	public Application getApplication() {
+		return application;
 	}
 
 	/**
@@ -34,11 +80,13 @@ public class RequestUriMapper {
 	 *         such interface.
 	 */
 	public HttpEndpoint mapExactly(String uri, String method) {
-		MappingFinder finder = new MappingFinder(uri, method);
-		IdpaByClassSearcher<HttpEndpoint> searcher = new IdpaByClassSearcher<>(HttpEndpoint.class, finder::testExactly);
-		searcher.visit(application);
+		Map<String, HttpEndpoint> byPath = exactIndex.get(method);
+
+		if (byPath == null) {
+			return null;
+		}
 
-		return finder.getFound();
+		return byPath.get(normalizeUri(uri));
 	}
 
 	/**
@@ -54,11 +102,40 @@ public class RequestUriMapper {
 	 *         interface.
 	 */
 	public HttpEndpoint mapRespectingWildcards(String uri, String method) {
-		MappingFinder finder = new MappingFinder(uri, method);
-		IdpaByClassSearcher<HttpEndpoint> searcher = new IdpaByClassSearcher<>(HttpEndpoint.class, finder::testRespectingWildcards);
-		searcher.visit(application);
+		PathNode node = wildcardIndex.get(method);
+
+		if (node == null) {
+			return null;
+		}
+
+		String normalized = normalizeUri(uri);
+		List<CompiledEndpoint> candidates = new ArrayList<>();
+		candidates.addAll(node.endpoints);
+
+		int start = 1;
+
+		while ((node != null) && (start < normalized.length())) {
+			int end = normalized.indexOf('/', start);
+			node = node.children.get(normalized.substring(start, end));
+
+			if (node != null) {
+				candidates.addAll(node.endpoints);
+			}
+
+			start = end + 1;
+		}
+
+		if (candidates.size() > 1) {
+			Collections.sort(candidates, Comparator.comparingInt(c -> c.order));
+		}
 
-		return finder.getFound();
+		for (CompiledEndpoint candidate : candidates) {
+			if (candidate.pattern.matcher(normalized).matches()) {
+				return candidate.endpoint;
+			}
+		}
+
+		return null;
 	}
 
 	/**
@@ -83,6 +160,76 @@ public class RequestUriMapper {
 		}
 	}
 
+	private void index(HttpEndpoint endpoint, int order) {
+		if (endpoint.getPath() == null) {
+			LOGGER.warn("Ignoring endpoint {} without path.", endpoint.getId());
+			return;
+		}
+
+		exactIndex.computeIfAbsent(endpoint.getMethod(), m -> new HashMap<>()).putIfAbsent(normalizeUri(endpoint.getPath()), endpoint);
+
+		if (endpoint.getMethod() == null) {
+			return;
+		}
+
+		Pattern pattern;
+
+		try {
+			pattern = Pattern.compile(endpoint.getPathAsRegex());
+		} catch (PatternSyntaxException e) {
+			LOGGER.warn("Ignoring endpoint {} for wildcard matching. Cannot compile the path {}: {}", endpoint.getId(), endpoint.getPath(), e.getMessage());
+			return;
+		}
+
+		PathNode node = wildcardIndex.computeIfAbsent(endpoint.getMethod(), m -> new PathNode());
+
+		for (String segment : literalPrefix(endpoint.getPath())) {
+			node = node.children.computeIfAbsent(segment, s -> new PathNode());
+		}
+
+		node.endpoints.add(new CompiledEndpoint(endpoint, pattern, order));
+	}
+
+	/**
+	 * Determines the leading path segments that do not contain any wildcard or regex meta
+	 * character. Any URI matching the path regex has to start with exactly these segments.
+	 *
+	 * @param path
+	 *            The path of the endpoint.
+	 * @return The literal segments.
+	 */
+	private List<String> literalPrefix(String path) {
+		if (path.startsWith("/")) {
+			path = path.substring(1);
+		}
+
+		if (path.endsWith("/")) {
+			path = path.substring(0, path.length() - 1);
+		}
+
+		List<String> segments = new ArrayList<>();
+
+		for (String segment : path.split("/", -1)) {
+			if (segment.isEmpty() || containsRegexMetaCharacter(segment)) {
+				break;
+			}
+
+			segments.add(segment);
+		}
+
+		return segments;
+	}
+
+	private boolean containsRegexMetaCharacter(String segment) {
+		for (int i = 0; i < segment.length(); i++) {
+			if (REGEX_META_CHARACTERS.indexOf(segment.charAt(i)) >= 0) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
 	private String normalizeUri(String uri) {
 		if (!uri.startsWith("/")) {
 			uri = "/" + uri;
@@ -95,37 +242,26 @@ public class RequestUriMapper {
 		return uri;
 	}
 
-	private class MappingFinder {
+	private static class PathNode {
 
-		private final String uri;
+		private final Map<String, PathNode> children = new HashMap<>();
 
-		private final String method;
+		private final List<CompiledEndpoint> endpoints = new ArrayList<>();
 
-		private HttpEndpoint found = null;
+	}
 
-		public MappingFinder(String uri, String method) {
-			this.uri = normalizeUri(uri);
-			this.method = method;
-		}
+	private static class CompiledEndpoint {
 
-		public HttpEndpoint getFound() {
-			return found;
-		}
+		private final HttpEndpoint endpoint;
 
-		public void testExactly(HttpEndpoint interf) {
-			if ((found == null) && Objects.equals(method, interf.getMethod()) && Objects.equals(uri, normalizeUri(interf.getPath()))) {
-				found = interf;
-			}
-		}
+		private final Pattern pattern;
 
-		public void testRespectingWildcards(HttpEndpoint interf) {
-			if ((found != null) || !method.equals(interf.getMethod())) {
-				return;
-			}
+		private final int order;
 
-			if (uri.matches(interf.getPathAsRegex())) {
-				found = interf;
-			}
+		private CompiledEndpoint(HttpEndpoint endpoint, Pattern pattern, int order) {
+			this.endpoint = endpoint;
+			this.pattern = pattern;
+			this.order = order;
 		}
 
 	}
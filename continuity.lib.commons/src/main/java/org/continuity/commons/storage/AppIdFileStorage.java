@@ -38,7 +38,7 @@ public class AppIdFileStorage<T> {
 	}
 
 	public void store(T artifact, AppId aid) throws IOException {
-		mapper.writerWithDefaultPrettyPrinter().writeValue(storagePath.resolve(aid + FILE_EXT).toFile(), artifact);
+		FileStorage.writeAtomically(storagePath.resolve(aid + FILE_EXT), path -> mapper.writerWithDefaultPrettyPrinter().writeValue(path.toFile(), artifact));
 	}
 
 	public T read(AppId aid) throws IOException {
@@ -35,10 +35,12 @@ public class CsvFileStorage<T> extends FileStorage<List<T>> {
 		CsvWriterSettings settings = new CsvWriterSettings();
 		settings.setRowWriterProcessor(new BeanWriterProcessor<>(recordType));
 
-		CsvWriter writer = new CsvWriter(toPath(dirPath, id).toFile(), settings);
+		writeAtomically(toPath(dirPath, id), path -> {
+			CsvWriter writer = new CsvWriter(path.toFile(), settings);
 
-		writer.writeHeaders();
-		writer.processRecordsAndClose(entity);
+			writer.writeHeaders();
+			writer.processRecordsAndClose(entity);
+		});
 	}
 
 	@Override
@@ -68,6 +70,11 @@ public class CsvFileStorage<T> extends FileStorage<List<T>> {
 		return Files.deleteIfExists(toPath(dirPath, id));
 	}
 
+	@Override
+	protected String getIdForFile(String filename) {
+		return filename.endsWith(FILE_EXT) ? filename.substring(0, filename.length() - FILE_EXT.length()) : null;
+	}
+
 	private Path toPath(Path dirPath, String id) {
 		return dirPath.resolve(id + FILE_EXT);
 	}
@@ -1,7 +1,17 @@
 package org.continuity.commons.storage;
 
+import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -10,7 +20,11 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * Stores artifacts in the file system.
+ * Stores artifacts in the file system. The IDs have the format {@code <number>-<app-id>}. The
+ * last allocated number is persisted in a counter file, so that numbers are not reused, even if
+ * the artifact with the highest number has been removed. The IDs of the stored artifacts are held
+ * in memory, so that neither the allocation of a new ID nor the listing of the IDs of an app-id
+ * requires scanning the storage directory. The directory is scanned only once on creation.
  *
  * @author Henning Schulz
  *
@@ -23,12 +37,24 @@ public abstract class FileStorage<T> implements ArtifactStorage<T> {
 
 	private static final String DELIM = "-";
 
-	private static final String FILE_PATTERN = "^([0-9]+).*";
+	private static final Pattern ID_PATTERN = Pattern.compile("^([0-9]+)" + DELIM + "(.+)$");
+
+	private static final Pattern FILE_PATTERN = Pattern.compile("^([0-9]+).*");
+
+	private static final String COUNTER_FILE = ".id-counter";
+
+	private static final String TMP_PREFIX = ".tmp-";
 
 	private final Path storagePath;
 
 	private final T emptyEntity;
 
+	private final ConcurrentMap<AppId, Set<String>> idsByAppId = new ConcurrentHashMap<>();
+
+	private long lastNumber;
+
+	private volatile boolean initialized = false;
+
 	public FileStorage(Path storagePath, T emptyEntity) {
 		this.storagePath = storagePath;
 		storagePath.toFile().mkdirs();
@@ -40,7 +66,9 @@ public abstract class FileStorage<T> implements ArtifactStorage<T> {
 
 	/**
 	 * Writes the artifacts to the file system. Implementations should store files or directories
-	 * that start with the passed IDs.
+	 * that start with the passed IDs. Files should be written using
+	 * {@link #writeAtomically(Path, PathWriter)}, so that concurrent readers never see partially
+	 * written files.
 	 *
 	 * @param dirPath
 	 *            The directory in which the artifact should be stored.
@@ -73,6 +101,17 @@ public abstract class FileStorage<T> implements ArtifactStorage<T> {
 	 */
 	protected abstract boolean remove(Path dirPath, String id) throws IOException;
 
+	/**
+	 * Determines the ID of the artifact a file or directory in the storage directory belongs to.
+	 * Used for building the index of stored artifacts once on creation of the storage.
+	 *
+	 * @param filename
+	 *            The name of the file or directory.
+	 * @return The ID or {@code null} if the file does not represent an artifact. If an artifact
+	 *         consists of several files, it is sufficient to return the ID for one of them.
+	 */
+	protected abstract String getIdForFile(String filename);
+
 	@Override
 	public String reserve(AppId aid) {
 		return put(emptyEntity, aid);
@@ -85,7 +124,7 @@ public abstract class FileStorage<T> implements ArtifactStorage<T> {
 
 	@Override
 	public String put(T entity, AppId aid) {
-		String id = getNextNumber() + DELIM + aid;
+		String id = nextNumber() + DELIM + aid;
 
 		store(id, entity);
 
@@ -93,8 +132,11 @@ public abstract class FileStorage<T> implements ArtifactStorage<T> {
 	}
 
 	private void store(String id, T entity) {
+		initialize();
+
 		try {
 			write(storagePath, id, entity);
+			addToIndex(id);
 		} catch (IOException e) {
 			LOGGER.error("Error during writing!", e);
 		}
@@ -112,11 +154,15 @@ public abstract class FileStorage<T> implements ArtifactStorage<T> {
 
 	@Override
 	public boolean remove(String id) {
+		initialize();
+
 		try {
 			return remove(storagePath, id);
 		} catch (IOException e) {
 			LOGGER.error("Error during deleting!", e);
 			return false;
+		} finally {
+			removeFromIndex(id);
 		}
 	}
 
@@ -125,27 +171,189 @@ public abstract class FileStorage<T> implements ArtifactStorage<T> {
 		return AppId.fromString(id.substring(id.indexOf(DELIM) + 1));
 	}
 
-	private int getNextNumber() {
-		int max = 0;
+	/**
+	 * Gets the IDs of all artifacts stored for an app-id.
+	 *
+	 * @param aid
+	 *            The app-id.
+	 * @return An unmodifiable set of the IDs. Will be empty if there are no artifacts.
+	 */
+	public Set<String> getIds(AppId aid) {
+		initialize();
+
+		Set<String> ids = idsByAppId.get(aid);
+		return ids == null ? Collections.emptySet() : Collections.unmodifiableSet(new HashSet<>(ids));
+	}
+
+	/**
+	 * Removes all artifacts whose IDs start with a prefix. In contrast to {@link #getIds(AppId)},
+	 * also covers artifacts whose IDs do not have the format {@code <number>-<app-id>}.
+	 *
+	 * @param idPrefix
+	 *            The prefix of the IDs.
+	 * @return The number of removed artifacts.
+	 */
+	public int removeAll(String idPrefix) {
+		int removed = 0;
+
+		for (String file : storagePath.toFile().list()) {
+			String id = getIdForFile(file);
+
+			if ((id != null) && id.startsWith(idPrefix) && remove(id)) {
+				removed++;
+			}
+		}
+
+		return removed;
+	}
+
+	/**
+	 * Writes a file via a temporary file in the same directory, which is renamed to the target
+	 * file afterwards. Hence, the target file is either in its previous state or completely
+	 * written. The names of temporary files start with {@code .tmp-}. Left-over ones are deleted
+	 * when scanning the storage directory, including the directories of the artifacts.
+	 *
+	 * @param target
+	 *            The file to be written.
+	 * @param writer
+	 *            Writes the content to the passed (temporary) path.
+	 * @throws IOException
+	 *             If writing or renaming fails.
+	 */
+	protected static void writeAtomically(Path target, PathWriter writer) throws IOException {
+		// keeps the file extension, which might be required by the writer
+		Path tmp = Files.createTempFile(target.toAbsolutePath().getParent(), TMP_PREFIX, DELIM + target.getFileName());
+
+		try {
+			writer.write(tmp);
+
+			try {
+				Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+			}
+		} finally {
+			Files.deleteIfExists(tmp);
+		}
+	}
+
+	private synchronized long nextNumber() {
+		initialize();
+
+		long number = lastNumber + 1;
+
+		try {
+			writeAtomically(storagePath.resolve(COUNTER_FILE), path -> Files.write(path, Long.toString(number).getBytes(StandardCharsets.UTF_8)));
+		} catch (IOException e) {
+			LOGGER.error("Could not persist the ID counter!", e);
+		}
+
+		lastNumber = number;
+		return number;
+	}
+
+	/**
+	 * Reads the counter file and builds the index of the stored artifacts. Done lazily, because
+	 * {@link #getIdForFile(String)} may depend on fields of the subclasses, which are not yet
+	 * initialized in the constructor.
+	 */
+	private void initialize() {
+		if (!initialized) {
+			synchronized (this) {
+				if (!initialized) {
+					scanStorageDirectory();
+					initialized = true;
+				}
+			}
+		}
+	}
+
+	private void scanStorageDirectory() {
+
+		long max = readCounter();
 
 		for (String file : storagePath.toFile().list()) {
-			if (file.matches(FILE_PATTERN)) {
-				max = Math.max(max, getNumber(file));
+			if (file.startsWith(TMP_PREFIX)) {
+				// left over from an interrupted write
+				storagePath.resolve(file).toFile().delete();
+				continue;
+			}
+
+			Matcher matcher = FILE_PATTERN.matcher(file);
+
+			if (matcher.matches()) {
+				deleteTemporaryFiles(storagePath.resolve(file));
+
+				max = Math.max(max, Long.parseLong(matcher.group(1)));
+
+				String id = getIdForFile(file);
+
+				if (id != null) {
+					addToIndex(id);
+				}
 			}
 		}
 
-		return max + 1;
+		lastNumber = max;
+
+		LOGGER.info("Initialized the storage {} with {} app-ids and the last ID number {}.", storagePath.getFileName(), idsByAppId.size(), lastNumber);
 	}
 
-	private int getNumber(String filename) {
-		Pattern pattern = Pattern.compile(FILE_PATTERN);
-		Matcher matcher = pattern.matcher(filename);
+	/**
+	 * Deletes the left-over temporary files in an artifact directory, which are written if the
+	 * artifact consists of several files.
+	 */
+	private void deleteTemporaryFiles(Path artifactPath) {
+		File[] tmpFiles = artifactPath.toFile().listFiles((dir, name) -> name.startsWith(TMP_PREFIX));
 
-		if (matcher.find()) {
-			return Integer.valueOf(matcher.group(1));
-		} else {
-			return -1;
+		if (tmpFiles != null) {
+			for (File tmpFile : tmpFiles) {
+				tmpFile.delete();
+			}
 		}
 	}
 
+	private long readCounter() {
+		Path counterFile = storagePath.resolve(COUNTER_FILE);
+
+		if (!counterFile.toFile().exists()) {
+			return 0;
+		}
+
+		try {
+			return Long.parseLong(new String(Files.readAllBytes(counterFile), StandardCharsets.UTF_8).trim());
+		} catch (IOException | NumberFormatException e) {
+			LOGGER.error("Could not read the ID counter! Using the highest number in the storage directory.", e);
+			return 0;
+		}
+	}
+
+	private void addToIndex(String id) {
+		if (ID_PATTERN.matcher(id).matches()) {
+			idsByAppId.computeIfAbsent(getAppIdForId(id), aid -> ConcurrentHashMap.newKeySet()).add(id);
+		}
+	}
+
+	private void removeFromIndex(String id) {
+		if (ID_PATTERN.matcher(id).matches()) {
+			idsByAppId.computeIfPresent(getAppIdForId(id), (aid, ids) -> {
+				ids.remove(id);
+				return ids.isEmpty() ? null : ids;
+			});
+		}
+	}
+
+	/**
+	 * Writes content to a path.
+	 *
+	 * @author Henning Schulz
+	 *
+	 */
+	@FunctionalInterface
+	protected static interface PathWriter {
+
+		void write(Path path) throws IOException;
+
+	}
+
 }
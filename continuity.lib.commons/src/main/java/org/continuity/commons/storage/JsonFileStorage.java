@@ -26,7 +26,7 @@ public class JsonFileStorage<T> extends FileStorage<T> implements ArtifactStorag
 
 	@Override
 	protected void write(Path dirPath, String id, T entity) throws IOException {
-		mapper.writerWithDefaultPrettyPrinter().writeValue(toPath(dirPath, id).toFile(), entity);
+		writeAtomically(toPath(dirPath, id), path -> mapper.writerWithDefaultPrettyPrinter().writeValue(path.toFile(), entity));
 	}
 
 	@Override
@@ -45,6 +45,11 @@ public class JsonFileStorage<T> extends FileStorage<T> implements ArtifactStorag
 		return toPath(dirPath, id).toFile().delete();
 	}
 
+	@Override
+	protected String getIdForFile(String filename) {
+		return filename.endsWith(FILE_EXT) ? filename.substring(0, filename.length() - FILE_EXT.length()) : null;
+	}
+
 	private Path toPath(Path dirPath, String id) {
 		return dirPath.resolve(id + FILE_EXT);
 	}
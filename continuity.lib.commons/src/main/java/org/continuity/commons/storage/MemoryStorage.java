@@ -1,13 +1,33 @@
 package org.continuity.commons.storage;
 
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.continuity.idpa.AppId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
- * A generic storage holding entities in a hash map in memory.
+ * A generic storage holding entities in memory. The storage is thread-safe. The entities are
+ * distributed over several segments, each of which is guarded by its own lock, so that accesses
+ * to different segments do not block each other. <br>
+ *
+ * Optionally, the number of entities and the time since the last access to an entity can be
+ * limited. If a limit is exceeded, the least recently used entities are evicted. The number of
+ * entities is limited for the whole storage. It is checked after each store operation, so it can
+ * only be exceeded temporarily by the number of concurrently storing threads. Evicted entities are
+ * written to a {@link FileStorage} if one is passed and are read from there on the next access.
+ * Otherwise, they are dropped. As the IDs are not kept over restarts, entities spilled by a
+ * previous instance are removed from the {@link FileStorage} on creation.
  *
  * @author Henning Schulz
  *
@@ -16,13 +36,101 @@ import org.continuity.idpa.AppId;
  */
 public class MemoryStorage<T> implements ArtifactStorage<T> {
 
+	private static final Logger LOGGER = LoggerFactory.getLogger(MemoryStorage.class);
+
 	private static final String APP_ID_DELIM = "-";
 
+	private static final String SPILL_PREFIX = "_spilled_";
+
+	private static final int MAX_SEGMENTS = 16;
+
 	private final AtomicInteger counter = new AtomicInteger(1);
 
-	private final Map<String, T> storedEntities = new HashMap<>();
+	private final Segment[] segments;
+
+	private final int maxSize;
+
+	private final long timeToLive;
+
+	private final FileStorage<T> spillStorage;
+
+	private final Set<String> spilledIds = ConcurrentHashMap.newKeySet();
+
+	private final AtomicInteger size = new AtomicInteger();
+
+	/**
+	 * Orders the accesses over all segments, as the times of the accesses can be equal.
+	 */
+	private final AtomicLong accessSequence = new AtomicLong();
+
+	private final AtomicLong hitCount = new AtomicLong();
 
+	private final AtomicLong missCount = new AtomicLong();
+
+	private final AtomicLong evictionCount = new AtomicLong();
+
+	/**
+	 * Creates a storage without limits.
+	 *
+	 * @param type
+	 *            The type of the stored entities.
+	 */
 	public MemoryStorage(Class<T> type) {
+		this(type, 0, 0, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Creates a storage dropping evicted entities.
+	 *
+	 * @param type
+	 *            The type of the stored entities.
+	 * @param maxSize
+	 *            The maximum number of entities. Values smaller than 1 mean no limit.
+	 * @param timeToLive
+	 *            The time after the last access after which an entity is evicted. Values smaller
+	 *            than 1 mean no limit.
+	 * @param unit
+	 *            The unit of {@code timeToLive}.
+	 */
+	public MemoryStorage(Class<T> type, int maxSize, long timeToLive, TimeUnit unit) {
+		this(type, maxSize, timeToLive, unit, null);
+	}
+
+	/**
+	 * Creates a storage writing evicted entities to a {@link FileStorage}.
+	 *
+	 * @param type
+	 *            The type of the stored entities.
+	 * @param maxSize
+	 *            The maximum number of entities. Values smaller than 1 mean no limit.
+	 * @param timeToLive
+	 *            The time after the last access after which an entity is evicted. Values smaller
+	 *            than 1 mean no limit.
+	 * @param unit
+	 *            The unit of {@code timeToLive}.
+	 * @param spillStorage
+	 *            The storage to which evicted entities are written. Can be {@code null}. Entities
+	 *            spilled by a previous instance are removed from it.
+	 */
+	@SuppressWarnings("unchecked")
+	public MemoryStorage(Class<T> type, int maxSize, long timeToLive, TimeUnit unit, FileStorage<T> spillStorage) {
+		this.segments = (Segment[]) new MemoryStorage.Segment[MAX_SEGMENTS];
+
+		for (int i = 0; i < MAX_SEGMENTS; i++) {
+			segments[i] = new Segment();
+		}
+
+		this.maxSize = maxSize > 0 ? maxSize : Integer.MAX_VALUE;
+		this.timeToLive = timeToLive > 0 ? unit.toMillis(timeToLive) : 0;
+		this.spillStorage = spillStorage;
+
+		if (spillStorage != null) {
+			int removed = spillStorage.removeAll(SPILL_PREFIX);
+
+			if (removed > 0) {
+				LOGGER.info("Removed {} entities spilled by a previous instance.", removed);
+			}
+		}
 	}
 
 	@Override
@@ -32,7 +140,8 @@ public class MemoryStorage<T> implements ArtifactStorage<T> {
 
 	@Override
 	public void putToReserved(String id, T entity) {
-		storedEntities.put(id, entity);
+		segmentFor(id).put(id, entity);
+		evictExceeding();
 	}
 
 	@Override
@@ -44,12 +153,22 @@ public class MemoryStorage<T> implements ArtifactStorage<T> {
 
 	@Override
 	public T get(String id) {
-		return storedEntities.get(id);
+		T entity = segmentFor(id).get(id);
+		// the entity might have been read back from the file storage
+		evictExceeding();
+
+		if (entity == null) {
+			missCount.incrementAndGet();
+		} else {
+			hitCount.incrementAndGet();
+		}
+
+		return entity;
 	}
 
 	@Override
 	public boolean remove(String id) {
-		return storedEntities.remove(id) != null;
+		return segmentFor(id).remove(id);
 	}
 
 	@Override
@@ -57,4 +176,252 @@ public class MemoryStorage<T> implements ArtifactStorage<T> {
 		return AppId.fromString(id.substring(0, id.lastIndexOf(APP_ID_DELIM)));
 	}
 
+	/**
+	 * Evicts all entities that have not been accessed within the time to live. Expired entities are
+	 * also evicted when other entities of the same segment are accessed, so calling this method is
+	 * only required for freeing memory of otherwise unused storages.
+	 */
+	public void evictExpired() {
+		for (Segment segment : segments) {
+			segment.evictExpired();
+		}
+	}
+
+	/**
+	 * Gets the number of entities held in memory.
+	 *
+	 * @return The number of entities.
+	 */
+	public int getSize() {
+		return size.get();
+	}
+
+	/**
+	 * Gets the number of retrievals of an entity that has been found - either in memory or in the
+	 * {@link FileStorage}.
+	 *
+	 * @return The number of hits.
+	 */
+	public long getHitCount() {
+		return hitCount.get();
+	}
+
+	/**
+	 * Gets the number of retrievals of an entity that has not been found.
+	 *
+	 * @return The number of misses.
+	 */
+	public long getMissCount() {
+		return missCount.get();
+	}
+
+	/**
+	 * Gets the number of entities that have been evicted due to the size limit or the time to live.
+	 *
+	 * @return The number of evictions.
+	 */
+	public long getEvictionCount() {
+		return evictionCount.get();
+	}
+
+	private Segment segmentFor(String id) {
+		int hash = id.hashCode();
+		hash ^= (hash >>> 16);
+		return segments[hash & (segments.length - 1)];
+	}
+
+	/**
+	 * Evicts the least recently used entities of all segments until the size limit is met. Only
+	 * one segment is locked at a time. Hence, concurrent accesses can change the order in between,
+	 * which makes the eviction order approximate.
+	 */
+	private void evictExceeding() {
+		while (size.get() > maxSize) {
+			Segment oldest = null;
+			long oldestAccess = Long.MAX_VALUE;
+
+			for (Segment segment : segments) {
+				long access = segment.eldestAccess();
+
+				if (access < oldestAccess) {
+					oldest = segment;
+					oldestAccess = access;
+				}
+			}
+
+			if ((oldest == null) || !oldest.evictEldest()) {
+				break;
+			}
+		}
+	}
+
+	private String toSpillId(String id) {
+		return SPILL_PREFIX + id;
+	}
+
+	private boolean isExpired(Holder<T> holder, long now) {
+		return (timeToLive > 0) && ((now - holder.lastAccess) > timeToLive);
+	}
+
+	private static class Holder<T> {
+
+		private final T entity;
+
+		private long lastAccess;
+
+		private long accessNumber;
+
+		private Holder(T entity, long lastAccess, long accessNumber) {
+			this.entity = entity;
+			this.lastAccess = lastAccess;
+			this.accessNumber = accessNumber;
+		}
+
+	}
+
+	/**
+	 * Holds a part of the entities in least-recently-used order. The spilled entities of a segment
+	 * are also read and written while holding its lock, so that an entity is always either in
+	 * memory or in the {@link FileStorage}.
+	 *
+	 * @author Henning Schulz
+	 *
+	 */
+	private class Segment {
+
+		private final LinkedHashMap<String, Holder<T>> entities = new LinkedHashMap<>(16, 0.75F, true);
+
+		private synchronized void put(String id, T entity) {
+			long now = System.currentTimeMillis();
+
+			if (entities.put(id, new Holder<>(entity, now, accessSequence.incrementAndGet())) == null) {
+				size.incrementAndGet();
+			}
+
+			if (spilledIds.remove(id)) {
+				spillStorage.remove(toSpillId(id));
+			}
+
+			evictExpired(now);
+		}
+
+		private synchronized T get(String id) {
+			long now = System.currentTimeMillis();
+
+			// needs to be done before the access, which makes the entity the most recently used one
+			evictExpired(now);
+			Holder<T> holder = entities.get(id);
+
+			if (holder != null) {
+				holder.lastAccess = now;
+				holder.accessNumber = accessSequence.incrementAndGet();
+				return holder.entity;
+			}
+
+			if (!spilledIds.contains(id)) {
+				return null;
+			}
+
+			T entity = spillStorage.get(toSpillId(id));
+
+			if (entity == null) {
+				LOGGER.warn("Could not read spilled entity {}!", id);
+				return null;
+			}
+
+			spilledIds.remove(id);
+			spillStorage.remove(toSpillId(id));
+			entities.put(id, new Holder<>(entity, now, accessSequence.incrementAndGet()));
+			size.incrementAndGet();
+
+			return entity;
+		}
+
+		private synchronized boolean remove(String id) {
+			boolean removed = entities.remove(id) != null;
+
+			if (removed) {
+				size.decrementAndGet();
+			}
+
+			if (spilledIds.remove(id)) {
+				removed |= spillStorage.remove(toSpillId(id));
+			}
+
+			return removed;
+		}
+
+		private synchronized void evictExpired() {
+			evictExpired(System.currentTimeMillis());
+		}
+
+		/**
+		 * Gets the access number of the least recently used entity.
+		 *
+		 * @return The access number or {@link Long#MAX_VALUE} if the segment is empty.
+		 */
+		private synchronized long eldestAccess() {
+			Iterator<Holder<T>> it = entities.values().iterator();
+			return it.hasNext() ? it.next().accessNumber : Long.MAX_VALUE;
+		}
+
+		/**
+		 * Evicts the least recently used entity if the size limit is still exceeded.
+		 *
+		 * @return {@code true} if an entity has been evicted.
+		 */
+		private synchronized boolean evictEldest() {
+			Iterator<Map.Entry<String, Holder<T>>> it = entities.entrySet().iterator();
+
+			if ((size.get() <= maxSize) || !it.hasNext()) {
+				return false;
+			}
+
+			Map.Entry<String, Holder<T>> entry = it.next();
+			it.remove();
+			evicted(Collections.singletonList(entry));
+
+			return true;
+		}
+
+		/**
+		 * Evicts the expired entities. The entities are traversed from the least recently used one,
+		 * so the traversal stops at the first entity that is to be kept.
+		 */
+		private void evictExpired(long now) {
+			List<Map.Entry<String, Holder<T>>> expired = new ArrayList<>();
+			Iterator<Map.Entry<String, Holder<T>>> it = entities.entrySet().iterator();
+
+			while (it.hasNext()) {
+				Map.Entry<String, Holder<T>> entry = it.next();
+
+				if (isExpired(entry.getValue(), now)) {
+					it.remove();
+					expired.add(entry);
+				} else {
+					break;
+				}
+			}
+
+			evicted(expired);
+		}
+
+		private void evicted(List<Map.Entry<String, Holder<T>>> evicted) {
+			for (Map.Entry<String, Holder<T>> entry : evicted) {
+				size.decrementAndGet();
+				evictionCount.incrementAndGet();
+
+				if (spillStorage != null) {
+					spillStorage.putToReserved(toSpillId(entry.getKey()), entry.getValue().entity);
+					spilledIds.add(entry.getKey());
+				}
+			}
+
+			if (!evicted.isEmpty()) {
+				LOGGER.debug("Evicted {} entities{}.", evicted.size(), spillStorage == null ? "" : " to the file storage");
+			}
+		}
+
+	}
+
 }
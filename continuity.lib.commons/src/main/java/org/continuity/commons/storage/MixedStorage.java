@@ -1,9 +1,20 @@
 package org.continuity.commons.storage;
 
 import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
 
 import org.continuity.idpa.AppId;
 
+/**
+ * Combines a {@link MemoryStorage} and a {@link FileStorage}. Whether an entity is persisted is
+ * decided when storing it. Optionally, the memory storage can be limited, in which case evicted
+ * entities are moved to the file storage.
+ *
+ * @author Henning Schulz
+ *
+ * @param <T>
+ *            The type of the stored entities.
+ */
 public class MixedStorage<T> implements ArtifactStorage<T> {
 
 	private static final String FILE_PREFIX = "_persisted_";
@@ -17,6 +28,29 @@ public class MixedStorage<T> implements ArtifactStorage<T> {
 		this.fileStorage = fileStorage;
 	}
 
+	/**
+	 * Creates a storage with a limited memory storage, which moves evicted entities to the file
+	 * storage. Requires that the entities can be read from the file storage as they have been
+	 * written.
+	 *
+	 * @param entityType
+	 *            The type of the stored entities.
+	 * @param fileStorage
+	 *            The file storage.
+	 * @param maxMemorySize
+	 *            The maximum number of entities held in memory. Values smaller than 1 mean no
+	 *            limit.
+	 * @param timeToLive
+	 *            The time after the last access after which an entity is moved from the memory to
+	 *            the file storage. Values smaller than 1 mean no limit.
+	 * @param unit
+	 *            The unit of {@code timeToLive}.
+	 */
+	public MixedStorage(Class<T> entityType, FileStorage<T> fileStorage, int maxMemorySize, long timeToLive, TimeUnit unit) {
+		this.memoryStorage = new MemoryStorage<>(entityType, maxMemorySize, timeToLive, unit, fileStorage);
+		this.fileStorage = fileStorage;
+	}
+
 	/**
 	 * Uses the default {@link JsonFileStorage}.
 	 *
@@ -121,6 +155,15 @@ public class MixedStorage<T> implements ArtifactStorage<T> {
 		}
 	}
 
+	/**
+	 * Gets the memory storage, e.g., for retrieving its metrics.
+	 *
+	 * @return The memory storage.
+	 */
+	public MemoryStorage<T> getMemoryStorage() {
+		return memoryStorage;
+	}
+
 	private boolean isFileId(String id) {
 		return id.startsWith(FILE_PREFIX);
 	}
@@ -1,6 +1,7 @@
 package org.continuity.commons.utils;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import org.apache.commons.lang3.Range;
@@ -98,6 +99,153 @@ public class IntensityCalculationUtils {
 	}
 	
 
+	/**
+	 * Calculates the average workload intensity of the passed sessions. The time between the
+	 * first session start and the last session end is split into ranges of length
+	 * {@code interval} (or shorter if the sessions span less time). The intensity of each range is
+	 * calculated as by {@link #calculateIntensityForRange(Range, ArrayList, long)}.
+	 *
+	 * @param sessions
+	 *            The sessions. Do not need to be sorted.
+	 * @param interval
+	 *            The length of the time ranges.
+	 * @return The average intensity, rounded to an integer.
+	 * @see #calculateIntensitySeries(List, long)
+	 */
+	public static int calculateAverageIntensity(List<SimplifiedSession> sessions, long interval) {
+		long[] series = calculateIntensitySeries(sessions, interval);
+
+		if (series.length == 0) {
+			throw new IllegalArgumentException("Cannot calculate an intensity of sessions spanning less than one complete time range!");
+		}
+
+		// the intensities of the ranges are averaged as integers
+		return Math.toIntExact(Math.round(Arrays.stream(series).mapToInt(Math::toIntExact).average().getAsDouble()));
+	}
+
+	/**
+	 * Calculates the workload intensity per time range. The time between the first session start
+	 * and the last session end is split into ranges of length {@code interval} (or shorter if the
+	 * sessions span less time), starting with the first session start. The last range is omitted
+	 * if it does not end with the last session end. <br>
+	 *
+	 * Each session is split into the pieces overlapping with the ranges in one pass, where the
+	 * ranges fully covered by a session are accumulated in a difference array. Hence, the
+	 * calculation takes linear time in the number of sessions and ranges. The results are the same
+	 * as calculating {@link #calculateIntensityForRange(Range, ArrayList, long)} for each range.
+	 *
+	 * @param sessions
+	 *            The sessions. Do not need to be sorted.
+	 * @param interval
+	 *            The length of the time ranges.
+	 * @return The intensities per time range. Empty if there is no complete time range.
+	 */
+	public static long[] calculateIntensitySeries(List<SimplifiedSession> sessions, long interval) {
+		if (sessions.isEmpty()) {
+			return new long[0];
+		}
+
+		long startTime = Long.MAX_VALUE;
+		long highestEndTime = 0;
+
+		for (SimplifiedSession session : sessions) {
+			startTime = Math.min(startTime, session.getStartTime());
+			highestEndTime = Math.max(highestEndTime, session.getEndTime());
+		}
+
+		long rangeLength = Math.min(interval, highestEndTime - startTime);
+
+		if (rangeLength <= 0) {
+			return new long[0];
+		}
+
+		// rounds highest end time up
+		long roundedHighestEndTime = highestEndTime;
+		if ((highestEndTime % rangeLength) != 0) {
+			roundedHighestEndTime = (highestEndTime - (highestEndTime % rangeLength)) + rangeLength;
+		}
+
+		int numRanges = Math.toIntExact((roundedHighestEndTime - startTime) / rangeLength);
+
+		if ((numRanges > 0) && ((startTime + (numRanges * rangeLength)) != highestEndTime)) {
+			numRanges--;
+		}
+
+		long[] durationSums = new long[numRanges];
+		long[] fullRangeDiffs = new long[numRanges + 1];
+
+		for (SimplifiedSession session : sessions) {
+			addSession(session.getStartTime() - startTime, session.getEndTime() - startTime, rangeLength, durationSums, fullRangeDiffs);
+		}
+
+		long[] intensities = new long[numRanges];
+		long fullRanges = 0;
+
+		for (int i = 0; i < numRanges; i++) {
+			fullRanges += fullRangeDiffs[i];
+			intensities[i] = (durationSums[i] + (fullRanges * rangeLength)) / rangeLength;
+		}
+
+		return intensities;
+	}
+
+	/**
+	 * Adds the time a session is active to the ranges. The timestamps are relative to the start
+	 * of the first range.
+	 */
+	private static void addSession(long start, long end, long rangeLength, long[] durationSums, long[] fullRangeDiffs) {
+		int numRanges = durationSums.length;
+
+		if (end < start) {
+			return;
+		}
+
+		// a session ending at the start of a range counts for the whole range, as it is active at
+		// the range start and never ends within the range
+		if ((end % rangeLength) == 0) {
+			long endRange = end / rangeLength;
+
+			if (endRange < numRanges) {
+				durationSums[(int) endRange] += rangeLength;
+			}
+
+			if (end == start) {
+				return;
+			}
+		}
+
+		long firstRange = start / rangeLength;
+
+		if (firstRange >= numRanges) {
+			return;
+		}
+
+		int first = (int) firstRange;
+		long firstRangeEnd = (first + 1) * rangeLength;
+
+		// a session without duration counts until the end of the range
+		if (end == start) {
+			durationSums[first] += firstRangeEnd - start;
+			return;
+		}
+
+		int last = (int) Math.min(numRanges - 1, ((end + rangeLength - 1) / rangeLength) - 1);
+
+		if (first == last) {
+			durationSums[first] += Math.min(end, firstRangeEnd) - start;
+		} else {
+			long lastRangeStart = last * rangeLength;
+
+			durationSums[first] += firstRangeEnd - start;
+			durationSums[last] += Math.min(end, lastRangeStart + rangeLength) - lastRangeStart;
+
+			if ((last - first) > 1) {
+				fullRangeDiffs[first + 1]++;
+				fullRangeDiffs[last]--;
+			}
+		}
+	}
+
 	/**
 	 * Sorts sessions.
 	 * @param sessions
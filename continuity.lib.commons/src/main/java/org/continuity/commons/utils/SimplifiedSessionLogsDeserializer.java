@@ -1,7 +1,13 @@
 package org.continuity.commons.utils;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.continuity.api.entities.artifact.SimplifiedSession;
 
@@ -22,16 +28,51 @@ public class SimplifiedSessionLogsDeserializer {
 		List<SimplifiedSession> sessionLogs = new ArrayList<SimplifiedSession>();
 		String[] sessionLogsArray = sessionLogsString.split("\n");
 		for (String sessionLogString : sessionLogsArray) {
-			String[] sessionLogRequests = sessionLogString.split(";");
-			String sessionId = sessionLogRequests[0];
-			String firstRequest = sessionLogRequests[1];
-			String lastRequest = sessionLogRequests[sessionLogRequests.length - 1];
-
-			long startTimeStamp = Long.parseLong(firstRequest.split(":")[1]);
-			long endTimeStamp = Long.parseLong(lastRequest.split(":")[2]);
-
-			sessionLogs.add(new SimplifiedSession(sessionId, startTimeStamp, endTimeStamp));
+			sessionLogs.add(parseSession(sessionLogString));
 		}
 		return sessionLogs;
 	}
+
+	/**
+	 * Parses session logs line by line to simplified sessions without holding the whole session
+	 * logs in memory. Empty lines are ignored.
+	 *
+	 * @param sessionLogs
+	 *            Reader providing the session logs. Will not be closed.
+	 * @return a list containing all {@link SimplifiedSession} elements
+	 * @throws IOException
+	 *             If reading fails.
+	 */
+	public static List<SimplifiedSession> parse(Reader sessionLogs) throws IOException {
+		try {
+			return stream(sessionLogs).collect(Collectors.toList());
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+	}
+
+	/**
+	 * Lazily parses session logs line by line to simplified sessions. Empty lines are ignored.
+	 *
+	 * @param sessionLogs
+	 *            Reader providing the session logs. Will not be closed.
+	 * @return a stream of the {@link SimplifiedSession} elements. Throws an
+	 *         {@link UncheckedIOException} if reading fails.
+	 */
+	public static Stream<SimplifiedSession> stream(Reader sessionLogs) {
+		BufferedReader reader = (sessionLogs instanceof BufferedReader) ? (BufferedReader) sessionLogs : new BufferedReader(sessionLogs);
+		return reader.lines().filter(line -> !line.trim().isEmpty()).map(SimplifiedSessionLogsDeserializer::parseSession);
+	}
+
+	private static SimplifiedSession parseSession(String sessionLogString) {
+		String[] sessionLogRequests = sessionLogString.split(";");
+		String sessionId = sessionLogRequests[0];
+		String firstRequest = sessionLogRequests[1];
+		String lastRequest = sessionLogRequests[sessionLogRequests.length - 1];
+
+		long startTimeStamp = Long.parseLong(firstRequest.split(":")[1]);
+		long endTimeStamp = Long.parseLong(lastRequest.split(":")[2]);
+
+		return new SimplifiedSession(sessionId, startTimeStamp, endTimeStamp);
+	}
 }
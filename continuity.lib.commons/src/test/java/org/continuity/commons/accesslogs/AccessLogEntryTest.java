@@ -0,0 +1,117 @@
+package org.continuity.commons.accesslogs;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.text.ParseException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import org.apache.commons.lang3.time.DateUtils;
+import org.junit.Test;
+
+public class AccessLogEntryTest {
+
+	private static final Pattern DEFAULT_PATTERN = Pattern.compile(AccessLogEntry.DEFAULT_REGEX);
+
+	private static final List<String> LINES = Arrays.asList( //
+			"127.0.0.1 - frank [10/Oct/2000:13:55:36 -0700] \"GET /apache_pb.gif HTTP/1.0\" 200 2326", //
+			"127.0.0.1 - - [10/Oct/2000:13:55:36 +0200] \"GET /cart?item=42&amount=1 HTTP/1.1\" 200 - \"http://example.com/start.html\" \"Mozilla/4.08 [en] (Win98; I ;Nav)\" 1234", //
+			"10.0.0.1 - - [01/Jan/2019:00:00:00 +0000] \"POST /login\" 302 0", //
+			"10.0.0.1 - - [01/Jan/2019:00:00:00 +0000] \"POST /login \" 302 0 123", //
+			"10.0.0.1 - - [01/Jan/2019:00:00:00 +0000] \"GET /search?q=a&&b=&c&& HTTP/1.1\" 200 17 \"-\" \"curl\"", //
+			"10.0.0.1 - - [01/Jan/2019:00:00:00 +0000] \"GET /search?&q HTTP/1.1\" 200 17 \"\" \"curl\" 42", //
+			"10.0.0.1 - - [01/Jan/2019:00:00:00 +0000] \"GET /search?a=1?b=2 HTTP/1.1\" 200 17 \"ref\" 42", //
+			"10.0.0.1 - - [01/Jan/2019:00:00:00 +0000] \"GET /x? HTTP/1.1\" 200 12abc", //
+			"10.0.0.1 - - [01/Jan/2019:00:00:00 +0000] \"GET ?x HTTP/1.1\" 200 -5 \"a\"", //
+			"10.0.0.1 - - [01/Jan/2019:00:00:00 +0000] \"get /lower HTTP/1.1\" 200 1", //
+			"junk 10.0.0.1 - - [01/Jan/2019:00:00:00 +0000] \"GET /prefix HTTP/1.1\" 200 1", //
+			"10.0.0.1 - - [01/Jan/2019:00:00:00 +0000] \"GET /overflow HTTP/1.1\" 200 99999999999999999999", //
+			"not an access log line", //
+			"");
+
+	private final Random random = new Random(42);
+
+	@Test
+	public void testSameAsRegex() {
+		for (String line : LINES) {
+			assertSameAsRegex(line);
+		}
+	}
+
+	@Test
+	public void testSameAsRegexRandomly() {
+		String alphabet = " \"[]?&=-/0123456789AGETaz";
+
+		for (int i = 0; i < 10000; i++) {
+			StringBuilder line = new StringBuilder(LINES.get(random.nextInt(4)));
+
+			for (int j = random.nextInt(4); j >= 0; j--) {
+				int position = random.nextInt(line.length());
+
+				if (random.nextBoolean()) {
+					line.setCharAt(position, alphabet.charAt(random.nextInt(alphabet.length())));
+				} else {
+					line.deleteCharAt(position);
+				}
+			}
+
+			assertSameAsRegex(line.toString());
+		}
+	}
+
+	@Test
+	public void testParseDefault() {
+		AccessLogEntry entry = AccessLogEntry.fromLogLine(LINES.get(1));
+
+		assertThat(entry.getClientHost()).isEqualTo("127.0.0.1");
+		assertThat(entry.getAccessTime()).isEqualTo("10/Oct/2000:13:55:36 +0200");
+		assertThat(entry.getRequestMethod()).isEqualTo("GET");
+		assertThat(entry.getPath()).isEqualTo("/cart");
+		assertThat(entry.getPathAndQuery()).isEqualTo("/cart?item=42&amount=1");
+		assertThat(entry.getProtocol()).isEqualTo("HTTP/1.1");
+		assertThat(entry.getStatusCode()).isEqualTo(200);
+		assertThat(entry.getResponseBytes()).isEqualTo(0);
+		assertThat(entry.getReferer()).isEqualTo("http://example.com/start.html");
+		assertThat(entry.getUserAgent()).isEqualTo("Mozilla/4.08 [en] (Win98; I ;Nav)");
+		assertThat(entry.getResponseTime()).isEqualTo(1234);
+	}
+
+	@Test
+	public void testAccessTime() throws ParseException {
+		for (String time : Arrays.asList("10/Oct/2000:13:55:36 -0700", "29/Feb/2020:23:59:59 +0000", "31/Dec/1999:00:00:00 +1400", "31/Feb/2019:10:00:00 +0000", "10/oct/2000:13:55:36 -0700",
+				"10/Oct/2000:13:55:36", "2019-01-01T10:00:00.123")) {
+			AccessLogEntry entry = new AccessLogEntry();
+			entry.setAccessTime(time);
+
+			assertThat(entry.getAccessTimeAsDate()).as(time).isEqualTo(DateUtils.parseDate(time, Locale.ENGLISH, "dd/MMM/yyyy:HH:mm:ss Z", "dd/MMM/yyyy:HH:mm:ss", "yyyy-MM-dd'T'HH:mm:ss.SSS"));
+		}
+	}
+
+	private void assertSameAsRegex(String line) {
+		assertThat(describe(() -> AccessLogEntry.fromLogLine(line))).as(line).isEqualTo(describe(() -> AccessLogEntry.fromLogLineWithRegex(line, DEFAULT_PATTERN)));
+	}
+
+	private String describe(ParseFunction parse) {
+		AccessLogEntry entry;
+
+		try {
+			entry = parse.parse();
+		} catch (RuntimeException e) {
+			return e.getClass().getName();
+		}
+
+		if (entry == null) {
+			return null;
+		}
+
+		return entry.toCsvRow() + " " + entry.getReferer() + " " + entry.getUserAgent() + " " + (entry.getRequestParameters() == null);
+	}
+
+	private interface ParseFunction {
+		AccessLogEntry parse();
+	}
+
+}
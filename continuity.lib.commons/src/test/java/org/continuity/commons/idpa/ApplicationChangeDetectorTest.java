@@ -0,0 +1,79 @@
+package org.continuity.commons.idpa;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.continuity.api.entities.report.ApplicationChangeReport;
+import org.continuity.idpa.application.Application;
+import org.continuity.idpa.application.HttpEndpoint;
+import org.continuity.idpa.application.HttpParameter;
+import org.continuity.idpa.application.HttpParameterType;
+import org.junit.Test;
+
+public class ApplicationChangeDetectorTest {
+
+	@Test
+	public void testEndpointChanges() {
+		Application oldApp = application(endpoint("login", "/login"), endpoint("logout", "/logout"));
+		Application newApp = application(endpoint("login", "/signin"), endpoint("buy", "/buy"));
+
+		assertThat(changes(newApp, oldApp)).containsExactlyInAnyOrder("ENDPOINT_CHANGED login path", "ENDPOINT_ADDED buy null", "ENDPOINT_REMOVED logout null");
+	}
+
+	@Test
+	public void testParameterChanges() {
+		Application oldApp = application(endpoint("login", "/login", parameter("user", "user"), parameter("pw", "password")));
+		Application newApp = application(endpoint("login", "/login", parameter("user", "username"), parameter("token", "token")));
+
+		assertThat(changes(newApp, oldApp)).containsExactlyInAnyOrder("PARAMETER_CHANGED user name", "PARAMETER_ADDED token null", "PARAMETER_REMOVED pw null");
+	}
+
+	@Test
+	public void testUnchanged() {
+		Application oldApp = application(endpoint("login", "/login", parameter("user", "user")));
+		Application newApp = application(endpoint("login", "/login", parameter("user", "user")));
+
+		assertThat(changes(newApp, oldApp)).isEmpty();
+	}
+
+	private List<String> changes(Application newApp, Application oldApp) {
+		ApplicationChangeDetector detector = new ApplicationChangeDetector(newApp);
+		detector.compareTo(oldApp);
+		ApplicationChangeReport report = detector.getReport();
+
+		return report.getApplicationChanges().stream().map(c -> c.getType() + " " + c.getChangedElement().getId() + " " + c.getChangedProperty()).collect(Collectors.toList());
+	}
+
+	private Application application(HttpEndpoint... endpoints) {
+		Application app = new Application();
+		app.setId("app");
+
+		for (HttpEndpoint endpoint : endpoints) {
+			app.addEndpoint(endpoint);
+		}
+
+		return app;
+	}
+
+	private HttpEndpoint endpoint(String id, String path, HttpParameter... params) {
+		HttpEndpoint endpoint = new HttpEndpoint();
+		endpoint.setId(id);
+		endpoint.setPath(path);
+		endpoint.setParameters(new ArrayList<>(Arrays.asList(params)));
+
+		return endpoint;
+	}
+
+	private HttpParameter parameter(String id, String name) {
+		HttpParameter param = new HttpParameter();
+		param.setId(id);
+		param.setName(name);
+		param.setParameterType(HttpParameterType.REQ_PARAM);
+		return param;
+	}
+
+}
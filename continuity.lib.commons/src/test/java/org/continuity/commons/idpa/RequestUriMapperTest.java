@@ -94,4 +94,46 @@ public class RequestUriMapperTest {
 		assertThat(mapper.mapRespectingWildcards("/foo/", "DELETE")).isEqualTo(interf6);
 	}
 
+	@Test
+	public void testPrecedenceFollowsDeclarationOrder() {
+		Application system = new Application();
+
+		HttpEndpoint catchAll = new HttpEndpoint();
+		catchAll.setPath("/{path:*}");
+		catchAll.setMethod("GET");
+		system.addEndpoint(catchAll);
+
+		HttpEndpoint specific = new HttpEndpoint();
+		specific.setPath("/foo/{id}");
+		specific.setMethod("GET");
+		system.addEndpoint(specific);
+
+		HttpEndpoint exact = new HttpEndpoint();
+		exact.setPath("/foo/42");
+		exact.setMethod("GET");
+		system.addEndpoint(exact);
+
+		RequestUriMapper orderedMapper = new RequestUriMapper(system);
+
+		assertThat(orderedMapper.map("/foo/42", "GET")).isEqualTo(exact);
+		assertThat(orderedMapper.map("/foo/43", "GET")).isEqualTo(catchAll);
+		assertThat(orderedMapper.mapRespectingWildcards("/foo/42", "GET")).isEqualTo(catchAll);
+	}
+
+	@Test
+	public void testRegexCharactersInLiteralSegments() {
+		Application system = new Application();
+
+		HttpEndpoint dotted = new HttpEndpoint();
+		dotted.setPath("/foo.html/{id}");
+		dotted.setMethod("GET");
+		system.addEndpoint(dotted);
+
+		RequestUriMapper dottedMapper = new RequestUriMapper(system);
+
+		assertThat(dottedMapper.map("/foo.html/1", "GET")).isEqualTo(dotted);
+		assertThat(dottedMapper.map("/fooXhtml/1", "GET")).isEqualTo(dotted);
+		assertThat(dottedMapper.map("/bar/1", "GET")).isNull();
+	}
+
 }
@@ -0,0 +1,114 @@
+package org.continuity.commons.storage;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.commons.io.FileUtils;
+import org.continuity.idpa.AppId;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class FileStorageTest {
+
+	private static final AppId FIRST = AppId.fromString("first");
+
+	private static final AppId SECOND = AppId.fromString("second.service");
+
+	private Path storageDir;
+
+	@Before
+	public void setup() throws IOException {
+		storageDir = Files.createTempDirectory("FileStorageTest");
+	}
+
+	@After
+	public void cleanup() throws IOException {
+		FileUtils.deleteDirectory(storageDir.toFile());
+	}
+
+	@Test
+	public void testIdsAreNotReused() {
+		JsonFileStorage<String> storage = new JsonFileStorage<>(storageDir, "", String.class);
+
+		String first = storage.put("first", FIRST);
+		String second = storage.put("second", FIRST);
+		assertThat(storage.remove(second)).isTrue();
+
+		assertThat(first).isEqualTo("1-first");
+		assertThat(storage.put("third", FIRST)).isEqualTo("3-first");
+		assertThat(new JsonFileStorage<>(storageDir, "", String.class).put("fourth", SECOND)).isEqualTo("4-second.service");
+	}
+
+	@Test
+	public void testIdsByAppId() {
+		JsonFileStorage<String> storage = new JsonFileStorage<>(storageDir, "", String.class);
+
+		String first = storage.put("first", FIRST);
+		String second = storage.put("second", SECOND);
+		String third = storage.put("third", SECOND);
+		storage.putToReserved("_other", "other");
+
+		assertThat(storage.getIds(FIRST)).containsExactly(first);
+		assertThat(storage.getIds(SECOND)).containsExactlyInAnyOrder(second, third);
+
+		storage.remove(second);
+		assertThat(storage.getIds(SECOND)).containsExactly(third);
+
+		JsonFileStorage<String> reopened = new JsonFileStorage<>(storageDir, "", String.class);
+		assertThat(reopened.getIds(FIRST)).containsExactly(first);
+		assertThat(reopened.getIds(SECOND)).containsExactly(third);
+		assertThat(reopened.get(third)).isEqualTo("third");
+	}
+
+	@Test
+	public void testConcurrentPuts() throws Exception {
+		JsonFileStorage<Integer> storage = new JsonFileStorage<>(storageDir, 0, Integer.class);
+		Set<String> ids = ConcurrentHashMap.newKeySet();
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		List<Future<?>> results = new ArrayList<>();
+
+		for (int t = 0; t < 8; t++) {
+			results.add(executor.submit(() -> {
+				for (int i = 0; i < 50; i++) {
+					ids.add(storage.put(i, FIRST));
+				}
+			}));
+		}
+
+		for (Future<?> result : results) {
+			result.get();
+		}
+
+		executor.shutdown();
+
+		assertThat(ids).hasSize(400);
+		assertThat(storage.getIds(FIRST)).isEqualTo(ids);
+		assertThat(storageDir.toFile().list((dir, name) -> name.startsWith(".tmp-"))).isEmpty();
+	}
+
+	@Test
+	public void testLeftOverTemporaryFilesAreDeleted() throws IOException {
+		Path artifactDir = Files.createDirectory(storageDir.resolve("1-first"));
+		Files.createFile(storageDir.resolve(".tmp-123-2-first.json"));
+		Files.createFile(artifactDir.resolve(".tmp-456-bundle.json"));
+		Files.createFile(artifactDir.resolve("model.xmi"));
+
+		JsonFileStorage<String> storage = new JsonFileStorage<>(storageDir, "", String.class);
+		storage.getIds(FIRST);
+
+		assertThat(storageDir.toFile().list((dir, name) -> name.startsWith(".tmp-"))).isEmpty();
+		assertThat(artifactDir.toFile().list()).containsExactly("model.xmi");
+	}
+
+}
@@ -0,0 +1,149 @@
+package org.continuity.commons.storage;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.FileUtils;
+import org.continuity.idpa.AppId;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class MemoryStorageTest {
+
+	private static final AppId AID = AppId.fromString("test");
+
+	private Path storageDir;
+
+	@Before
+	public void setup() throws IOException {
+		storageDir = Files.createTempDirectory("MemoryStorageTest");
+	}
+
+	@After
+	public void cleanup() throws IOException {
+		FileUtils.deleteDirectory(storageDir.toFile());
+	}
+
+	@Test
+	public void testSizeEviction() {
+		MemoryStorage<String> storage = new MemoryStorage<>(String.class, 1, 0, TimeUnit.MILLISECONDS);
+
+		String first = storage.put("first", AID);
+		String second = storage.put("second", AID);
+
+		assertThat(storage.get(first)).isNull();
+		assertThat(storage.get(second)).isEqualTo("second");
+
+		assertThat(storage.getSize()).isEqualTo(1);
+		assertThat(storage.getEvictionCount()).isEqualTo(1);
+		assertThat(storage.getHitCount()).isEqualTo(1);
+		assertThat(storage.getMissCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void testSizeLimitOverAllSegments() {
+		MemoryStorage<Integer> storage = new MemoryStorage<>(Integer.class, 20, 0, TimeUnit.MILLISECONDS);
+		List<String> ids = new ArrayList<>();
+
+		for (int i = 0; i < 100; i++) {
+			ids.add(storage.put(i, AID));
+		}
+
+		// makes the oldest entity the most recently used one
+		storage.get(ids.get(80));
+		storage.put(100, AID);
+
+		assertThat(storage.getSize()).isEqualTo(20);
+		assertThat(storage.getEvictionCount()).isEqualTo(81);
+		assertThat(storage.get(ids.get(80))).isEqualTo(80);
+		assertThat(storage.get(ids.get(81))).isNull();
+
+		for (int i = 82; i < 100; i++) {
+			assertThat(storage.get(ids.get(i))).isEqualTo(i);
+		}
+	}
+
+	@Test
+	public void testTimeToLive() throws InterruptedException {
+		MemoryStorage<String> storage = new MemoryStorage<>(String.class, 0, 50, TimeUnit.MILLISECONDS);
+
+		String id = storage.put("expiring", AID);
+		assertThat(storage.get(id)).isEqualTo("expiring");
+
+		Thread.sleep(200);
+
+		assertThat(storage.get(id)).isNull();
+		assertThat(storage.getEvictionCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void testSpillToFileStorage() {
+		MemoryStorage<String> storage = new MemoryStorage<>(String.class, 1, 0, TimeUnit.MILLISECONDS, new JsonFileStorage<>(storageDir, "", String.class));
+
+		String first = storage.put("first", AID);
+		String second = storage.put("second", AID);
+
+		assertThat(storage.getSize()).isEqualTo(1);
+		assertThat(storage.get(first)).isEqualTo("first");
+		assertThat(storage.get(second)).isEqualTo("second");
+		assertThat(storage.getMissCount()).isZero();
+
+		assertThat(storage.remove(first)).isTrue();
+		assertThat(storage.get(first)).isNull();
+		assertThat(storageDir.toFile().list()).isEmpty();
+	}
+
+	@Test
+	public void testRemoveSpilledEntitiesOfPreviousInstance() {
+		MemoryStorage<String> storage = new MemoryStorage<>(String.class, 1, 0, TimeUnit.MILLISECONDS, new JsonFileStorage<>(storageDir, "", String.class));
+		storage.put("first", AID);
+		storage.put("second", AID);
+
+		assertThat(storageDir.toFile().list()).isNotEmpty();
+
+		new MemoryStorage<>(String.class, 1, 0, TimeUnit.MILLISECONDS, new JsonFileStorage<>(storageDir, "", String.class));
+
+		assertThat(storageDir.toFile().list()).isEmpty();
+	}
+
+	@Test
+	public void testConcurrentAccess() throws Exception {
+		MemoryStorage<Integer> storage = new MemoryStorage<>(Integer.class, 1000, 0, TimeUnit.MILLISECONDS);
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		List<Future<Boolean>> results = new ArrayList<>();
+
+		for (int t = 0; t < 8; t++) {
+			results.add(executor.submit(() -> {
+				boolean correct = true;
+
+				for (int i = 0; i < 10000; i++) {
+					String id = storage.put(i, AID);
+					Integer value = storage.get(id);
+					correct &= (value == null) || (value == i);
+				}
+
+				return correct;
+			}));
+		}
+
+		for (Future<Boolean> result : results) {
+			assertThat(result.get()).isTrue();
+		}
+
+		executor.shutdown();
+
+		assertThat(storage.getSize()).isLessThanOrEqualTo(1000);
+		assertThat(storage.getEvictionCount()).isEqualTo(80000 - storage.getSize());
+	}
+
+}
@@ -0,0 +1,106 @@
+package org.continuity.commons.utils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.commons.lang3.Range;
+import org.continuity.api.entities.artifact.SimplifiedSession;
+import org.junit.Test;
+
+public class IntensityCalculationUtilsTest {
+
+	private static final String SESSION_LOGS = "A;\"ShopGET\":100:150:/dvdstore/browse:8080:localhost:HTTP/1.1:GET:<no-query-string>:<no-encoding>;\"HomeGET\":160:200:/dvdstore/home:8080:localhost:HTTP/1.1:GET:<no-query-string>:<no-encoding>\n"
+			+ "\n" + "B;\"HomeGET\":120:300:/dvdstore/home:8080:localhost:HTTP/1.1:GET:<no-query-string>:<no-encoding>\n";
+
+	private final Random random = new Random(42);
+
+	@Test
+	public void testSeries() {
+		List<SimplifiedSession> sessions = Arrays.asList(new SimplifiedSession("A", 0, 40), new SimplifiedSession("B", 10, 30), new SimplifiedSession("C", 20, 40));
+
+		assertThat(IntensityCalculationUtils.calculateIntensitySeries(sessions, 10)).containsExactly(1, 2, 3, 3);
+		assertThat(IntensityCalculationUtils.calculateAverageIntensity(sessions, 10)).isEqualTo(2);
+	}
+
+	@Test
+	public void testEquivalentToRangeWiseCalculation() {
+		for (int i = 0; i < 1000; i++) {
+			List<SimplifiedSession> sessions = randomSessions();
+			long interval = 1 + random.nextInt(40);
+
+			List<Long> expected = calculateRangeWise(sessions, interval);
+
+			assertThat(IntensityCalculationUtils.calculateIntensitySeries(sessions, interval)).as("series of %s with interval %d", sessions, interval)
+					.containsExactly(expected.stream().mapToLong(Long::longValue).toArray());
+		}
+	}
+
+	@Test
+	public void testStreamingDeserialization() throws IOException {
+		List<SimplifiedSession> sessions = SimplifiedSessionLogsDeserializer.parse(new StringReader(SESSION_LOGS));
+
+		assertThat(sessions).extracting(SimplifiedSession::getId).containsExactly("A", "B");
+		assertThat(sessions).extracting(SimplifiedSession::getStartTime).containsExactly(100L, 120L);
+		assertThat(sessions).extracting(SimplifiedSession::getEndTime).containsExactly(200L, 300L);
+	}
+
+	private List<SimplifiedSession> randomSessions() {
+		List<SimplifiedSession> sessions = new ArrayList<>();
+		int numSessions = 1 + random.nextInt(30);
+		int span = 1 + random.nextInt(200);
+
+		for (int i = 0; i < numSessions; i++) {
+			long start = random.nextInt(span);
+			long duration = (random.nextInt(4) == 0) ? 0 : random.nextInt((span / 2) + 1);
+			sessions.add(new SimplifiedSession("session" + i, start, start + duration));
+		}
+
+		return sessions;
+	}
+
+	/**
+	 * Calculates the intensities using
+	 * {@link IntensityCalculationUtils#calculateIntensityForRange(Range, ArrayList, long)}.
+	 */
+	private List<Long> calculateRangeWise(List<SimplifiedSession> sessions, long interval) {
+		long startTime = sessions.stream().mapToLong(SimplifiedSession::getStartTime).min().getAsLong();
+		long highestEndTime = sessions.stream().mapToLong(SimplifiedSession::getEndTime).max().getAsLong();
+		long rangeLength = Math.min(interval, highestEndTime - startTime);
+
+		if (rangeLength <= 0) {
+			return new ArrayList<>();
+		}
+
+		long roundedHighestEndTime = ((highestEndTime % rangeLength) == 0) ? highestEndTime : (highestEndTime - (highestEndTime % rangeLength)) + rangeLength;
+		List<Range<Long>> ranges = IntensityCalculationUtils.calculateRanges(startTime, (roundedHighestEndTime - startTime) / rangeLength, rangeLength);
+
+		if (!ranges.isEmpty() && (ranges.get(ranges.size() - 1).getMaximum() != highestEndTime)) {
+			ranges.remove(ranges.size() - 1);
+		}
+
+		List<Long> intensities = new ArrayList<>();
+
+		for (Range<Long> range : ranges) {
+			ArrayList<SimplifiedSession> sessionsInRange = new ArrayList<>();
+
+			for (SimplifiedSession session : sessions) {
+				Range<Long> sessionRange = Range.between(session.getStartTime(), session.getEndTime());
+
+				if (sessionRange.containsRange(range) || range.contains(session.getStartTime()) || range.contains(session.getEndTime())) {
+					sessionsInRange.add(session);
+				}
+			}
+
+			intensities.add(IntensityCalculationUtils.calculateIntensityForRange(range, sessionsInRange, rangeLength));
+		}
+
+		return intensities;
+	}
+
+}
@@ -1,5 +1,7 @@
 package org.continuity.idpa;
 
+import java.util.function.Function;
+
 import org.continuity.idpa.serialization.WeakReferenceDeserializer;
 import org.continuity.idpa.visitor.IdpaVisitor;
 
@@ -131,6 +133,29 @@ public class WeakReference<T extends IdpaElement> {
 		return referred;
 	}
 
+	/**
+	 * Resolves the referred element using a lookup of elements by their ids instead of traversing
+	 * a model. Overwrites an already resolved element - potentially with {@code null}.
+	 *
+	 * @param lookup
+	 *            Function returning the element with the passed id or {@code null} if there is
+	 *            none.
+	 * @return The resolved reference of {@code null}, if the reference wasn't found.
+	 */
+	public T resolveWith(Function<String, ? extends IdpaElement> lookup) {
+		referred = null;
+
+		if (id != null) {
+			IdpaElement element = lookup.apply(id);
+
+			if (element != null) {
+				checkAndSetElement(element);
+			}
+		}
+
+		return referred;
+	}
+
 	/**
 	 * Returns whether the referred element has already been resolved. That is, if the element is
 	 * not {@code null}.
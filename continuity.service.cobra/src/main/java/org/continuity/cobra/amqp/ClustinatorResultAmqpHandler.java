@@ -4,6 +4,7 @@ import java.io.IOException;
 import java.time.Duration;
 import java.util.Date;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.TimeoutException;
 
 import org.continuity.api.entities.artifact.markovbehavior.MarkovBehaviorModel;
@@ -16,7 +17,7 @@ import org.continuity.cobra.converter.ClustinatorMarkovChainConverter;
 import org.continuity.cobra.entities.ClusteringContinuation;
 import org.continuity.cobra.entities.ClustinatorResult;
 import org.continuity.cobra.entities.TraceProcessingStatus;
-import org.continuity.cobra.extractor.IntensityCalculator;
+import org.continuity.cobra.extractor.MultiGroupIntensityCalculator;
 import org.continuity.cobra.managers.ElasticsearchBehaviorManager;
 import org.continuity.cobra.managers.ElasticsearchIntensityManager;
 import org.continuity.cobra.managers.ElasticsearchSessionManager;
@@ -68,11 +69,7 @@ public class ClustinatorResultAmqpHandler {
 			LOGGER.info("{}@{} {}: Received result from clustinator in range {} ({}) - {}", result.getAppId(), result.getVersion(), result.getTailoring(), new Date(result.getStartMicros() / 1000),
 					new Date(result.getIntervalStartMicros() / 1000), new Date(result.getEndMicros() / 1000));
 
-			configProvider.waitForInitialization();
-			storeClustinatorResult(result);
-			triggerContinuation(result);
-
-			LOGGER.info("{}@{} {}: Processing of the clustinator result finished.", result.getAppId(), result.getVersion(), result.getTailoring());
+			processResult(result);
 		} catch (Exception e) {
 			LOGGER.error("{}@{} {}: {} during processing of the traces!", result.getAppId(), result.getVersion(), result.getTailoring(), e.getClass().getSimpleName());
 
@@ -89,6 +86,23 @@ public class ClustinatorResultAmqpHandler {
 		}
 	}
 
+	/**
+	 * Stores the behavior model and the intensities defined by a clustering result and triggers
+	 * the next clustering if requested. Also used for the results of the embedded clustering.
+	 *
+	 * @param result
+	 *            The clustering result.
+	 * @throws IOException
+	 * @throws TimeoutException
+	 */
+	public void processResult(ClustinatorResult result) throws IOException, TimeoutException {
+		configProvider.waitForInitialization();
+		storeClustinatorResult(result);
+		triggerContinuation(result);
+
+		LOGGER.info("{}@{} {}: Processing of the clustinator result finished.", result.getAppId(), result.getVersion(), result.getTailoring());
+	}
+
 	private void storeClustinatorResult(ClustinatorResult result) throws IOException, TimeoutException {
 		ClustinatorMarkovChainConverter converter = new ClustinatorMarkovChainConverter(result.getStates());
 		MarkovBehaviorModel behaviorModel = new MarkovBehaviorModel();
@@ -109,13 +123,12 @@ public class ClustinatorResultAmqpHandler {
 		}
 
 		for (String group : result.getMeanMarkovChains().keySet()) {
-
 			RelativeMarkovChain behavior = createMarkovChain(group, result, converter);
 			behaviorModel.addMarkovChain(behavior);
-
-			updateIntensities(result, group, startMicros);
 		}
 
+		updateIntensities(result, result.getMeanMarkovChains().keySet(), startMicros);
+
 		behaviorManager.store(result.getAppId(), result.getTailoring(), behaviorModel, true);
 		LOGGER.info("{}@{} {}: Stored behavior model.", result.getAppId(), result.getVersion(), result.getTailoring());
 	}
@@ -135,8 +148,8 @@ public class ClustinatorResultAmqpHandler {
 		return behavior;
 	}
 
-	private void updateIntensities(ClustinatorResult result, String group, long startMicros) throws IOException, TimeoutException {
-		LOGGER.info("{}@{} {}: Updating the intensities of group {}...", result.getAppId(), result.getVersion(), result.getTailoring(), group);
+	private void updateIntensities(ClustinatorResult result, Set<String> groups, long startMicros) throws IOException, TimeoutException {
+		LOGGER.info("{}@{} {}: Updating the intensities of groups {}...", result.getAppId(), result.getVersion(), result.getTailoring(), groups);
 
 		CobraConfiguration config = configProvider.getConfiguration(result.getAppId());
 		Duration resolution = config.getIntensity().getResolution();
@@ -150,20 +163,20 @@ public class ClustinatorResultAmqpHandler {
 			LOGGER.warn("The clustering interval {} is not a multiple of the intensity resolution {}. This can lead to unexpected behavior!", interval, resolution);
 		}
 
-		IntensityCalculator calculator = new IntensityCalculator(group, resolutionMicros, startMicros, result.getEndMicros(), timeoutMicros);
-		sessionManager.scrollForSessionsWithGroupId(result.getAppId(), result.getTailoring(), group, startMicros, result.getEndMicros(), calculator::addSessions, false);
+		MultiGroupIntensityCalculator calculator = new MultiGroupIntensityCalculator(groups, resolutionMicros, startMicros, result.getEndMicros(), timeoutMicros);
+		sessionManager.scrollForSessionsWithGroupIds(result.getAppId(), result.getTailoring(), groups, startMicros, result.getEndMicros(), calculator::addSessions, false);
 
 		List<IntensityRecord> intensities = calculator.getRecords();
 
 		if (intensities.size() > 0) {
 			try {
 				intensityManager.storeOrUpdateIntensities(result.getAppId(), result.getTailoring(), intensities);
-				LOGGER.info("{}@{} {}: Updated the intensities of group {}.", result.getAppId(), result.getVersion(), result.getTailoring(), group);
+				LOGGER.info("{}@{} {}: Updated {} intensity records of groups {}.", result.getAppId(), result.getVersion(), result.getTailoring(), intensities.size(), groups);
 			} catch (IOException e) {
 				LOGGER.error("Could not update the intensities!", e);
 			}
 		} else {
-			LOGGER.info("{}@{} {}: There are no intensities of group {} to be updated.", result.getAppId(), result.getVersion(), result.getTailoring(), group);
+			LOGGER.info("{}@{} {}: There are no intensities of groups {} to be updated.", result.getAppId(), result.getVersion(), result.getTailoring(), groups);
 		}
 	}
 
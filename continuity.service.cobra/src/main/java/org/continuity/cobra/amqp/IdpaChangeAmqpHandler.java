@@ -0,0 +1,40 @@
+package org.continuity.cobra.amqp;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.continuity.api.amqp.AmqpApi;
+import org.continuity.cobra.cache.ApplicationModelCache;
+import org.continuity.cobra.config.RabbitMqConfig;
+import org.continuity.idpa.AppId;
+import org.continuity.idpa.VersionOrTimestamp;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.support.AmqpHeaders;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.stereotype.Component;
+
+/**
+ * Invalidates the cached application models whenever the IDPA service stored a new application
+ * or annotation.
+ *
+ * @author Henning Schulz
+ *
+ */
+@Component
+public class IdpaChangeAmqpHandler {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(IdpaChangeAmqpHandler.class);
+
+	@Autowired
+	private ApplicationModelCache modelCache;
+
+	@RabbitListener(queues = RabbitMqConfig.EVENT_IDPA_CHANGED_QUEUE_NAME)
+	public void onIdpaChanged(String changed, @Header(AmqpHeaders.RECEIVED_ROUTING_KEY) String routingKey) {
+		Pair<AppId, VersionOrTimestamp> aav = AmqpApi.Idpa.EVENT_CHANGED.formatRoutingKey().from(routingKey);
+
+		LOGGER.info("{}@{}: The {} has been changed.", aav.getLeft(), aav.getRight(), changed);
+		modelCache.invalidate(aav.getLeft());
+	}
+
+}
@@ -1,13 +1,15 @@
 package org.continuity.cobra.amqp;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
@@ -15,39 +17,47 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.OptionalLong;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.BiFunction;
 import java.util.stream.Collectors;
 
 import org.apache.commons.lang3.time.DurationFormatUtils;
 import org.apache.commons.lang3.tuple.Pair;
 import org.continuity.api.amqp.AmqpApi;
+import org.continuity.api.amqp.PayloadEncoding;
 import org.continuity.api.entities.artifact.session.Session;
 import org.continuity.api.entities.artifact.session.SessionRequest;
 import org.continuity.api.entities.config.ConfigurationProvider;
 import org.continuity.api.entities.config.cobra.CobraConfiguration;
-import org.continuity.api.rest.RestApi;
+import org.continuity.cobra.cache.ApplicationModelCache;
+import org.continuity.cobra.cache.CachedApplicationModel;
 import org.continuity.cobra.config.RabbitMqConfig;
 import org.continuity.cobra.controllers.ClusteringController;
-import org.continuity.cobra.converter.AccessLogsToOpenXtraceConverter;
-import org.continuity.cobra.converter.CsvRowToOpenXtraceConverter;
-import org.continuity.cobra.converter.SessionLogsToOpenXtraceConverter;
-import org.continuity.cobra.entities.CsvRow;
+import org.continuity.cobra.converter.TraceChunkReader;
 import org.continuity.cobra.entities.TraceProcessingStatus;
 import org.continuity.cobra.entities.TraceRecord;
+import org.continuity.cobra.entities.UploadProgress;
 import org.continuity.cobra.extractor.RequestTailorer;
 import org.continuity.cobra.extractor.SessionUpdater;
 import org.continuity.cobra.managers.ElasticsearchSessionManager;
 import org.continuity.cobra.managers.ElasticsearchTraceManager;
-import org.continuity.commons.accesslogs.AccessLogEntry;
+import org.continuity.cobra.managers.OpenSessionStore;
+import org.continuity.cobra.pipeline.TraceProcessingPipeline;
+import org.continuity.cobra.upload.UploadProgressTracker;
 import org.continuity.commons.idpa.RequestUriMapper;
 import org.continuity.commons.openxtrace.OpenXtraceTracer;
 import org.continuity.idpa.AppId;
 import org.continuity.idpa.VersionOrTimestamp;
-import org.continuity.idpa.application.Application;
 import org.continuity.idpa.application.HttpEndpoint;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -59,10 +69,10 @@ import org.springframework.amqp.core.Message;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
 import org.springframework.amqp.support.AmqpHeaders;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.HttpStatusCodeException;
-import org.springframework.web.client.RestTemplate;
 
 import com.rabbitmq.client.Channel;
 
@@ -84,23 +94,37 @@ public class IncomingTracesAmqpHandler {
 	@Autowired
 	private ConfigurationProvider<CobraConfiguration> configProvider;
 
-	@Autowired
-	private RestTemplate restTemplate;
-
 	@Autowired
 	private ElasticsearchTraceManager traceManager;
 
 	@Autowired
 	private ElasticsearchSessionManager sessionManager;
 
+	@Autowired
+	private OpenSessionStore sessionStore;
+
 	@Autowired
 	private ClusteringController clusteringController;
 
 	@Autowired
 	private TraceProcessingStatus status;
 
+	@Autowired
+	private UploadProgressTracker progressTracker;
+
+	@Autowired
+	private TraceProcessingPipeline pipeline;
+
+	@Autowired
+	private ApplicationModelCache modelCache;
+
+	@Autowired
+	@Qualifier("tailoringExecutor")
+	private ExecutorService tailoringExecutor;
+
 	/**
-	 * Receives and processes new traces.
+	 * Receives and processes new traces. Large uploads are split into several messages, which are
+	 * processed one after another and share the upload ID as correlation ID.
 	 *
 	 * @param message
 	 *            The message (instead of typical payload object for custom OPEN.xtrace
@@ -109,26 +133,64 @@ public class IncomingTracesAmqpHandler {
 	 *            The routing key used by the sender.
 	 * @param finish
 	 *            Whether to finish all sessions created out of the traces.
+	 * @param uploadId
+	 *            The ID of the upload the message is a part of. Can be {@code null} for messages
+	 *            sent by older versions.
+	 * @param part
+	 *            The index of the part.
+	 * @param numParts
+	 *            The total number of parts of the upload.
+	 * @param lastPart
+	 *            Whether the message is the last part of the upload. Parts are sent in order, so
+	 *            the upload should be complete after processing it.
 	 * @throws IOException
 	 * @throws TimeoutException
 	 */
 	@RabbitListener(queues = RabbitMqConfig.TASK_PROCESS_TRACES_QUEUE_NAME, containerFactory = "requeueingContainerFactory")
 	public void processTraces(Message message, Channel channel, @Header(AmqpHeaders.RECEIVED_ROUTING_KEY) String routingKey, @Header(AmqpHeaders.CONSUMER_TAG) String consumerTag,
-			@Header(AmqpHeaders.DELIVERY_TAG) long deliveryTag, @Header(AmqpApi.Cobra.HEADER_DATATYPE) String datatype, @Header(AmqpApi.Cobra.HEADER_FINISH) boolean finish)
+			@Header(AmqpHeaders.DELIVERY_TAG) long deliveryTag, @Header(AmqpApi.Cobra.HEADER_DATATYPE) String datatype, @Header(AmqpApi.Cobra.HEADER_FINISH) boolean finish,
+			@Header(name = AmqpHeaders.CORRELATION_ID, required = false) String uploadId, @Header(name = AmqpApi.Cobra.HEADER_UPLOAD_PART, defaultValue = "0") int part,
+			@Header(name = AmqpApi.Cobra.HEADER_UPLOAD_PARTS, defaultValue = "1") int numParts, @Header(name = AmqpApi.Cobra.HEADER_UPLOAD_LAST, defaultValue = "true") boolean lastPart)
 			throws IOException, TimeoutException {
 
 		Pair<AppId, VersionOrTimestamp> aav = Pair.of(null, null);
+		UploadProgress progress = null;
 
 		try {
 
 			aav = AmqpApi.Cobra.TASK_PROCESS_TRACES.formatRoutingKey().from(routingKey);
 			configProvider.waitForInitialization();
 
-			doProcessing(message, aav, datatype, finish);
+			if (uploadId != null) {
+				LOGGER.info("{}@{}: Received part {} of {} of upload {}.", aav.getLeft(), aav.getRight(), part + 1, numParts, uploadId);
+
+				progress = progressTracker.track(uploadId, aav.getLeft(), aav.getRight(), datatype, numParts);
+				progress.partStarted();
+			}
+
+			long numTraces = doProcessing(message, aav, datatype, finish);
+
+			if (progress != null) {
+				progress.partProcessed(part, numTraces);
+				LOGGER.info("{}@{}: Upload {} has {} of {} parts processed ({} failed).", aav.getLeft(), aav.getRight(), uploadId, progress.getProcessedParts(), numParts,
+						progress.getFailedParts());
+
+				if (lastPart) {
+					checkUploadCompleted(aav, progress, finish);
+				}
+			}
 
 		} catch (Exception e) {
 			LOGGER.error("{}@{} {} during processing of the traces!", aav.getLeft(), aav.getRight(), e.getClass().getSimpleName());
 
+			if (progress != null) {
+				progress.partFailed(part);
+
+				if (lastPart) {
+					checkUploadCompleted(aav, progress, false);
+				}
+			}
+
 			if ((aav.getLeft() != null) && configProvider.getConfiguration(aav.getLeft()).getTraces().isStopOnFailue()) {
 				LOGGER.error("{}@{} Will stop receiving traces until a restart!", aav.getLeft(), aav.getRight());
 				status.setActive(false);
@@ -142,7 +204,31 @@ public class IncomingTracesAmqpHandler {
 		}
 	}
 
-	private void doProcessing(Message message, Pair<AppId, VersionOrTimestamp> aav, String datatype, boolean finish) throws IOException, TimeoutException {
+	/**
+	 * Called after the last part of an upload. Other parts can still be missing if they are
+	 * redelivered, e.g., after a restart, or if they are processed by another instance. Failed
+	 * parts are not redelivered. If the last part has finished the sessions, the sessions lack the
+	 * traces of the failed or missing parts, which is recorded in the progress.
+	 */
+	private void checkUploadCompleted(Pair<AppId, VersionOrTimestamp> aav, UploadProgress progress, boolean sessionsFinished) {
+		boolean complete = progress.isFinished() && (progress.getFailedParts() == 0);
+
+		if (sessionsFinished && !complete) {
+			LOGGER.warn("{}@{}: Finished the sessions of upload {} without the traces of {} failed and {} missing parts!", aav.getLeft(), aav.getRight(), progress.getUploadId(),
+					progress.getFailedParts(), progress.getNumParts() - progress.getProcessedParts() - progress.getFailedParts());
+			progress.sessionsFinishedIncomplete();
+		}
+
+		if (progress.isFinished()) {
+			LOGGER.info("{}@{}: Upload {} is completed with status {}. {} traces have been processed.", aav.getLeft(), aav.getRight(), progress.getUploadId(), progress.getStatus(),
+					progress.getTraces());
+		} else {
+			LOGGER.warn("{}@{}: Processed the last part of upload {}, but only {} of {} parts have been processed ({} failed)!", aav.getLeft(), aav.getRight(), progress.getUploadId(),
+					progress.getProcessedParts(), progress.getNumParts(), progress.getFailedParts());
+		}
+	}
+
+	private long doProcessing(Message message, Pair<AppId, VersionOrTimestamp> aav, String datatype, boolean finish) throws IOException, TimeoutException {
 		long startMillis = System.currentTimeMillis();
 		LOGGER.info("{}@{}: Processing new traces.", aav.getLeft(), aav.getRight());
 
@@ -157,83 +243,77 @@ public class IncomingTracesAmqpHandler {
 		AppId aid = aav.getLeft().dropService();
 		VersionOrTimestamp version = aav.getRight();
 
-		List<TraceRecord> traces = convertMessage(message, datatype, aid, version).stream().map(t -> new TraceRecord(version, t)).collect(Collectors.toList());
-
-		LOGGER.info("{}@{}: Deserialized {} traces. Indexing with endpoints...", aid, version, traces.size());
+		EndpointMapping mapping = createEndpointMapping(aid, version);
+		boolean omitSessions = configProvider.getConfiguration(aid).getSessions().isOmit();
+		AtomicLong numTraces = new AtomicLong(0);
+		int numChunks;
 
-		indexTracesWithEndpoints(aid, version, traces);
-
-		LOGGER.info("{}@{}: Indexing done. Grouping to sessions...", aid, version);
-
-		if (configProvider.getConfiguration(aid).getSessions().isOmit()) {
+		if (omitSessions) {
 			LOGGER.info("{}@{}: Session grouping and clustering is omitted by configuration.", aid, version);
-		} else {
-			LOGGER.info("{}@{}: Grouping and updating the corresponding sessions...", aid, version);
-			groupSessions(aid, version, traces, finish);
 		}
 
-		LOGGER.info("{}@{}: Storing the traces to the database...", aid, version);
-
-		storeTraces(aid, version, traces);
+		try (TraceChunkReader<?> reader = openMessage(message, datatype, aid, version)) {
+			numChunks = pipeline.process(reader, chunk -> {
+				List<TraceRecord> traces = chunk.getTraces().stream().filter(Objects::nonNull).map(t -> new TraceRecord(version, t)).collect(Collectors.toList());
+				numTraces.addAndGet(traces.size());
+
+				LOGGER.info("{}@{}: Deserialized {} traces of chunk #{}. Indexing with endpoints...", aid, version, traces.size(), chunk.getNumber());
+				indexTracesWithEndpoints(aid, version, traces, mapping);
+				chunk.setRecords(traces);
+			}, chunk -> {
+				if (!omitSessions) {
+					LOGGER.info("{}@{}: Grouping chunk #{} and updating the corresponding sessions...", aid, version, chunk.getNumber());
+					groupSessions(aid, version, chunk.getRecords(), finish && chunk.isLast());
+				}
+			}, chunk -> {
+				LOGGER.info("{}@{}: Storing the traces of chunk #{} to the database...", aid, version, chunk.getNumber());
+				storeTraces(aid, version, chunk.getRecords());
+				LOGGER.info("{}@{}: Storing of chunk #{} done.", aid, version, chunk.getNumber());
+			});
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while processing the traces of " + aid + "@" + version);
+		}
 
-		LOGGER.info("{}@{}: Storing done.", aid, version);
+		mapping.reportUnmapped(aid, version);
 
 		long endMillis = System.currentTimeMillis();
-		LOGGER.info("{}@{}: Processing of the traces done. It took {}", aid, version, DurationFormatUtils.formatDurationHMS(endMillis - startMillis));
+		LOGGER.info("{}@{}: Processing of {} traces in {} chunks done. It took {}", aid, version, numTraces.get(), numChunks, DurationFormatUtils.formatDurationHMS(endMillis - startMillis));
+
+		return numTraces.get();
 	}
 
-	private List<Trace> convertMessage(Message message, String datatype, AppId aid, VersionOrTimestamp version) {
-		Charset charset = Charset.forName(message.getMessageProperties().getContentEncoding());
+	private TraceChunkReader<?> openMessage(Message message, String datatype, AppId aid, VersionOrTimestamp version) throws IOException {
+		String contentEncoding = message.getMessageProperties().getContentEncoding();
+		Charset charset = PayloadEncoding.charsetOf(contentEncoding, AmqpApi.Cobra.CONTENT_CHARSET);
+		PayloadEncoding encoding = PayloadEncoding.fromContentEncoding(contentEncoding);
 
-		if (charset == null) {
-			charset = AmqpApi.Cobra.CONTENT_CHARSET;
-		}
+		CobraConfiguration config = configProvider.getConfiguration(aid);
+		int chunkSize = config.getTraces().getChunkSize();
+		boolean hashId = config.getSessions().isHashId();
+
+		// decompressed while reading, so the uncompressed data is never held in memory as a whole
+		InputStream body = encoding.decode(new ByteArrayInputStream(message.getBody()));
 
-		String body = new String(message.getBody(), charset);
+		if (encoding != PayloadEncoding.IDENTITY) {
+			LOGGER.info("{}@{} Decompressing {} bytes of {} data...", aid, version, message.getBody().length, encoding.toPrettyString());
+		}
 
 		switch (datatype) {
 		case "access-logs":
-			return convertAccesslogs(body, aid, version);
+			LOGGER.info("{}@{} Transforming access logs to open-xtrace in chunks of {}...", aid, version, chunkSize);
+			return TraceChunkReader.forAccessLogs(body, charset, chunkSize, hashId);
 		case "csv":
-			return convertCsv(body, aid, version);
+			LOGGER.info("{}@{} Transforming CSV data to open-xtrace in chunks of {}...", aid, version, chunkSize);
+			return TraceChunkReader.forCsv(body, charset, chunkSize, hashId);
 		case "session-logs":
-			return convertSessionlogs(body, aid, version);
+			LOGGER.info("{}@{} Transforming session logs to open-xtrace in chunks of {}...", aid, version, chunkSize);
+			return TraceChunkReader.forSessionLogs(body, charset, chunkSize);
 		case "open-xtrace":
 		default:
-			return deserializeOpenXtrace(body, aid, version);
-		}
-	}
-
-	private List<Trace> convertAccesslogs(String body, AppId aid, VersionOrTimestamp version) {
-		LOGGER.info("{}@{} Transforming access logs to open-xtrace...", aid, version);
-
-		List<AccessLogEntry> parsedLogs = new ArrayList<>();
-
-		for (String line : body.split("\\n")) {
-			parsedLogs.add(AccessLogEntry.fromLogLine(line));
+			LOGGER.info("{}@{} Deserializing open-xtrace in chunks of {}...", aid, version, chunkSize);
+			return TraceChunkReader.forOpenXtrace(body, chunkSize);
 		}
-
-		return new AccessLogsToOpenXtraceConverter(configProvider.getConfiguration(aid).getSessions().isHashId()).convert(parsedLogs);
-	}
-
-	private List<Trace> convertCsv(String body, AppId aid, VersionOrTimestamp version) {
-		LOGGER.info("{}@{} Transforming CSV data to open-xtrace...", aid, version);
-
-		List<CsvRow> csvRows = CsvRow.listFromString(body);
-		return new CsvRowToOpenXtraceConverter(configProvider.getConfiguration(aid).getSessions().isHashId()).convert(csvRows);
-	}
-
-	private List<Trace> convertSessionlogs(String body, AppId aid, VersionOrTimestamp version) {
-		LOGGER.info("{}@{} Transforming session logs to open-xtrace...", aid, version);
-
-		List<String> sessionLogs = Arrays.asList(body.split("\\n"));
-		return new SessionLogsToOpenXtraceConverter().convert(sessionLogs);
-	}
-
-	private List<Trace> deserializeOpenXtrace(String body, AppId aid, VersionOrTimestamp version) {
-		LOGGER.info("{}@{} Deserializing open-xtrace...", aid, version);
-
-		return OPENxtraceUtils.deserializeIntoTraceList(body);
 	}
 
 	private void storeTraces(AppId aid, VersionOrTimestamp version, List<TraceRecord> traces) throws IOException {
@@ -274,7 +354,7 @@ public class IncomingTracesAmqpHandler {
 	}
 
 	private void groupSessions(AppId aid, VersionOrTimestamp version, List<TraceRecord> traces, boolean forceFinish) throws IOException, TimeoutException {
-		RequestTailorer tailorer = new RequestTailorer(aid, version, restTemplate);
+		RequestTailorer tailorer = new RequestTailorer(aid, version, modelCache);
 		CobraConfiguration config = configProvider.getConfiguration(aid);
 
 		List<List<String>> tailoring = config.getTailoring();
@@ -284,42 +364,99 @@ public class IncomingTracesAmqpHandler {
 			tailoring = Collections.singletonList(Collections.singletonList(AppId.SERVICE_ALL));
 		}
 
+		List<CompletableFuture<Map<Long, Set<String>>>> futures = new ArrayList<>();
+
 		for (List<String> services : tailoring) {
-			LOGGER.info("{}@{}: Tailoring to {}...", aid, version, services);
+			futures.add(CompletableFuture.supplyAsync(() -> {
+				try {
+					return groupSessions(aid, version, services, traces, tailorer, forceFinish);
+				} catch (IOException | TimeoutException e) {
+					throw new CompletionException(e);
+				}
+			}, tailoringExecutor));
+		}
 
-			List<SessionRequest> requests;
+		List<Map<Long, Set<String>>> sessionMaps = new ArrayList<>();
+		Throwable failure = null;
 
-			if (config.getTraces().isMapToIdpa()) {
-				requests = tailorer.tailorTraces(services, traces);
-			} else {
-				requests = tailorer.tailorTracesWithoutMapping(traces);
+		for (CompletableFuture<Map<Long, Set<String>>> future : futures) {
+			try {
+				sessionMaps.add(future.join());
+			} catch (CompletionException e) {
+				if (failure == null) {
+					failure = e.getCause();
+				}
 			}
+		}
 
-			List<Session> openSessions = sessionManager.readOpenSessions(aid, null, services);
+		if (failure instanceof IOException) {
+			throw (IOException) failure;
+		} else if (failure instanceof TimeoutException) {
+			throw (TimeoutException) failure;
+		} else if (failure instanceof RuntimeException) {
+			throw (RuntimeException) failure;
+		} else if (failure instanceof Error) {
+			throw (Error) failure;
+		}
 
-			SessionUpdater updater = new SessionUpdater(version, config.getSessions().getTimeout().getSeconds() * SECONDS_TO_MICROS, forceFinish, config.getSessions().isIgnoreRedirects());
-			Set<Session> updatedSessions = updater.updateSessions(openSessions, requests);
+		// the trace records are shared by all tailorings and, thus, only indexed once all are done
+		LOGGER.info("{}@{}: Indexing traces with sessions...", aid, version);
+		indexTracesWithSessions(traces, sessionMaps);
+	}
 
-			if (!updatedSessions.isEmpty()) {
-				LOGGER.info("{}@{} {}: Indexing traces with sessions...", aid, version, services);
-				indexTracesWithSessions(traces, updatedSessions);
+	/**
+	 * Groups the traces to sessions for one service combination. Does not modify the trace records
+	 * and can thus be executed concurrently for several service combinations.
+	 *
+	 * @return The unique session IDs per trace ID.
+	 */
+	private Map<Long, Set<String>> groupSessions(AppId aid, VersionOrTimestamp version, List<String> services, List<TraceRecord> traces, RequestTailorer tailorer, boolean forceFinish)
+			throws IOException, TimeoutException {
+		CobraConfiguration config = configProvider.getConfiguration(aid);
 
-				Date latestDateBeforeUpdate = sessionManager.getLatestDate(aid, null, services);
+		LOGGER.info("{}@{}: Tailoring to {}...", aid, version, services);
 
-				LOGGER.info("{}@{} {}: Storing sessions...", aid, version, services);
-				sessionManager.storeOrUpdateSessions(aid, updatedSessions, services, true);
+		List<SessionRequest> requests;
 
-				Date latestDateAfterUpdate = sessionManager.getLatestDate(aid, null, services);
-				Date startDateOfSessions = sessionManager.getEarliestDate(aid, null, services);
+		if (config.getTraces().isMapToIdpa()) {
+			requests = tailorer.tailorTraces(services, traces);
+		} else {
+			requests = tailorer.tailorTracesWithoutMapping(traces);
+		}
 
-				LOGGER.info("{}@{} {}: Sessions stored. Latest date before update: {}, start of new sessions: {}, and latest date after: {}.", aid, version, services, latestDateBeforeUpdate,
-						startDateOfSessions, latestDateAfterUpdate);
+		List<Session> openSessions = sessionStore.getOpenSessions(aid, services);
 
-				triggerClustering(aid, version, services, startDateOfSessions, latestDateBeforeUpdate, latestDateAfterUpdate, forceFinish);
-			} else {
-				LOGGER.info("{}@{} {}: No sessions have been updated.", aid, version, services);
-			}
+		SessionUpdater updater = new SessionUpdater(version, config.getSessions().getTimeout().getSeconds() * SECONDS_TO_MICROS, forceFinish, config.getSessions().isIgnoreRedirects());
+		Set<Session> updatedSessions = updater.updateSessions(openSessions, requests);
+
+		if (updatedSessions.isEmpty()) {
+			LOGGER.info("{}@{} {}: No sessions have been updated.", aid, version, services);
+			// finishes the update, so that the open sessions are swept again
+			sessionStore.update(aid, services, updatedSessions, false);
+			return Collections.emptyMap();
 		}
+
+		// needs to be created before the requests are dropped from memory
+		Map<Long, Set<String>> sessionMap = createSessionMap(updatedSessions);
+
+		Date latestDateBeforeUpdate = sessionManager.getLatestDate(aid, null, services);
+
+		LOGGER.info("{}@{} {}: Updating {} sessions created from {} requests...", aid, version, services, updatedSessions.size(), requests.size());
+
+		if (!sessionStore.update(aid, services, updatedSessions, forceFinish)) {
+			LOGGER.info("{}@{} {}: No sessions have been stored. Skipping the clustering check.", aid, version, services);
+			return sessionMap;
+		}
+
+		Date latestDateAfterUpdate = sessionManager.getLatestDate(aid, null, services);
+		Date startDateOfSessions = sessionManager.getEarliestDate(aid, null, services);
+
+		LOGGER.info("{}@{} {}: Sessions stored. Latest date before update: {}, start of new sessions: {}, and latest date after: {}.", aid, version, services, latestDateBeforeUpdate,
+				startDateOfSessions, latestDateAfterUpdate);
+
+		triggerClustering(aid, version, services, startDateOfSessions, latestDateBeforeUpdate, latestDateAfterUpdate, forceFinish);
+
+		return sessionMap;
 	}
 
 	private void triggerClustering(AppId aid, VersionOrTimestamp version, List<String> services, Date startDateOfSessions, Date latestDateBeforeUpdate, Date latestDateAfterUpdate, boolean forceFinish)
@@ -347,11 +484,11 @@ public class IncomingTracesAmqpHandler {
 		return ((date.getTime() - timeoutMillis) / intervalMillis) * intervalMillis;
 	}
 
-	private void indexTracesWithSessions(List<TraceRecord> traces, Set<Session> sessions) {
-		Map<Long, Set<String>> sessionMap = createSessionMap(sessions);
-
+	private void indexTracesWithSessions(List<TraceRecord> traces, List<Map<Long, Set<String>>> sessionMaps) {
 		for (TraceRecord trace : traces) {
-			trace.addUniqueSessionIds(sessionMap.get(trace.getTrace().getTraceId()));
+			for (Map<Long, Set<String>> sessionMap : sessionMaps) {
+				trace.addUniqueSessionIds(sessionMap.get(trace.getTrace().getTraceId()));
+			}
 		}
 	}
 
@@ -375,28 +512,30 @@ public class IncomingTracesAmqpHandler {
 		return sessionMap;
 	}
 
-	private void indexTracesWithEndpoints(AppId aid, VersionOrTimestamp version, List<TraceRecord> traces) {
+	/**
+	 * Creates the mapping of traces to endpoints, which is used for all chunks of an upload.
+	 */
+	private EndpointMapping createEndpointMapping(AppId aid, VersionOrTimestamp version) {
 		CobraConfiguration config = configProvider.getConfiguration(aid);
-		boolean discard = config.getTraces().isDiscardUmapped();
-
-		Set<String> unmapped = new HashSet<>();
-		int numUnmapped = 0;
-
-		BiFunction<TraceRecord, HTTPRequestProcessingImpl, Boolean> endpointSetter;
 
 		if (config.getTraces().isMapToIdpa()) {
-			Application rootApp;
+			CachedApplicationModel rootModel;
 			try {
-				rootApp = restTemplate.getForObject(RestApi.Idpa.Application.GET.requestUrl(aid).withQuery("version", version.toString()).get(), Application.class);
+				rootModel = modelCache.get(aid, version);
 			} catch (HttpStatusCodeException e) {
 				LOGGER.error("Could not get root application for app-id {} and version {}! {} ({}): {}", aid, version, e.getStatusCode(), e.getStatusCode().getReasonPhrase(),
 						e.getResponseBodyAsString());
-				return;
+				return new EndpointMapping(null);
+			}
+
+			if (rootModel == null) {
+				LOGGER.error("There is no root application for app-id {} and version {}!", aid, version);
+				return new EndpointMapping(null);
 			}
 
-			RequestUriMapper rootMapper = new RequestUriMapper(rootApp);
+			RequestUriMapper rootMapper = rootModel.getMapper();
 
-			endpointSetter = (trace, callable) -> {
+			return new EndpointMapping((trace, callable) -> {
 				HttpEndpoint endpoint = rootMapper.map(callable.getUri(), callable.getRequestMethod().get().name());
 
 				if (endpoint != null) {
@@ -404,9 +543,9 @@ public class IncomingTracesAmqpHandler {
 				}
 
 				return endpoint != null;
-			};
+			});
 		} else {
-			endpointSetter = (trace, callable) -> {
+			return new EndpointMapping((trace, callable) -> {
 				Optional<String> bt = OPENxtraceUtils.getBusinessTransaction(callable);
 
 				if (bt.isPresent() && !bt.get().isEmpty()) {
@@ -415,8 +554,16 @@ public class IncomingTracesAmqpHandler {
 				} else {
 					return false;
 				}
-			};
+			});
 		}
+	}
+
+	private void indexTracesWithEndpoints(AppId aid, VersionOrTimestamp version, List<TraceRecord> traces, EndpointMapping mapping) {
+		if (mapping.endpointSetter == null) {
+			return;
+		}
+
+		boolean discard = configProvider.getConfiguration(aid).getTraces().isDiscardUmapped();
 
 		ListIterator<TraceRecord> iterator = traces.listIterator();
 
@@ -431,44 +578,70 @@ public class IncomingTracesAmqpHandler {
 				continue;
 			}
 
-			boolean endpointSet = endpointSetter.apply(trace, rootCallables.get(0));
+			boolean endpointSet = mapping.endpointSetter.apply(trace, rootCallables.get(0));
 
 			if (!endpointSet) {
 				String method = rootCallables.get(0).getRequestMethod().map(HTTPMethod::name).orElse("?");
 				String path = rootCallables.get(0).getUri();
-				unmapped.add(new StringBuilder().append(method).append(" ").append(path).toString());
+				mapping.unmapped.add(new StringBuilder().append(method).append(" ").append(path).toString());
 
-				numUnmapped++;
+				mapping.numUnmapped.incrementAndGet();
 
 				if (discard) {
 					iterator.remove();
 				}
 			}
 		}
+	}
 
-		if (config.getTraces().isLogUnmapped() && !unmapped.isEmpty()) {
-			try {
-				Files.write(Paths.get(toUnmappedFilename(aid)), unmapped);
-			} catch (IOException e) {
-				LOGGER.error("Could not store unmapped log file!", e);
-			}
-		}
+	private String toUnmappedFilename(AppId aid) {
+		return new StringBuilder().append(LocalDateTime.now()).append(".").append(aid).append(".unmapped.txt").toString();
+	}
 
-		if (numUnmapped > 50) {
-			LOGGER.warn("{}@{}: Could not find an endpoint for {} traces with {} endpoints!", aid, version, numUnmapped, unmapped.size());
-		} else if (!unmapped.isEmpty()) {
-			LOGGER.warn("{}@{}: Could not find an endpoint for {} traces with the following endpoints: {}", aid, version, unmapped.size(), unmapped);
-		} else {
-			LOGGER.info("{}@{}: All traces have been mapped to endpoints successfully.", aid, version);
+	/**
+	 * Maps traces to endpoints and collects the unmapped ones over all chunks of an upload. Can be
+	 * used concurrently for multiple chunks.
+	 */
+	private class EndpointMapping {
+
+		private final BiFunction<TraceRecord, HTTPRequestProcessingImpl, Boolean> endpointSetter;
+
+		private final Set<String> unmapped = ConcurrentHashMap.newKeySet();
+
+		private final AtomicInteger numUnmapped = new AtomicInteger(0);
+
+		private EndpointMapping(BiFunction<TraceRecord, HTTPRequestProcessingImpl, Boolean> endpointSetter) {
+			this.endpointSetter = endpointSetter;
 		}
 
-		if (!unmapped.isEmpty() && discard) {
-			LOGGER.info("{}@{}: The traces without endpoint won't be stored.", aid, version);
+		private void reportUnmapped(AppId aid, VersionOrTimestamp version) {
+			if (endpointSetter == null) {
+				return;
+			}
+
+			CobraConfiguration config = configProvider.getConfiguration(aid);
+
+			if (config.getTraces().isLogUnmapped() && !unmapped.isEmpty()) {
+				try {
+					Files.write(Paths.get(toUnmappedFilename(aid)), unmapped);
+				} catch (IOException e) {
+					LOGGER.error("Could not store unmapped log file!", e);
+				}
+			}
+
+			if (numUnmapped.get() > 50) {
+				LOGGER.warn("{}@{}: Could not find an endpoint for {} traces with {} endpoints!", aid, version, numUnmapped.get(), unmapped.size());
+			} else if (!unmapped.isEmpty()) {
+				LOGGER.warn("{}@{}: Could not find an endpoint for {} traces with the following endpoints: {}", aid, version, unmapped.size(), unmapped);
+			} else {
+				LOGGER.info("{}@{}: All traces have been mapped to endpoints successfully.", aid, version);
+			}
+
+			if (!unmapped.isEmpty() && config.getTraces().isDiscardUmapped()) {
+				LOGGER.info("{}@{}: The traces without endpoint won't be stored.", aid, version);
+			}
 		}
-	}
 
-	private String toUnmappedFilename(AppId aid) {
-		return new StringBuilder().append(LocalDateTime.now()).append(".").append(aid).append(".unmapped.txt").toString();
 	}
 
 }
@@ -0,0 +1,243 @@
+package org.continuity.cobra.cache;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import org.continuity.api.rest.RestApi;
+import org.continuity.idpa.AppId;
+import org.continuity.idpa.VersionOrTimestamp;
+import org.continuity.idpa.application.Application;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Caches the application models retrieved from the IDPA service together with the compiled
+ * {@link org.continuity.commons.idpa.RequestUriMapper}. The cache is versioned, i.e., a model
+ * retrieved for one version is reused for all versions that are known to resolve to the same
+ * model. It holds at most a configured number of models and evicts the least recently used one
+ * when exceeding it. <br>
+ *
+ * Since the IDPA service might store new models at any time, the cache needs to be invalidated
+ * via {@link #invalidate(AppId)} whenever a model has been changed.
+ *
+ * @author Henning Schulz
+ *
+ */
+public class ApplicationModelCache {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(ApplicationModelCache.class);
+
+	private final RestTemplate restTemplate;
+
+	private final int maxSize;
+
+	private final Map<AppId, NavigableMap<VersionOrTimestamp, CachedApplicationModel>> modelsPerAid = new HashMap<>();
+
+	private final LinkedHashMap<CachedApplicationModel, Boolean> lru = new LinkedHashMap<>(16, 0.75F, true);
+
+	private long generation = 0;
+
+	/**
+	 *
+	 * @param restTemplate
+	 *            {@link RestTemplate} to be used for retrieving the application models.
+	 * @param maxSize
+	 *            The maximum number of cached application models.
+	 */
+	public ApplicationModelCache(RestTemplate restTemplate, int maxSize) {
+		this.restTemplate = restTemplate;
+		this.maxSize = maxSize;
+	}
+
+	/**
+	 * Gets the application model of an app-id that is valid for a version. If it is not cached, it
+	 * will be retrieved from the IDPA service.
+	 *
+	 * @param aid
+	 *            The app-id of the application model.
+	 * @param version
+	 *            The version or timestamp.
+	 * @return The cached application model or {@code null} if the IDPA service did not return
+	 *         one.
+	 * @throws HttpStatusCodeException
+	 *             If the application model could not be retrieved.
+	 */
+	public CachedApplicationModel get(AppId aid, VersionOrTimestamp version) throws HttpStatusCodeException {
+		CachedApplicationModel model = lookup(aid, version);
+
+		if (model != null) {
+			return model;
+		}
+
+		long generation = currentGeneration();
+		Application application = restTemplate.getForObject(RestApi.Idpa.Application.GET.requestUrl(aid).withQuery("version", version.toString()).get(), Application.class);
+
+		return put(aid, version, application, generation);
+	}
+
+	/**
+	 * Gets the application models of several services of an app-id that are valid for a version.
+	 * The models that are not cached will be retrieved from the IDPA service at once.
+	 *
+	 * @param aid
+	 *            The app-id of the application models (the service part will be ignored).
+	 * @param version
+	 *            The version or timestamp.
+	 * @param services
+	 *            The services.
+	 * @return The cached application models in the order of the services. Models that the IDPA
+	 *         service did not return are {@code null}.
+	 * @throws HttpStatusCodeException
+	 *             If the application models could not be retrieved.
+	 */
+	public List<CachedApplicationModel> get(AppId aid, VersionOrTimestamp version, List<String> services) throws HttpStatusCodeException {
+		CachedApplicationModel[] models = new CachedApplicationModel[services.size()];
+		List<String> missing = new ArrayList<>();
+
+		for (int i = 0; i < models.length; i++) {
+			models[i] = lookup(aid.withService(services.get(i)), version);
+
+			if (models[i] == null) {
+				missing.add(services.get(i));
+			}
+		}
+
+		if (!missing.isEmpty()) {
+			long generation = currentGeneration();
+			Application[] applications = restTemplate.getForObject(
+					RestApi.Idpa.Application.GET.requestUrl(aid).withQuery("version", version.toString()).withQuery("services", missing.stream().collect(Collectors.joining(","))).get(),
+					Application[].class);
+
+			int next = 0;
+
+			for (int i = 0; (i < models.length) && (applications != null) && (next < applications.length); i++) {
+				if (models[i] == null) {
+					models[i] = put(aid.withService(services.get(i)), version, applications[next++], generation);
+				}
+			}
+		}
+
+		return Arrays.asList(models);
+	}
+
+	/**
+	 * Removes all application models of the application of the app-id, regardless of the service
+	 * and version.
+	 *
+	 * @param aid
+	 *            The app-id.
+	 */
+	public synchronized void invalidate(AppId aid) {
+		generation++;
+
+		int numRemoved = 0;
+		Iterator<Entry<AppId, NavigableMap<VersionOrTimestamp, CachedApplicationModel>>> iterator = modelsPerAid.entrySet().iterator();
+
+		while (iterator.hasNext()) {
+			Entry<AppId, NavigableMap<VersionOrTimestamp, CachedApplicationModel>> entry = iterator.next();
+
+			if (entry.getKey().getApplication().equals(aid.getApplication())) {
+				entry.getValue().values().forEach(lru::remove);
+				numRemoved += entry.getValue().size();
+				iterator.remove();
+			}
+		}
+
+		LOGGER.info("{}: Invalidated {} cached application models.", aid, numRemoved);
+	}
+
+	/**
+	 *
+	 * @return The number of cached application models.
+	 */
+	public synchronized int size() {
+		return lru.size();
+	}
+
+	private synchronized long currentGeneration() {
+		return generation;
+	}
+
+	private synchronized CachedApplicationModel lookup(AppId aid, VersionOrTimestamp version) {
+		NavigableMap<VersionOrTimestamp, CachedApplicationModel> models = modelsPerAid.get(aid);
+
+		if (models == null) {
+			return null;
+		}
+
+		Entry<VersionOrTimestamp, CachedApplicationModel> entry = models.floorEntry(version);
+
+		if ((entry == null) || !entry.getValue().isValidFor(version)) {
+			return null;
+		}
+
+		lru.get(entry.getValue());
+		LOGGER.debug("{}@{}: Using the cached application model of version {}.", aid, version, entry.getKey());
+
+		return entry.getValue();
+	}
+
+	private synchronized CachedApplicationModel put(AppId aid, VersionOrTimestamp version, Application application, long generation) {
+		if (application == null) {
+			return null;
+		}
+
+		VersionOrTimestamp modelVersion = application.getVersionOrTimestamp();
+
+		if (modelVersion.isEmpty() || version.before(modelVersion)) {
+			modelVersion = version;
+		}
+
+		if (generation != this.generation) {
+			LOGGER.debug("{}@{}: The application models have been changed concurrently. Not caching the retrieved one.", aid, version);
+			return new CachedApplicationModel(aid, modelVersion, version, application);
+		}
+
+		NavigableMap<VersionOrTimestamp, CachedApplicationModel> models = modelsPerAid.computeIfAbsent(aid, a -> new TreeMap<>());
+		CachedApplicationModel model = models.get(modelVersion);
+
+		if (model != null) {
+			model.extendValidity(version);
+			lru.get(model);
+			return model;
+		}
+
+		model = new CachedApplicationModel(aid, modelVersion, version, application);
+		models.put(modelVersion, model);
+		lru.put(model, Boolean.TRUE);
+
+		evictIfNecessary();
+
+		return model;
+	}
+
+	private void evictIfNecessary() {
+		Iterator<CachedApplicationModel> iterator = lru.keySet().iterator();
+
+		while ((lru.size() > maxSize) && iterator.hasNext()) {
+			CachedApplicationModel eldest = iterator.next();
+			iterator.remove();
+
+			NavigableMap<VersionOrTimestamp, CachedApplicationModel> models = modelsPerAid.get(eldest.getAid());
+			models.remove(eldest.getModelVersion());
+
+			if (models.isEmpty()) {
+				modelsPerAid.remove(eldest.getAid());
+			}
+
+			LOGGER.debug("{}: Evicted the cached application model of version {}.", eldest.getAid(), eldest.getModelVersion());
+		}
+	}
+
+}
@@ -0,0 +1,94 @@
+package org.continuity.cobra.cache;
+
+import org.continuity.commons.idpa.RequestUriMapper;
+import org.continuity.idpa.AppId;
+import org.continuity.idpa.VersionOrTimestamp;
+import org.continuity.idpa.application.Application;
+
+/**
+ * An application model held by the {@link ApplicationModelCache} together with the compiled
+ * {@link RequestUriMapper}. The model is valid for all versions from its own version up to the
+ * latest version it has been requested for.
+ *
+ * @author Henning Schulz
+ *
+ */
+public class CachedApplicationModel {
+
+	private final AppId aid;
+
+	private final VersionOrTimestamp modelVersion;
+
+	private final Application application;
+
+	private final RequestUriMapper mapper;
+
+	private volatile VersionOrTimestamp validUntil;
+
+	public CachedApplicationModel(AppId aid, VersionOrTimestamp modelVersion, VersionOrTimestamp validUntil, Application application) {
+		this.aid = aid;
+		this.modelVersion = modelVersion;
+		this.validUntil = validUntil;
+		this.application = application;
+		this.mapper = new RequestUriMapper(application);
+	}
+
+	/**
+	 *
+	 * @return The app-id of the application model.
+	 */
+	public AppId getAid() {
+		return aid;
+	}
+
+	/**
+	 *
+	 * @return The version or timestamp of the application model itself.
+	 */
+	public VersionOrTimestamp getModelVersion() {
+		return modelVersion;
+	}
+
+	/**
+	 *
+	 * @return The latest version or timestamp for which the application model is known to be
+	 *         valid.
+	 */
+	public VersionOrTimestamp getValidUntil() {
+		return validUntil;
+	}
+
+	/**
+	 *
+	 * @return The application model. Must not be modified.
+	 */
+	public Application getApplication() {
+		return application;
+	}
+
+	/**
+	 *
+	 * @return The compiled {@link RequestUriMapper} of the application model.
+	 */
+	public RequestUriMapper getMapper() {
+		return mapper;
+	}
+
+	/**
+	 * Checks whether the application model is known to be valid for the passed version.
+	 *
+	 * @param version
+	 *            The version or timestamp.
+	 * @return {@code true} if the model is the latest one before the version.
+	 */
+	public boolean isValidFor(VersionOrTimestamp version) {
+		return !version.before(modelVersion) && !validUntil.before(version);
+	}
+
+	void extendValidity(VersionOrTimestamp version) {
+		if (validUntil.before(version)) {
+			this.validUntil = version;
+		}
+	}
+
+}
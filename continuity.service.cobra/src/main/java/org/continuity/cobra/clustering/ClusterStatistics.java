@@ -0,0 +1,192 @@
+package org.continuity.cobra.clustering;
+
+/**
+ * Describes clusters of sessions in the format of the clustinator, i.e., by arrays of
+ * {@code n * n} elements with {@code n} = number of states.
+ *
+ * @author Henning Schulz
+ *
+ */
+public class ClusterStatistics {
+
+	private final long[] numSessions;
+
+	private final double[][] means;
+
+	private final double[][] radiuses;
+
+	private final double[] totalRadiuses;
+
+	private final double[][] thinkTimeMeans;
+
+	private final double[][] thinkTimeVariances;
+
+	private ClusterStatistics(int numClusters) {
+		this.numSessions = new long[numClusters];
+		this.means = new double[numClusters][];
+		this.radiuses = new double[numClusters][];
+		this.totalRadiuses = new double[numClusters];
+		this.thinkTimeMeans = new double[numClusters][];
+		this.thinkTimeVariances = new double[numClusters][];
+	}
+
+	/**
+	 * Calculates the statistics of clusters.
+	 *
+	 * @param sessions
+	 *            The clustered sessions.
+	 * @param labels
+	 *            The cluster labels as returned by a {@link ClusteringAlgorithm}.
+	 * @param numClusters
+	 *            The number of clusters, i.e., the highest label plus one.
+	 * @return The statistics.
+	 */
+	public static ClusterStatistics of(SessionVectors sessions, int[] labels, int numClusters) {
+		int dimension = sessions.getDimension();
+		ClusterStatistics stats = new ClusterStatistics(numClusters);
+
+		double[][] thinkTimeSums = new double[numClusters][dimension];
+		double[][] thinkTimeSquares = new double[numClusters][dimension];
+		double[][] transitionSums = new double[numClusters][dimension];
+
+		for (int c = 0; c < numClusters; c++) {
+			stats.means[c] = new double[dimension];
+			stats.radiuses[c] = new double[dimension];
+			stats.thinkTimeMeans[c] = new double[dimension];
+			stats.thinkTimeVariances[c] = new double[dimension];
+		}
+
+		for (int s = 0; s < labels.length; s++) {
+			int c = labels[s];
+
+			if (c == ClusteringAlgorithm.NOISE) {
+				continue;
+			}
+
+			stats.numSessions[c]++;
+			sessions.addTo(s, transitionSums[c]);
+			addSparse(sessions.getIndexes(s), sessions.getThinkTimeSums(s), thinkTimeSums[c]);
+			addSparse(sessions.getIndexes(s), sessions.getThinkTimeSquares(s), thinkTimeSquares[c]);
+		}
+
+		for (int c = 0; c < numClusters; c++) {
+			for (int i = 0; i < dimension; i++) {
+				double numTransitions = transitionSums[c][i];
+
+				if (stats.numSessions[c] > 0) {
+					stats.means[c][i] = numTransitions / stats.numSessions[c];
+				}
+
+				if (numTransitions > 0) {
+					double mean = thinkTimeSums[c][i] / numTransitions;
+					stats.thinkTimeMeans[c][i] = mean;
+					stats.thinkTimeVariances[c][i] = Math.max(0, (thinkTimeSquares[c][i] / numTransitions) - (mean * mean));
+				}
+			}
+		}
+
+		calculateRadiuses(sessions, labels, stats);
+
+		return stats;
+	}
+
+	/**
+	 * Calculates the maximum distance of a session to the mean per transition and in total. For
+	 * each transition that is not contained in all sessions of a cluster, the mean itself is the
+	 * difference of the sessions not containing it.
+	 */
+	private static void calculateRadiuses(SessionVectors sessions, int[] labels, ClusterStatistics stats) {
+		int numClusters = stats.numSessions.length;
+		int dimension = sessions.getDimension();
+		long[][] numContaining = new long[numClusters][dimension];
+		double[] meanNorms = new double[numClusters];
+
+		for (int c = 0; c < numClusters; c++) {
+			meanNorms[c] = SessionVectors.squaredNorm(stats.means[c]);
+		}
+
+		for (int s = 0; s < labels.length; s++) {
+			int c = labels[s];
+
+			if (c == ClusteringAlgorithm.NOISE) {
+				continue;
+			}
+
+			int[] idx = sessions.getIndexes(s);
+			double[] counts = sessions.getCounts(s);
+
+			for (int i = 0; i < idx.length; i++) {
+				double diff = Math.abs(counts[i] - stats.means[c][idx[i]]);
+				stats.radiuses[c][idx[i]] = Math.max(stats.radiuses[c][idx[i]], diff);
+				numContaining[c][idx[i]]++;
+			}
+
+			stats.totalRadiuses[c] = Math.max(stats.totalRadiuses[c], Math.sqrt(sessions.squaredDistance(s, stats.means[c], meanNorms[c])));
+		}
+
+		for (int c = 0; c < numClusters; c++) {
+			for (int i = 0; i < dimension; i++) {
+				if (numContaining[c][i] < stats.numSessions[c]) {
+					stats.radiuses[c][i] = Math.max(stats.radiuses[c][i], stats.means[c][i]);
+				}
+			}
+		}
+	}
+
+	private static void addSparse(int[] indexes, double[] values, double[] target) {
+		for (int i = 0; i < indexes.length; i++) {
+			target[indexes[i]] += values[i];
+		}
+	}
+
+	public int getNumClusters() {
+		return numSessions.length;
+	}
+
+	public long getNumSessions(int cluster) {
+		return numSessions[cluster];
+	}
+
+	/**
+	 * Gets the mean transition counts of a cluster.
+	 *
+	 * @param cluster
+	 *            The cluster label.
+	 * @return The mean transition counts.
+	 */
+	public double[] getMean(int cluster) {
+		return means[cluster];
+	}
+
+	/**
+	 * Gets the maximum difference of the transition counts of a session to the mean per
+	 * transition.
+	 *
+	 * @param cluster
+	 *            The cluster label.
+	 * @return The radiuses per transition.
+	 */
+	public double[] getRadiuses(int cluster) {
+		return radiuses[cluster];
+	}
+
+	/**
+	 * Gets the maximum Euclidean distance of a session to the mean.
+	 *
+	 * @param cluster
+	 *            The cluster label.
+	 * @return The radius.
+	 */
+	public double getTotalRadius(int cluster) {
+		return totalRadiuses[cluster];
+	}
+
+	public double[] getThinkTimeMeans(int cluster) {
+		return thinkTimeMeans[cluster];
+	}
+
+	public double[] getThinkTimeVariances(int cluster) {
+		return thinkTimeVariances[cluster];
+	}
+
+}
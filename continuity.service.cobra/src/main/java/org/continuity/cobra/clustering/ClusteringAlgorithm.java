@@ -0,0 +1,30 @@
+package org.continuity.cobra.clustering;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Assigns sessions to clusters.
+ *
+ * @author Henning Schulz
+ *
+ */
+public interface ClusteringAlgorithm {
+
+	/**
+	 * The label of sessions that do not belong to any cluster.
+	 */
+	int NOISE = -1;
+
+	/**
+	 * Clusters the sessions.
+	 *
+	 * @param sessions
+	 *            The sessions to be clustered.
+	 * @param pool
+	 *            The pool to be used for parallel computations.
+	 * @return The cluster label per session. The labels are {@code 0, ..., k - 1} with {@code k}
+	 *         = number of clusters, or {@link #NOISE}.
+	 */
+	int[] cluster(SessionVectors sessions, ForkJoinPool pool);
+
+}
@@ -0,0 +1,122 @@
+package org.continuity.cobra.clustering;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Clusters sessions using DBSCAN. The neighborhoods of the sessions are calculated in parallel.
+ * As the difference of the norms of two sessions is a lower bound of their distance, only the
+ * sessions with a norm close to the one of a session need to be compared to it. The neighborhood
+ * of a session includes the session itself.
+ *
+ * @author Henning Schulz
+ *
+ */
+public class DbscanClustering implements ClusteringAlgorithm {
+
+	private static final int UNVISITED = -2;
+
+	private final double epsilon;
+
+	private final int minSampleSize;
+
+	/**
+	 *
+	 * @param epsilon
+	 *            The maximum distance of two sessions for being neighbors.
+	 * @param minSampleSize
+	 *            The minimum number of neighbors of a core session.
+	 */
+	public DbscanClustering(double epsilon, int minSampleSize) {
+		this.epsilon = epsilon;
+		this.minSampleSize = minSampleSize;
+	}
+
+	@Override
+	public int[] cluster(SessionVectors sessions, ForkJoinPool pool) {
+		int[][] neighborhoods = calculateNeighborhoods(sessions, pool);
+
+		int n = sessions.size();
+		int[] labels = new int[n];
+		Arrays.fill(labels, UNVISITED);
+
+		int[] queue = new int[n];
+		int cluster = 0;
+
+		for (int s = 0; s < n; s++) {
+			if (labels[s] != UNVISITED) {
+				continue;
+			}
+
+			if (neighborhoods[s].length < minSampleSize) {
+				labels[s] = NOISE;
+				continue;
+			}
+
+			// every session is enqueued at most once per cluster, as it is labeled when enqueued
+			int head = 0;
+			int tail = 0;
+			labels[s] = cluster;
+			queue[tail++] = s;
+
+			while (head < tail) {
+				int current = queue[head++];
+
+				if (neighborhoods[current].length < minSampleSize) {
+					continue;
+				}
+
+				for (int neighbor : neighborhoods[current]) {
+					if (labels[neighbor] == UNVISITED) {
+						labels[neighbor] = cluster;
+						queue[tail++] = neighbor;
+					} else if (labels[neighbor] == NOISE) {
+						// border session
+						labels[neighbor] = cluster;
+					}
+				}
+			}
+
+			cluster++;
+		}
+
+		return labels;
+	}
+
+	private int[][] calculateNeighborhoods(SessionVectors sessions, ForkJoinPool pool) {
+		int n = sessions.size();
+		int[] byNorm = IntStream.range(0, n).boxed().sorted(Comparator.comparingDouble(sessions::getNorm)).mapToInt(Integer::intValue).toArray();
+		double[] norms = Arrays.stream(byNorm).mapToDouble(sessions::getNorm).toArray();
+		double squaredEpsilon = epsilon * epsilon;
+
+		int[][] neighborhoods = new int[n][];
+
+		ParallelLoop.run(pool, n, position -> {
+			int session = byNorm[position];
+			int[] neighbors = new int[16];
+			int size = 0;
+
+			int from = position;
+			while ((from > 0) && ((norms[position] - norms[from - 1]) <= epsilon)) {
+				from--;
+			}
+
+			for (int other = from; (other < n) && ((norms[other] - norms[position]) <= epsilon); other++) {
+				if (sessions.squaredDistance(session, byNorm[other]) <= squaredEpsilon) {
+					if (size == neighbors.length) {
+						neighbors = Arrays.copyOf(neighbors, size * 2);
+					}
+
+					neighbors[size++] = byNorm[other];
+				}
+			}
+
+			neighborhoods[session] = Arrays.copyOf(neighbors, size);
+		});
+
+		return neighborhoods;
+	}
+
+}
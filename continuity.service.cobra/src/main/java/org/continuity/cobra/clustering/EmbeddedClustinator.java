@@ -0,0 +1,329 @@
+package org.continuity.cobra.clustering;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeoutException;
+
+import org.continuity.api.entities.artifact.markovbehavior.MarkovBehaviorModel;
+import org.continuity.api.entities.artifact.markovbehavior.RelativeMarkovChain;
+import org.continuity.api.entities.artifact.session.Session;
+import org.continuity.api.entities.config.cobra.AppendStrategy;
+import org.continuity.cobra.converter.ClustinatorMarkovChainConverter;
+import org.continuity.cobra.entities.ClustinatorInput;
+import org.continuity.cobra.entities.ClustinatorResult;
+import org.continuity.cobra.managers.ElasticsearchBehaviorManager;
+import org.continuity.cobra.managers.ElasticsearchSessionManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Clusters the sessions within cobra as an alternative to the external clustinator. The sessions
+ * are read with one scroll and directly transformed into transition count vectors. The result has
+ * the same format as the one of the clustinator and the group-ids of the sessions are updated
+ * accordingly. <br>
+ *
+ * The new groups are correlated with the groups of the latest behavior model before the clustering
+ * interval, if the lookback is positive: A group takes over the ID of the nearest previous group
+ * whose radius (times the radius factor) includes its mean. Only the latest behavior model is
+ * considered, regardless of the actual lookback. The number of dimensions of the input is ignored.
+ *
+ * @author Henning Schulz
+ *
+ */
+@Component
+public class EmbeddedClustinator {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(EmbeddedClustinator.class);
+
+	private static final String GROUP_ID_PREFIX = "group-";
+
+	private static final long DEFAULT_K = 5;
+
+	private static final long DEFAULT_MAX_ITERATIONS = 300;
+
+	private static final long DEFAULT_NUM_SEEDINGS = 10;
+
+	private static final double DEFAULT_CONVERGENCE_TOLERANCE = 1e-4;
+
+	private static final double DEFAULT_EPSILON = 1.5;
+
+	private static final long DEFAULT_MIN_SAMPLE_SIZE = 10;
+
+	private static final double DEFAULT_RADIUS_FACTOR = 1.0;
+
+	private static final long SEED = 42;
+
+	@Autowired
+	private ElasticsearchSessionManager sessionManager;
+
+	@Autowired
+	private ElasticsearchBehaviorManager behaviorManager;
+
+	/**
+	 * Clusters the sessions as defined by the input.
+	 *
+	 * @param input
+	 *            The clustering input as it would be sent to the clustinator.
+	 * @return The clustering result.
+	 * @throws IOException
+	 * @throws TimeoutException
+	 */
+	public ClustinatorResult cluster(ClustinatorInput input) throws IOException, TimeoutException {
+		List<RelativeMarkovChain> previousChains = readPreviousChains(input);
+
+		SessionVectors.Builder builder = new SessionVectors.Builder();
+		sessionManager.scrollForSessionsStartingInRange(input.getAppId(), input.getTailoring(), input.getStartMicros(), input.getEndMicros(), builder::addAll);
+
+		Set<String> previousEndpoints = new HashSet<>();
+		previousChains.forEach(chain -> previousEndpoints.addAll(chain.getRequestStates()));
+		SessionVectors sessions = builder.build(previousEndpoints);
+
+		LOGGER.info("{}@{} {}: Clustering {} sessions with {} states using {}...", input.getAppId(), input.getVersion(), input.getTailoring(), sessions.size(), sessions.getStates().size(),
+				input.getAppendStrategy());
+
+		ClustinatorMarkovChainConverter converter = new ClustinatorMarkovChainConverter(new ArrayList<>(sessions.getStates()));
+		List<String> previousIds = new ArrayList<>();
+		List<double[]> previousMeans = new ArrayList<>();
+		List<Double> previousRadiuses = new ArrayList<>();
+
+		for (RelativeMarkovChain chain : previousChains) {
+			try {
+				previousMeans.add(converter.convertMarkovChain(chain));
+				previousIds.add(chain.getId());
+				previousRadiuses.add(chain.getRadius());
+			} catch (IllegalArgumentException e) {
+				LOGGER.warn("{}@{} {}: Ignoring previous Markov chain {}: {}", input.getAppId(), input.getVersion(), input.getTailoring(), chain.getId(), e.getMessage());
+			}
+		}
+
+		ForkJoinPool pool = new ForkJoinPool(getParallelism(input.getParallelize()));
+		int[] labels;
+
+		try {
+			labels = createAlgorithm(input, sessions, previousMeans, previousRadiuses).cluster(sessions, pool);
+		} finally {
+			pool.shutdown();
+		}
+
+		int numClusters = 0;
+
+		for (int label : labels) {
+			numClusters = Math.max(numClusters, label + 1);
+		}
+
+		ClusterStatistics stats = ClusterStatistics.of(sessions, labels, numClusters);
+		String[] groupIds = assignGroupIds(input, stats, previousIds, previousMeans, previousRadiuses);
+
+		updateGroupIds(input, sessions, labels, groupIds);
+
+		LOGGER.info("{}@{} {}: Clustered the sessions into {} groups.", input.getAppId(), input.getVersion(), input.getTailoring(), numClusters);
+
+		return createResult(input, sessions.getStates(), stats, groupIds);
+	}
+
+	private List<RelativeMarkovChain> readPreviousChains(ClustinatorInput input) throws IOException, TimeoutException {
+		if ((input.getLookback() <= 0) && (input.getAppendStrategy() != AppendStrategy.MINIMUM_DISTANCE)) {
+			return Collections.emptyList();
+		}
+
+		MarkovBehaviorModel previous = behaviorManager.readLatest(input.getAppId(), input.getTailoring(), (input.getIntervalStartMicros() / 1000) - 1);
+
+		if ((previous == null) || (previous.getMarkovChains() == null)) {
+			return Collections.emptyList();
+		} else {
+			return previous.getMarkovChains();
+		}
+	}
+
+	private ClusteringAlgorithm createAlgorithm(ClustinatorInput input, SessionVectors sessions, List<double[]> previousMeans, List<Double> previousRadiuses) {
+		switch (input.getAppendStrategy()) {
+		case DBSCAN:
+			double epsilon;
+
+			if (input.getEpsilon() != null) {
+				epsilon = input.getEpsilon();
+			} else if (input.getAvgTransitionTolerance() != null) {
+				// n = number of endpoints, i.e., without the initial and final state
+				epsilon = (sessions.getStates().size() - 1) * input.getAvgTransitionTolerance();
+			} else {
+				epsilon = DEFAULT_EPSILON;
+			}
+
+			return new DbscanClustering(epsilon, orDefault(input.getMinSampleSize(), DEFAULT_MIN_SAMPLE_SIZE).intValue());
+		case KMEANS:
+			return new KMeansClustering(orDefault(input.getK(), DEFAULT_K).intValue(), orDefault(input.getMaxIterations(), DEFAULT_MAX_ITERATIONS).intValue(),
+					orDefault(input.getNumSeedings(), DEFAULT_NUM_SEEDINGS).intValue(), orDefault(input.getConvergenceTolerance(), DEFAULT_CONVERGENCE_TOLERANCE), input.getQuantileRange(), SEED);
+		case MINIMUM_DISTANCE:
+			double[] radiuses = previousRadiuses.stream().mapToDouble(Double::doubleValue).toArray();
+			return new MinimumDistanceClustering(previousMeans.toArray(new double[previousMeans.size()][]), radiuses, orDefault(input.getRadiusFactor(), DEFAULT_RADIUS_FACTOR),
+					orDefault(input.getMinSampleSize(), DEFAULT_MIN_SAMPLE_SIZE).intValue());
+		default:
+			throw new IllegalArgumentException("Unknown append strategy " + input.getAppendStrategy() + "!");
+		}
+	}
+
+	/**
+	 * Assigns the group IDs to the cluster labels. For minimum distance, the labels refer to the
+	 * previous groups. Otherwise, the groups are matched greedily by ascending distance.
+	 */
+	private String[] assignGroupIds(ClustinatorInput input, ClusterStatistics stats, List<String> previousIds, List<double[]> previousMeans, List<Double> previousRadiuses) {
+		String[] groupIds = new String[stats.getNumClusters()];
+
+		if (input.getAppendStrategy() == AppendStrategy.MINIMUM_DISTANCE) {
+			for (int c = 0; c < Math.min(groupIds.length, previousIds.size()); c++) {
+				groupIds[c] = previousIds.get(c);
+			}
+		} else if (input.getLookback() > 0) {
+			double radiusFactor = orDefault(input.getRadiusFactor(), DEFAULT_RADIUS_FACTOR);
+			List<double[]> candidates = new ArrayList<>();
+
+			for (int c = 0; c < groupIds.length; c++) {
+				double norm = SessionVectors.squaredNorm(stats.getMean(c));
+
+				for (int p = 0; p < previousMeans.size(); p++) {
+					double distance = Math.sqrt(Math.max(0, (norm - (2 * dot(stats.getMean(c), previousMeans.get(p)))) + SessionVectors.squaredNorm(previousMeans.get(p))));
+
+					if ((previousRadiuses.get(p) >= 0) && (distance <= (previousRadiuses.get(p) * radiusFactor))) {
+						candidates.add(new double[] { distance, c, p });
+					}
+				}
+			}
+
+			candidates.sort((a, b) -> Double.compare(a[0], b[0]));
+			Set<Integer> usedPrevious = new HashSet<>();
+
+			for (double[] candidate : candidates) {
+				int c = (int) candidate[1];
+				int p = (int) candidate[2];
+
+				if ((groupIds[c] == null) && usedPrevious.add(p)) {
+					groupIds[c] = previousIds.get(p);
+				}
+			}
+		}
+
+		Set<String> usedIds = new HashSet<>(previousIds);
+		int next = 0;
+
+		for (int c = 0; c < groupIds.length; c++) {
+			if (groupIds[c] == null) {
+				while (usedIds.contains(GROUP_ID_PREFIX + next)) {
+					next++;
+				}
+
+				groupIds[c] = GROUP_ID_PREFIX + next;
+				usedIds.add(groupIds[c]);
+			}
+		}
+
+		return groupIds;
+	}
+
+	private void updateGroupIds(ClustinatorInput input, SessionVectors sessions, int[] labels, String[] groupIds) throws IOException {
+		List<Session> updates = new ArrayList<>();
+
+		for (int s = 0; s < labels.length; s++) {
+			if (labels[s] != ClusteringAlgorithm.NOISE) {
+				Session session = new Session();
+				session.setSessionId(sessions.getSessionId(s));
+				session.setStartMicros(sessions.getStartMicros(s));
+				session.setGroupId(groupIds[labels[s]]);
+				updates.add(session);
+			}
+		}
+
+		// the intensities are calculated based on the group-ids afterwards
+		sessionManager.updateGroupIds(input.getAppId(), input.getTailoring(), updates, true);
+	}
+
+	private ClustinatorResult createResult(ClustinatorInput input, List<String> states, ClusterStatistics stats, String[] groupIds) {
+		ClustinatorResult result = new ClustinatorResult();
+		result.setAppId(input.getAppId());
+		result.setVersion(input.getVersion());
+		result.setTailoring(input.getTailoring());
+		result.setAppendStrategy(input.getAppendStrategy());
+		result.setStartMicros(input.getStartMicros());
+		result.setIntervalStartMicros(input.getIntervalStartMicros());
+		result.setEndMicros(input.getEndMicros());
+		result.setContinuation(input.getContinuation());
+		result.setStates(new ArrayList<>(states));
+
+		Map<String, double[]> means = new HashMap<>();
+		Map<String, double[]> radiuses = new HashMap<>();
+		Map<String, double[]> thinkTimeMeans = new HashMap<>();
+		Map<String, double[]> thinkTimeVariances = new HashMap<>();
+		Map<String, Double> totalRadiuses = new HashMap<>();
+		Map<String, Long> numSessions = new HashMap<>();
+		Map<String, Double> frequency = new HashMap<>();
+
+		long totalSessions = 0;
+
+		for (int c = 0; c < groupIds.length; c++) {
+			totalSessions += stats.getNumSessions(c);
+		}
+
+		for (int c = 0; c < groupIds.length; c++) {
+			if (stats.getNumSessions(c) == 0) {
+				continue;
+			}
+
+			String group = groupIds[c];
+			means.put(group, stats.getMean(c));
+			radiuses.put(group, stats.getRadiuses(c));
+			thinkTimeMeans.put(group, stats.getThinkTimeMeans(c));
+			thinkTimeVariances.put(group, stats.getThinkTimeVariances(c));
+			totalRadiuses.put(group, stats.getTotalRadius(c));
+			numSessions.put(group, stats.getNumSessions(c));
+			frequency.put(group, (double) stats.getNumSessions(c) / totalSessions);
+		}
+
+		result.setMeanMarkovChains(means);
+		result.setRadiuses(radiuses);
+		result.setThinkTimeMeans(thinkTimeMeans);
+		result.setThinkTimeVariances(thinkTimeVariances);
+		result.setTotalRadiuses(totalRadiuses);
+		result.setNumSessions(numSessions);
+		result.setFrequency(frequency);
+
+		return result;
+	}
+
+	/**
+	 * Negative numbers mean {@code num_cpus + 1 + parallelize}, as for the clustinator.
+	 */
+	private int getParallelism(Integer parallelize) {
+		int cpus = Runtime.getRuntime().availableProcessors();
+
+		if (parallelize == null) {
+			return cpus;
+		} else if (parallelize > 0) {
+			return parallelize;
+		} else {
+			return Math.max(1, cpus + 1 + parallelize);
+		}
+	}
+
+	private double dot(double[] first, double[] second) {
+		double sum = 0;
+
+		for (int i = 0; i < first.length; i++) {
+			sum += first[i] * second[i];
+		}
+
+		return sum;
+	}
+
+	private <T> T orDefault(T value, T defaultValue) {
+		return value == null ? defaultValue : value;
+	}
+
+}
@@ -0,0 +1,275 @@
+package org.continuity.cobra.clustering;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Clusters sessions using KMeans with KMeans++ seeding. The seeding is repeated several times and
+ * the result with the lowest sum of squared distances is chosen. The assignment of the sessions
+ * to the centroids is done in parallel. <br>
+ *
+ * Optionally, outliers are filtered per cluster. With {@code r} being the quantile range and
+ * {@code q[x]} the {@code x} quantile of the distances of the sessions to the cluster centroid,
+ * all sessions with a distance higher than
+ * {@code q[0.5 + r/2] + 1.5 * (q[0.5 + r/2] - q[0.5 - r/2])} are labeled as noise.
+ *
+ * @author Henning Schulz
+ *
+ */
+public class KMeansClustering implements ClusteringAlgorithm {
+
+	private final int k;
+
+	private final int maxIterations;
+
+	private final int numSeedings;
+
+	private final double convergenceTolerance;
+
+	private final Double quantileRange;
+
+	private final long seed;
+
+	/**
+	 *
+	 * @param k
+	 *            The number of clusters. Will be reduced to the number of sessions if there are
+	 *            less sessions.
+	 * @param maxIterations
+	 *            The maximum number of iterations per seeding.
+	 * @param numSeedings
+	 *            The number of different seedings.
+	 * @param convergenceTolerance
+	 *            The maximum sum of squared centroid shifts for declaring convergence.
+	 * @param quantileRange
+	 *            The quantile range for filtering outliers. Can be {@code null}, which means no
+	 *            filtering.
+	 * @param seed
+	 *            The seed of the random generator used for seeding.
+	 */
+	public KMeansClustering(int k, int maxIterations, int numSeedings, double convergenceTolerance, Double quantileRange, long seed) {
+		this.k = k;
+		this.maxIterations = maxIterations;
+		this.numSeedings = numSeedings;
+		this.convergenceTolerance = convergenceTolerance;
+		this.quantileRange = quantileRange;
+		this.seed = seed;
+	}
+
+	@Override
+	public int[] cluster(SessionVectors sessions, ForkJoinPool pool) {
+		int n = sessions.size();
+
+		if (n == 0) {
+			return new int[0];
+		}
+
+		int numClusters = Math.max(1, Math.min(k, n));
+		Random random = new Random(seed);
+
+		int[] bestLabels = null;
+		double[] bestDistances = null;
+		double bestInertia = Double.POSITIVE_INFINITY;
+
+		for (int s = 0; s < Math.max(1, numSeedings); s++) {
+			int[] labels = new int[n];
+			double[] distances = new double[n];
+			double inertia = runSeeding(sessions, numClusters, random, labels, distances, pool);
+
+			if (inertia < bestInertia) {
+				bestInertia = inertia;
+				bestLabels = labels;
+				bestDistances = distances;
+			}
+		}
+
+		if (quantileRange != null) {
+			filterOutliers(bestLabels, bestDistances, numClusters);
+		}
+
+		return bestLabels;
+	}
+
+	/**
+	 * Runs KMeans for one seeding.
+	 *
+	 * @return The sum of squared distances of the sessions to their centroids.
+	 */
+	private double runSeeding(SessionVectors sessions, int numClusters, Random random, int[] labels, double[] squaredDistances, ForkJoinPool pool) {
+		double[][] centroids = seedCentroids(sessions, numClusters, random, pool);
+
+		for (int iteration = 0; iteration < maxIterations; iteration++) {
+			assign(sessions, centroids, labels, squaredDistances, pool);
+			double[][] updated = updateCentroids(sessions, centroids, labels);
+
+			double shift = 0;
+
+			for (int c = 0; c < numClusters; c++) {
+				shift += squaredDistance(centroids[c], updated[c]);
+			}
+
+			centroids = updated;
+
+			if (shift <= convergenceTolerance) {
+				break;
+			}
+		}
+
+		assign(sessions, centroids, labels, squaredDistances, pool);
+
+		return Arrays.stream(squaredDistances).sum();
+	}
+
+	/**
+	 * KMeans++ seeding: The first centroid is chosen uniformly at random. Each further centroid is
+	 * chosen with a probability proportional to the squared distance of a session to the nearest
+	 * already chosen centroid.
+	 */
+	private double[][] seedCentroids(SessionVectors sessions, int numClusters, Random random, ForkJoinPool pool) {
+		int n = sessions.size();
+		double[][] centroids = new double[numClusters][];
+		double[] minDistances = new double[n];
+
+		centroids[0] = toDense(sessions, random.nextInt(n));
+		Arrays.fill(minDistances, Double.POSITIVE_INFINITY);
+
+		for (int c = 1; c < numClusters; c++) {
+			double[] last = centroids[c - 1];
+			double lastNorm = SessionVectors.squaredNorm(last);
+
+			ParallelLoop.run(pool, n, s -> minDistances[s] = Math.min(minDistances[s], sessions.squaredDistance(s, last, lastNorm)));
+
+			double sum = Arrays.stream(minDistances).sum();
+			int chosen;
+
+			if (sum <= 0) {
+				// all sessions are equal to one of the centroids
+				chosen = random.nextInt(n);
+			} else {
+				double threshold = random.nextDouble() * sum;
+				double cumulated = minDistances[0];
+				chosen = 0;
+
+				while ((cumulated < threshold) && (chosen < (n - 1))) {
+					chosen++;
+					cumulated += minDistances[chosen];
+				}
+			}
+
+			centroids[c] = toDense(sessions, chosen);
+		}
+
+		return centroids;
+	}
+
+	private void assign(SessionVectors sessions, double[][] centroids, int[] labels, double[] squaredDistances, ForkJoinPool pool) {
+		double[] norms = new double[centroids.length];
+
+		for (int c = 0; c < centroids.length; c++) {
+			norms[c] = SessionVectors.squaredNorm(centroids[c]);
+		}
+
+		ParallelLoop.run(pool, sessions.size(), s -> {
+			int nearest = 0;
+			double minDistance = Double.POSITIVE_INFINITY;
+
+			for (int c = 0; c < centroids.length; c++) {
+				double distance = sessions.squaredDistance(s, centroids[c], norms[c]);
+
+				if (distance < minDistance) {
+					minDistance = distance;
+					nearest = c;
+				}
+			}
+
+			labels[s] = nearest;
+			squaredDistances[s] = minDistance;
+		});
+	}
+
+	/**
+	 * Calculates the means of the clusters. Clusters without sessions keep their previous
+	 * centroid.
+	 */
+	private double[][] updateCentroids(SessionVectors sessions, double[][] previous, int[] labels) {
+		double[][] centroids = new double[previous.length][sessions.getDimension()];
+		int[] sizes = new int[previous.length];
+
+		for (int s = 0; s < sessions.size(); s++) {
+			sessions.addTo(s, centroids[labels[s]]);
+			sizes[labels[s]]++;
+		}
+
+		for (int c = 0; c < centroids.length; c++) {
+			if (sizes[c] == 0) {
+				centroids[c] = previous[c];
+			} else {
+				for (int i = 0; i < centroids[c].length; i++) {
+					centroids[c][i] /= sizes[c];
+				}
+			}
+		}
+
+		return centroids;
+	}
+
+	private void filterOutliers(int[] labels, double[] squaredDistances, int numClusters) {
+		double lowerQuantile = Math.max(0, 0.5 - (quantileRange / 2));
+		double upperQuantile = Math.min(1, 0.5 + (quantileRange / 2));
+
+		for (int c = 0; c < numClusters; c++) {
+			final int cluster = c;
+			double[] distances = IntStream.range(0, labels.length).filter(s -> labels[s] == cluster).mapToDouble(s -> Math.sqrt(squaredDistances[s])).sorted().toArray();
+
+			if (distances.length == 0) {
+				continue;
+			}
+
+			double upper = quantile(distances, upperQuantile);
+			double threshold = upper + (1.5 * (upper - quantile(distances, lowerQuantile)));
+
+			for (int s = 0; s < labels.length; s++) {
+				if ((labels[s] == cluster) && (Math.sqrt(squaredDistances[s]) > threshold)) {
+					labels[s] = NOISE;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Calculates a quantile using linear interpolation.
+	 *
+	 * @param sorted
+	 *            The sorted values.
+	 * @param q
+	 *            The quantile in {@code [0, 1]}.
+	 * @return The quantile value.
+	 */
+	static double quantile(double[] sorted, double q) {
+		double position = q * (sorted.length - 1);
+		int lower = (int) Math.floor(position);
+		int upper = (int) Math.ceil(position);
+
+		return sorted[lower] + ((position - lower) * (sorted[upper] - sorted[lower]));
+	}
+
+	private double[] toDense(SessionVectors sessions, int session) {
+		double[] point = new double[sessions.getDimension()];
+		sessions.addTo(session, point);
+		return point;
+	}
+
+	private double squaredDistance(double[] first, double[] second) {
+		double sum = 0;
+
+		for (int i = 0; i < first.length; i++) {
+			double diff = first[i] - second[i];
+			sum += diff * diff;
+		}
+
+		return sum;
+	}
+
+}
@@ -0,0 +1,97 @@
+package org.continuity.cobra.clustering;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Assigns sessions to existing clusters, which are defined by their centroids and radiuses. Each
+ * session is assigned to the cluster with the nearest centroid if its distance is at most the
+ * radius times the radius factor. If there are at least {@code minSampleSize} sessions that do
+ * not fit into any cluster, they form a new cluster. Otherwise, they are assigned to the nearest
+ * cluster, too. <br>
+ *
+ * The labels {@code 0, ..., k - 1} refer to the passed centroids. The new cluster, if any, has the
+ * label {@code k}.
+ *
+ * @author Henning Schulz
+ *
+ */
+public class MinimumDistanceClustering implements ClusteringAlgorithm {
+
+	private static final int UNASSIGNED = -2;
+
+	private final double[][] centroids;
+
+	private final double[] radiuses;
+
+	private final double radiusFactor;
+
+	private final int minSampleSize;
+
+	/**
+	 *
+	 * @param centroids
+	 *            The centroids of the existing clusters.
+	 * @param radiuses
+	 *            The radiuses of the existing clusters. Negative values mean an undefined radius,
+	 *            i.e., all sessions fit into the cluster.
+	 * @param radiusFactor
+	 *            The factor to be multiplied with the radiuses.
+	 * @param minSampleSize
+	 *            The minimum number of non-fitting sessions for creating a new cluster.
+	 */
+	public MinimumDistanceClustering(double[][] centroids, double[] radiuses, double radiusFactor, int minSampleSize) {
+		this.centroids = centroids;
+		this.radiuses = radiuses;
+		this.radiusFactor = radiusFactor;
+		this.minSampleSize = minSampleSize;
+	}
+
+	@Override
+	public int[] cluster(SessionVectors sessions, ForkJoinPool pool) {
+		int n = sessions.size();
+		int[] labels = new int[n];
+		int[] nearest = new int[n];
+		AtomicInteger numUnassigned = new AtomicInteger();
+
+		double[] norms = new double[centroids.length];
+
+		for (int c = 0; c < centroids.length; c++) {
+			norms[c] = SessionVectors.squaredNorm(centroids[c]);
+		}
+
+		ParallelLoop.run(pool, n, s -> {
+			int nearestCluster = -1;
+			double minDistance = Double.POSITIVE_INFINITY;
+
+			for (int c = 0; c < centroids.length; c++) {
+				double distance = sessions.squaredDistance(s, centroids[c], norms[c]);
+
+				if (distance < minDistance) {
+					minDistance = distance;
+					nearestCluster = c;
+				}
+			}
+
+			nearest[s] = nearestCluster;
+
+			if ((nearestCluster >= 0) && ((radiuses[nearestCluster] < 0) || (Math.sqrt(minDistance) <= (radiuses[nearestCluster] * radiusFactor)))) {
+				labels[s] = nearestCluster;
+			} else {
+				labels[s] = UNASSIGNED;
+				numUnassigned.incrementAndGet();
+			}
+		});
+
+		boolean newCluster = (numUnassigned.get() >= minSampleSize) || (centroids.length == 0);
+
+		for (int s = 0; s < n; s++) {
+			if (labels[s] == UNASSIGNED) {
+				labels[s] = newCluster ? centroids.length : nearest[s];
+			}
+		}
+
+		return labels;
+	}
+
+}
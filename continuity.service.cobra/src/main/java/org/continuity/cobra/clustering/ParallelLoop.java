@@ -0,0 +1,65 @@
+package org.continuity.cobra.clustering;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+/**
+ * Executes a loop over a range of integers on a {@link ForkJoinPool} by recursively splitting the
+ * range into halves until the chunks are small enough.
+ *
+ * @author Henning Schulz
+ *
+ */
+class ParallelLoop extends RecursiveAction {
+
+	private static final long serialVersionUID = 2968446563727440394L;
+
+	private static final int MIN_CHUNK_SIZE = 32;
+
+	private static final int CHUNKS_PER_THREAD = 4;
+
+	private final int from;
+
+	private final int to;
+
+	private final int chunkSize;
+
+	private final IntConsumer body;
+
+	private ParallelLoop(int from, int to, int chunkSize, IntConsumer body) {
+		this.from = from;
+		this.to = to;
+		this.chunkSize = chunkSize;
+		this.body = body;
+	}
+
+	/**
+	 * Calls the body for each integer in {@code [0, size)}. The calls can be done in any order
+	 * and in parallel. Returns when all calls have finished.
+	 *
+	 * @param pool
+	 *            The pool to be used.
+	 * @param size
+	 *            The upper limit of the range (exclusive).
+	 * @param body
+	 *            The loop body.
+	 */
+	static void run(ForkJoinPool pool, int size, IntConsumer body) {
+		int chunkSize = Math.max(MIN_CHUNK_SIZE, size / (pool.getParallelism() * CHUNKS_PER_THREAD));
+		pool.invoke(new ParallelLoop(0, size, chunkSize, body));
+	}
+
+	@Override
+	protected void compute() {
+		if ((to - from) <= chunkSize) {
+			for (int i = from; i < to; i++) {
+				body.accept(i);
+			}
+		} else {
+			int middle = (from + to) >>> 1;
+			invokeAll(new ParallelLoop(from, middle, chunkSize, body), new ParallelLoop(middle, to, chunkSize, body));
+		}
+	}
+
+}
@@ -0,0 +1,400 @@
+package org.continuity.cobra.clustering;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+import org.continuity.api.entities.artifact.markovbehavior.AbstractMarkovChain;
+import org.continuity.api.entities.artifact.session.Session;
+import org.continuity.api.entities.artifact.session.SessionRequest;
+
+/**
+ * Holds the transition count vectors of sessions. Each session is represented by the number of
+ * transitions between each pair of states, i.e., by a vector of {@code n * n} elements with
+ * {@code n} = number of states, in the order used by the
+ * {@link org.continuity.cobra.converter.ClustinatorMarkovChainConverter}. The states are
+ * {@link AbstractMarkovChain#INITIAL_STATE}, the endpoints in alphabetical order, and
+ * {@link AbstractMarkovChain#FINAL_STATE}. <br>
+ *
+ * As a session only contains few of the possible transitions, only the non-zero elements are
+ * stored, together with the sum and the sum of squares of the think times (in milliseconds) of the
+ * respective transitions.
+ *
+ * @author Henning Schulz
+ *
+ */
+public class SessionVectors {
+
+	private final List<String> states;
+
+	private final String[] sessionIds;
+
+	private final long[] startMicros;
+
+	private final int[][] indexes;
+
+	private final double[][] counts;
+
+	private final double[][] thinkTimeSums;
+
+	private final double[][] thinkTimeSquares;
+
+	private final double[] squaredNorms;
+
+	private SessionVectors(List<String> states, int numSessions) {
+		this.states = Collections.unmodifiableList(states);
+		this.sessionIds = new String[numSessions];
+		this.startMicros = new long[numSessions];
+		this.indexes = new int[numSessions][];
+		this.counts = new double[numSessions][];
+		this.thinkTimeSums = new double[numSessions][];
+		this.thinkTimeSquares = new double[numSessions][];
+		this.squaredNorms = new double[numSessions];
+	}
+
+	/**
+	 * Gets the number of sessions.
+	 *
+	 * @return The number of sessions.
+	 */
+	public int size() {
+		return sessionIds.length;
+	}
+
+	/**
+	 * Gets the dimension of the vectors, i.e., {@code n * n} with {@code n} = number of states.
+	 *
+	 * @return The dimension.
+	 */
+	public int getDimension() {
+		return states.size() * states.size();
+	}
+
+	/**
+	 * Gets the states in the order in which they are used for the vectors.
+	 *
+	 * @return An unmodifiable list of the states.
+	 */
+	public List<String> getStates() {
+		return states;
+	}
+
+	public String getSessionId(int session) {
+		return sessionIds[session];
+	}
+
+	public long getStartMicros(int session) {
+		return startMicros[session];
+	}
+
+	/**
+	 * Gets the (sorted) indexes of the non-zero elements of a session vector.
+	 *
+	 * @param session
+	 *            The number of the session.
+	 * @return The indexes. <b>Do not change!</b>
+	 */
+	int[] getIndexes(int session) {
+		return indexes[session];
+	}
+
+	/**
+	 * Gets the non-zero elements of a session vector, i.e., the transition counts.
+	 *
+	 * @param session
+	 *            The number of the session.
+	 * @return The transition counts in the order of {@link #getIndexes(int)}. <b>Do not
+	 *         change!</b>
+	 */
+	double[] getCounts(int session) {
+		return counts[session];
+	}
+
+	double[] getThinkTimeSums(int session) {
+		return thinkTimeSums[session];
+	}
+
+	double[] getThinkTimeSquares(int session) {
+		return thinkTimeSquares[session];
+	}
+
+	/**
+	 * Gets the Euclidean norm of a session vector.
+	 *
+	 * @param session
+	 *            The number of the session.
+	 * @return The norm.
+	 */
+	public double getNorm(int session) {
+		return Math.sqrt(squaredNorms[session]);
+	}
+
+	/**
+	 * Calculates the squared Euclidean distance between a session vector and a dense point.
+	 * Requires only the non-zero elements of the session to be visited.
+	 *
+	 * @param session
+	 *            The number of the session.
+	 * @param point
+	 *            The point.
+	 * @param pointSquaredNorm
+	 *            The squared Euclidean norm of the point.
+	 * @return The squared distance.
+	 */
+	public double squaredDistance(int session, double[] point, double pointSquaredNorm) {
+		int[] idx = indexes[session];
+		double[] values = counts[session];
+		double dot = 0;
+
+		for (int i = 0; i < idx.length; i++) {
+			dot += values[i] * point[idx[i]];
+		}
+
+		return Math.max(0, (squaredNorms[session] - (2 * dot)) + pointSquaredNorm);
+	}
+
+	/**
+	 * Calculates the squared Euclidean distance between two session vectors.
+	 *
+	 * @param first
+	 *            The number of the first session.
+	 * @param second
+	 *            The number of the second session.
+	 * @return The squared distance.
+	 */
+	public double squaredDistance(int first, int second) {
+		int[] firstIdx = indexes[first];
+		int[] secondIdx = indexes[second];
+		double[] firstValues = counts[first];
+		double[] secondValues = counts[second];
+
+		double sum = 0;
+		int i = 0;
+		int j = 0;
+
+		while ((i < firstIdx.length) && (j < secondIdx.length)) {
+			double diff;
+
+			if (firstIdx[i] == secondIdx[j]) {
+				diff = firstValues[i++] - secondValues[j++];
+			} else if (firstIdx[i] < secondIdx[j]) {
+				diff = firstValues[i++];
+			} else {
+				diff = secondValues[j++];
+			}
+
+			sum += diff * diff;
+		}
+
+		for (; i < firstIdx.length; i++) {
+			sum += firstValues[i] * firstValues[i];
+		}
+
+		for (; j < secondIdx.length; j++) {
+			sum += secondValues[j] * secondValues[j];
+		}
+
+		return sum;
+	}
+
+	/**
+	 * Adds a session vector to a dense point.
+	 *
+	 * @param session
+	 *            The number of the session.
+	 * @param target
+	 *            The point to which the session vector is added.
+	 */
+	public void addTo(int session, double[] target) {
+		int[] idx = indexes[session];
+		double[] values = counts[session];
+
+		for (int i = 0; i < idx.length; i++) {
+			target[idx[i]] += values[i];
+		}
+	}
+
+	/**
+	 * Calculates the squared Euclidean norm of a dense point.
+	 *
+	 * @param point
+	 *            The point.
+	 * @return The squared norm.
+	 */
+	public static double squaredNorm(double[] point) {
+		double sum = 0;
+
+		for (double value : point) {
+			sum += value * value;
+		}
+
+		return sum;
+	}
+
+	/**
+	 * Collects sessions and creates the {@link SessionVectors} afterwards. As the states are only
+	 * known when all sessions have been collected, the sessions are stored as sequences of
+	 * preliminary state numbers in the meantime. The sessions themselves are not retained.
+	 *
+	 * @author Henning Schulz
+	 *
+	 */
+	public static class Builder {
+
+		private static final int INITIAL = 0;
+
+		private static final int FINAL = 1;
+
+		private final Map<String, Integer> endpoints = new HashMap<>();
+
+		private final List<String> sessionIds = new ArrayList<>();
+
+		private final List<Long> startMicros = new ArrayList<>();
+
+		private final List<int[]> stateSequences = new ArrayList<>();
+
+		private final List<long[]> thinkTimes = new ArrayList<>();
+
+		/**
+		 * Adds sessions. Can be used as callback of a session scroll.
+		 *
+		 * @param sessions
+		 *            The sessions to be added.
+		 */
+		public void addAll(Collection<Session> sessions) {
+			for (Session session : sessions) {
+				add(session);
+			}
+		}
+
+		/**
+		 * Adds a session.
+		 *
+		 * @param session
+		 *            The session to be added.
+		 */
+		public void add(Session session) {
+			int numRequests = session.getRequests().size();
+			int[] sequence = new int[numRequests + 2];
+			long[] sessionThinkTimes = new long[numRequests + 1];
+
+			sequence[0] = INITIAL;
+			long lastExit = Long.MAX_VALUE;
+			int i = 1;
+
+			for (SessionRequest request : session.getRequests()) {
+				sequence[i] = endpoints.computeIfAbsent(request.getEndpoint(), e -> endpoints.size() + 2);
+				sessionThinkTimes[i - 1] = Math.max(0, (request.getStartMicros() - lastExit) / 1000);
+				lastExit = request.getEndMicros();
+				i++;
+			}
+
+			sequence[i] = FINAL;
+
+			sessionIds.add(session.getSessionId());
+			startMicros.add(session.getStartMicros());
+			stateSequences.add(sequence);
+			thinkTimes.add(sessionThinkTimes);
+		}
+
+		/**
+		 * Gets the number of sessions added so far.
+		 *
+		 * @return The number of sessions.
+		 */
+		public int size() {
+			return sessionIds.size();
+		}
+
+		/**
+		 * Creates the session vectors.
+		 *
+		 * @param additionalEndpoints
+		 *            Endpoints to be included into the states even if no session contains them,
+		 *            e.g., the ones of previous Markov chains.
+		 * @return The session vectors.
+		 */
+		public SessionVectors build(Collection<String> additionalEndpoints) {
+			TreeSet<String> sortedEndpoints = new TreeSet<>(endpoints.keySet());
+			sortedEndpoints.addAll(additionalEndpoints);
+
+			List<String> states = new ArrayList<>(sortedEndpoints.size() + 2);
+			states.add(AbstractMarkovChain.INITIAL_STATE);
+			states.addAll(sortedEndpoints);
+			states.add(AbstractMarkovChain.FINAL_STATE);
+
+			int n = states.size();
+			Map<String, Integer> positions = new HashMap<>();
+
+			for (int i = 1; i < (n - 1); i++) {
+				positions.put(states.get(i), i);
+			}
+
+			int[] stateIndexes = new int[endpoints.size() + 2];
+			stateIndexes[INITIAL] = 0;
+			stateIndexes[FINAL] = n - 1;
+			endpoints.forEach((endpoint, number) -> stateIndexes[number] = positions.get(endpoint));
+
+			SessionVectors vectors = new SessionVectors(states, sessionIds.size());
+
+			for (int s = 0; s < sessionIds.size(); s++) {
+				vectors.sessionIds[s] = sessionIds.get(s);
+				vectors.startMicros[s] = startMicros.get(s);
+				addTransitions(vectors, s, stateSequences.get(s), thinkTimes.get(s), stateIndexes, n);
+			}
+
+			return vectors;
+		}
+
+		private void addTransitions(SessionVectors vectors, int session, int[] sequence, long[] sessionThinkTimes, int[] stateIndexes, int n) {
+			int numTransitions = sessionThinkTimes.length;
+
+			// sorts the transitions by their index while keeping track of their position
+			long[] packed = new long[numTransitions];
+
+			for (int t = 0; t < numTransitions; t++) {
+				long index = (stateIndexes[sequence[t]] * n) + stateIndexes[sequence[t + 1]];
+				packed[t] = (index << 32) | t;
+			}
+
+			Arrays.sort(packed);
+
+			int[] idx = new int[numTransitions];
+			double[] values = new double[numTransitions];
+			double[] sums = new double[numTransitions];
+			double[] squares = new double[numTransitions];
+			int numDistinct = -1;
+			int lastIndex = -1;
+
+			for (long p : packed) {
+				int index = (int) (p >>> 32);
+				double thinkTime = sessionThinkTimes[(int) p];
+
+				if (index != lastIndex) {
+					numDistinct++;
+					idx[numDistinct] = index;
+					lastIndex = index;
+				}
+
+				values[numDistinct]++;
+				sums[numDistinct] += thinkTime;
+				squares[numDistinct] += thinkTime * thinkTime;
+			}
+
+			numDistinct++;
+
+			vectors.indexes[session] = Arrays.copyOf(idx, numDistinct);
+			vectors.counts[session] = Arrays.copyOf(values, numDistinct);
+			vectors.thinkTimeSums[session] = Arrays.copyOf(sums, numDistinct);
+			vectors.thinkTimeSquares[session] = Arrays.copyOf(squares, numDistinct);
+			vectors.squaredNorms[session] = squaredNorm(vectors.counts[session]);
+		}
+
+	}
+
+}
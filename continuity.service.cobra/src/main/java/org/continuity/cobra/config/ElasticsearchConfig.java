@@ -2,10 +2,14 @@ package org.continuity.cobra.config;
 
 import java.io.IOException;
 
+import org.continuity.api.entities.config.ConfigurationProvider;
+import org.continuity.api.entities.config.cobra.CobraConfiguration;
+import org.continuity.cobra.managers.BulkSettings;
 import org.continuity.cobra.managers.ElasticsearchBehaviorManager;
 import org.continuity.cobra.managers.ElasticsearchIntensityManager;
 import org.continuity.cobra.managers.ElasticsearchSessionManager;
 import org.continuity.cobra.managers.ElasticsearchTraceManager;
+import org.continuity.cobra.managers.OpenSessionStore;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -15,28 +19,41 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 @Configuration
 public class ElasticsearchConfig {
 
+	@Bean
+	public BulkSettings bulkSettings(@Value("${elasticsearch.bulk.max-in-flight:4}") int maxInFlight, @Value("${elasticsearch.bulk.max-bytes:10485760}") long maxBatchBytes,
+			@Value("${elasticsearch.bulk.target-latency:1000}") long targetLatencyMillis, @Value("${elasticsearch.bulk.max-retries:5}") int maxRetries,
+			@Value("${elasticsearch.bulk.initial-backoff:100}") long initialBackoffMillis) {
+		return new BulkSettings(maxInFlight, maxBatchBytes, targetLatencyMillis, maxRetries, initialBackoffMillis);
+	}
+
 	@Bean(destroyMethod = "destroy")
 	public ElasticsearchTraceManager elasticsearchTraceManager(@Value("${elasticsearch.host:localhost}") String host, ObjectMapper mapper,
-			@Value("${elasticsearch.bulk-timeout:30}") int bulkTimeoutSeconds) throws IOException {
-		return new ElasticsearchTraceManager(host, mapper, bulkTimeoutSeconds);
+			@Value("${elasticsearch.bulk-timeout:30}") int bulkTimeoutSeconds, @Value("${elasticsearch.scroll-slices:4}") int scrollSlices, BulkSettings bulkSettings) throws IOException {
+		return new ElasticsearchTraceManager(host, mapper, bulkTimeoutSeconds, scrollSlices, bulkSettings);
 	}
 
 	@Bean(destroyMethod = "destroy")
 	public ElasticsearchSessionManager elasticsearchSessionManager(@Value("${elasticsearch.host:localhost}") String host, ObjectMapper mapper,
-			@Value("${elasticsearch.bulk-timeout:30}") int bulkTimeoutSeconds) throws IOException {
-		return new ElasticsearchSessionManager(host, mapper, bulkTimeoutSeconds);
+			@Value("${elasticsearch.bulk-timeout:30}") int bulkTimeoutSeconds, @Value("${elasticsearch.scroll-slices:4}") int scrollSlices, BulkSettings bulkSettings) throws IOException {
+		return new ElasticsearchSessionManager(host, mapper, bulkTimeoutSeconds, scrollSlices, bulkSettings);
 	}
 
 	@Bean(destroyMethod = "destroy")
 	public ElasticsearchIntensityManager elasticsearchIntensityManager(@Value("${elasticsearch.host:localhost}") String host, ObjectMapper mapper,
-			@Value("${elasticsearch.bulk-timeout:30}") int bulkTimeoutSeconds) throws IOException {
-		return new ElasticsearchIntensityManager(host, mapper, bulkTimeoutSeconds);
+			@Value("${elasticsearch.bulk-timeout:30}") int bulkTimeoutSeconds, @Value("${elasticsearch.scroll-slices:4}") int scrollSlices, BulkSettings bulkSettings) throws IOException {
+		return new ElasticsearchIntensityManager(host, mapper, bulkTimeoutSeconds, scrollSlices, bulkSettings);
 	}
 
 	@Bean(destroyMethod = "destroy")
 	public ElasticsearchBehaviorManager elasticsearchBehaviorManager(@Value("${elasticsearch.host:localhost}") String host, ObjectMapper mapper,
-			@Value("${elasticsearch.bulk-timeout:30}") int bulkTimeoutSeconds) throws IOException {
-		return new ElasticsearchBehaviorManager(host, mapper, bulkTimeoutSeconds);
+			@Value("${elasticsearch.bulk-timeout:30}") int bulkTimeoutSeconds, BulkSettings bulkSettings) throws IOException {
+		return new ElasticsearchBehaviorManager(host, mapper, bulkTimeoutSeconds, bulkSettings);
+	}
+
+	@Bean(destroyMethod = "destroy")
+	public OpenSessionStore openSessionStore(ElasticsearchSessionManager sessionManager, ConfigurationProvider<CobraConfiguration> configProvider,
+			@Value("${sessions.write-behind:60}") int writeBehindSeconds, @Value("${sessions.sweep-interval:60}") int sweepIntervalSeconds) {
+		return new OpenSessionStore(sessionManager, writeBehindSeconds * 1000L, sweepIntervalSeconds * 1000L, aid -> configProvider.getConfiguration(aid).getSessions().getTimeout());
 	}
 
 }
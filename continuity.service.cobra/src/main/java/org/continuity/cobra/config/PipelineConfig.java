@@ -0,0 +1,39 @@
+package org.continuity.cobra.config;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.continuity.cobra.pipeline.TraceProcessingPipeline;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+@Configuration
+public class PipelineConfig {
+
+	@Bean(destroyMethod = "destroy")
+	public TraceProcessingPipeline traceProcessingPipeline(@Value("${pipeline.map-threads:4}") int mapThreads, @Value("${pipeline.persist-threads:2}") int persistThreads,
+			@Value("${pipeline.queue-size:4}") int queueSize) {
+		return new TraceProcessingPipeline(mapThreads, persistThreads, queueSize);
+	}
+
+	@Bean(destroyMethod = "shutdown")
+	public ExecutorService tailoringExecutor(@Value("${pipeline.tailoring-threads:4}") int tailoringThreads) {
+		CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("trace-tailoring-");
+		threadFactory.setDaemon(true);
+		return Executors.newFixedThreadPool(tailoringThreads, threadFactory);
+	}
+
+	/**
+	 * Executes the embedded clusterings one after the other. The clustering algorithms themselves
+	 * run on separate fork-join pools.
+	 */
+	@Bean(destroyMethod = "shutdown")
+	public ExecutorService clusteringExecutor() {
+		CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("clustering-");
+		threadFactory.setDaemon(true);
+		return Executors.newSingleThreadExecutor(threadFactory);
+	}
+
+}
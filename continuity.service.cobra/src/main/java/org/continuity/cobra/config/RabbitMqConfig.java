@@ -41,6 +41,8 @@ public class RabbitMqConfig {
 
 	public static final String EVENT_CLUSTINATOR_FINISHED_QUEUE_NAME = "continuity.cobra.event.clustinator.finished";
 
+	public static final String EVENT_IDPA_CHANGED_QUEUE_NAME = "continuity.cobra.event.idpa.changed";
+
 	public static final String DEAD_LETTER_QUEUE_NAME = AmqpApi.DEAD_LETTER_EXCHANGE.deriveQueueName(SERVICE_NAME);
 
 	// General
@@ -88,6 +90,10 @@ public class RabbitMqConfig {
 		factory.setAfterReceivePostProcessors(typeRemovingProcessor());
 		factory.setPrefetchCount(1);
 		factory.setDefaultRequeueRejected(true);
+
+		// the parts of an upload need to be processed one after another and in order
+		factory.setConcurrentConsumers(1);
+		factory.setMaxConcurrentConsumers(1);
 		return factory;
 	}
 
@@ -187,6 +193,22 @@ public class RabbitMqConfig {
 		return AmqpApi.Cobra.Clustinator.EVENT_IMAGEGENERATED.create();
 	}
 
+	@Bean
+	TopicExchange eventIdpaChangedExchange() {
+		return AmqpApi.Idpa.EVENT_CHANGED.create();
+	}
+
+	@Bean
+	Queue eventIdpaChangedQueue() {
+		return QueueBuilder.nonDurable(EVENT_IDPA_CHANGED_QUEUE_NAME).withArgument(AmqpApi.DEAD_LETTER_EXCHANGE_KEY, AmqpApi.DEAD_LETTER_EXCHANGE.name())
+				.withArgument(AmqpApi.DEAD_LETTER_ROUTING_KEY_KEY, SERVICE_NAME).build();
+	}
+
+	@Bean
+	Binding eventIdpaChangedBinding() {
+		return BindingBuilder.bind(eventIdpaChangedQueue()).to(eventIdpaChangedExchange()).with(ROUTING_KEY_ALL);
+	}
+
 	// Dead letter exchange and queue
 
 	@Bean
@@ -1,6 +1,8 @@
 package org.continuity.cobra.config;
 
 import org.continuity.cobra.entities.TraceProcessingStatus;
+import org.continuity.cobra.upload.UploadProgressTracker;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -12,4 +14,9 @@ public class StatusConfig {
 		return new TraceProcessingStatus();
 	}
 
+	@Bean
+	public UploadProgressTracker uploadProgressTracker(@Value("${upload.max-tracked:1000}") int maxUploads) {
+		return new UploadProgressTracker(maxUploads);
+	}
+
 }
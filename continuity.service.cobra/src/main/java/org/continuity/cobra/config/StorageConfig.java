@@ -5,10 +5,12 @@ import java.util.ArrayList;
 import java.util.List;
 
 import org.continuity.api.entities.artifact.ForecastIntensityRecord;
+import org.continuity.cobra.cache.ApplicationModelCache;
 import org.continuity.commons.storage.MixedStorage;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.web.client.RestTemplate;
 
 @Configuration
 public class StorageConfig {
@@ -18,4 +20,9 @@ public class StorageConfig {
 		return new MixedStorage<>(Paths.get(storagePath), new ArrayList<>());
 	}
 
+	@Bean
+	public ApplicationModelCache applicationModelCache(RestTemplate restTemplate, @Value("${idpa.cache-size:100}") int cacheSize) {
+		return new ApplicationModelCache(restTemplate, cacheSize);
+	}
+
 }
@@ -2,16 +2,24 @@ package org.continuity.cobra.controllers;
 
 import static org.continuity.api.rest.RestApi.Cobra.BehaviorModel.ROOT;
 import static org.continuity.api.rest.RestApi.Cobra.BehaviorModel.Paths.CREATE;
+import static org.continuity.api.rest.RestApi.Cobra.BehaviorModel.Paths.CREATE_BATCH;
 import static org.continuity.api.rest.RestApi.Cobra.BehaviorModel.Paths.GET_LATEST;
 import static org.continuity.api.rest.RestApi.Cobra.BehaviorModel.Paths.UPDATE_NUM_SESSIONS;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeoutException;
 import java.util.stream.Collectors;
 
@@ -20,9 +28,12 @@ import org.continuity.api.entities.artifact.markovbehavior.NormalDistribution;
 import org.continuity.api.entities.artifact.markovbehavior.RelativeMarkovChain;
 import org.continuity.api.entities.artifact.session.Session;
 import org.continuity.api.entities.artifact.session.SessionRequest;
+import org.continuity.api.entities.config.BatchSessionTailoringDescription;
 import org.continuity.api.entities.config.ConfigurationProvider;
 import org.continuity.api.entities.config.SessionTailoringDescription;
+import org.continuity.api.entities.config.SessionTailoringGroup;
 import org.continuity.api.entities.config.cobra.CobraConfiguration;
+import org.continuity.cobra.cache.ApplicationModelCache;
 import org.continuity.cobra.entities.TraceRecord;
 import org.continuity.cobra.extractor.RequestTailorer;
 import org.continuity.cobra.extractor.SessionUpdater;
@@ -35,13 +46,13 @@ import org.continuity.idpa.VersionOrTimestamp;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RestController;
-import org.springframework.web.client.RestTemplate;
 
 import io.swagger.annotations.ApiImplicitParam;
 import io.swagger.annotations.ApiImplicitParams;
@@ -59,7 +70,7 @@ public class BehaviorModelController {
 	private static final Logger LOGGER = LoggerFactory.getLogger(BehaviorModelController.class);
 
 	@Autowired
-	private RestTemplate restTemplate;
+	private ApplicationModelCache modelCache;
 
 	@Autowired
 	private ElasticsearchTraceManager traceManager;
@@ -73,6 +84,10 @@ public class BehaviorModelController {
 	@Autowired
 	private ConfigurationProvider<CobraConfiguration> configProvider;
 
+	@Autowired
+	@Qualifier("tailoringExecutor")
+	private ExecutorService tailoringExecutor;
+
 	@RequestMapping(value = GET_LATEST, method = RequestMethod.GET, produces = "application/json")
 	@ApiImplicitParams({ @ApiImplicitParam(name = "app-id", required = true, dataType = "string", paramType = "path") })
 	public ResponseEntity<MarkovBehaviorModel> getLatestBehaviorModel(@ApiIgnore @PathVariable("app-id") AppId aid, @PathVariable String tailoring, Long before) throws IOException, TimeoutException {
@@ -104,6 +119,78 @@ public class BehaviorModelController {
 		return ResponseEntity.ok(matrix);
 	}
 
+	/**
+	 * Generates tailored Markov chains for several groups of sessions and root endpoints at once.
+	 * The traces of all groups are read with one query and the Markov chains are tailored in
+	 * parallel.
+	 *
+	 * @param description
+	 *            The description of the groups and the tailoring.
+	 * @return The tailored Markov chains per group ID and root endpoint.
+	 * @throws IOException
+	 * @throws TimeoutException
+	 */
+	@RequestMapping(value = CREATE_BATCH, method = RequestMethod.POST, produces = "application/json")
+	public ResponseEntity<Map<String, Map<String, RelativeMarkovChain>>> getTailoredMarkovChains(@RequestBody BatchSessionTailoringDescription description) throws IOException, TimeoutException {
+		AppId aid = description.getAid();
+		VersionOrTimestamp version = description.getVersion();
+		List<String> services = description.getTailoring();
+		List<SessionTailoringGroup> groups = (description.getGroups() == null) ? Collections.emptyList() : description.getGroups();
+
+		Set<String> rootEndpoints = new LinkedHashSet<>();
+		Set<String> sessionIds = new LinkedHashSet<>();
+
+		for (SessionTailoringGroup group : groups) {
+			rootEndpoints.addAll(group.getRootEndpoints());
+			sessionIds.addAll(group.getSessionIds());
+		}
+
+		LOGGER.info("Generating tailored Markov chains for app-id {}, {} groups, {} root endpoints, version {}, and services {}...", aid, groups.size(), rootEndpoints.size(), version, services);
+
+		List<TraceRecord> traces = (rootEndpoints.isEmpty() || sessionIds.isEmpty()) ? Collections.emptyList() : traceManager.readTraceRecords(aid, rootEndpoints, sessionIds);
+		Map<String, Map<String, List<TraceRecord>>> tracesPerGroup = partitionTraces(groups, traces);
+
+		RequestTailorer tailorer = new RequestTailorer(aid, version, modelCache, description.isIncludePrePostProcessing());
+		boolean ignoreRedirects = configProvider.getConfiguration(aid).getSessions().isIgnoreRedirects();
+
+		Map<String, Map<String, CompletableFuture<RelativeMarkovChain>>> futures = new LinkedHashMap<>();
+
+		tracesPerGroup.forEach((group, tracesPerEndpoint) -> {
+			Map<String, CompletableFuture<RelativeMarkovChain>> groupFutures = new LinkedHashMap<>();
+
+			tracesPerEndpoint.forEach((endpoint, endpointTraces) -> {
+				groupFutures.put(endpoint, CompletableFuture
+						.supplyAsync(() -> tailorMarkovChain(version, services, description.isIncludePrePostProcessing(), ignoreRedirects, tailorer, endpointTraces), tailoringExecutor));
+			});
+
+			futures.put(group, groupFutures);
+		});
+
+		Map<String, Map<String, RelativeMarkovChain>> chains = new LinkedHashMap<>();
+
+		for (Map.Entry<String, Map<String, CompletableFuture<RelativeMarkovChain>>> groupFutures : futures.entrySet()) {
+			Map<String, RelativeMarkovChain> groupChains = new LinkedHashMap<>();
+
+			for (Map.Entry<String, CompletableFuture<RelativeMarkovChain>> future : groupFutures.getValue().entrySet()) {
+				try {
+					groupChains.put(future.getKey(), future.getValue().join());
+				} catch (CompletionException e) {
+					if (e.getCause() instanceof RuntimeException) {
+						throw (RuntimeException) e.getCause();
+					} else {
+						throw e;
+					}
+				}
+			}
+
+			chains.put(groupFutures.getKey(), groupChains);
+		}
+
+		LOGGER.info("Tailoring of {} groups for app-id {}, version {}, and services {} done.", groups.size(), aid, version, services);
+
+		return ResponseEntity.ok(chains);
+	}
+
 	@RequestMapping(value = UPDATE_NUM_SESSIONS, method = RequestMethod.POST)
 	@ApiImplicitParams({ @ApiImplicitParam(name = "app-id", required = true, dataType = "string", paramType = "path") })
 	public void updateNumSessions(@ApiIgnore @PathVariable("app-id") AppId aid, @PathVariable String tailoring, @PathVariable long timestamp) throws IOException, TimeoutException {
@@ -139,8 +226,17 @@ public class BehaviorModelController {
 
 		List<TraceRecord> traces = traceManager.readTraceRecords(aid, rootEndpoint, description.getSessionIds());
 
-		RequestTailorer tailorer = new RequestTailorer(aid, version, restTemplate, includePrePost);
-		SessionUpdater updater = new SessionUpdater(version, Long.MAX_VALUE, true, configProvider.getConfiguration(aid).getSessions().isIgnoreRedirects());
+		RequestTailorer tailorer = new RequestTailorer(aid, version, modelCache, includePrePost);
+		RelativeMarkovChain chain = tailorMarkovChain(version, services, includePrePost, configProvider.getConfiguration(aid).getSessions().isIgnoreRedirects(), tailorer, traces);
+
+		LOGGER.info("Tailoring for app-id {}, version {}, root endpoint {}, and services {} done.", aid, rootEndpoint, version, services);
+
+		return chain;
+	}
+
+	private RelativeMarkovChain tailorMarkovChain(VersionOrTimestamp version, List<String> services, boolean includePrePost, boolean ignoreRedirects, RequestTailorer tailorer,
+			List<TraceRecord> traces) {
+		SessionUpdater updater = new SessionUpdater(version, Long.MAX_VALUE, true, ignoreRedirects);
 		SessionsToMarkovChainAggregator aggregator = new SessionsToMarkovChainAggregator();
 
 		List<SessionRequest> requests = tailorer.tailorTraces(services, traces);
@@ -152,11 +248,52 @@ public class BehaviorModelController {
 			removePrePostProcessingState(SessionRequest.PREFIX_POST_PROCESSING, chain);
 		}
 
-		LOGGER.info("Tailoring for app-id {}, version {}, root endpoint {}, and services {} done.", aid, rootEndpoint, version, services);
-
 		return chain;
 	}
 
+	/**
+	 * Assigns the traces to the groups and root endpoints. A trace belongs to a group if it has
+	 * the root endpoint and shares at least one session ID with the group. Each requested
+	 * combination of group and root endpoint is contained, potentially with an empty list.
+	 */
+	static Map<String, Map<String, List<TraceRecord>>> partitionTraces(List<SessionTailoringGroup> groups, List<TraceRecord> traces) {
+		Map<String, Map<String, List<TraceRecord>>> tracesPerGroup = new LinkedHashMap<>();
+		Map<String, List<SessionTailoringGroup>> groupsPerSession = new HashMap<>();
+
+		for (SessionTailoringGroup group : groups) {
+			Map<String, List<TraceRecord>> tracesPerEndpoint = tracesPerGroup.computeIfAbsent(group.getId(), g -> new LinkedHashMap<>());
+			group.getRootEndpoints().forEach(endpoint -> tracesPerEndpoint.putIfAbsent(endpoint, new ArrayList<>()));
+
+			for (String sessionId : new LinkedHashSet<>(group.getSessionIds())) {
+				groupsPerSession.computeIfAbsent(sessionId, s -> new ArrayList<>()).add(group);
+			}
+		}
+
+		for (TraceRecord trace : traces) {
+			if (trace.getUniqueSessionIds() == null) {
+				continue;
+			}
+
+			Set<String> matchingGroups = new LinkedHashSet<>();
+
+			for (String sessionId : trace.getUniqueSessionIds()) {
+				for (SessionTailoringGroup group : groupsPerSession.getOrDefault(sessionId, Collections.emptyList())) {
+					matchingGroups.add(group.getId());
+				}
+			}
+
+			for (String group : matchingGroups) {
+				List<TraceRecord> endpointTraces = tracesPerGroup.get(group).get(trace.getEndpoint());
+
+				if (endpointTraces != null) {
+					endpointTraces.add(trace);
+				}
+			}
+		}
+
+		return tracesPerGroup;
+	}
+
 	private void removePrePostProcessingState(String prefix, RelativeMarkovChain chain) {
 		int removed = chain.removeStates(s -> s.startsWith(prefix), NormalDistribution.ZERO);
 
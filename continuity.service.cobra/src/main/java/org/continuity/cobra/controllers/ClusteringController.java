@@ -7,6 +7,7 @@ import java.io.IOException;
 import java.time.Duration;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeoutException;
 
 import org.continuity.api.amqp.AmqpApi;
@@ -16,7 +17,10 @@ import org.continuity.api.entities.artifact.markovbehavior.MarkovBehaviorModel;
 import org.continuity.api.entities.artifact.session.Session;
 import org.continuity.api.entities.config.ConfigurationProvider;
 import org.continuity.api.entities.config.cobra.AppendStrategyConfiguration;
+import org.continuity.api.entities.config.cobra.ClusteringEngine;
 import org.continuity.api.entities.config.cobra.CobraConfiguration;
+import org.continuity.cobra.amqp.ClustinatorResultAmqpHandler;
+import org.continuity.cobra.clustering.EmbeddedClustinator;
 import org.continuity.cobra.entities.ClusteringContinuation;
 import org.continuity.cobra.entities.ClustinatorInput;
 import org.continuity.cobra.managers.ElasticsearchBehaviorManager;
@@ -26,6 +30,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.amqp.core.AmqpTemplate;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
@@ -54,6 +59,16 @@ public class ClusteringController {
 	@Autowired
 	private AmqpTemplate amqpTemplate;
 
+	@Autowired
+	private EmbeddedClustinator embeddedClustinator;
+
+	@Autowired
+	private ClustinatorResultAmqpHandler resultHandler;
+
+	@Autowired
+	@Qualifier("clusteringExecutor")
+	private ExecutorService clusteringExecutor;
+
 	@RequestMapping(value = TRIGGER_LATEST, method = RequestMethod.POST)
 	@ApiImplicitParams({ @ApiImplicitParam(name = "app-id", required = true, dataType = "string", paramType = "path"),
 			@ApiImplicitParam(name = "tailoring", required = true, dataType = "string", paramType = "path") })
@@ -105,10 +120,24 @@ public class ClusteringController {
 		input.setLookback(appendStrategy.getStrategy().getLookback(config.getClustering().getLookback())).setDimensions(config.getClustering().getDimensions())
 				.setContinuation(ClusteringContinuation.fromBool(ignoreTimeout, continueWithNext));
 
-		ExchangeDefinition<RoutingKeyFormatter.AppId> exchange = AmqpApi.Cobra.Clustinator.TASK_CLUSTER;
-		amqpTemplate.convertAndSend(exchange.name(), exchange.formatRoutingKey().of(aid), input);
+		if (config.getClustering().getEngine() == ClusteringEngine.EMBEDDED) {
+			clusteringExecutor.execute(() -> clusterEmbedded(input));
 
-		LOGGER.info("{} {}: Clustering triggered. Waiting for the clustinator.", aid, tailoring);
+			LOGGER.info("{} {}: Clustering triggered. Using the embedded engine.", aid, tailoring);
+		} else {
+			ExchangeDefinition<RoutingKeyFormatter.AppId> exchange = AmqpApi.Cobra.Clustinator.TASK_CLUSTER;
+			amqpTemplate.convertAndSend(exchange.name(), exchange.formatRoutingKey().of(aid), input);
+
+			LOGGER.info("{} {}: Clustering triggered. Waiting for the clustinator.", aid, tailoring);
+		}
+	}
+
+	private void clusterEmbedded(ClustinatorInput input) {
+		try {
+			resultHandler.processResult(embeddedClustinator.cluster(input));
+		} catch (Exception e) {
+			LOGGER.error("{} {}: Error during the embedded clustering!", input.getAppId(), input.getTailoring(), e);
+		}
 	}
 
 	private long clusteringTimestamp(long date, long intervalMillis, long timeoutMillis) {
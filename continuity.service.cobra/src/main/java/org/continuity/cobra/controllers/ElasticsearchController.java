@@ -0,0 +1,58 @@
+package org.continuity.cobra.controllers;
+
+import static org.continuity.api.rest.RestApi.Cobra.Elasticsearch.ROOT;
+import static org.continuity.api.rest.RestApi.Cobra.Elasticsearch.Paths.GET_BULK_METRICS;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.continuity.cobra.entities.BulkIndexMetrics;
+import org.continuity.cobra.managers.ElasticsearchBehaviorManager;
+import org.continuity.cobra.managers.ElasticsearchIntensityManager;
+import org.continuity.cobra.managers.ElasticsearchSessionManager;
+import org.continuity.cobra.managers.ElasticsearchTraceManager;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Provides information about the interaction with the Elasticsearch.
+ *
+ * @author Henning Schulz
+ *
+ */
+@RestController
+@RequestMapping(ROOT)
+public class ElasticsearchController {
+
+	@Autowired
+	private ElasticsearchTraceManager traceManager;
+
+	@Autowired
+	private ElasticsearchSessionManager sessionManager;
+
+	@Autowired
+	private ElasticsearchIntensityManager intensityManager;
+
+	@Autowired
+	private ElasticsearchBehaviorManager behaviorManager;
+
+	/**
+	 * Gets the metrics of the bulk requests per index, e.g., the throughput, latency, and
+	 * rejections.
+	 *
+	 * @return The metrics ordered by index name.
+	 */
+	@RequestMapping(value = GET_BULK_METRICS, method = RequestMethod.GET)
+	public ResponseEntity<List<BulkIndexMetrics>> getBulkMetrics() {
+		List<BulkIndexMetrics> metrics = Stream.of(traceManager, sessionManager, intensityManager, behaviorManager).flatMap(m -> m.getBulkMetrics().stream())
+				.sorted(Comparator.comparing(BulkIndexMetrics::getIndex)).collect(Collectors.toList());
+
+		return ResponseEntity.ok(metrics);
+	}
+
+}
@@ -2,6 +2,7 @@ package org.continuity.cobra.controllers;
 
 import static org.continuity.api.rest.RestApi.Cobra.MeasurementData.ROOT;
 import static org.continuity.api.rest.RestApi.Cobra.MeasurementData.Paths.GET;
+import static org.continuity.api.rest.RestApi.Cobra.MeasurementData.Paths.GET_UPLOAD;
 import static org.continuity.api.rest.RestApi.Cobra.MeasurementData.Paths.GET_VERSION;
 import static org.continuity.api.rest.RestApi.Cobra.MeasurementData.Paths.PUSH_ACCESS_LOGS;
 import static org.continuity.api.rest.RestApi.Cobra.MeasurementData.Paths.PUSH_CSV;
@@ -9,7 +10,11 @@ import static org.continuity.api.rest.RestApi.Cobra.MeasurementData.Paths.PUSH_L
 import static org.continuity.api.rest.RestApi.Cobra.MeasurementData.Paths.PUSH_OPEN_XTRACE;
 import static org.continuity.api.rest.RestApi.Cobra.MeasurementData.Paths.PUSH_SESSION_LOGS;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.text.ParseException;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -18,17 +23,24 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 import java.util.concurrent.TimeoutException;
 
+import javax.annotation.PostConstruct;
+
 import org.continuity.api.amqp.AmqpApi;
 import org.continuity.api.amqp.ExchangeDefinition;
+import org.continuity.api.amqp.PayloadEncoding;
 import org.continuity.api.amqp.RoutingKeyFormatter.AppIdAndVersion;
 import org.continuity.api.entities.ApiFormats;
 import org.continuity.api.entities.config.MeasurementDataSpec;
 import org.continuity.api.rest.RestApi;
 import org.continuity.cobra.config.RabbitMqConfig;
 import org.continuity.cobra.entities.TraceProcessingStatus;
+import org.continuity.cobra.entities.UploadProgress;
 import org.continuity.cobra.managers.ElasticsearchTraceManager;
+import org.continuity.cobra.upload.UploadProgressTracker;
+import org.continuity.cobra.upload.UploadSplitter;
 import org.continuity.idpa.AppId;
 import org.continuity.idpa.VersionOrTimestamp;
 import org.slf4j.Logger;
@@ -40,7 +52,9 @@ import org.springframework.amqp.core.MessageProperties;
 import org.springframework.amqp.rabbit.core.RabbitAdmin;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.util.ResourceUtils;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -50,7 +64,9 @@ import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.rabbitmq.client.AMQP.Queue.DeclareOk;
 
 import io.swagger.annotations.ApiImplicitParam;
@@ -86,9 +102,31 @@ public class MeasurementDataController {
 	@Autowired
 	private TraceProcessingStatus status;
 
+	@Autowired
+	private UploadProgressTracker progressTracker;
+
+	@Value("${upload.max-part-size:8388608}")
+	private int uploadMaxPartSize;
+
+	@Value("${upload.compression:gzip}")
+	private String uploadCompression;
+
+	@Value("${upload.compression-threshold:65536}")
+	private int uploadCompressionThreshold;
+
+	private PayloadEncoding uploadEncoding;
+
+	@PostConstruct
+	private void parseUploadCompression() {
+		// fails on startup in case of an invalid configuration
+		uploadEncoding = PayloadEncoding.fromPrettyString(uploadCompression);
+
+		LOGGER.info("Compressing upload parts of at least {} characters with {}.", uploadCompressionThreshold, uploadEncoding.toPrettyString());
+	}
+
 	@RequestMapping(value = GET, method = RequestMethod.GET)
 	@ApiImplicitParams({ @ApiImplicitParam(name = "app-id", required = true, dataType = "string", paramType = "path") })
-	public ResponseEntity<String> getTraces(@ApiIgnore @PathVariable("app-id") AppId aid, @RequestParam(required = false) List<String> from, @RequestParam(required = false) List<String> to)
+	public ResponseEntity<?> getTraces(@ApiIgnore @PathVariable("app-id") AppId aid, @RequestParam(required = false) List<String> from, @RequestParam(required = false) List<String> to)
 			throws IOException, TimeoutException {
 
 		return getTracesForVersion(aid, null, from, to);
@@ -97,7 +135,7 @@ public class MeasurementDataController {
 	@RequestMapping(value = GET_VERSION, method = RequestMethod.GET)
 	@ApiImplicitParams({ @ApiImplicitParam(name = "app-id", required = true, dataType = "string", paramType = "path"),
 			@ApiImplicitParam(name = "version", required = true, dataType = "string", paramType = "path") })
-	public ResponseEntity<String> getTracesForVersion(@ApiIgnore @PathVariable("app-id") AppId aid, @ApiIgnore @PathVariable("version") VersionOrTimestamp version,
+	public ResponseEntity<?> getTracesForVersion(@ApiIgnore @PathVariable("app-id") AppId aid, @ApiIgnore @PathVariable("version") VersionOrTimestamp version,
 			@RequestParam(required = false) List<String> from, @RequestParam(required = false) List<String> to) throws IOException, TimeoutException {
 
 		if (((from == null) && (to != null)) || ((from != null) && (to == null)) || ((from != null) && (to != null) && (from.size() != to.size()))) {
@@ -140,9 +178,25 @@ public class MeasurementDataController {
 			}
 		}
 
-		String json = OPENxtraceUtils.serializeTraceListToJsonString(traces);
+		// write the traces one by one instead of holding the whole JSON in memory, too
+		List<Trace> result = traces;
+		StreamingResponseBody body = out -> {
+			Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+			OPENxtraceUtils.serializeTraceList(result, writer);
+		};
+
+		return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON_UTF8).body(body);
+	}
+
+	@RequestMapping(value = GET_UPLOAD, method = RequestMethod.GET)
+	public ResponseEntity<UploadProgress> getUploadProgress(@PathVariable("upload-id") String uploadId) {
+		UploadProgress progress = progressTracker.get(uploadId);
 
-		return ResponseEntity.ok(json);
+		if (progress == null) {
+			return ResponseEntity.notFound().build();
+		}
+
+		return ResponseEntity.ok(progress);
 	}
 
 	@RequestMapping(value = PUSH_LINK, method = RequestMethod.POST)
@@ -247,11 +301,55 @@ public class MeasurementDataController {
 		return forwardData("session-logs", aid, version, sessionContent, finish);
 	}
 
-	private ResponseEntity<Map<String, Object>> forwardData(String datatype, AppId aid, VersionOrTimestamp version, String data, boolean finish) {
+	/**
+	 * Splits the data on record boundaries into parts of at most {@code upload.max-part-size}
+	 * characters and sends each part as a separate message. All parts share the upload ID as
+	 * correlation ID. Only the last part carries the finish flag, as the sessions must not be
+	 * finished before all traces have been processed.
+	 */
+	private ResponseEntity<Map<String, Object>> forwardData(String datatype, AppId aid, VersionOrTimestamp version, String data, boolean finish) throws IOException {
+		UploadSplitter parts;
+
+		try {
+			parts = UploadSplitter.split(datatype, data, uploadMaxPartSize);
+		} catch (JsonProcessingException e) {
+			LOGGER.error("{}@{} Cannot split the uploaded {} data!", aid, version, datatype, e);
+			return responseError(aid, version, datatype, HttpStatus.BAD_REQUEST, "Improperly formatted data: " + e.getOriginalMessage());
+		}
+
+		String uploadId = UUID.randomUUID().toString();
+		int numParts = parts.size();
+
+		progressTracker.track(uploadId, aid, version, datatype, numParts);
+
+		ExchangeDefinition<AppIdAndVersion> exchange = AmqpApi.Cobra.TASK_PROCESS_TRACES;
+		String routingKey = exchange.formatRoutingKey().of(aid, version);
+		long numBytes = 0;
+
+		for (int i = 0; i < numParts; i++) {
+			boolean last = i == (numParts - 1);
+			Message message = createMessage(datatype, parts.get(i), uploadId, i, numParts, finish && last);
+
+			amqpTemplate.send(exchange.name(), routingKey, message);
+			numBytes += message.getBody().length;
+		}
+
+		LOGGER.info("{}@{} Forwarded upload {} to {} in {} parts ({} bytes).", aid, version, uploadId, exchange.name(), numParts, numBytes);
+
+		return responseAccepted(aid, version, datatype, uploadId, numParts);
+	}
+
+	private Message createMessage(String datatype, String part, String uploadId, int index, int numParts, boolean finish) throws IOException {
+		PayloadEncoding encoding = part.length() >= uploadCompressionThreshold ? uploadEncoding : PayloadEncoding.IDENTITY;
+
 		MessageProperties props = new MessageProperties();
 		props.setHeader(AmqpApi.Cobra.HEADER_DATATYPE, datatype);
 		props.setHeader(AmqpApi.Cobra.HEADER_FINISH, finish);
-		props.setContentEncoding(AmqpApi.Cobra.CONTENT_CHARSET.name());
+		props.setHeader(AmqpApi.Cobra.HEADER_UPLOAD_PART, index);
+		props.setHeader(AmqpApi.Cobra.HEADER_UPLOAD_PARTS, numParts);
+		props.setHeader(AmqpApi.Cobra.HEADER_UPLOAD_LAST, index == (numParts - 1));
+		props.setCorrelationId(uploadId);
+		props.setContentEncoding(encoding.toContentEncoding(AmqpApi.Cobra.CONTENT_CHARSET));
 
 		if ("open-xtrace".equals(datatype)) {
 			props.setContentType("application/json");
@@ -259,21 +357,32 @@ public class MeasurementDataController {
 			props.setContentType("text/plain");
 		}
 
-		ExchangeDefinition<AppIdAndVersion> exchange = AmqpApi.Cobra.TASK_PROCESS_TRACES;
-		Message message = new Message(data.getBytes(AmqpApi.Cobra.CONTENT_CHARSET), props);
-		amqpTemplate.send(exchange.name(), exchange.formatRoutingKey().of(aid, version), message);
+		return new Message(encode(part, encoding), props);
+	}
 
-		LOGGER.info("{}@{} Forwarded data to {}.", aid, version, exchange.name());
+	private byte[] encode(String data, PayloadEncoding encoding) throws IOException {
+		if (encoding == PayloadEncoding.IDENTITY) {
+			return data.getBytes(AmqpApi.Cobra.CONTENT_CHARSET);
+		}
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(data.length() / 8);
+
+		try (Writer writer = new OutputStreamWriter(encoding.encode(bytes), AmqpApi.Cobra.CONTENT_CHARSET)) {
+			writer.write(data);
+		}
 
-		return responseAccepted(aid, version, datatype);
+		return bytes.toByteArray();
 	}
 
-	private ResponseEntity<Map<String, Object>> responseAccepted(AppId aid, VersionOrTimestamp version, String datatype) {
+	private ResponseEntity<Map<String, Object>> responseAccepted(AppId aid, VersionOrTimestamp version, String datatype, String uploadId, int numParts) {
 		Map<String, Object> response = responseBase(aid, version, datatype);
 
 		response.put("status", HttpStatus.ACCEPTED.value());
 		response.put("message", "The data has been accepted for processing");
 		response.put("link", RestApi.Cobra.MeasurementData.GET_VERSION.requestUrl(aid, version).withoutProtocol().get());
+		response.put("upload-id", uploadId);
+		response.put("parts", numParts);
+		response.put("progress", RestApi.Cobra.MeasurementData.GET_UPLOAD.requestUrl(uploadId).withoutProtocol().get());
 
 		return ResponseEntity.accepted().body(response);
 	}
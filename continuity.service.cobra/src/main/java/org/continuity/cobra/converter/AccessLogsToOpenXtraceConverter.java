@@ -2,6 +2,7 @@ package org.continuity.cobra.converter;
 
 import java.text.ParseException;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -33,10 +34,27 @@ public class AccessLogsToOpenXtraceConverter implements OpenXtraceConverter<Acce
 
 	private static final Logger LOGGER = LoggerFactory.getLogger(AccessLogsToOpenXtraceConverter.class);
 
+	private static final int MAX_CACHED_SESSION_IDS = 10000;
+
 	private final boolean hashSessionId;
 
 	private final AtomicLong idCounter = new AtomicLong(0);
 
+	/**
+	 * The same client host occurs in many lines, so the hashes are cached. The least recently used
+	 * hashes are evicted if there are too many. Access needs to be synchronized on the map.
+	 */
+	private final Map<String, String> hashedSessionIds = new LinkedHashMap<String, String>(16, 0.75F, true) {
+
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Entry<String, String> eldest) {
+			return size() > MAX_CACHED_SESSION_IDS;
+		}
+
+	};
+
 	public AccessLogsToOpenXtraceConverter(boolean hashSessionId) {
 		this.hashSessionId = hashSessionId;
 	}
@@ -80,11 +98,30 @@ public class AccessLogsToOpenXtraceConverter implements OpenXtraceConverter<Acce
 		request.setResponseTime(entry.getResponseTime() * MICROS_TO_NANOS);
 		request.setHTTPParameters(formatParameters(entry.getRequestParameters()));
 
-		OPENxtraceUtils.setSessionId(request, hashSessionId ? DigestUtils.sha256Hex(entry.getClientHost()) : entry.getClientHost());
+		OPENxtraceUtils.setSessionId(request, hashSessionId ? hashSessionId(entry.getClientHost()) : entry.getClientHost());
 
 		return request;
 	}
 
+	private String hashSessionId(String clientHost) {
+		String hash;
+
+		synchronized (hashedSessionIds) {
+			hash = hashedSessionIds.get(clientHost);
+		}
+
+		if (hash == null) {
+			// hashing is done outside the lock; concurrent threads compute the same hash
+			hash = DigestUtils.sha256Hex(clientHost);
+
+			synchronized (hashedSessionIds) {
+				hashedSessionIds.put(clientHost, hash);
+			}
+		}
+
+		return hash;
+	}
+
 	private Map<String, String[]> formatParameters(List<ParameterRecord> params) {
 		if ((params == null) || params.isEmpty()) {
 			return Collections.emptyMap();
@@ -0,0 +1,160 @@
+package org.continuity.cobra.converter;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import org.continuity.cobra.entities.CsvRow;
+import org.continuity.commons.accesslogs.AccessLogEntry;
+import org.spec.research.open.xtrace.api.core.Trace;
+
+import open.xtrace.OPENxtraceStreamReader;
+import open.xtrace.OPENxtraceUtils;
+
+/**
+ * Reads data of a certain type incrementally from an {@link InputStream} and converts it to
+ * OPEN.xtrace in chunks of a fixed size. Hence, only one chunk of parsed data is held in memory at
+ * once, regardless of the size of the input.
+ *
+ * @author Henning Schulz
+ *
+ * @param <T>
+ *            The type of the parsed records.
+ */
+public class TraceChunkReader<T> implements Iterator<List<Trace>>, Closeable {
+
+	private final Iterator<T> records;
+
+	private final OpenXtraceConverter<T> converter;
+
+	private final int chunkSize;
+
+	private final Closeable source;
+
+	private TraceChunkReader(Iterator<T> records, OpenXtraceConverter<T> converter, int chunkSize, Closeable source) {
+		if (chunkSize <= 0) {
+			throw new IllegalArgumentException("The chunk size needs to be positive, but was " + chunkSize + "!");
+		}
+
+		this.records = records;
+		this.converter = converter;
+		this.chunkSize = chunkSize;
+		this.source = source;
+	}
+
+	/**
+	 * Creates a reader for access logs in the default format (one entry per line).
+	 *
+	 * @param input
+	 *            The input stream holding the access logs.
+	 * @param charset
+	 *            The charset of the input.
+	 * @param chunkSize
+	 *            The maximum number of traces per chunk.
+	 * @param hashSessionId
+	 *            Whether the session IDs should be hashed.
+	 * @return The reader.
+	 */
+	public static TraceChunkReader<AccessLogEntry> forAccessLogs(InputStream input, Charset charset, int chunkSize, boolean hashSessionId) {
+		BufferedReader reader = new BufferedReader(new InputStreamReader(input, charset));
+
+		return new TraceChunkReader<>(reader.lines().map(AccessLogEntry::fromLogLine).iterator(), new AccessLogsToOpenXtraceConverter(hashSessionId), chunkSize, reader);
+	}
+
+	/**
+	 * Creates a reader for CSV data with a header row.
+	 *
+	 * @param input
+	 *            The input stream holding the CSV data.
+	 * @param charset
+	 *            The charset of the input.
+	 * @param chunkSize
+	 *            The maximum number of traces per chunk.
+	 * @param hashSessionId
+	 *            Whether the session IDs should be hashed.
+	 * @return The reader.
+	 */
+	public static TraceChunkReader<CsvRow> forCsv(InputStream input, Charset charset, int chunkSize, boolean hashSessionId) {
+		BufferedReader reader = new BufferedReader(new InputStreamReader(input, charset));
+
+		return new TraceChunkReader<>(CsvRow.iterate(reader), new CsvRowToOpenXtraceConverter(hashSessionId), chunkSize, reader);
+	}
+
+	/**
+	 * Creates a reader for session logs in the extended format (one session per line). Note that
+	 * one session can result in multiple traces. Hence, the chunk size is applied to the number of
+	 * sessions.
+	 *
+	 * @param input
+	 *            The input stream holding the session logs.
+	 * @param charset
+	 *            The charset of the input.
+	 * @param chunkSize
+	 *            The maximum number of sessions per chunk.
+	 * @return The reader.
+	 */
+	public static TraceChunkReader<String> forSessionLogs(InputStream input, Charset charset, int chunkSize) {
+		BufferedReader reader = new BufferedReader(new InputStreamReader(input, charset));
+
+		return new TraceChunkReader<>(reader.lines().iterator(), new SessionLogsToOpenXtraceConverter(), chunkSize, reader);
+	}
+
+	/**
+	 * Creates a reader for an OPEN.xtrace JSON array.
+	 *
+	 * @param input
+	 *            The input stream holding the OPEN.xtrace array.
+	 * @param chunkSize
+	 *            The maximum number of traces per chunk.
+	 * @return The reader.
+	 * @throws IOException
+	 *             If the input cannot be read.
+	 */
+	public static TraceChunkReader<Trace> forOpenXtrace(InputStream input, int chunkSize) throws IOException {
+		OPENxtraceStreamReader traces = OPENxtraceUtils.streamTraces(input);
+
+		return new TraceChunkReader<>(traces, new IdentityConverter(), chunkSize, traces);
+	}
+
+	/**
+	 * Returns whether there are more chunks to be read.
+	 */
+	@Override
+	public boolean hasNext() {
+		return records.hasNext();
+	}
+
+	/**
+	 * Reads and converts the next chunk.
+	 *
+	 * @return The traces of the next chunk. Can be empty if none of the read records could be
+	 *         converted.
+	 */
+	@Override
+	public List<Trace> next() {
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+
+		List<T> chunk = new ArrayList<>(chunkSize);
+
+		while ((chunk.size() < chunkSize) && records.hasNext()) {
+			chunk.add(records.next());
+		}
+
+		return converter.convert(chunk);
+	}
+
+	@Override
+	public void close() throws IOException {
+		source.close();
+	}
+
+}
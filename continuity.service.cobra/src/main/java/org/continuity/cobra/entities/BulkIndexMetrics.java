@@ -0,0 +1,160 @@
+package org.continuity.cobra.entities;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntUnaryOperator;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+/**
+ * Metrics of the bulk requests to one Elasticsearch index. Also holds the current batch size,
+ * which is adapted to the observed latencies and rejections.
+ *
+ * @author Henning Schulz
+ *
+ */
+@JsonPropertyOrder({ "index", "batch-size", "requests", "documents", "bytes", "failed-documents", "rejected-documents", "retried-documents", "failed-requests", "average-latency-millis",
+		"documents-per-second" })
+public class BulkIndexMetrics {
+
+	private final String index;
+
+	private final AtomicInteger batchSize;
+
+	private final AtomicLong requests = new AtomicLong();
+
+	private final AtomicLong documents = new AtomicLong();
+
+	private final AtomicLong bytes = new AtomicLong();
+
+	private final AtomicLong tookMillis = new AtomicLong();
+
+	private final AtomicLong failedDocuments = new AtomicLong();
+
+	private final AtomicLong rejectedDocuments = new AtomicLong();
+
+	private final AtomicLong retriedDocuments = new AtomicLong();
+
+	private final AtomicLong failedRequests = new AtomicLong();
+
+	public BulkIndexMetrics(String index, int initialBatchSize) {
+		this.index = index;
+		this.batchSize = new AtomicInteger(initialBatchSize);
+	}
+
+	/**
+	 * Records a bulk response.
+	 *
+	 * @param numDocuments
+	 *            The number of documents in the request.
+	 * @param numBytes
+	 *            The estimated size of the request.
+	 * @param took
+	 *            The time the request took in milliseconds.
+	 * @param numFailed
+	 *            The number of failed items.
+	 * @param numRejected
+	 *            The number of items that failed due to rejections.
+	 */
+	public void recordResponse(int numDocuments, long numBytes, long took, int numFailed, int numRejected) {
+		requests.incrementAndGet();
+		documents.addAndGet(numDocuments - numFailed);
+		bytes.addAndGet(numBytes);
+		tookMillis.addAndGet(took);
+		failedDocuments.addAndGet(numFailed);
+		rejectedDocuments.addAndGet(numRejected);
+	}
+
+	/**
+	 * Records a bulk request that failed as a whole.
+	 *
+	 * @param numDocuments
+	 *            The number of documents in the request.
+	 * @param rejected
+	 *            Whether the request has been rejected.
+	 */
+	public void recordFailure(int numDocuments, boolean rejected) {
+		failedRequests.incrementAndGet();
+		failedDocuments.addAndGet(numDocuments);
+
+		if (rejected) {
+			rejectedDocuments.addAndGet(numDocuments);
+		}
+	}
+
+	public void recordRetry(int numDocuments) {
+		retriedDocuments.addAndGet(numDocuments);
+	}
+
+	public int updateBatchSize(IntUnaryOperator update) {
+		return batchSize.updateAndGet(update);
+	}
+
+	@JsonProperty("index")
+	public String getIndex() {
+		return index;
+	}
+
+	@JsonProperty("batch-size")
+	public int getBatchSize() {
+		return batchSize.get();
+	}
+
+	@JsonProperty("requests")
+	public long getRequests() {
+		return requests.get();
+	}
+
+	/**
+	 * The number of successfully stored documents.
+	 */
+	@JsonProperty("documents")
+	public long getDocuments() {
+		return documents.get();
+	}
+
+	@JsonProperty("bytes")
+	public long getBytes() {
+		return bytes.get();
+	}
+
+	/**
+	 * The number of failed documents, including ones that succeeded in a retry.
+	 */
+	@JsonProperty("failed-documents")
+	public long getFailedDocuments() {
+		return failedDocuments.get();
+	}
+
+	@JsonProperty("rejected-documents")
+	public long getRejectedDocuments() {
+		return rejectedDocuments.get();
+	}
+
+	@JsonProperty("retried-documents")
+	public long getRetriedDocuments() {
+		return retriedDocuments.get();
+	}
+
+	@JsonProperty("failed-requests")
+	public long getFailedRequests() {
+		return failedRequests.get();
+	}
+
+	@JsonProperty("average-latency-millis")
+	public double getAverageLatencyMillis() {
+		long numRequests = requests.get();
+		return numRequests == 0 ? 0 : (double) tookMillis.get() / numRequests;
+	}
+
+	/**
+	 * The number of stored documents per second of bulk request time.
+	 */
+	@JsonProperty("documents-per-second")
+	public double getDocumentsPerSecond() {
+		long took = tookMillis.get();
+		return took == 0 ? 0 : (documents.get() * 1000.0) / took;
+	}
+
+}
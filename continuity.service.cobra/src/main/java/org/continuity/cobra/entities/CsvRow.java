@@ -1,7 +1,9 @@
 package org.continuity.cobra.entities;
 
 import java.io.ByteArrayInputStream;
+import java.io.Reader;
 import java.text.ParseException;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Objects;
 
@@ -14,6 +16,7 @@ import com.univocity.parsers.annotations.Parsed;
 import com.univocity.parsers.common.processor.BeanListProcessor;
 import com.univocity.parsers.csv.CsvParser;
 import com.univocity.parsers.csv.CsvParserSettings;
+import com.univocity.parsers.csv.CsvRoutines;
 
 /**
  * A CSV record representing a single request.
@@ -222,6 +225,22 @@ public class CsvRow {
 		return rowProcessor.getBeans();
 	}
 
+	/**
+	 * Parses the CSV rows incrementally from a reader. In contrast to
+	 * {@link #listFromString(String)}, only the row currently returned is held in memory.
+	 *
+	 * @param requestLogs
+	 *            The reader providing the CSV data, including a header row.
+	 * @return An iterator over the parsed rows.
+	 */
+	public static Iterator<CsvRow> iterate(Reader requestLogs) {
+		CsvParserSettings settings = new CsvParserSettings();
+		settings.setHeaderExtractionEnabled(true);
+		settings.setDelimiterDetectionEnabled(true, ',', ';');
+
+		return new CsvRoutines(settings).iterate(CsvRow.class, requestLogs).iterator();
+	}
+
 	@Override
 	public int hashCode() {
 		return Objects.hash(domain, encoding, endDate, headers, method, name, parameters, path, port, protocol, sessionId, startDate);
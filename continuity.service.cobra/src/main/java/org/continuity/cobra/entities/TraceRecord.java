@@ -139,7 +139,7 @@ public class TraceRecord {
 
 		@Override
 		public Trace deserialize(JsonParser p, DeserializationContext ctxt) throws IOException, JsonProcessingException {
-			return OPENxtraceUtils.deserializeToTrace(p.readValueAsTree().toString());
+			return OPENxtraceUtils.deserializeToTrace(p);
 		}
 
 	}
@@ -0,0 +1,182 @@
+package org.continuity.cobra.entities;
+
+import java.util.Date;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.continuity.api.entities.ApiFormats;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+/**
+ * Progress of processing an upload that has been split into several parts. Each part is sent and
+ * processed as a separate message. Parts that are delivered again, e.g., after a restart, are only
+ * counted once.
+ *
+ * @author Henning Schulz
+ *
+ */
+@JsonPropertyOrder({ "upload-id", "app-id", "version", "type", "status", "parts", "processed-parts", "failed-parts", "incomplete-sessions", "traces", "created", "last-update" })
+public class UploadProgress {
+
+	private final String uploadId;
+
+	private final String appId;
+
+	private final String version;
+
+	private final String datatype;
+
+	private final int numParts;
+
+	private final Set<Integer> processedParts = ConcurrentHashMap.newKeySet();
+
+	private final Set<Integer> failedParts = ConcurrentHashMap.newKeySet();
+
+	private final AtomicLong traces = new AtomicLong();
+
+	private final Date created = new Date();
+
+	private volatile Date lastUpdate = created;
+
+	private volatile boolean started = false;
+
+	private volatile boolean incompleteSessions = false;
+
+	public UploadProgress(String uploadId, String appId, String version, String datatype, int numParts) {
+		this.uploadId = uploadId;
+		this.appId = appId;
+		this.version = version;
+		this.datatype = datatype;
+		this.numParts = numParts;
+	}
+
+	/**
+	 * Records that processing of a part has started.
+	 */
+	public void partStarted() {
+		started = true;
+		lastUpdate = new Date();
+	}
+
+	/**
+	 * Records a successfully processed part.
+	 *
+	 * @param part
+	 *            The index of the part.
+	 * @param numTraces
+	 *            The number of traces the part contained.
+	 */
+	public void partProcessed(int part, long numTraces) {
+		failedParts.remove(part);
+
+		if (processedParts.add(part)) {
+			traces.addAndGet(numTraces);
+		}
+
+		lastUpdate = new Date();
+	}
+
+	public void partFailed(int part) {
+		if (!processedParts.contains(part)) {
+			failedParts.add(part);
+		}
+
+		lastUpdate = new Date();
+	}
+
+	/**
+	 * Records that the sessions have been finished with the last part, although other parts have
+	 * not been processed successfully. The finished sessions lack the traces of these parts.
+	 */
+	public void sessionsFinishedIncomplete() {
+		incompleteSessions = true;
+		lastUpdate = new Date();
+	}
+
+	@JsonProperty("upload-id")
+	public String getUploadId() {
+		return uploadId;
+	}
+
+	@JsonProperty("app-id")
+	public String getAppId() {
+		return appId;
+	}
+
+	@JsonProperty("version")
+	public String getVersion() {
+		return version;
+	}
+
+	@JsonProperty("type")
+	public String getDatatype() {
+		return datatype;
+	}
+
+	/**
+	 * One of {@code queued}, {@code processing}, {@code done}, or {@code failed}. An upload is
+	 * failed as soon as all parts have been processed and at least one failed.
+	 */
+	@JsonProperty("status")
+	public String getStatus() {
+		if (!isFinished()) {
+			return started ? "processing" : "queued";
+		} else {
+			return failedParts.isEmpty() ? "done" : "failed";
+		}
+	}
+
+	@JsonProperty("parts")
+	public int getNumParts() {
+		return numParts;
+	}
+
+	@JsonProperty("processed-parts")
+	public int getProcessedParts() {
+		return processedParts.size();
+	}
+
+	@JsonProperty("failed-parts")
+	public int getFailedParts() {
+		return failedParts.size();
+	}
+
+	/**
+	 * Whether the sessions have been finished without the traces of failed or missing parts.
+	 */
+	@JsonProperty("incomplete-sessions")
+	public boolean isIncompleteSessions() {
+		return incompleteSessions;
+	}
+
+	/**
+	 * The number of traces of the successfully processed parts.
+	 */
+	@JsonProperty("traces")
+	public long getTraces() {
+		return traces.get();
+	}
+
+	@JsonProperty("created")
+	@JsonFormat(shape = JsonFormat.Shape.STRING, pattern = ApiFormats.DATE_FORMAT_PATTERN)
+	public Date getCreated() {
+		return created;
+	}
+
+	@JsonProperty("last-update")
+	@JsonFormat(shape = JsonFormat.Shape.STRING, pattern = ApiFormats.DATE_FORMAT_PATTERN)
+	public Date getLastUpdate() {
+		return lastUpdate;
+	}
+
+	@JsonIgnore
+	public boolean isFinished() {
+		return (processedParts.size() + failedParts.size()) >= numParts;
+	}
+
+}
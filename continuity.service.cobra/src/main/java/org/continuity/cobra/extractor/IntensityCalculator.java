@@ -1,40 +1,80 @@
 package org.continuity.cobra.extractor;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
-import java.util.Map.Entry;
-import java.util.TreeMap;
-import java.util.stream.Stream;
 
-import org.apache.commons.lang3.tuple.Pair;
 import org.continuity.api.entities.artifact.session.Session;
 import org.continuity.lctl.timeseries.IntensityRecord;
 
 /**
- * Calculates the session intensity over time.
+ * Calculates the session intensity over time. <br>
+ *
+ * Each session is split into pieces according to the resolution. The intensity of a time slot is
+ * the sum of the durations of all pieces in this slot divided by the resolution. Only pieces that
+ * are completely inside the considered time range are taken into account. Only time slots with at
+ * least one piece result in an intensity record. <br>
+ *
+ * Internally, the calculator holds primitive accumulators for the time slots between the last
+ * transformed one and the latest one touched by a session. The first and last piece of a session
+ * are added directly, while the full pieces in between are added to a difference array, which is
+ * summed up when transforming the time slots to records. Hence, adding a session takes constant
+ * amortized time, regardless of its duration. <br>
+ *
+ * Sessions should be passed in chronological order. If a session is passed late, the durations
+ * of its pieces in the already transformed time slots are added to the first time slot that has
+ * not been transformed yet. Hence, the overall duration is preserved.
  *
  * @author Henning Schulz
  *
  */
 public class IntensityCalculator {
 
+	private static final int INITIAL_CAPACITY = 1024;
+
 	private final String group;
 
 	private final long resolutionMicros;
 
-	private long startMicros;
+	private final long startMicros;
 
 	private final long endMicros;
 
 	private final long leftShiftMicros;
 
-	private final Map<Long, List<Long>> collectedDurations = new TreeMap<>();
-
 	private final List<IntensityRecord> records = new ArrayList<>();
 
+	/**
+	 * The slot number of index 0 of the arrays. All earlier slots have already been transformed.
+	 */
+	private long offset;
+
+	/**
+	 * The number of used array entries.
+	 */
+	private int size = 0;
+
+	/**
+	 * Sum of the durations of directly added pieces per slot.
+	 */
+	private long[] durationSums = new long[INITIAL_CAPACITY];
+
+	/**
+	 * Number of directly added pieces per slot.
+	 */
+	private int[] pieceCounts = new int[INITIAL_CAPACITY];
+
+	/**
+	 * Difference array of the number of full pieces per slot.
+	 */
+	private long[] fullPieceDiffs = new long[INITIAL_CAPACITY];
+
+	/**
+	 * Number of full pieces of the slot before index 0.
+	 */
+	private long fullPieces = 0;
+
 	/**
 	 * Constructor.
 	 *
@@ -57,6 +97,9 @@ public class IntensityCalculator {
 		this.startMicros = startMicros;
 		this.endMicros = endMicros;
 		this.leftShiftMicros = leftShiftMicros;
+
+		// pieces need to start at or after startMicros
+		this.offset = slotOf(startMicros);
 	}
 
 	/**
@@ -69,10 +112,17 @@ public class IntensityCalculator {
 	 *            consideration.
 	 */
 	public void addSessions(List<Session> sessions) {
-		long nextStart = floorTimestamp(sessions.stream().mapToLong(Session::getStartMicros).max().orElse(this.startMicros));
+		long maxStart = startMicros;
+		boolean empty = true;
+
+		for (Session session : sessions) {
+			addSession(session.getStartMicros(), session.getEndMicros());
+
+			maxStart = empty ? session.getStartMicros() : Math.max(maxStart, session.getStartMicros());
+			empty = false;
+		}
 
-		collectDurations(sessions);
-		transformDurations(nextStart);
+		transformSlots(slotOf(maxStart));
 	}
 
 	/**
@@ -81,112 +131,164 @@ public class IntensityCalculator {
 	 * @return
 	 */
 	public List<IntensityRecord> getRecords() {
-		transformDurations(Long.MAX_VALUE);
+		transformSlots(Long.MAX_VALUE);
 
 		return records;
 	}
 
 	/**
-	 * Collects the durations split according to the resolution.
+	 * Adds the pieces of a session that are inside the calculation range
+	 * {@code [startMicros, endMicros]}.
 	 *
-	 * @param sessions
+	 * @param sessionStart
+	 * @param sessionEnd
 	 */
-	private void collectDurations(List<Session> sessions) {
-		sessions.stream().map(this::extractTimestamps).flatMap(this::split).filter(this::filter).map(this::convertToDuration).forEach(this::collectDuration);
-	}
+	private void addSession(long sessionStart, long sessionEnd) {
+		long firstSlot = slotOf(sessionStart);
+		long firstSlotStart = slotStart(firstSlot);
 
-	/**
-	 * Transforms the durations into intensity records.
-	 *
-	 * @param until
-	 *            The timestamp in microseconds until which the durations should be transformed
-	 *            (exclusively).
-	 */
-	private void transformDurations(long until) {
-		Iterator<Entry<Long, List<Long>>> iterator = collectedDurations.entrySet().iterator();
+		if (sessionEnd <= firstSlotStart) {
+			return;
+		}
 
-		while (iterator.hasNext()) {
-			Entry<Long, List<Long>> entry = iterator.next();
+		long numPieces = ((sessionEnd - firstSlotStart) + resolutionMicros - 1) / resolutionMicros;
+		long lastPiece = numPieces - 1;
 
-			if (entry.getKey() >= until) {
-				break;
-			}
+		// the pieces need to start at or after startMicros...
+		long fromPiece = 0;
+
+		if (sessionStart < startMicros) {
+			fromPiece = ceilDiv(startMicros - firstSlotStart, resolutionMicros);
+		}
 
-			records.add(calculateIntensity(entry.getKey(), entry.getValue()));
-			iterator.remove();
+		// ...and need to end at or before endMicros
+		long toPiece = lastPiece;
+
+		if (sessionEnd > endMicros) {
+			toPiece = Math.min(lastPiece, Math.floorDiv(endMicros - firstSlotStart - resolutionMicros, resolutionMicros));
+		}
+
+		if (fromPiece > toPiece) {
+			return;
+		}
+
+		addPiece(firstSlot + fromPiece, pieceDuration(fromPiece, lastPiece, firstSlotStart, sessionStart, sessionEnd));
+
+		if (toPiece > fromPiece) {
+			addPiece(firstSlot + toPiece, pieceDuration(toPiece, lastPiece, firstSlotStart, sessionStart, sessionEnd));
+		}
+
+		if ((toPiece - fromPiece) > 1) {
+			addFullPieces(firstSlot + fromPiece + 1, firstSlot + toPiece - 1);
 		}
 	}
 
-	/**
-	 * Extracts the start and end timestamp.
-	 *
-	 * @param session
-	 * @return {@code Pair(start, end)}.
-	 */
-	private Pair<Long, Long> extractTimestamps(Session session) {
-		return Pair.of(session.getStartMicros(), session.getEndMicros());
+	private long pieceDuration(long piece, long lastPiece, long firstSlotStart, long sessionStart, long sessionEnd) {
+		long pieceStart = (piece == 0) ? sessionStart : firstSlotStart + (piece * resolutionMicros);
+		long pieceEnd = (piece == lastPiece) ? sessionEnd : firstSlotStart + ((piece + 1) * resolutionMicros);
+
+		return pieceEnd - pieceStart;
 	}
 
-	/**
-	 * Splits the sessions according to the resolution.
-	 *
-	 * @param session
-	 * @return {@code List<Pair(start, end)>}.
-	 */
-	private Stream<Pair<Long, Long>> split(Pair<Long, Long> session) {
-		long intervalStart = floorTimestamp(session.getLeft());
-		long steps = (long) Math.ceil((double) (session.getRight() - intervalStart) / resolutionMicros);
+	private void addPiece(long slot, long duration) {
+		int index = toIndex(slot);
 
-		return Stream.iterate(intervalStart, i -> i + resolutionMicros).limit(steps).map(start -> Pair.of(Math.max(session.getLeft(), start), Math.min(session.getRight(), start + resolutionMicros)));
+		durationSums[index] += duration;
+		pieceCounts[index]++;
 	}
 
-	/**
-	 * Filters all sessions that are inside the calculation range.
-	 *
-	 * @param session
-	 * @return {@code true} if the session is inside {@code [startMicros, endMicros]}.
-	 */
-	private boolean filter(Pair<Long, Long> session) {
-		return (session.getLeft() >= startMicros) && (session.getRight() <= endMicros);
+	private void addFullPieces(long fromSlot, long toSlot) {
+		long firstOpenSlot = fromSlot;
+
+		if (fromSlot < offset) {
+			long numLatePieces = Math.min(toSlot + 1, offset) - fromSlot;
+			addPiece(offset, numLatePieces * resolutionMicros);
+			firstOpenSlot = offset;
+		}
+
+		if (firstOpenSlot <= toSlot) {
+			int from = toIndex(firstOpenSlot);
+			int afterTo = toIndex(toSlot + 1);
+
+			fullPieceDiffs[from]++;
+			fullPieceDiffs[afterTo]--;
+		}
 	}
 
 	/**
-	 * Converts the start-end sessions into durations.
+	 * Transforms the collected durations into intensity records.
 	 *
-	 * @param session
-	 * @return {@code Pair(floor_start, duration)}.
+	 * @param untilSlot
+	 *            The slot until which the durations should be transformed (exclusively).
 	 */
-	private Pair<Long, Long> convertToDuration(Pair<Long, Long> session) {
-		return Pair.of(floorTimestamp(session.getLeft()), session.getRight() - session.getLeft());
+	private void transformSlots(long untilSlot) {
+		int until = (untilSlot >= (offset + size)) ? size : (int) Math.max(0, untilSlot - offset);
+
+		for (int i = 0; i < until; i++) {
+			fullPieces += fullPieceDiffs[i];
+
+			if ((pieceCounts[i] > 0) || (fullPieces > 0)) {
+				long durationSum = durationSums[i] + (fullPieces * resolutionMicros);
+				records.add(createRecord(slotStart(offset + i), durationSum));
+			}
+		}
+
+		if (until > 0) {
+			shift(until);
+		}
+	}
+
+	private void shift(int numSlots) {
+		int remaining = size - numSlots;
+
+		System.arraycopy(durationSums, numSlots, durationSums, 0, remaining);
+		System.arraycopy(pieceCounts, numSlots, pieceCounts, 0, remaining);
+		System.arraycopy(fullPieceDiffs, numSlots, fullPieceDiffs, 0, remaining);
+
+		Arrays.fill(durationSums, remaining, size, 0);
+		Arrays.fill(pieceCounts, remaining, size, 0);
+		Arrays.fill(fullPieceDiffs, remaining, size, 0);
+
+		offset += numSlots;
+		size = remaining;
 	}
 
 	/**
-	 * Stores the duration to the {@link #collectedDurations} map.
+	 * Gets the array index of a slot and grows the arrays if required. Already transformed slots
+	 * are mapped to the first slot that has not been transformed yet.
 	 *
-	 * @param session
-	 *            {@code Pair(floor_start, duration)}.
+	 * @param slot
+	 * @return The array index.
 	 */
-	private void collectDuration(Pair<Long, Long> session) {
-		List<Long> durations = collectedDurations.get(session.getKey());
+	private int toIndex(long slot) {
+		long index = Math.max(0, slot - offset);
+
+		if (index >= Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Cannot hold more than " + Integer.MAX_VALUE + " time slots at once!");
+		}
+
+		if (index >= durationSums.length) {
+			int capacity = (int) Math.min(Integer.MAX_VALUE, Math.max(index + 1, 2L * durationSums.length));
 
-		if (durations == null) {
-			durations = new ArrayList<>();
-			collectedDurations.put(session.getKey(), durations);
+			durationSums = Arrays.copyOf(durationSums, capacity);
+			pieceCounts = Arrays.copyOf(pieceCounts, capacity);
+			fullPieceDiffs = Arrays.copyOf(fullPieceDiffs, capacity);
 		}
 
-		durations.add(session.getValue());
+		size = (int) Math.max(size, index + 1);
+
+		return (int) index;
 	}
 
 	/**
-	 * Calculates the intensity based on the durations of the timestamp.
+	 * Calculates the intensity based on the summed durations of the timestamp.
 	 *
 	 * @param timestamp
-	 * @param durations
-	 * @return {@code Pair(floor_start, intensity)}.
+	 * @param durationSum
+	 * @return The intensity record.
 	 */
-	private IntensityRecord calculateIntensity(long timestamp, List<Long> durations) {
-		double sum = durations.stream().mapToLong(i -> i).sum();
-		long intensity = Math.round(sum / resolutionMicros);
+	private IntensityRecord createRecord(long timestamp, long durationSum) {
+		long intensity = Math.round((double) durationSum / resolutionMicros);
 
 		IntensityRecord record = new IntensityRecord();
 		record.setTimestamp(timestamp / 1000); // timestamp is in millis
@@ -195,14 +297,28 @@ public class IntensityCalculator {
 	}
 
 	/**
-	 * Calculates the largest timestamp that is a multiple of {@link #resolutionMicros} and is
-	 * smaller than the passed timestamp.
+	 * Calculates the number of the time slot containing the passed timestamp.
 	 *
 	 * @param timestamp
-	 * @return The floor timestamp.
+	 * @return The slot number.
+	 */
+	private long slotOf(long timestamp) {
+		return Math.floorDiv(timestamp + leftShiftMicros, resolutionMicros);
+	}
+
+	/**
+	 * Calculates the start timestamp of a time slot, which is a multiple of
+	 * {@link #resolutionMicros} corrected by the {@link #leftShiftMicros}.
+	 *
+	 * @param slot
+	 * @return The start timestamp.
 	 */
-	private long floorTimestamp(long timestamp) {
-		return (Math.floorDiv(timestamp + leftShiftMicros, resolutionMicros) * resolutionMicros) - leftShiftMicros;
+	private long slotStart(long slot) {
+		return (slot * resolutionMicros) - leftShiftMicros;
+	}
+
+	private long ceilDiv(long dividend, long divisor) {
+		return -Math.floorDiv(-dividend, divisor);
 	}
 
 }
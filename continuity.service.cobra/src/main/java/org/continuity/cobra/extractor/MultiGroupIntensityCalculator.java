@@ -0,0 +1,99 @@
+package org.continuity.cobra.extractor;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+
+import org.continuity.api.entities.artifact.session.Session;
+import org.continuity.lctl.timeseries.IntensityRecord;
+
+/**
+ * Calculates the session intensities of several behavior groups at once, so that the sessions
+ * of all groups can be retrieved in one pass. Uses one {@link IntensityCalculator} per group and
+ * combines the intensities of all groups per timestamp into one {@link IntensityRecord}.
+ *
+ * @author Henning Schulz
+ *
+ */
+public class MultiGroupIntensityCalculator {
+
+	private final Map<String, IntensityCalculator> calculators = new LinkedHashMap<>();
+
+	/**
+	 * Constructor.
+	 *
+	 * @param groups
+	 *            The behavior group IDs.
+	 * @param resolutionMicros
+	 *            The resolution of the intensities in microseconds.
+	 * @param startMicros
+	 *            The start timestamp of the intensity range to be considered in microseconds.
+	 * @param endMicros
+	 *            The start timestamp of the intensity range to be considered in microseconds.
+	 * @param leftShiftMicros
+	 *            A correction term such that
+	 *            {@code (startMicros + leftShiftMicros) % resolutionMicros == 0}.
+	 * @see IntensityCalculator
+	 */
+	public MultiGroupIntensityCalculator(Collection<String> groups, long resolutionMicros, long startMicros, long endMicros, long leftShiftMicros) {
+		for (String group : groups) {
+			calculators.put(group, new IntensityCalculator(group, resolutionMicros, startMicros, endMicros, leftShiftMicros));
+		}
+	}
+
+	/**
+	 * Adds a new set of sessions from which the intensities are calculated. Can be called multiple
+	 * times for multiple chunks of sessions. The chunks must be passed in chronological order
+	 * according to the start-micros. Sessions of other groups are ignored.
+	 *
+	 * @param sessions
+	 *            (A chunk of) the sessions of all groups that are active during the time range
+	 *            under consideration.
+	 */
+	public void addSessions(List<Session> sessions) {
+		Map<String, List<Session>> sessionsPerGroup = new HashMap<>();
+
+		for (Session session : sessions) {
+			if (calculators.containsKey(session.getGroupId())) {
+				sessionsPerGroup.computeIfAbsent(session.getGroupId(), g -> new ArrayList<>()).add(session);
+			}
+		}
+
+		for (Entry<String, List<Session>> entry : sessionsPerGroup.entrySet()) {
+			calculators.get(entry.getKey()).addSessions(entry.getValue());
+		}
+	}
+
+	/**
+	 * Gets the calculated intensity records, finishing the remaining durations. Each record holds
+	 * the intensities of all groups with sessions at the respective timestamp.
+	 *
+	 * @return The records ordered by timestamp.
+	 */
+	public List<IntensityRecord> getRecords() {
+		Map<Long, Map<String, Long>> intensitiesPerTimestamp = new TreeMap<>();
+
+		for (Entry<String, IntensityCalculator> entry : calculators.entrySet()) {
+			for (IntensityRecord record : entry.getValue().getRecords()) {
+				intensitiesPerTimestamp.computeIfAbsent(record.getTimestamp(), t -> new HashMap<>()).put(entry.getKey(), record.getIntensity().get(entry.getKey()));
+			}
+		}
+
+		List<IntensityRecord> records = new ArrayList<>(intensitiesPerTimestamp.size());
+
+		for (Entry<Long, Map<String, Long>> entry : intensitiesPerTimestamp.entrySet()) {
+			IntensityRecord record = new IntensityRecord();
+			record.setTimestamp(entry.getKey());
+			record.setIntensity(entry.getValue());
+			records.add(record);
+		}
+
+		return records;
+	}
+
+}
@@ -2,7 +2,7 @@ package org.continuity.cobra.extractor;
 
 import java.io.UnsupportedEncodingException;
 import java.net.URLEncoder;
-import java.util.Arrays;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -15,6 +15,8 @@ import java.util.stream.Collectors;
 import org.continuity.api.entities.artifact.session.ExtendedRequestInformation;
 import org.continuity.api.entities.artifact.session.SessionRequest;
 import org.continuity.api.rest.RestApi;
+import org.continuity.cobra.cache.ApplicationModelCache;
+import org.continuity.cobra.cache.CachedApplicationModel;
 import org.continuity.cobra.entities.TraceRecord;
 import org.continuity.commons.idpa.RequestUriMapper;
 import org.continuity.commons.idpa.UrlPartParameterExtractor;
@@ -50,6 +52,8 @@ public class RequestTailorer {
 
 	private final RestTemplate restTemplate;
 
+	private final ApplicationModelCache modelCache;
+
 	private final boolean addPrePostProcessing;
 
 	/**
@@ -65,9 +69,43 @@ public class RequestTailorer {
 	 *            sessions.
 	 */
 	public RequestTailorer(AppId aid, VersionOrTimestamp version, RestTemplate restTemplate, boolean addPrePostProcessing) {
+		this(aid, version, restTemplate, null, addPrePostProcessing);
+	}
+
+	/**
+	 *
+	 * @param aid
+	 *            The app-id (the service part will be ignored).
+	 * @param version
+	 *            The version of the services.
+	 * @param modelCache
+	 *            {@link ApplicationModelCache} to be used for retrieving the application models.
+	 * @param addPrePostProcessing
+	 *            Whether explicit entries for the pre and post processing should be added to the
+	 *            sessions.
+	 */
+	public RequestTailorer(AppId aid, VersionOrTimestamp version, ApplicationModelCache modelCache, boolean addPrePostProcessing) {
+		this(aid, version, null, modelCache, addPrePostProcessing);
+	}
+
+	/**
+	 *
+	 * @param aid
+	 *            The app-id (the service part will be ignored).
+	 * @param version
+	 *            The version of the services.
+	 * @param modelCache
+	 *            {@link ApplicationModelCache} to be used for retrieving the application models.
+	 */
+	public RequestTailorer(AppId aid, VersionOrTimestamp version, ApplicationModelCache modelCache) {
+		this(aid, version, modelCache, false);
+	}
+
+	private RequestTailorer(AppId aid, VersionOrTimestamp version, RestTemplate restTemplate, ApplicationModelCache modelCache, boolean addPrePostProcessing) {
 		this.aid = aid;
 		this.version = version;
 		this.restTemplate = restTemplate;
+		this.modelCache = modelCache;
 		this.addPrePostProcessing = addPrePostProcessing;
 	}
 
@@ -94,32 +132,28 @@ public class RequestTailorer {
 	 * @return A list of {@link SessionRequest}s per tailored requests.
 	 */
 	public List<SessionRequest> tailorTraces(List<String> services, List<TraceRecord> traces) {
-		ResponseEntity<Application[]> response;
-		try {
-			response = restTemplate.getForEntity(
-					RestApi.Idpa.Application.GET.requestUrl(aid).withQuery("version", version.toString()).withQuery("services", services.stream().collect(Collectors.joining(","))).get(),
-					Application[].class);
-		} catch (HttpStatusCodeException e) {
-			LOGGER.error("Could not get application models!", e);
+		List<CachedApplicationModel> models = retrieveModels(services);
+
+		if (models == null) {
 			return Collections.emptyList();
 		}
 
 		LOGGER.info("{}@{}: Retrieved application models for services {}.", aid.getApplication(), version, services);
 
-		List<Application> applications = Arrays.asList(response.getBody());
-
-		if (applications.contains(null)) {
+		if (models.contains(null)) {
 			LOGGER.error("{}@{} Application models contained null, meaning that at least one application is missing!", aid.getApplication(), version);
 			return Collections.emptyList();
 		}
 
+		List<Application> applications = models.stream().map(CachedApplicationModel::getApplication).collect(Collectors.toList());
+
 		// TODO: assuming the endpoints are HttpEndpoints.
 		List<String> hostNames = applications.stream().map(Application::getEndpoints).flatMap(List::stream).map(HttpEndpoint.class::cast).map(HttpEndpoint::getDomain).filter(Objects::nonNull)
 				.distinct().collect(Collectors.toList());
 
 		LOGGER.info("{}@{} Extracted the following host names: {}", aid.getApplication(), version, hostNames);
 
-		MultiRequestMapper mapper = new MultiRequestMapper(applications);
+		MultiRequestMapper mapper = new MultiRequestMapper(models.stream().map(CachedApplicationModel::getMapper).collect(Collectors.toList()));
 
 		List<SessionRequest> requests = traces.stream().map(t -> extractChildRequests(t, hostNames)).flatMap(List::stream).map(mapper::mapToEndpoint).filter(Objects::nonNull).map(this::mapToSession)
 				.collect(Collectors.toList());
@@ -129,6 +163,36 @@ public class RequestTailorer {
 		return requests;
 	}
 
+	private List<CachedApplicationModel> retrieveModels(List<String> services) {
+		if (modelCache != null) {
+			try {
+				return modelCache.get(aid, version, services);
+			} catch (HttpStatusCodeException e) {
+				LOGGER.error("Could not get application models!", e);
+				return null;
+			}
+		}
+
+		ResponseEntity<Application[]> response;
+		try {
+			response = restTemplate.getForEntity(
+					RestApi.Idpa.Application.GET.requestUrl(aid).withQuery("version", version.toString()).withQuery("services", services.stream().collect(Collectors.joining(","))).get(),
+					Application[].class);
+		} catch (HttpStatusCodeException e) {
+			LOGGER.error("Could not get application models!", e);
+			return null;
+		}
+
+		List<CachedApplicationModel> models = new ArrayList<>();
+		Application[] applications = response.getBody();
+
+		for (int i = 0; i < applications.length; i++) {
+			models.add(applications[i] == null ? null : new CachedApplicationModel(aid.withService(services.get(i)), version, version, applications[i]));
+		}
+
+		return models;
+	}
+
 	/**
 	 * Tailors a list of traces to the root requests by using the business transactions as endpoint
 	 * names instead of mapping them to IDPA endpoints.
@@ -319,8 +383,8 @@ public class RequestTailorer {
 
 		private final List<RequestUriMapper> mappers;
 
-		private MultiRequestMapper(List<Application> applications) {
-			mappers = applications.stream().map(RequestUriMapper::new).collect(Collectors.toList());
+		private MultiRequestMapper(List<RequestUriMapper> mappers) {
+			this.mappers = mappers;
 		}
 
 		/**
@@ -0,0 +1,63 @@
+package org.continuity.cobra.managers;
+
+/**
+ * Settings of the bulk requests sent by the {@link ElasticsearchScrollingManager}s.
+ *
+ * @author Henning Schulz
+ *
+ */
+public class BulkSettings {
+
+	private final int maxInFlight;
+
+	private final long maxBatchBytes;
+
+	private final long targetLatencyMillis;
+
+	private final int maxRetries;
+
+	private final long initialBackoffMillis;
+
+	/**
+	 *
+	 * @param maxInFlight
+	 *            The maximum number of bulk requests that are executed concurrently.
+	 * @param maxBatchBytes
+	 *            The maximum estimated size of one bulk request in bytes.
+	 * @param targetLatencyMillis
+	 *            The time a bulk request should take. The batch size is increased as long as the
+	 *            requests are faster and decreased if they are considerably slower.
+	 * @param maxRetries
+	 *            The maximum number of retries of failed items.
+	 * @param initialBackoffMillis
+	 *            The time to wait before the first retry. Is doubled with each further retry.
+	 */
+	public BulkSettings(int maxInFlight, long maxBatchBytes, long targetLatencyMillis, int maxRetries, long initialBackoffMillis) {
+		this.maxInFlight = maxInFlight;
+		this.maxBatchBytes = maxBatchBytes;
+		this.targetLatencyMillis = targetLatencyMillis;
+		this.maxRetries = maxRetries;
+		this.initialBackoffMillis = initialBackoffMillis;
+	}
+
+	public int getMaxInFlight() {
+		return maxInFlight;
+	}
+
+	public long getMaxBatchBytes() {
+		return maxBatchBytes;
+	}
+
+	public long getTargetLatencyMillis() {
+		return targetLatencyMillis;
+	}
+
+	public int getMaxRetries() {
+		return maxRetries;
+	}
+
+	public long getInitialBackoffMillis() {
+		return initialBackoffMillis;
+	}
+
+}
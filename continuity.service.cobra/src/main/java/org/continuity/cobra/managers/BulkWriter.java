@@ -0,0 +1,308 @@
+package org.continuity.cobra.managers;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.continuity.cobra.entities.BulkIndexMetrics;
+import org.elasticsearch.ElasticsearchException;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.DocWriteRequest;
+import org.elasticsearch.action.bulk.BulkItemResponse;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.action.support.WriteRequest.RefreshPolicy;
+import org.elasticsearch.client.RequestOptions;
+import org.elasticsearch.client.RestHighLevelClient;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.rest.RestStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+/**
+ * Writes elements to Elasticsearch using asynchronous bulk requests. The elements are split into
+ * batches limited by count and estimated size. Up to a configured number of batches are in flight
+ * concurrently; further batches block the calling thread until a permit is available. <br>
+ *
+ * The batch size is adapted per index: it is increased while the requests are faster than the
+ * target latency and decreased if they are considerably slower or items are rejected. Failed items
+ * are retried with an exponential backoff up to a maximum number of retries.
+ *
+ * @author Henning Schulz
+ *
+ */
+class BulkWriter {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(BulkWriter.class);
+
+	private static final int MIN_BATCH_SIZE = 100;
+
+	private static final int INITIAL_BATCH_SIZE = 1000;
+
+	private static final long MAX_BACKOFF_MILLIS = 30000;
+
+	private final RestHighLevelClient client;
+
+	private final RequestOptions requestOptions;
+
+	private final long timeoutSeconds;
+
+	private final int maxBatchSize;
+
+	private final BulkSettings settings;
+
+	private final Semaphore inFlight;
+
+	private final ScheduledExecutorService retryScheduler;
+
+	private final ConcurrentMap<String, BulkIndexMetrics> metrics = new ConcurrentHashMap<>();
+
+	/**
+	 *
+	 * @param client
+	 *            The client to be used.
+	 * @param requestOptions
+	 *            The request options.
+	 * @param timeoutSeconds
+	 *            The timeout of one bulk request.
+	 * @param maxBatchSize
+	 *            The maximum number of elements in one bulk request.
+	 * @param settings
+	 *            Further settings.
+	 */
+	BulkWriter(RestHighLevelClient client, RequestOptions requestOptions, long timeoutSeconds, int maxBatchSize, BulkSettings settings) {
+		this.client = client;
+		this.requestOptions = requestOptions;
+		this.timeoutSeconds = timeoutSeconds;
+		this.maxBatchSize = maxBatchSize;
+		this.settings = settings;
+		this.inFlight = new Semaphore(settings.getMaxInFlight());
+
+		CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("es-bulk-retry-");
+		threadFactory.setDaemon(true);
+		this.retryScheduler = Executors.newSingleThreadScheduledExecutor(threadFactory);
+	}
+
+	/**
+	 * Writes the elements and waits until all bulk requests are done.
+	 *
+	 * @param index
+	 *            The index to write to.
+	 * @param elements
+	 *            The elements to be written.
+	 * @param waitFor
+	 *            Whether the requests should wait until the data is indexed.
+	 * @param silent
+	 *            Whether to ignore failed items. If {@code true}, failed items are neither retried
+	 *            nor reported.
+	 * @param requestFactory
+	 *            Creates the write request of an element.
+	 * @throws IOException
+	 *             If elements could not be written even after retrying.
+	 */
+	<T> void write(String index, Collection<T> elements, boolean waitFor, boolean silent, RequestFactory<T> requestFactory) throws IOException {
+		BulkIndexMetrics indexMetrics = getMetrics(index);
+		List<CompletableFuture<Integer>> batches = new ArrayList<>();
+
+		BulkRequest request = newRequest(waitFor);
+		int batchSize = indexMetrics.getBatchSize();
+
+		for (T elem : elements) {
+			request.add(requestFactory.create(elem));
+
+			if ((request.numberOfActions() >= batchSize) || (request.estimatedSizeInBytes() >= settings.getMaxBatchBytes())) {
+				batches.add(send(index, request, silent, indexMetrics));
+				request = newRequest(waitFor);
+				batchSize = indexMetrics.getBatchSize();
+			}
+		}
+
+		if (request.numberOfActions() > 0) {
+			batches.add(send(index, request, silent, indexMetrics));
+		}
+
+		int numFailed = 0;
+
+		for (CompletableFuture<Integer> batch : batches) {
+			try {
+				numFailed += batch.get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException("Interrupted while waiting for the bulk requests to " + index + ".");
+			} catch (ExecutionException e) {
+				throw new IOException("Bulk request to " + index + " failed!", e.getCause());
+			}
+		}
+
+		if (numFailed > 0) {
+			throw new IOException(String.format("%d of the %d elements could not be written to %s even after %d retries!", numFailed, elements.size(), index, settings.getMaxRetries()));
+		}
+	}
+
+	/**
+	 * Gets the metrics of all indices that have been written to.
+	 *
+	 * @return The metrics.
+	 */
+	Collection<BulkIndexMetrics> getMetrics() {
+		return metrics.values();
+	}
+
+	void destroy() {
+		retryScheduler.shutdownNow();
+	}
+
+	private BulkIndexMetrics getMetrics(String index) {
+		return metrics.computeIfAbsent(index, i -> new BulkIndexMetrics(i, Math.min(INITIAL_BATCH_SIZE, maxBatchSize)));
+	}
+
+	private BulkRequest newRequest(boolean waitFor) {
+		BulkRequest request = new BulkRequest();
+
+		if (waitFor) {
+			request.setRefreshPolicy(RefreshPolicy.WAIT_UNTIL);
+		}
+
+		request.timeout(TimeValue.timeValueSeconds(timeoutSeconds));
+
+		return request;
+	}
+
+	/**
+	 * Sends a bulk request as soon as a permit is available.
+	 *
+	 * @return A future holding the number of finally failed items.
+	 */
+	private CompletableFuture<Integer> send(String index, BulkRequest request, boolean silent, BulkIndexMetrics indexMetrics) throws InterruptedIOException {
+		try {
+			inFlight.acquire();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while waiting for a bulk request permit.");
+		}
+
+		CompletableFuture<Integer> result = new CompletableFuture<>();
+		result.whenComplete((n, e) -> inFlight.release());
+
+		execute(index, request, 0, silent, indexMetrics, result);
+
+		return result;
+	}
+
+	private void execute(String index, BulkRequest request, int attempt, boolean silent, BulkIndexMetrics indexMetrics, CompletableFuture<Integer> result) {
+		int numDocuments = request.numberOfActions();
+		long numBytes = request.estimatedSizeInBytes();
+
+		LOGGER.info("Uploading {} elements in a bulk request to {}...", numDocuments, index);
+
+		client.bulkAsync(request, requestOptions, new ActionListener<BulkResponse>() {
+
+			@Override
+			public void onResponse(BulkResponse response) {
+				List<DocWriteRequest<?>> failedRequests = new ArrayList<>();
+				int numRejected = 0;
+
+				for (BulkItemResponse item : response.getItems()) {
+					if (item.isFailed()) {
+						failedRequests.add(request.requests().get(item.getItemId()));
+
+						if (item.status() == RestStatus.TOO_MANY_REQUESTS) {
+							numRejected++;
+						}
+					}
+				}
+
+				indexMetrics.recordResponse(numDocuments, numBytes, response.getTook().millis(), failedRequests.size(), numRejected);
+				adaptBatchSize(indexMetrics, response.getTook().millis(), numRejected > 0);
+
+				LOGGER.info("The bulk request to {} took {} and resulted in status {}.", index, response.getTook(), response.status());
+
+				if (silent || failedRequests.isEmpty()) {
+					result.complete(0);
+				} else if (attempt >= settings.getMaxRetries()) {
+					LOGGER.error("{} of the {} bulk items to {} failed! Giving up after {} retries. First failure: {}", failedRequests.size(), numDocuments, index, attempt,
+							response.buildFailureMessage());
+					result.complete(failedRequests.size());
+				} else {
+					BulkRequest retry = new BulkRequest();
+					retry.setRefreshPolicy(request.getRefreshPolicy());
+					retry.timeout(request.timeout());
+					failedRequests.forEach(retry::add);
+
+					scheduleRetry(index, retry, attempt, silent, indexMetrics, result);
+				}
+			}
+
+			@Override
+			public void onFailure(Exception e) {
+				boolean rejected = (e instanceof ElasticsearchException) && (((ElasticsearchException) e).status() == RestStatus.TOO_MANY_REQUESTS);
+
+				indexMetrics.recordFailure(numDocuments, rejected);
+				adaptBatchSize(indexMetrics, Long.MAX_VALUE, rejected);
+
+				if (attempt >= settings.getMaxRetries()) {
+					LOGGER.error("The bulk request to {} failed! Giving up after {} retries.", index, attempt);
+					result.completeExceptionally(e);
+				} else {
+					LOGGER.warn("The bulk request to {} failed: {}", index, e.getMessage());
+					scheduleRetry(index, request, attempt, silent, indexMetrics, result);
+				}
+			}
+
+		});
+	}
+
+	private void scheduleRetry(String index, BulkRequest request, int attempt, boolean silent, BulkIndexMetrics indexMetrics, CompletableFuture<Integer> result) {
+		long backoff = Math.min(MAX_BACKOFF_MILLIS, settings.getInitialBackoffMillis() << Math.min(attempt, 30));
+
+		LOGGER.warn("Retrying {} bulk items to {} in {} ms (retry {} of {})...", request.numberOfActions(), index, backoff, attempt + 1, settings.getMaxRetries());
+
+		indexMetrics.recordRetry(request.numberOfActions());
+		retryScheduler.schedule(() -> execute(index, request, attempt + 1, silent, indexMetrics, result), backoff, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Halves the batch size on rejections, decreases it if a request took longer than twice the
+	 * target latency, and increases it if a request was faster than the target latency.
+	 */
+	private void adaptBatchSize(BulkIndexMetrics indexMetrics, long tookMillis, boolean rejected) {
+		long target = settings.getTargetLatencyMillis();
+
+		indexMetrics.updateBatchSize(size -> {
+			if (rejected) {
+				return Math.max(MIN_BATCH_SIZE, size / 2);
+			} else if (tookMillis > (2 * target)) {
+				return Math.max(MIN_BATCH_SIZE, (size * 3) / 4);
+			} else if (tookMillis < target) {
+				return Math.min(maxBatchSize, size + Math.max(1, size / 4));
+			} else {
+				return size;
+			}
+		});
+	}
+
+	/**
+	 * Creates the write request of an element.
+	 *
+	 * @param <T>
+	 *            The type of the element.
+	 */
+	@FunctionalInterface
+	interface RequestFactory<T> {
+
+		DocWriteRequest<?> create(T element) throws IOException;
+
+	}
+
+}
@@ -28,8 +28,8 @@ public class ElasticsearchBehaviorManager extends ElasticsearchScrollingManager<
 
 	private final ObjectMapper mapper;
 
-	public ElasticsearchBehaviorManager(String host, ObjectMapper mapper, int bulkTimeoutSeconds) throws IOException {
-		super(host, "behavior", bulkTimeoutSeconds);
+	public ElasticsearchBehaviorManager(String host, ObjectMapper mapper, int bulkTimeoutSeconds, BulkSettings bulkSettings) throws IOException {
+		super(host, "behavior", bulkTimeoutSeconds, bulkSettings);
 
 		this.mapper = mapper;
 	}
@@ -6,6 +6,7 @@ import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
@@ -58,6 +59,8 @@ public class ElasticsearchIntensityManager extends ElasticsearchScrollingManager
 
 	private static final String REMOVE_CONTEXT_SCRIPT_ID = "remove-context";
 
+	private static final Comparator<IntensityRecord> TIMESTAMP_ORDER = Comparator.comparingLong(IntensityRecord::getTimestamp);
+
 	private final ObjectMapper mapper;
 
 	private boolean updateScriptInitialized = false;
@@ -66,8 +69,8 @@ public class ElasticsearchIntensityManager extends ElasticsearchScrollingManager
 
 	private boolean removeContextScriptInitialized = false;
 
-	public ElasticsearchIntensityManager(String host, ObjectMapper mapper, int bulkTimeoutSeconds) throws IOException {
-		super(host, "intensity", bulkTimeoutSeconds);
+	public ElasticsearchIntensityManager(String host, ObjectMapper mapper, int bulkTimeoutSeconds, int scrollSlices, BulkSettings bulkSettings) throws IOException {
+		super(host, "intensity", bulkTimeoutSeconds, scrollSlices, bulkSettings);
 		this.mapper = mapper;
 	}
 
@@ -197,7 +200,7 @@ public class ElasticsearchIntensityManager extends ElasticsearchScrollingManager
 	public List<IntensityRecord> readIntensitiesInRange(AppId aid, List<String> tailoring, long from, long to) throws IOException, TimeoutException {
 		QueryBuilder query = QueryBuilders.rangeQuery(IntensityRecord.PATH_TIMESTAMP).from(from, true).to(to, true);
 		FieldSortBuilder sort = new FieldSortBuilder("timestamp").order(SortOrder.ASC);
-		return readElements(aid, tailoring, query, sort, DEFAULT_SCROLL_SIZE, TOTAL_SIZE_ALL, String.format("between %s and %s", formatOrNull(new Date(from)), formatOrNull(new Date(to))));
+		return readElementsSliced(aid, tailoring, query, sort, TIMESTAMP_ORDER, DEFAULT_SCROLL_SIZE, TOTAL_SIZE_ALL, String.format("between %s and %s", formatOrNull(new Date(from)), formatOrNull(new Date(to))));
 	}
 
 	/**
@@ -216,7 +219,7 @@ public class ElasticsearchIntensityManager extends ElasticsearchScrollingManager
 	 */
 	public List<IntensityRecord> readDescribedIntensities(AppId aid, List<String> tailoring, WorkloadDescription workloadDescription, ZoneId timeZone) throws IOException, TimeoutException {
 		FieldSortBuilder sort = new FieldSortBuilder("timestamp").order(SortOrder.ASC);
-		return readElements(aid, tailoring, workloadDescription.toElasticQuery(timeZone), sort, DEFAULT_SCROLL_SIZE, TOTAL_SIZE_ALL, "for passed workload description");
+		return readElementsSliced(aid, tailoring, workloadDescription.toElasticQuery(timeZone), sort, TIMESTAMP_ORDER, DEFAULT_SCROLL_SIZE, TOTAL_SIZE_ALL, "for passed workload description");
 	}
 
 	/**
@@ -8,31 +8,32 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.Date;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeoutException;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 import org.apache.http.HttpHost;
 import org.continuity.api.entities.ApiFormats;
 import org.continuity.api.entities.artifact.session.Session;
+import org.continuity.cobra.entities.BulkIndexMetrics;
 import org.continuity.idpa.AppId;
 import org.elasticsearch.ElasticsearchStatusException;
+import org.elasticsearch.action.DocWriteRequest;
 import org.elasticsearch.action.admin.cluster.storedscripts.PutStoredScriptRequest;
-import org.elasticsearch.action.bulk.BulkItemResponse;
-import org.elasticsearch.action.bulk.BulkRequest;
-import org.elasticsearch.action.bulk.BulkResponse;
 import org.elasticsearch.action.index.IndexRequest;
 import org.elasticsearch.action.search.ClearScrollRequest;
 import org.elasticsearch.action.search.ClearScrollResponse;
 import org.elasticsearch.action.search.SearchRequest;
 import org.elasticsearch.action.search.SearchResponse;
 import org.elasticsearch.action.search.SearchScrollRequest;
-import org.elasticsearch.action.support.WriteRequest.RefreshPolicy;
 import org.elasticsearch.action.support.master.AcknowledgedResponse;
 import org.elasticsearch.action.update.UpdateRequest;
 import org.elasticsearch.client.RequestOptions;
@@ -52,11 +53,12 @@ import org.elasticsearch.common.xcontent.XContentType;
 import org.elasticsearch.index.query.QueryBuilder;
 import org.elasticsearch.script.Script;
 import org.elasticsearch.search.SearchHit;
-import org.elasticsearch.search.SearchHits;
 import org.elasticsearch.search.builder.SearchSourceBuilder;
+import org.elasticsearch.search.slice.SliceBuilder;
 import org.elasticsearch.search.sort.SortBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 
@@ -77,15 +79,21 @@ public abstract class ElasticsearchScrollingManager<T> {
 
 	private static final long SCROLL_MINUTES = 5;
 
+	private static final int BUFFERED_PAGES_PER_SLICE = 2;
+
 	protected final RestHighLevelClient client;
 
 	private final String mapping;
 
-	private final long bulkTimeoutSeconds;
-
 	private final RequestOptions requestOptions;
 
-	protected ElasticsearchScrollingManager(String host, String mappingName, int bulkTimeoutSeconds, RequestOptions requestOptions) throws IOException {
+	private final int scrollSlices;
+
+	private final ExecutorService sliceExecutor;
+
+	private final BulkWriter bulkWriter;
+
+	protected ElasticsearchScrollingManager(String host, String mappingName, int bulkTimeoutSeconds, RequestOptions requestOptions, int scrollSlices, BulkSettings bulkSettings) throws IOException {
 		this.client = new RestHighLevelClient(
 				RestClient.builder(new HttpHost(host, 9200, "http"), new HttpHost(host, 9300, "http")).setRequestConfigCallback(cb -> cb.setSocketTimeout(bulkTimeoutSeconds * 1000)));
 
@@ -93,15 +101,26 @@ public abstract class ElasticsearchScrollingManager<T> {
 			this.mapping = reader.lines().collect(Collectors.joining(System.lineSeparator()));
 		}
 
-		this.bulkTimeoutSeconds = bulkTimeoutSeconds;
 		this.requestOptions = requestOptions;
+		this.scrollSlices = scrollSlices;
+		this.bulkWriter = new BulkWriter(client, requestOptions, bulkTimeoutSeconds, MAX_BULK_SIZE, bulkSettings);
+
+		CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("es-scroll-slice-");
+		threadFactory.setDaemon(true);
+		this.sliceExecutor = Executors.newCachedThreadPool(threadFactory);
+	}
+
+	protected ElasticsearchScrollingManager(String host, String mappingName, int bulkTimeoutSeconds, int scrollSlices, BulkSettings bulkSettings) throws IOException {
+		this(host, mappingName, bulkTimeoutSeconds, RequestOptions.DEFAULT, scrollSlices, bulkSettings);
 	}
 
-	protected ElasticsearchScrollingManager(String host, String mappingName, int bulkTimeoutSeconds) throws IOException {
-		this(host, mappingName, bulkTimeoutSeconds, RequestOptions.DEFAULT);
+	protected ElasticsearchScrollingManager(String host, String mappingName, int bulkTimeoutSeconds, BulkSettings bulkSettings) throws IOException {
+		this(host, mappingName, bulkTimeoutSeconds, RequestOptions.DEFAULT, 1, bulkSettings);
 	}
 
 	public void destroy() throws IOException {
+		sliceExecutor.shutdownNow();
+		bulkWriter.destroy();
 		client.close();
 	}
 
@@ -194,7 +213,7 @@ public abstract class ElasticsearchScrollingManager<T> {
 		String index = toIndex(aid, Session.convertTailoringToString(tailoring));
 		initIndex(index);
 
-		doBulkRequests(index, elements, waitFor, true, (request, element, json, id) -> request.add(new IndexRequest(index).source(json, XContentType.JSON).id(id).create(create)), silent);
+		doBulkRequests(index, elements, waitFor, true, (element, json, id) -> new IndexRequest(index).source(json, XContentType.JSON).id(id).create(create), silent);
 	}
 
 	/**
@@ -225,7 +244,7 @@ public abstract class ElasticsearchScrollingManager<T> {
 		String index = toIndex(aid, Session.convertTailoringToString(tailoring));
 		initIndex(index);
 
-		doBulkRequests(index, elements, waitFor, true, (request, element, json, id) -> request.add(new UpdateRequest(index, id).doc(json, XContentType.JSON).docAsUpsert(true)), false);
+		doBulkRequests(index, elements, waitFor, true, (element, json, id) -> new UpdateRequest(index, id).doc(json, XContentType.JSON).docAsUpsert(true), false);
 	}
 
 	/**
@@ -276,7 +295,7 @@ public abstract class ElasticsearchScrollingManager<T> {
 		String index = toIndex(aid, Session.convertTailoringToString(tailoring));
 		initIndex(index);
 
-		doBulkRequests(index, elements, waitFor, !scriptedUpsert, (request, element, json, id) -> {
+		doBulkRequests(index, elements, waitFor, !scriptedUpsert, (element, json, id) -> {
 			UpdateRequest update = new UpdateRequest(index, id).script(scriptSupplier.apply(element));
 
 			if (scriptedUpsert) {
@@ -285,72 +304,21 @@ public abstract class ElasticsearchScrollingManager<T> {
 				update.upsert(json, XContentType.JSON);
 			}
 
-			request.add(update);
+			return update;
 		}, false);
 	}
 
-	private void doBulkRequests(String index, Collection<T> elements, boolean waitFor, boolean requiresJson, RequestAdder<T> requestAdder, boolean silent) throws IOException {
-		List<T> chunk = new ArrayList<>(Math.min(elements.size(), MAX_BULK_SIZE));
-
-		for (T elem : elements) {
-			chunk.add(elem);
-
-			if (chunk.size() == MAX_BULK_SIZE) {
-				doBulkRequest(index, chunk, waitFor, requiresJson, requestAdder, silent);
-				chunk.clear();
-			}
-		}
-
-		if (!chunk.isEmpty()) {
-			doBulkRequest(index, chunk, waitFor, requiresJson, requestAdder, silent);
-		}
+	private void doBulkRequests(String index, Collection<T> elements, boolean waitFor, boolean requiresJson, RequestCreator<T> requestCreator, boolean silent) throws IOException {
+		bulkWriter.write(index, elements, waitFor, silent, elem -> requestCreator.create(elem, requiresJson ? serialize(elem) : null, getDocumentId(elem)));
 	}
 
-	private void doBulkRequest(String index, Collection<T> elements, boolean waitFor, boolean requiresJson, RequestAdder<T> requestAdder, boolean silent) throws IOException {
-		LOGGER.info("Uploading {} elements in a bulk request...", elements.size());
-
-		BulkRequest request = new BulkRequest();
-
-		for (T elem : elements) {
-			requestAdder.add(request, elem, requiresJson ? serialize(elem) : null, getDocumentId(elem));
-		}
-
-		if (waitFor) {
-			request.setRefreshPolicy(RefreshPolicy.WAIT_UNTIL);
-		}
-
-		request.timeout(TimeValue.timeValueSeconds(bulkTimeoutSeconds));
-
-		BulkResponse response = client.bulk(request, requestOptions);
-
-		LOGGER.info("The bulk request to {} took {} and resulted in status {}.", index, response.getTook(), response.status());
-
-		if (!silent) {
-			List<T> failedElements = filterFailed(elements, response);
-
-			if (failedElements.size() > 0) {
-				LOGGER.warn("{} of the {} bulk items failed! Retrying...", failedElements.size(), elements.size());
-
-				doBulkRequest(index, failedElements, waitFor, requiresJson, requestAdder, silent);
-			}
-		}
-	}
-
-	private List<T> filterFailed(Collection<T> elements, BulkResponse response) {
-		List<T> filteredElements = new ArrayList<>();
-
-		Iterator<T> elemIter = elements.iterator();
-		Iterator<BulkItemResponse> itemIter = Arrays.stream(response.getItems()).iterator();
-
-		while (elemIter.hasNext() && itemIter.hasNext()) {
-			T elem = elemIter.next();
-
-			if (itemIter.next().isFailed()) {
-				filteredElements.add(elem);
-			}
-		}
-
-		return filteredElements;
+	/**
+	 * Gets the metrics of the bulk requests per index.
+	 *
+	 * @return The metrics of all indices that have been written to.
+	 */
+	public Collection<BulkIndexMetrics> getBulkMetrics() {
+		return bulkWriter.getMetrics();
 	}
 
 	/**
@@ -488,6 +456,79 @@ public abstract class ElasticsearchScrollingManager<T> {
 			return;
 		}
 
+		SearchSourceBuilder source = createSearchSource(query, sort, scrollSize, includes, excludes);
+
+		scroll(index, source, aid, message, totalSize, page -> {
+			callback.accept(page);
+			return true;
+		});
+	}
+
+	/**
+	 * Scrolls for the elements using a sliced scroll, i.e., the configured number of slices are
+	 * retrieved and deserialized in parallel. The callback is always called by the calling thread.
+	 * Slices are blocked if the callback cannot keep up with them. Falls back to a regular scroll if
+	 * there is only one slice.
+	 *
+	 * @param aid
+	 * @param tailoring
+	 * @param query
+	 * @param sort
+	 *            The sort to be applied to each slice.
+	 * @param order
+	 *            The order of the elements corresponding to the sort. If not {@code null}, the
+	 *            slices are merged such that the callback gets the elements in this order.
+	 *            Otherwise, the chunks are passed to the callback in the order of retrieval.
+	 * @param scrollSize
+	 * @param totalSize
+	 *            -1 means infinite
+	 * @param message
+	 * @param includes
+	 *            The object fields to include in the response.
+	 * @param excludes
+	 *            The object fields to exclude in the response.
+	 * @param callback
+	 *            Will be called for each retrieved chunk.
+	 * @throws IOException
+	 * @throws TimeoutException
+	 */
+	protected void scrollForElementsSliced(AppId aid, List<String> tailoring, QueryBuilder query, SortBuilder<?> sort, Comparator<? super T> order, int scrollSize, int totalSize, String message,
+			String[] includes, String[] excludes, Consumer<List<T>> callback) throws IOException, TimeoutException {
+		if (scrollSlices <= 1) {
+			scrollForElements(aid, tailoring, query, sort, scrollSize, totalSize, message, includes, excludes, callback);
+			return;
+		}
+
+		String index = toIndex(aid, Session.convertTailoringToString(tailoring));
+
+		if (!indexExists(index)) {
+			return;
+		}
+
+		SlicedScrollReader<T> reader = new SlicedScrollReader<>(sliceExecutor, scrollSlices, BUFFERED_PAGES_PER_SLICE, order, scrollSize);
+
+		reader.read((slice, sink) -> {
+			SearchSourceBuilder source = createSearchSource(query, sort, scrollSize, includes, excludes).slice(new SliceBuilder(slice, scrollSlices));
+			scroll(index, source, aid, String.format("%s (slice %d/%d)", message, slice + 1, scrollSlices), totalSize, sink);
+		}, totalSize, callback);
+	}
+
+	/**
+	 * Reads the elements using a sliced scroll.
+	 *
+	 * @see #scrollForElementsSliced(AppId, List, QueryBuilder, SortBuilder, Comparator, int, int,
+	 *      String, String[], String[], Consumer)
+	 */
+	protected List<T> readElementsSliced(AppId aid, List<String> tailoring, QueryBuilder query, SortBuilder<?> sort, Comparator<? super T> order, int scrollSize, int totalSize, String message)
+			throws IOException, TimeoutException {
+		List<T> result = new ArrayList<>();
+
+		scrollForElementsSliced(aid, tailoring, query, sort, order, scrollSize, totalSize, message, null, null, result::addAll);
+
+		return result;
+	}
+
+	private SearchSourceBuilder createSearchSource(QueryBuilder query, SortBuilder<?> sort, int scrollSize, String[] includes, String[] excludes) {
 		SearchSourceBuilder source = new SearchSourceBuilder().query(query).size(scrollSize);
 
 		if (((includes != null) && (includes.length > 0)) || ((excludes != null) && (excludes.length > 0))) {
@@ -498,6 +539,25 @@ public abstract class ElasticsearchScrollingManager<T> {
 			source.sort(sort);
 		}
 
+		return source;
+	}
+
+	/**
+	 * Scrolls through all pages of a search and passes the deserialized pages to the sink.
+	 *
+	 * @param index
+	 * @param source
+	 * @param aid
+	 * @param message
+	 * @param totalSize
+	 *            -1 means infinite
+	 * @param sink
+	 *            Will be called for each page. Returns {@code false} if the scrolling should be
+	 *            stopped.
+	 * @throws IOException
+	 * @throws TimeoutException
+	 */
+	private void scroll(String index, SearchSourceBuilder source, AppId aid, String message, int totalSize, Predicate<List<T>> sink) throws IOException, TimeoutException {
 		SearchRequest search = new SearchRequest(index).source(source).scroll(TimeValue.timeValueMinutes(SCROLL_MINUTES));
 
 		SearchResponse response;
@@ -508,39 +568,43 @@ public abstract class ElasticsearchScrollingManager<T> {
 			return;
 		}
 
-		SearchHits hits = response.getHits();
-		LOGGER.info("The search request to {} {} resulted in {}.", index, message, hits.getTotalHits());
+		LOGGER.info("The search request to {} {} resulted in {}.", index, message, response.getHits().getTotalHits());
 
-		processSearchResponse(response, aid, message, 0, totalSize, callback);
-	}
+		String scrollId = response.getScrollId();
+		int scrollNumber = 0;
+		int remaining = totalSize;
 
-	private void processSearchResponse(SearchResponse response, AppId aid, String message, int scrollNumber, int remaining, Consumer<List<T>> callback) throws IOException, TimeoutException {
-		if (response.isTimedOut()) {
-			throw new TimeoutException(String.format("The search request to app-id %s and version %s timed out!", aid.toString()));
-		}
+		try {
+			while (true) {
+				if (response.isTimedOut()) {
+					throw new TimeoutException(String.format("The search request to app-id %s timed out!", aid));
+				}
 
-		SearchHits hits = response.getHits();
-		String scrollId = response.getScrollId();
-		int numHits = hits.getHits().length;
+				scrollId = response.getScrollId();
+				SearchHit[] hits = response.getHits().getHits();
 
-		LOGGER.info("Scroll #{} took {}, had {} hits, and is {}.", scrollNumber, response.getTook(), numHits, response.status());
+				LOGGER.info("Scroll #{} took {}, had {} hits, and is {}.", scrollNumber, response.getTook(), hits.length, response.status());
 
-		callback.accept(Arrays.stream(hits.getHits()).map(SearchHit::getSourceAsString).map(this::deserialize).filter(Objects::nonNull).collect(Collectors.toList()));
+				boolean proceed = sink.test(Arrays.stream(hits).map(SearchHit::getSourceAsString).map(this::deserialize).filter(Objects::nonNull).collect(Collectors.toList()));
+
+				if (!proceed || (hits.length == 0) || ((remaining >= 0) && (hits.length >= remaining))) {
+					break;
+				}
+
+				remaining -= hits.length;
+
+				SearchScrollRequest scroll = new SearchScrollRequest(scrollId);
+				scroll.scroll(TimeValue.timeValueMinutes(SCROLL_MINUTES));
+				response = client.scroll(scroll, requestOptions);
+				scrollNumber++;
+			}
 
-		if ((numHits > 0) && ((remaining < 0) || (numHits < remaining))) {
-			scrollForMoreElements(scrollId, aid, message, scrollNumber, remaining - numHits, callback);
-		} else {
 			LOGGER.info("Reached end of scroll.");
+		} finally {
 			clearScroll(scrollId);
 		}
 	}
 
-	private void scrollForMoreElements(String scrollId, AppId aid, String message, int scrollNumber, int remaining, Consumer<List<T>> callback) throws IOException, TimeoutException {
-		SearchScrollRequest scroll = new SearchScrollRequest(scrollId);
-		scroll.scroll(TimeValue.timeValueMinutes(SCROLL_MINUTES));
-		processSearchResponse(client.scroll(scroll, requestOptions), aid, message, scrollNumber + 1, remaining, callback);
-	}
-
 	private void clearScroll(String scrollId) throws IOException {
 		ClearScrollRequest request = new ClearScrollRequest();
 		request.addScrollId(scrollId);
@@ -682,9 +746,9 @@ public abstract class ElasticsearchScrollingManager<T> {
 		}
 	}
 
-	private interface RequestAdder<T> {
+	private interface RequestCreator<T> {
 
-		void add(BulkRequest request, T element, String json, String id);
+		DocWriteRequest<?> create(T element, String json, String id);
 
 	}
 
@@ -1,8 +1,10 @@
 package org.continuity.cobra.managers;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
@@ -55,6 +57,10 @@ public class ElasticsearchSessionManager extends ElasticsearchScrollingManager<S
 
 	private static final String UPDATE_SCRIPT_ID = "update-session";
 
+	private static final String UPDATE_GROUP_ID_SCRIPT = "ctx._source['group-id'] = params['group-id']";
+
+	private static final Comparator<Session> START_ORDER = Comparator.comparingLong(Session::getStartMicros);
+
 	static {
 		RequestOptions.Builder builder = RequestOptions.DEFAULT.toBuilder();
 		builder.setHttpAsyncResponseConsumerFactory(new HttpAsyncResponseConsumerFactory.HeapBufferedResponseConsumerFactory(Integer.MAX_VALUE));
@@ -65,8 +71,8 @@ public class ElasticsearchSessionManager extends ElasticsearchScrollingManager<S
 
 	private boolean updateScriptInitialized = false;
 
-	public ElasticsearchSessionManager(String host, ObjectMapper mapper, int bulkTimeoutSeconds) throws IOException {
-		super(host, "session", bulkTimeoutSeconds, REQUEST_OPTIONS);
+	public ElasticsearchSessionManager(String host, ObjectMapper mapper, int bulkTimeoutSeconds, int scrollSlices, BulkSettings bulkSettings) throws IOException {
+		super(host, "session", bulkTimeoutSeconds, REQUEST_OPTIONS, scrollSlices, bulkSettings);
 
 		this.mapper = mapper;
 	}
@@ -91,6 +97,28 @@ public class ElasticsearchSessionManager extends ElasticsearchScrollingManager<S
 		storeOrUpdateByScript(aid, tailoring, sessions, this::createUpdateScript, true, waitFor);
 	}
 
+	/**
+	 * Sets the group-ids of already stored sessions. All other fields of the sessions are retained.
+	 *
+	 * @param aid
+	 *            The app-id.
+	 * @param tailoring
+	 *            The list of services to which the sessions are tailored.
+	 * @param sessions
+	 *            The sessions holding the new group-ids. Only the session-id, start-micros, and
+	 *            group-id are required.
+	 * @param waitFor
+	 *            Whether the request should wait until the data is indexed.
+	 * @throws IOException
+	 */
+	public void updateGroupIds(AppId aid, List<String> tailoring, Collection<Session> sessions, boolean waitFor) throws IOException {
+		storeOrUpdateByScript(aid, tailoring, sessions, this::createGroupIdScript, waitFor);
+	}
+
+	private Script createGroupIdScript(Session session) {
+		return new Script(ScriptType.INLINE, Script.DEFAULT_SCRIPT_LANG, UPDATE_GROUP_ID_SCRIPT, Collections.singletonMap("group-id", session.getGroupId()));
+	}
+
 	private Script createUpdateScript(Session session) {
 		@SuppressWarnings("unchecked")
 		Map<String, Object> params = mapper.convertValue(session, HashMap.class);
@@ -120,7 +148,7 @@ public class ElasticsearchSessionManager extends ElasticsearchScrollingManager<S
 		QueryBuilder query = createOverlappingQuery(version, from, to);
 		FieldSortBuilder sort = new FieldSortBuilder("start-micros").order(SortOrder.ASC);
 
-		return readElements(aid, tailoring, query, sort, SCROLL_SIZE, TOTAL_SIZE_ALL,
+		return readElementsSliced(aid, tailoring, query, sort, START_ORDER, SCROLL_SIZE, TOTAL_SIZE_ALL,
 				String.format(" with version %s and overlapping time range %s - %s", version, formatOrNull(from), formatOrNull(to)));
 	}
 
@@ -146,7 +174,7 @@ public class ElasticsearchSessionManager extends ElasticsearchScrollingManager<S
 		QueryBuilder query = createRangeStartQuery(version, from, to);
 		FieldSortBuilder sort = new FieldSortBuilder("start-micros").order(SortOrder.ASC);
 
-		return readElements(aid, tailoring, query, sort, SCROLL_SIZE, TOTAL_SIZE_ALL,
+		return readElementsSliced(aid, tailoring, query, sort, START_ORDER, SCROLL_SIZE, TOTAL_SIZE_ALL,
 				String.format(" with version %s and starting in time range %s - %s", version, formatOrNull(from), formatOrNull(to)));
 	}
 
@@ -282,7 +310,8 @@ public class ElasticsearchSessionManager extends ElasticsearchScrollingManager<S
 	}
 
 	/**
-	 * Reads all sessions of a given app-id that are not finished, yet.
+	 * Reads all sessions of a given app-id that are not finished, yet. The requests of the sessions
+	 * are not included.
 	 *
 	 * @param aid
 	 *            The app-id.
@@ -304,7 +333,11 @@ public class ElasticsearchSessionManager extends ElasticsearchScrollingManager<S
 
 		query.must(QueryBuilders.termQuery("finished", false));
 
-		return readElementsExcluding(aid, query, SCROLL_SIZE, TOTAL_SIZE_ALL, String.format("with version %s and open sessions", version), "requests.*");
+		List<Session> sessions = new ArrayList<>();
+		scrollForElementsSliced(aid, tailoring, query, null, null, SCROLL_SIZE, TOTAL_SIZE_ALL, String.format("with version %s and open sessions", version), null, new String[] { "requests.*" },
+				sessions::addAll);
+
+		return sessions;
 	}
 
 	/**
@@ -368,9 +401,37 @@ public class ElasticsearchSessionManager extends ElasticsearchScrollingManager<S
 	 */
 	public void scrollForSessionsWithGroupId(AppId aid, List<String> tailoring, String groupId, long fromMicros, long toMicros, Consumer<List<Session>> callback, boolean includeRequests)
 			throws IOException, TimeoutException {
+		scrollForSessionsWithGroupIds(aid, tailoring, Collections.singleton(groupId), fromMicros, toMicros, callback, includeRequests);
+	}
+
+	/**
+	 * Scrolls for the sessions with one of the given group-ids in a given time range and calls a
+	 * callback for each retrieved chunk of sessions. The sessions of all groups are retrieved in
+	 * one scroll, ordered by the start-micros.
+	 *
+	 * @param aid
+	 *            The app-id.
+	 * @param tailoring
+	 * @param groupIds
+	 *            The group-ids.
+	 * @param fromMicros
+	 *            The lower limit of the time range. The <b>end</b>-micros of the sessions need to
+	 *            be after this time stamp.
+	 * @param toMicros
+	 *            The upper limit of the time range. The <b>start</b>-micros of the sessions need to
+	 *            be before this time stamp.
+	 * @param callback
+	 *            Will be called for each retrieved chunk.
+	 * @param includeRequests
+	 *            if {@code false}, the returned sessions won't contain the requests.
+	 * @throws IOException
+	 * @throws TimeoutException
+	 */
+	public void scrollForSessionsWithGroupIds(AppId aid, List<String> tailoring, Collection<String> groupIds, long fromMicros, long toMicros, Consumer<List<Session>> callback,
+			boolean includeRequests) throws IOException, TimeoutException {
 		BoolQueryBuilder query = QueryBuilders.boolQuery();
 
-		query.must(QueryBuilders.termQuery("group-id", groupId));
+		query.must(QueryBuilders.termsQuery("group-id", groupIds));
 
 		query.must(QueryBuilders.rangeQuery("start-micros").to(toMicros, true));
 		query.must(QueryBuilders.rangeQuery("end-micros").from(fromMicros, true));
@@ -379,8 +440,33 @@ public class ElasticsearchSessionManager extends ElasticsearchScrollingManager<S
 
 		String[] excludes = includeRequests ? null : new String[] { "requests" };
 
-		scrollForElements(aid, tailoring, query, sort, SCROLL_SIZE, TOTAL_SIZE_ALL,
-				String.format("with group-id %s in range %s - %s", groupId, formatOrNull(new Date(fromMicros / 1000)), formatOrNull(new Date(toMicros / 1000))), null, excludes, callback);
+		scrollForElementsSliced(aid, tailoring, query, sort, START_ORDER, SCROLL_SIZE, TOTAL_SIZE_ALL,
+				String.format("with group-id in %s in range %s - %s", groupIds, formatOrNull(new Date(fromMicros / 1000)), formatOrNull(new Date(toMicros / 1000))), null, excludes, callback);
+	}
+
+	/**
+	 * Scrolls for the sessions starting in a given time range and calls a callback for each
+	 * retrieved chunk of sessions, ordered by the start-micros.
+	 *
+	 * @param aid
+	 *            The app-id.
+	 * @param tailoring
+	 *            The list of services to which the sessions are tailored.
+	 * @param fromMicros
+	 *            The lower limit of the time range (exclusive).
+	 * @param toMicros
+	 *            The upper limit of the time range (inclusive).
+	 * @param callback
+	 *            Will be called for each retrieved chunk.
+	 * @throws IOException
+	 * @throws TimeoutException
+	 */
+	public void scrollForSessionsStartingInRange(AppId aid, List<String> tailoring, long fromMicros, long toMicros, Consumer<List<Session>> callback) throws IOException, TimeoutException {
+		QueryBuilder query = QueryBuilders.rangeQuery("start-micros").from(fromMicros, false).to(toMicros, true);
+		FieldSortBuilder sort = new FieldSortBuilder("start-micros").order(SortOrder.ASC);
+
+		scrollForElementsSliced(aid, tailoring, query, sort, START_ORDER, SCROLL_SIZE, TOTAL_SIZE_ALL,
+				String.format("starting in range %s - %s", formatOrNull(new Date(fromMicros / 1000)), formatOrNull(new Date(toMicros / 1000))), null, null, callback);
 	}
 
 	/**
@@ -1,8 +1,13 @@
 package org.continuity.cobra.managers;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.TimeoutException;
 import java.util.stream.Collectors;
 
@@ -33,10 +38,16 @@ public class ElasticsearchTraceManager extends ElasticsearchScrollingManager<Tra
 
 	private static final Logger LOGGER = LoggerFactory.getLogger(ElasticsearchTraceManager.class);
 
+	/**
+	 * Maximum number of terms in one terms query. Elasticsearch rejects queries with more terms
+	 * than {@code index.max_terms_count}, which is 65536 by default.
+	 */
+	static final int MAX_TERMS_PER_QUERY = 50000;
+
 	private final ObjectMapper mapper;
 
-	public ElasticsearchTraceManager(String host, ObjectMapper mapper, int bulkTimeoutSeconds) throws IOException {
-		super(host, "trace", bulkTimeoutSeconds);
+	public ElasticsearchTraceManager(String host, ObjectMapper mapper, int bulkTimeoutSeconds, int scrollSlices, BulkSettings bulkSettings) throws IOException {
+		super(host, "trace", bulkTimeoutSeconds, scrollSlices, bulkSettings);
 		this.mapper = mapper;
 	}
 
@@ -109,7 +120,7 @@ public class ElasticsearchTraceManager extends ElasticsearchScrollingManager<Tra
 	public List<TraceRecord> readTraceRecords(AppId aid, VersionOrTimestamp version, Date from, Date to) throws IOException, TimeoutException {
 		QueryBuilder query = createRangeQuery(version, from, to);
 
-		return readElements(aid, query, String.format("with version %s, and time range %s - %s", version, formatOrNull(from), formatOrNull(to)));
+		return readElementsSliced(aid, Collections.emptyList(), query, null, null, DEFAULT_SCROLL_SIZE, TOTAL_SIZE_ALL, String.format("with version %s, and time range %s - %s", version, formatOrNull(from), formatOrNull(to)));
 	}
 
 	/**
@@ -186,6 +197,63 @@ public class ElasticsearchTraceManager extends ElasticsearchScrollingManager<Tra
 		return readElements(aid, query, "for unique IDs");
 	}
 
+	/**
+	 * Reads all traces having one of the defined root endpoints and one of the defined unique
+	 * session IDs. Allows for reading the traces of several tailoring requests at once. The session
+	 * IDs are queried in batches of at most {@link #MAX_TERMS_PER_QUERY}.
+	 *
+	 * @param aid
+	 * @param rootEndpoints
+	 *            The root endpoints to filter for.
+	 * @param uniqueSessionIds
+	 *            The unique (!) session IDs.
+	 * @return The found traces as {@link TraceRecord}.
+	 * @throws IOException
+	 * @throws TimeoutException
+	 */
+	public List<TraceRecord> readTraceRecords(AppId aid, Collection<String> rootEndpoints, Collection<String> uniqueSessionIds) throws IOException, TimeoutException {
+		List<List<String>> batches = partition(uniqueSessionIds, MAX_TERMS_PER_QUERY);
+		Map<String, TraceRecord> records = new LinkedHashMap<>();
+
+		for (int i = 0; i < batches.size(); i++) {
+			List<String> batch = batches.get(i);
+			QueryBuilder query = QueryBuilders.boolQuery().must(QueryBuilders.termsQuery("endpoint", rootEndpoints)).must(QueryBuilders.termsQuery("unique-session-ids", batch));
+
+			List<TraceRecord> batchRecords = readElementsSliced(aid, Collections.emptyList(), query, null, null, DEFAULT_SCROLL_SIZE, TOTAL_SIZE_ALL,
+					String.format("for %d root endpoints and %d unique IDs (batch %d of %d)", rootEndpoints.size(), batch.size(), i + 1, batches.size()));
+
+			// a trace can belong to several sessions and, hence, can be found in several batches
+			batchRecords.forEach(r -> records.putIfAbsent(getDocumentId(r), r));
+		}
+
+		return new ArrayList<>(records.values());
+	}
+
+	/**
+	 * Splits the passed elements into consecutive batches of at most the passed size.
+	 *
+	 * @param elements
+	 *            The elements to be split.
+	 * @param batchSize
+	 *            The maximum size of each batch.
+	 * @return The batches in the iteration order of the elements.
+	 */
+	static List<List<String>> partition(Collection<String> elements, int batchSize) {
+		List<List<String>> batches = new ArrayList<>();
+		List<String> batch = null;
+
+		for (String element : elements) {
+			if ((batch == null) || (batch.size() >= batchSize)) {
+				batch = new ArrayList<>(Math.min(batchSize, elements.size()));
+				batches.add(batch);
+			}
+
+			batch.add(element);
+		}
+
+		return batches;
+	}
+
 	/**
 	 * Deletes all traces before a given date.
 	 *
@@ -0,0 +1,348 @@
+package org.continuity.cobra.managers;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.continuity.api.entities.artifact.session.Session;
+import org.continuity.api.entities.artifact.session.SessionRequest;
+import org.continuity.idpa.AppId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+/**
+ * Holds the open sessions per app-id and tailoring in memory, so that they do not need to be read
+ * from the Elasticsearch for each new chunk of traces. The table of an app-id and tailoring is
+ * recovered from the Elasticsearch when it is accessed for the first time, e.g., after a
+ * restart.<br>
+ *
+ * Changed sessions are written behind: Finished sessions are written immediately and removed from
+ * the table. Open sessions are written once the write-behind interval has elapsed since the last
+ * write of the table or when the sessions are forced to finish. Only the requests added since the
+ * last write are sent, which the update script appends to the stored ones. Afterwards, the
+ * requests of the open sessions are dropped from memory, as they are not required anymore. <br>
+ *
+ * A periodic sweep writes the changes of tables that have not been written for longer than the
+ * write-behind interval, even if no new traces arrive. In addition, it finishes and evicts all open
+ * sessions of tables that have not been updated for longer than the session timeout of the
+ * app-id. Tables whose sessions are currently being updated, i.e., which have been retrieved via
+ * {@link #getOpenSessions(AppId, List)} but not been passed to
+ * {@link #update(AppId, List, Collection, boolean)}, yet, are skipped, as the caller modifies the
+ * sessions without holding the lock of the table. If an update does not finish within the session
+ * timeout, it is considered abandoned.
+ *
+ * @author Henning Schulz
+ *
+ */
+public class OpenSessionStore {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(OpenSessionStore.class);
+
+	private final ElasticsearchSessionManager sessionManager;
+
+	private final long writeBehindMillis;
+
+	private final Function<AppId, Duration> sessionTimeout;
+
+	private final ConcurrentMap<String, OpenSessionTable> tables = new ConcurrentHashMap<>();
+
+	private final ScheduledExecutorService sweeper;
+
+	/**
+	 *
+	 * @param sessionManager
+	 *            The {@link ElasticsearchSessionManager} to write and recover the sessions.
+	 * @param writeBehindMillis
+	 *            The interval in which open sessions are written to the Elasticsearch. 0 means
+	 *            that they are written immediately.
+	 * @param sweepIntervalMillis
+	 *            The interval in which the tables are swept. 0 means that there is no periodic
+	 *            sweep.
+	 * @param sessionTimeout
+	 *            Provides the session timeout per app-id.
+	 */
+	public OpenSessionStore(ElasticsearchSessionManager sessionManager, long writeBehindMillis, long sweepIntervalMillis, Function<AppId, Duration> sessionTimeout) {
+		this.sessionManager = sessionManager;
+		this.writeBehindMillis = writeBehindMillis;
+		this.sessionTimeout = sessionTimeout;
+
+		if (sweepIntervalMillis > 0) {
+			CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("open-session-sweeper-");
+			threadFactory.setDaemon(true);
+			this.sweeper = Executors.newSingleThreadScheduledExecutor(threadFactory);
+			this.sweeper.scheduleWithFixedDelay(this::sweepSafely, sweepIntervalMillis, sweepIntervalMillis, TimeUnit.MILLISECONDS);
+		} else {
+			this.sweeper = null;
+		}
+	}
+
+	/**
+	 * Gets the open sessions of an app-id and tailoring. The returned sessions are the ones held in
+	 * memory and can be updated by a {@link org.continuity.cobra.extractor.SessionUpdater}. The
+	 * updated sessions need to be passed to {@link #update(AppId, List, Collection, boolean)}
+	 * afterwards, even if none have been updated. Until then, the sweep skips the table.
+	 *
+	 * @param aid
+	 *            The app-id.
+	 * @param tailoring
+	 *            The list of services to which the sessions are tailored.
+	 * @return The open sessions.
+	 * @throws IOException
+	 *             If the sessions could not be recovered from the Elasticsearch.
+	 * @throws TimeoutException
+	 *             If the recovery timed out.
+	 */
+	public List<Session> getOpenSessions(AppId aid, List<String> tailoring) throws IOException, TimeoutException {
+		OpenSessionTable table = getTable(aid, tailoring);
+
+		synchronized (table) {
+			if (!table.recovered) {
+				List<Session> sessions = sessionManager.readOpenSessions(aid, null, tailoring);
+				sessions.forEach(s -> table.openSessions.put(s.getSessionId(), s));
+				table.recovered = true;
+				table.lastWriteMillis = System.currentTimeMillis();
+				table.lastUpdateMillis = table.lastWriteMillis;
+
+				LOGGER.info("{} {}: Recovered {} open sessions from the database.", aid, tailoring, sessions.size());
+			}
+
+			// the sessions are about to be updated and must not be swept in the meantime
+			table.lastUpdateMillis = System.currentTimeMillis();
+			table.numUpdating++;
+
+			return new ArrayList<>(table.openSessions.values());
+		}
+	}
+
+	/**
+	 * Registers the updated sessions and writes the changes to the Elasticsearch if necessary.
+	 * Finished sessions are always written and removed from memory.
+	 *
+	 * @param aid
+	 *            The app-id.
+	 * @param tailoring
+	 *            The list of services to which the sessions are tailored.
+	 * @param updatedSessions
+	 *            The sessions that have been updated or created.
+	 * @param forceWrite
+	 *            Whether all changes should be written, regardless of the write-behind interval.
+	 * @return {@code true} if any sessions have been written.
+	 * @throws IOException
+	 *             If the sessions could not be written.
+	 */
+	public boolean update(AppId aid, List<String> tailoring, Collection<Session> updatedSessions, boolean forceWrite) throws IOException {
+		OpenSessionTable table = getTable(aid, tailoring);
+
+		synchronized (table) {
+			table.lastUpdateMillis = System.currentTimeMillis();
+
+			if (table.numUpdating > 0) {
+				table.numUpdating--;
+			}
+
+			for (Session session : updatedSessions) {
+				if (session.isFinished()) {
+					table.openSessions.remove(session.getSessionId(), session);
+				} else {
+					table.openSessions.put(session.getSessionId(), session);
+				}
+
+				table.dirty.add(session);
+			}
+
+			boolean writeAll = forceWrite || ((System.currentTimeMillis() - table.lastWriteMillis) >= writeBehindMillis);
+			List<Session> toBeWritten = table.dirty.stream().filter(s -> writeAll || s.isFinished()).collect(Collectors.toList());
+
+			if (toBeWritten.isEmpty()) {
+				LOGGER.info("{} {}: Keeping {} changed open sessions in memory.", aid, tailoring, table.dirty.size());
+				return false;
+			}
+
+			write(aid, tailoring, table, toBeWritten);
+
+			if (writeAll) {
+				table.lastWriteMillis = System.currentTimeMillis();
+			}
+
+			LOGGER.info("{} {}: Wrote {} changed sessions. {} sessions are open and {} of them changed.", aid, tailoring, toBeWritten.size(), table.openSessions.size(), table.dirty.size());
+
+			return true;
+		}
+	}
+
+	/**
+	 * Sweeps all tables. Writes the changes of tables that have not been written within the
+	 * write-behind interval. Finishes, writes, and evicts the open sessions of tables that have not
+	 * been updated within the session timeout.
+	 *
+	 * @throws IOException
+	 *             If the sessions of a table could not be written. The other tables are swept
+	 *             nevertheless.
+	 */
+	public void sweep() throws IOException {
+		IOException failure = null;
+
+		for (OpenSessionTable table : tables.values()) {
+			try {
+				sweep(table);
+			} catch (IOException e) {
+				LOGGER.error("{} {}: Could not write {} changed sessions during the sweep! Will retry in the next one.", table.aid, table.tailoring, table.dirty.size());
+
+				if (failure == null) {
+					failure = e;
+				}
+			}
+		}
+
+		if (failure != null) {
+			throw failure;
+		}
+	}
+
+	private void sweep(OpenSessionTable table) throws IOException {
+		synchronized (table) {
+			long now = System.currentTimeMillis();
+			long timeoutMillis = sessionTimeout.apply(table.aid).toMillis();
+			int numTimedOut = 0;
+
+			if (table.numUpdating > 0) {
+				if ((now - table.lastUpdateMillis) < timeoutMillis) {
+					LOGGER.debug("{} {}: Skipping the sweep, as the sessions are being updated.", table.aid, table.tailoring);
+					return;
+				}
+
+				LOGGER.warn("{} {}: {} updates of the sessions have not been finished within the session timeout. Considering them abandoned.", table.aid, table.tailoring,
+						table.numUpdating);
+				table.numUpdating = 0;
+			}
+
+			if (table.recovered && !table.openSessions.isEmpty() && ((now - table.lastUpdateMillis) >= timeoutMillis)) {
+				for (Session session : table.openSessions.values()) {
+					session.setFinished(true);
+					table.dirty.add(session);
+				}
+
+				numTimedOut = table.openSessions.size();
+				table.openSessions.clear();
+			}
+
+			if (table.dirty.isEmpty() || ((numTimedOut == 0) && ((now - table.lastWriteMillis) < writeBehindMillis))) {
+				return;
+			}
+
+			int numWritten = table.dirty.size();
+			write(table.aid, table.tailoring, table, new ArrayList<>(table.dirty));
+			table.lastWriteMillis = now;
+
+			LOGGER.info("{} {}: Sweep wrote {} changed sessions, of which {} have been finished due to the session timeout.", table.aid, table.tailoring, numWritten, numTimedOut);
+		}
+	}
+
+	private void sweepSafely() {
+		try {
+			sweep();
+		} catch (IOException | RuntimeException e) {
+			LOGGER.error("Error during sweeping the open sessions!", e);
+		}
+	}
+
+	/**
+	 * Stops the periodic sweep and writes all pending changes to the Elasticsearch.
+	 */
+	public void destroy() {
+		if (sweeper != null) {
+			sweeper.shutdown();
+
+			try {
+				sweeper.awaitTermination(1, TimeUnit.MINUTES);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+
+		for (OpenSessionTable table : tables.values()) {
+			synchronized (table) {
+				if (!table.dirty.isEmpty()) {
+					try {
+						write(table.aid, table.tailoring, table, new ArrayList<>(table.dirty));
+					} catch (IOException e) {
+						LOGGER.error("{} {}: Could not write {} changed sessions! The changes are lost.", table.aid, table.tailoring, table.dirty.size());
+						LOGGER.error("Exception:", e);
+					}
+				}
+			}
+		}
+	}
+
+	private void write(AppId aid, List<String> tailoring, OpenSessionTable table, List<Session> sessions) throws IOException {
+		Map<Session, List<SessionRequest>> sentRequests = new IdentityHashMap<>();
+
+		for (Session session : sessions) {
+			sentRequests.put(session, new ArrayList<>(session.getRequests()));
+		}
+
+		sessionManager.storeOrUpdateSessions(aid, sessions, tailoring, true);
+
+		for (Session session : sessions) {
+			if (session.isFinished()) {
+				table.dirty.remove(session);
+			} else {
+				// the stored requests are not required for updating the session anymore
+				session.getRequests().removeAll(sentRequests.get(session));
+				session.setFresh(false);
+
+				// requests added in the meantime still need to be written
+				if (session.getRequests().isEmpty()) {
+					table.dirty.remove(session);
+				}
+			}
+		}
+	}
+
+	private OpenSessionTable getTable(AppId aid, List<String> tailoring) {
+		String tailoringString = Session.convertTailoringToString(tailoring);
+		return tables.computeIfAbsent(aid.dropService() + "." + tailoringString, k -> new OpenSessionTable(aid.dropService(), tailoring));
+	}
+
+	private static class OpenSessionTable {
+
+		private final AppId aid;
+
+		private final List<String> tailoring;
+
+		private final Map<String, Session> openSessions = new HashMap<>();
+
+		private final Set<Session> dirty = Collections.newSetFromMap(new IdentityHashMap<>());
+
+		private boolean recovered = false;
+
+		private int numUpdating = 0;
+
+		private long lastWriteMillis;
+
+		private long lastUpdateMillis;
+
+		private OpenSessionTable(AppId aid, List<String> tailoring) {
+			this.aid = aid;
+			this.tailoring = new ArrayList<>(tailoring);
+		}
+
+	}
+
+}
@@ -0,0 +1,334 @@
+package org.continuity.cobra.managers;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Reads the slices of a sliced scroll in parallel and passes the retrieved elements to a callback.
+ * Each slice is scrolled by a separate task of the executor, which also deserializes the pages.
+ * The callback is always called by the calling thread. <br>
+ *
+ * The number of pages that are buffered per slice is limited. Slices that are too fast block until
+ * the callback has processed their pages (backpressure). <br>
+ *
+ * If an order is specified, the elements of the slices, which need to be ordered themselves, are
+ * merged and passed to the callback in chunks of a defined size. Otherwise, the pages are passed to
+ * the callback in the order in which they arrive.
+ *
+ * @author Henning Schulz
+ *
+ * @param <T>
+ *            The type of the elements.
+ */
+class SlicedScrollReader<T> {
+
+	private static final long POLL_MILLIS = 100;
+
+	private static final List<Object> END_OF_SLICE = new ArrayList<>(0);
+
+	private final ExecutorService executor;
+
+	private final int numSlices;
+
+	private final int bufferedPages;
+
+	private final Comparator<? super T> order;
+
+	private final int chunkSize;
+
+	/**
+	 *
+	 * @param executor
+	 *            The executor to scroll the slices. Needs to be able to run {@code numSlices} tasks
+	 *            in parallel.
+	 * @param numSlices
+	 *            The number of slices.
+	 * @param bufferedPages
+	 *            The maximum number of pages to be buffered per slice.
+	 * @param order
+	 *            The order of the elements. Each slice needs to deliver the elements in this order.
+	 *            {@code null} means that the elements are delivered in arbitrary order.
+	 * @param chunkSize
+	 *            The number of elements to be passed to the callback at once if an order is
+	 *            specified.
+	 */
+	SlicedScrollReader(ExecutorService executor, int numSlices, int bufferedPages, Comparator<? super T> order, int chunkSize) {
+		this.executor = executor;
+		this.numSlices = numSlices;
+		this.bufferedPages = bufferedPages;
+		this.order = order;
+		this.chunkSize = chunkSize;
+	}
+
+	/**
+	 * Scrolls all slices and passes the elements to the callback.
+	 *
+	 * @param scroller
+	 *            Scrolls one slice.
+	 * @param totalSize
+	 *            The maximum number of elements to be passed to the callback. -1 means infinite.
+	 * @param callback
+	 *            Will be called for each chunk of elements.
+	 * @throws IOException
+	 *             If a slice failed with an {@link IOException} or the reading has been
+	 *             interrupted.
+	 * @throws TimeoutException
+	 *             If a slice timed out.
+	 */
+	void read(SliceScroller<T> scroller, int totalSize, Consumer<List<T>> callback) throws IOException, TimeoutException {
+		SliceReading reading = new SliceReading(totalSize, callback);
+
+		for (int slice = 0; slice < numSlices; slice++) {
+			BlockingQueue<List<T>> queue = reading.queues.get(slice);
+			int sliceId = slice;
+
+			executor.execute(() -> reading.scroll(scroller, sliceId, queue));
+		}
+
+		try {
+			if (order == null) {
+				reading.deliverUnordered();
+			} else {
+				reading.deliverOrdered();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while waiting for the slices.");
+		} finally {
+			reading.cancelled = true;
+		}
+
+		reading.rethrowFailure();
+	}
+
+	/**
+	 * Scrolls one slice of a sliced scroll.
+	 *
+	 * @param <T>
+	 *            The type of the elements.
+	 */
+	@FunctionalInterface
+	interface SliceScroller<T> {
+
+		/**
+		 *
+		 * @param slice
+		 *            The slice number.
+		 * @param sink
+		 *            Needs to be called for each page. Returns {@code false} if the scrolling
+		 *            should be stopped.
+		 * @throws IOException
+		 * @throws TimeoutException
+		 */
+		void scroll(int slice, Predicate<List<T>> sink) throws IOException, TimeoutException;
+
+	}
+
+	private class SliceReading {
+
+		private final List<BlockingQueue<List<T>>> queues = new ArrayList<>();
+
+		private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+		private final int totalSize;
+
+		private final Consumer<List<T>> callback;
+
+		private volatile boolean cancelled = false;
+
+		private int delivered = 0;
+
+		private SliceReading(int totalSize, Consumer<List<T>> callback) {
+			this.totalSize = totalSize;
+			this.callback = callback;
+
+			// all slices share one queue if the order does not matter
+			BlockingQueue<List<T>> shared = (order == null) ? new ArrayBlockingQueue<>(bufferedPages * numSlices) : null;
+
+			for (int i = 0; i < numSlices; i++) {
+				queues.add((shared == null) ? new ArrayBlockingQueue<>(bufferedPages) : shared);
+			}
+		}
+
+		private void scroll(SliceScroller<T> scroller, int slice, BlockingQueue<List<T>> queue) {
+			try {
+				scroller.scroll(slice, page -> page.isEmpty() || enqueue(queue, page));
+			} catch (Throwable e) {
+				failure.compareAndSet(null, e);
+			} finally {
+				enqueue(queue, endOfSlice());
+			}
+		}
+
+		private boolean enqueue(BlockingQueue<List<T>> queue, List<T> page) {
+			try {
+				while (!cancelled) {
+					if (queue.offer(page, POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+						return true;
+					}
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+
+			return false;
+		}
+
+		/**
+		 * Takes the next page of a queue.
+		 *
+		 * @return The page or {@code null} if the reading should be stopped due to a failure.
+		 */
+		private List<T> take(BlockingQueue<List<T>> queue) throws InterruptedException {
+			while (failure.get() == null) {
+				List<T> page = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+
+				if (page != null) {
+					return page;
+				}
+			}
+
+			return null;
+		}
+
+		private void deliverUnordered() throws InterruptedException {
+			BlockingQueue<List<T>> queue = queues.get(0);
+			int finishedSlices = 0;
+
+			while (finishedSlices < numSlices) {
+				List<T> page = take(queue);
+
+				if (page == null) {
+					return;
+				} else if (page == END_OF_SLICE) {
+					finishedSlices++;
+				} else if (!deliver(page)) {
+					return;
+				}
+			}
+		}
+
+		private void deliverOrdered() throws InterruptedException {
+			PriorityQueue<SliceCursor> heads = new PriorityQueue<>(numSlices, (a, b) -> order.compare(a.current, b.current));
+
+			for (BlockingQueue<List<T>> queue : queues) {
+				SliceCursor cursor = new SliceCursor(queue);
+
+				if (cursor.advance()) {
+					heads.add(cursor);
+				}
+			}
+
+			List<T> chunk = new ArrayList<>(chunkSize);
+
+			while (!heads.isEmpty() && (failure.get() == null)) {
+				SliceCursor cursor = heads.poll();
+				chunk.add(cursor.current);
+
+				if (chunk.size() >= chunkSize) {
+					if (!deliver(chunk)) {
+						return;
+					}
+
+					chunk = new ArrayList<>(chunkSize);
+				}
+
+				if (cursor.advance()) {
+					heads.add(cursor);
+				}
+			}
+
+			if (!chunk.isEmpty() && (failure.get() == null)) {
+				deliver(chunk);
+			}
+		}
+
+		/**
+		 * Passes the elements to the callback, respecting the total size.
+		 *
+		 * @return {@code false} if the total size has been reached.
+		 */
+		private boolean deliver(List<T> elements) {
+			if ((totalSize >= 0) && ((delivered + elements.size()) >= totalSize)) {
+				callback.accept(elements.subList(0, totalSize - delivered));
+				delivered = totalSize;
+				return false;
+			}
+
+			callback.accept(elements);
+			delivered += elements.size();
+			return true;
+		}
+
+		private void rethrowFailure() throws IOException, TimeoutException {
+			Throwable cause = failure.get();
+
+			if (cause == null) {
+				return;
+			} else if (cause instanceof IOException) {
+				throw (IOException) cause;
+			} else if (cause instanceof TimeoutException) {
+				throw (TimeoutException) cause;
+			} else if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			} else if (cause instanceof Error) {
+				throw (Error) cause;
+			} else {
+				throw new IOException("Reading a slice failed!", cause);
+			}
+		}
+
+		@SuppressWarnings("unchecked")
+		private List<T> endOfSlice() {
+			return (List<T>) END_OF_SLICE;
+		}
+
+		/**
+		 * Iterates over the elements of one slice.
+		 */
+		private class SliceCursor {
+
+			private final BlockingQueue<List<T>> queue;
+
+			private Iterator<T> page = Collections.emptyIterator();
+
+			private T current;
+
+			private SliceCursor(BlockingQueue<List<T>> queue) {
+				this.queue = queue;
+			}
+
+			private boolean advance() throws InterruptedException {
+				while (!page.hasNext()) {
+					List<T> next = take(queue);
+
+					if ((next == null) || (next == END_OF_SLICE)) {
+						return false;
+					}
+
+					page = next.iterator();
+				}
+
+				current = page.next();
+				return true;
+			}
+
+		}
+
+	}
+
+}
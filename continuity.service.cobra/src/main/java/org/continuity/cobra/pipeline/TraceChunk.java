@@ -0,0 +1,67 @@
+package org.continuity.cobra.pipeline;
+
+import java.util.List;
+
+import org.continuity.cobra.entities.TraceRecord;
+import org.spec.research.open.xtrace.api.core.Trace;
+
+/**
+ * A chunk of traces passing through the {@link TraceProcessingPipeline}.
+ *
+ * @author Henning Schulz
+ *
+ */
+public class TraceChunk {
+
+	private final int number;
+
+	private final boolean last;
+
+	private final List<Trace> traces;
+
+	private List<TraceRecord> records;
+
+	public TraceChunk(int number, boolean last, List<Trace> traces) {
+		this.number = number;
+		this.last = last;
+		this.traces = traces;
+	}
+
+	/**
+	 *
+	 * @return The sequence number of the chunk within the upload, starting at 1.
+	 */
+	public int getNumber() {
+		return number;
+	}
+
+	/**
+	 *
+	 * @return Whether this is the last chunk of the upload.
+	 */
+	public boolean isLast() {
+		return last;
+	}
+
+	/**
+	 *
+	 * @return The parsed traces.
+	 */
+	public List<Trace> getTraces() {
+		return traces;
+	}
+
+	/**
+	 *
+	 * @return The trace records created from the traces. Will be {@code null} before the mapping
+	 *         stage.
+	 */
+	public List<TraceRecord> getRecords() {
+		return records;
+	}
+
+	public void setRecords(List<TraceRecord> records) {
+		this.records = records;
+	}
+
+}
@@ -0,0 +1,229 @@
+package org.continuity.cobra.pipeline;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.spec.research.open.xtrace.api.core.Trace;
+
+/**
+ * Processes uploaded traces in chunks that pass through four stages: parse, map, group, and
+ * persist. The stages of different chunks overlap, e.g., while the traces of one chunk are written
+ * to the database, the next chunk can already be mapped and grouped. <br>
+ *
+ * <ul>
+ * <li><b>Parse</b> is executed on the calling thread, as the input is read sequentially.</li>
+ * <li><b>Map</b> is executed concurrently for multiple chunks on the map executor.</li>
+ * <li><b>Group</b> is executed on a single thread strictly in the order of the chunks, as the
+ * sessions of one chunk depend on the ones of the previous chunks.</li>
+ * <li><b>Persist</b> is executed concurrently for multiple chunks on the persist executor, as soon
+ * as the respective chunk has been grouped.</li>
+ * </ul>
+ *
+ * The number of chunks that have been parsed but not persisted, yet, is bounded by the queue size.
+ * If any stage fails, no further chunks are read or grouped and the failure is rethrown after all
+ * pending stages have terminated. {@link #process(Iterator, Stage, Stage, Stage)} returns only
+ * after all chunks have been processed, so uploads are processed in the order in which they are
+ * received.
+ *
+ * @author Henning Schulz
+ *
+ */
+public class TraceProcessingPipeline {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(TraceProcessingPipeline.class);
+
+	private final ExecutorService mapExecutor;
+
+	private final ExecutorService groupExecutor;
+
+	private final ExecutorService persistExecutor;
+
+	private final int queueSize;
+
+	/**
+	 *
+	 * @param mapThreads
+	 *            The number of threads for mapping traces to endpoints.
+	 * @param persistThreads
+	 *            The number of threads for storing the traces.
+	 * @param queueSize
+	 *            The maximum number of chunks that are processed at once.
+	 */
+	public TraceProcessingPipeline(int mapThreads, int persistThreads, int queueSize) {
+		if (queueSize <= 0) {
+			throw new IllegalArgumentException("The queue size needs to be positive, but was " + queueSize + "!");
+		}
+
+		this.mapExecutor = Executors.newFixedThreadPool(mapThreads, threadFactory("map"));
+		// the chunks are grouped one after the other, so more threads would be idle
+		this.groupExecutor = Executors.newSingleThreadExecutor(threadFactory("group"));
+		this.persistExecutor = Executors.newFixedThreadPool(persistThreads, threadFactory("persist"));
+		this.queueSize = queueSize;
+
+		LOGGER.info("Initialized the trace processing pipeline with {} map and {} persist threads and a queue size of {}.", mapThreads, persistThreads, queueSize);
+	}
+
+	/**
+	 * Processes all chunks provided by the source. At least one chunk will be processed, which is
+	 * empty if the source does not provide any traces.
+	 *
+	 * @param source
+	 *            Provides the parsed chunks of traces.
+	 * @param map
+	 *            Creates the trace records of a chunk and maps them to endpoints.
+	 * @param group
+	 *            Groups the trace records of a chunk to sessions.
+	 * @param persist
+	 *            Stores the trace records of a chunk.
+	 * @return The number of processed chunks.
+	 * @throws IOException
+	 *             If reading the input or one of the stages failed.
+	 * @throws TimeoutException
+	 *             If one of the stages timed out.
+	 * @throws InterruptedException
+	 *             If the calling thread is interrupted while waiting for free queue capacity.
+	 */
+	public int process(Iterator<List<Trace>> source, Stage map, Stage group, Stage persist) throws IOException, TimeoutException, InterruptedException {
+		Semaphore capacity = new Semaphore(queueSize);
+		AtomicReference<Throwable> failure = new AtomicReference<>();
+		List<CompletableFuture<Void>> pending = new ArrayList<>();
+
+		CompletableFuture<Void> previousGroup = CompletableFuture.completedFuture(null);
+		int number = 0;
+		boolean last = false;
+
+		try {
+			while (!last) {
+				capacity.acquire();
+
+				if (failure.get() != null) {
+					capacity.release();
+					break;
+				}
+
+				List<Trace> traces = source.hasNext() ? source.next() : Collections.emptyList();
+				last = !source.hasNext();
+
+				TraceChunk chunk = new TraceChunk(++number, last, traces);
+
+				CompletableFuture<Void> mapped = CompletableFuture.runAsync(() -> execute(map, chunk), mapExecutor);
+				CompletableFuture<Void> grouped = mapped.runAfterBothAsync(previousGroup, () -> execute(group, chunk), groupExecutor);
+				CompletableFuture<Void> persisted = grouped.thenRunAsync(() -> execute(persist, chunk), persistExecutor);
+
+				persisted.whenComplete((v, e) -> {
+					if (e != null) {
+						failure.compareAndSet(null, e);
+					}
+
+					capacity.release();
+				});
+
+				previousGroup = grouped;
+				pending.removeIf(CompletableFuture::isDone);
+				pending.add(persisted);
+			}
+		} catch (RuntimeException e) {
+			failure.compareAndSet(null, e);
+		}
+
+		try {
+			CompletableFuture.allOf(pending.toArray(new CompletableFuture[pending.size()])).join();
+		} catch (CompletionException e) {
+			failure.compareAndSet(null, e);
+		}
+
+		if (failure.get() != null) {
+			rethrow(failure.get());
+		}
+
+		return number;
+	}
+
+	/**
+	 * Shuts down the executors of the stages.
+	 */
+	public void destroy() {
+		mapExecutor.shutdown();
+		groupExecutor.shutdown();
+		persistExecutor.shutdown();
+	}
+
+	private void execute(Stage stage, TraceChunk chunk) {
+		try {
+			stage.process(chunk);
+		} catch (IOException | TimeoutException e) {
+			throw new CompletionException(e);
+		}
+	}
+
+	private void rethrow(Throwable failure) throws IOException, TimeoutException {
+		Throwable cause = failure;
+
+		while ((cause instanceof CompletionException) && (cause.getCause() != null)) {
+			cause = cause.getCause();
+		}
+
+		if (cause instanceof UncheckedIOException) {
+			cause = cause.getCause();
+		}
+
+		if (cause instanceof IOException) {
+			throw (IOException) cause;
+		} else if (cause instanceof TimeoutException) {
+			throw (TimeoutException) cause;
+		} else if (cause instanceof RuntimeException) {
+			throw (RuntimeException) cause;
+		} else if (cause instanceof Error) {
+			throw (Error) cause;
+		} else {
+			throw new IllegalStateException(cause);
+		}
+	}
+
+	private ThreadFactory threadFactory(String stage) {
+		AtomicInteger counter = new AtomicInteger(0);
+
+		return runnable -> {
+			Thread thread = new Thread(runnable, "trace-" + stage + "-" + counter.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		};
+	}
+
+	/**
+	 * One stage of the pipeline.
+	 *
+	 * @author Henning Schulz
+	 *
+	 */
+	@FunctionalInterface
+	public interface Stage {
+
+		/**
+		 * Processes a chunk.
+		 *
+		 * @param chunk
+		 *            The chunk to be processed.
+		 * @throws IOException
+		 * @throws TimeoutException
+		 */
+		void process(TraceChunk chunk) throws IOException, TimeoutException;
+
+	}
+
+}
@@ -0,0 +1,82 @@
+package org.continuity.cobra.upload;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Collectors;
+
+import org.continuity.cobra.entities.UploadProgress;
+import org.continuity.idpa.AppId;
+import org.continuity.idpa.VersionOrTimestamp;
+
+/**
+ * Keeps track of the progress of the uploads that have been split into parts. The progress is
+ * held in memory and only covers the parts processed by this instance. If more than the maximum
+ * number of uploads are tracked, the ones that have been finished longest ago are forgotten first
+ * and the ones without any update for the longest time second.
+ *
+ * @author Henning Schulz
+ *
+ */
+public class UploadProgressTracker {
+
+	private final ConcurrentMap<String, UploadProgress> uploads = new ConcurrentHashMap<>();
+
+	private final int maxUploads;
+
+	public UploadProgressTracker(int maxUploads) {
+		this.maxUploads = maxUploads;
+	}
+
+	/**
+	 * Gets the progress of an upload or starts tracking it if it is unknown, yet.
+	 *
+	 * @param uploadId
+	 *            The ID of the upload.
+	 * @param aid
+	 *            The app-id the upload belongs to.
+	 * @param version
+	 *            The version the upload belongs to.
+	 * @param datatype
+	 *            The type of the uploaded data.
+	 * @param numParts
+	 *            The number of parts the upload has been split into.
+	 * @return The progress.
+	 */
+	public UploadProgress track(String uploadId, AppId aid, VersionOrTimestamp version, String datatype, int numParts) {
+		UploadProgress progress = uploads.computeIfAbsent(uploadId, id -> new UploadProgress(id, aid.toString(), version.toString(), datatype, numParts));
+		evict();
+		return progress;
+	}
+
+	/**
+	 * Gets the progress of an upload.
+	 *
+	 * @param uploadId
+	 *            The ID of the upload.
+	 * @return The progress or {@code null} if the upload is unknown.
+	 */
+	public UploadProgress get(String uploadId) {
+		return uploads.get(uploadId);
+	}
+
+	private void evict() {
+		int surplus = uploads.size() - maxUploads;
+
+		if (surplus <= 0) {
+			return;
+		}
+
+		List<UploadProgress> candidates = uploads.values().stream()
+				.sorted(Comparator.comparing((UploadProgress p) -> !p.isFinished()).thenComparing(UploadProgress::getLastUpdate)).collect(Collectors.toList());
+		Iterator<UploadProgress> iterator = candidates.iterator();
+
+		while ((surplus > 0) && iterator.hasNext()) {
+			uploads.remove(iterator.next().getUploadId());
+			surplus--;
+		}
+	}
+
+}
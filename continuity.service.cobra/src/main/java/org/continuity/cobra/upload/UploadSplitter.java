@@ -0,0 +1,251 @@
+package org.continuity.cobra.upload;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+/**
+ * Splits uploaded measurement data on record boundaries into parts of a bounded size, so that
+ * each part can be sent and processed as a separate message. The boundaries are determined in one
+ * pass over the data, but the parts are only created on access. Hence, at most one part is held in
+ * memory in addition to the upload. <br>
+ *
+ * A part can only exceed the maximum size if it consists of one single record that is larger.
+ * Depending on the data type, the records are the following:
+ * <ul>
+ * <li>{@code access-logs} and {@code session-logs}: one line.</li>
+ * <li>{@code csv}: one row, which can span several lines if there are quoted line breaks. The
+ * header row is repeated at the beginning of each part.</li>
+ * <li>{@code open-xtrace}: one element of the JSON array. Each part is a JSON array again. A
+ * single trace object is not split.</li>
+ * </ul>
+ *
+ * @author Henning Schulz
+ *
+ */
+public class UploadSplitter {
+
+	private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+	private final String data;
+
+	private final String prefix;
+
+	private final String suffix;
+
+	private final List<Range> ranges;
+
+	private UploadSplitter(String data, String prefix, String suffix, List<Range> ranges) {
+		this.data = data;
+		this.prefix = prefix;
+		this.suffix = suffix;
+		this.ranges = ranges;
+	}
+
+	/**
+	 * Splits the data according to the data type.
+	 *
+	 * @param datatype
+	 *            The data type, e.g., {@code access-logs}. Unknown types are treated as
+	 *            {@code open-xtrace}, in line with the processing of the data.
+	 * @param data
+	 *            The uploaded data.
+	 * @param maxPartSize
+	 *            The maximum number of characters per part.
+	 * @return The splitter holding the parts.
+	 * @throws IOException
+	 *             If the data are OPEN.xtrace but not valid JSON.
+	 */
+	public static UploadSplitter split(String datatype, String data, int maxPartSize) throws IOException {
+		if (maxPartSize <= 0) {
+			throw new IllegalArgumentException("The maximum part size needs to be positive, but was " + maxPartSize + "!");
+		}
+
+		switch (datatype) {
+		case "access-logs":
+		case "session-logs":
+			return splitLines(data, maxPartSize);
+		case "csv":
+			return splitCsv(data, maxPartSize);
+		case "open-xtrace":
+		default:
+			return splitJsonArray(data, maxPartSize);
+		}
+	}
+
+	private static UploadSplitter splitLines(String data, int maxPartSize) {
+		List<Range> ranges = new ArrayList<>();
+		RangeCollector collector = new RangeCollector(ranges, maxPartSize);
+		int pos = 0;
+
+		while (pos < data.length()) {
+			int newline = data.indexOf('\n', pos);
+			int end = newline < 0 ? data.length() : newline + 1;
+
+			collector.add(pos, end);
+			pos = end;
+		}
+
+		collector.finish();
+
+		return new UploadSplitter(data, "", "", ranges);
+	}
+
+	private static UploadSplitter splitCsv(String data, int maxPartSize) {
+		int headerEnd = endOfCsvRow(data, 0);
+		String header = data.substring(0, headerEnd);
+
+		if (!header.endsWith("\n")) {
+			header = header + "\n";
+		}
+
+		List<Range> ranges = new ArrayList<>();
+		RangeCollector collector = new RangeCollector(ranges, Math.max(maxPartSize - header.length(), 1));
+		int pos = headerEnd;
+
+		while (pos < data.length()) {
+			int end = endOfCsvRow(data, pos);
+
+			collector.add(pos, end);
+			pos = end;
+		}
+
+		collector.finish();
+
+		return new UploadSplitter(data, header, "", ranges);
+	}
+
+	/**
+	 * Finds the end of the CSV row starting at {@code start}, i.e., the position after the next line
+	 * break that is not quoted.
+	 */
+	private static int endOfCsvRow(String data, int start) {
+		boolean quoted = false;
+
+		for (int i = start; i < data.length(); i++) {
+			char c = data.charAt(i);
+
+			if (c == '"') {
+				quoted = !quoted;
+			} else if ((c == '\n') && !quoted) {
+				return i + 1;
+			}
+		}
+
+		return data.length();
+	}
+
+	private static UploadSplitter splitJsonArray(String data, int maxPartSize) throws IOException {
+		try (JsonParser parser = JSON_FACTORY.createParser(data)) {
+			if (parser.nextToken() != JsonToken.START_ARRAY) {
+				return new UploadSplitter(data, "", "", Collections.emptyList());
+			}
+
+			List<Range> ranges = new ArrayList<>();
+			RangeCollector collector = new RangeCollector(ranges, Math.max(maxPartSize - 2, 1));
+
+			while (parser.nextToken() != JsonToken.END_ARRAY) {
+				int start = (int) parser.getTokenLocation().getCharOffset();
+				parser.skipChildren();
+				int end = (int) parser.getCurrentLocation().getCharOffset();
+
+				collector.add(start, end);
+			}
+
+			collector.finish();
+
+			// the separators between the elements are part of the ranges
+			return new UploadSplitter(data, "[", "]", ranges);
+		}
+	}
+
+	/**
+	 * Gets the number of parts. Is at least one, even if the data are empty.
+	 *
+	 * @return The number of parts.
+	 */
+	public int size() {
+		return Math.max(ranges.size(), 1);
+	}
+
+	/**
+	 * Creates a part. If there is only one part, the original data are returned.
+	 *
+	 * @param index
+	 *            The index of the part, starting at 0.
+	 * @return The part.
+	 */
+	public String get(int index) {
+		if ((index < 0) || (index >= size())) {
+			throw new IndexOutOfBoundsException("Part " + index + " of " + size() + " requested!");
+		}
+
+		if (ranges.size() <= 1) {
+			return data;
+		}
+
+		Range range = ranges.get(index);
+
+		return new StringBuilder(prefix.length() + range.length() + suffix.length()).append(prefix).append(data, range.start, range.end).append(suffix).toString();
+	}
+
+	private static class Range {
+
+		private final int start;
+
+		private final int end;
+
+		private Range(int start, int end) {
+			this.start = start;
+			this.end = end;
+		}
+
+		private int length() {
+			return end - start;
+		}
+
+	}
+
+	/**
+	 * Combines consecutive records to ranges of at most the maximum size.
+	 */
+	private static class RangeCollector {
+
+		private final List<Range> ranges;
+
+		private final int maxSize;
+
+		private int start = -1;
+
+		private int end = -1;
+
+		private RangeCollector(List<Range> ranges, int maxSize) {
+			this.ranges = ranges;
+			this.maxSize = maxSize;
+		}
+
+		private void add(int recordStart, int recordEnd) {
+			if (start < 0) {
+				start = recordStart;
+			} else if ((recordEnd - start) > maxSize) {
+				ranges.add(new Range(start, end));
+				start = recordStart;
+			}
+
+			end = recordEnd;
+		}
+
+		private void finish() {
+			if (start >= 0) {
+				ranges.add(new Range(start, end));
+			}
+		}
+
+	}
+
+}
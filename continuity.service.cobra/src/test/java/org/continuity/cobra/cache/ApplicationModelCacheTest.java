@@ -0,0 +1,113 @@
+package org.continuity.cobra.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.text.ParseException;
+import java.util.Arrays;
+import java.util.List;
+
+import org.continuity.idpa.AppId;
+import org.continuity.idpa.VersionOrTimestamp;
+import org.continuity.idpa.application.Application;
+import org.continuity.idpa.application.HttpEndpoint;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.springframework.web.client.RestTemplate;
+
+public class ApplicationModelCacheTest {
+
+	private static final AppId AID = AppId.fromString("test");
+
+	private RestTemplate restTemplate;
+
+	private ApplicationModelCache cache;
+
+	private VersionOrTimestamp v1;
+
+	private VersionOrTimestamp v2;
+
+	private VersionOrTimestamp v3;
+
+	@Before
+	public void setup() throws NumberFormatException, ParseException {
+		v1 = VersionOrTimestamp.fromString("v1");
+		v2 = VersionOrTimestamp.fromString("v2");
+		v3 = VersionOrTimestamp.fromString("v3");
+
+		restTemplate = Mockito.mock(RestTemplate.class);
+		Mockito.when(restTemplate.getForObject(Mockito.anyString(), Mockito.eq(Application.class))).thenReturn(application("all", v1));
+
+		cache = new ApplicationModelCache(restTemplate, 2);
+	}
+
+	@Test
+	public void testVersionedReuse() {
+		CachedApplicationModel model = cache.get(AID, v2);
+
+		assertThat(model.getModelVersion()).isEqualTo(v1);
+		assertThat(model.getMapper().map("/foo", "GET")).isNotNull();
+
+		assertThat(cache.get(AID, v2)).isSameAs(model);
+		assertThat(cache.get(AID, v1)).isSameAs(model);
+		Mockito.verify(restTemplate, Mockito.times(1)).getForObject(Mockito.anyString(), Mockito.eq(Application.class));
+
+		// v3 is not known to resolve to v1, yet
+		assertThat(cache.get(AID, v3)).isSameAs(model);
+		assertThat(cache.get(AID, v3)).isSameAs(model);
+		Mockito.verify(restTemplate, Mockito.times(2)).getForObject(Mockito.anyString(), Mockito.eq(Application.class));
+	}
+
+	@Test
+	public void testInvalidation() {
+		CachedApplicationModel model = cache.get(AID, v1);
+
+		cache.invalidate(AID.withService("foo"));
+
+		assertThat(cache.size()).isEqualTo(0);
+		assertThat(cache.get(AID, v1)).isNotSameAs(model);
+		Mockito.verify(restTemplate, Mockito.times(2)).getForObject(Mockito.anyString(), Mockito.eq(Application.class));
+	}
+
+	@Test
+	public void testEviction() {
+		cache.get(AID, v1);
+		cache.get(AppId.fromString("other"), v1);
+		cache.get(AID, v1);
+		cache.get(AppId.fromString("third"), v1);
+
+		assertThat(cache.size()).isEqualTo(2);
+
+		cache.get(AID, v1);
+		Mockito.verify(restTemplate, Mockito.times(3)).getForObject(Mockito.anyString(), Mockito.eq(Application.class));
+	}
+
+	@Test
+	public void testServices() {
+		Mockito.when(restTemplate.getForObject(Mockito.anyString(), Mockito.eq(Application[].class))).thenReturn(new Application[] { application("carts", v1), null });
+
+		List<CachedApplicationModel> models = cache.get(AID, v1, Arrays.asList("carts", "orders"));
+
+		assertThat(models).hasSize(2);
+		assertThat(models.get(0).getAid()).isEqualTo(AID.withService("carts"));
+		assertThat(models.get(1)).isNull();
+
+		assertThat(cache.get(AID.withService("carts"), v1)).isSameAs(models.get(0));
+		Mockito.verify(restTemplate, Mockito.never()).getForObject(Mockito.anyString(), Mockito.eq(Application.class));
+	}
+
+	private Application application(String id, VersionOrTimestamp version) {
+		Application application = new Application();
+		application.setId(id);
+		application.setVersionOrTimestamp(version);
+
+		HttpEndpoint endpoint = new HttpEndpoint();
+		endpoint.setId("foo");
+		endpoint.setMethod("GET");
+		endpoint.setPath("/foo");
+		application.addEndpoint(endpoint);
+
+		return application;
+	}
+
+}
@@ -0,0 +1,136 @@
+package org.continuity.cobra.clustering;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.ForkJoinPool;
+
+import org.assertj.core.data.Offset;
+import org.continuity.api.entities.artifact.markovbehavior.AbstractMarkovChain;
+import org.continuity.api.entities.artifact.session.Session;
+import org.continuity.api.entities.artifact.session.SessionRequest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ClusteringAlgorithmTest {
+
+	private static final int SESSIONS_PER_BEHAVIOR = 50;
+
+	private ForkJoinPool pool;
+
+	private SessionVectors sessions;
+
+	@Before
+	public void setup() {
+		pool = new ForkJoinPool(4);
+
+		SessionVectors.Builder builder = new SessionVectors.Builder();
+
+		for (int i = 0; i < SESSIONS_PER_BEHAVIOR; i++) {
+			builder.add(session("browse-" + i, "home", "catalogue", "catalogue", "item"));
+			builder.add(session("buy-" + i, "login", "cart", "checkout"));
+		}
+
+		sessions = builder.build(Collections.singleton("logout"));
+	}
+
+	@After
+	public void shutdown() {
+		pool.shutdown();
+	}
+
+	@Test
+	public void testSessionVectors() {
+		assertThat(sessions.getStates()).containsExactly(AbstractMarkovChain.INITIAL_STATE, "cart", "catalogue", "checkout", "home", "item", "login", "logout",
+				AbstractMarkovChain.FINAL_STATE);
+		assertThat(sessions.size()).isEqualTo(2 * SESSIONS_PER_BEHAVIOR);
+
+		int n = sessions.getStates().size();
+		double[] browse = new double[n * n];
+		sessions.addTo(0, browse);
+
+		assertThat(browse[(2 * n) + 2]).isEqualTo(1);
+		assertThat(browse[(0 * n) + 4]).isEqualTo(1);
+		assertThat(browse[(5 * n) + 8]).isEqualTo(1);
+		assertThat(Arrays.stream(browse).sum()).isEqualTo(5);
+
+		assertThat(sessions.squaredDistance(0, 2)).isEqualTo(0);
+		assertThat(sessions.squaredDistance(0, 1)).isEqualTo(sessions.squaredDistance(0, browse(1), SessionVectors.squaredNorm(browse(1))));
+	}
+
+	@Test
+	public void testKMeans() {
+		int[] labels = new KMeansClustering(2, 100, 5, 1e-6, null, 42).cluster(sessions, pool);
+
+		assertSeparated(labels);
+	}
+
+	@Test
+	public void testDbscan() {
+		int[] labels = new DbscanClustering(0.5, 5).cluster(sessions, pool);
+
+		assertSeparated(labels);
+	}
+
+	@Test
+	public void testMinimumDistance() {
+		double[][] centroids = { browse(0) };
+		int[] labels = new MinimumDistanceClustering(centroids, new double[] { 0.5 }, 1.0, 10).cluster(sessions, pool);
+
+		assertSeparated(labels);
+		assertThat(labels[0]).isEqualTo(0);
+		assertThat(labels[1]).isEqualTo(1);
+	}
+
+	@Test
+	public void testStatistics() {
+		int[] labels = new KMeansClustering(2, 100, 5, 1e-6, null, 42).cluster(sessions, pool);
+		ClusterStatistics stats = ClusterStatistics.of(sessions, labels, 2);
+
+		int browse = labels[0];
+		assertThat(stats.getNumSessions(browse)).isEqualTo(SESSIONS_PER_BEHAVIOR);
+		assertThat(stats.getMean(browse)).containsExactly(browse(0), Offset.offset(1e-9));
+		assertThat(stats.getTotalRadius(browse)).isEqualTo(0, Offset.offset(1e-9));
+
+		int n = sessions.getStates().size();
+		assertThat(stats.getThinkTimeMeans(browse)[(2 * n) + 2]).isEqualTo(1000, Offset.offset(1e-9));
+		assertThat(stats.getThinkTimeVariances(browse)[(2 * n) + 2]).isEqualTo(0, Offset.offset(1e-9));
+	}
+
+	private void assertSeparated(int[] labels) {
+		assertThat(labels[0]).isNotEqualTo(labels[1]).isNotEqualTo(ClusteringAlgorithm.NOISE);
+
+		for (int s = 0; s < labels.length; s++) {
+			assertThat(labels[s]).as("label of session " + s).isEqualTo(labels[s % 2]);
+		}
+	}
+
+	private double[] browse(int session) {
+		double[] point = new double[sessions.getDimension()];
+		sessions.addTo(session, point);
+		return point;
+	}
+
+	private Session session(String id, String... endpoints) {
+		Session session = new Session();
+		session.setSessionId(id);
+
+		long micros = 1000000;
+
+		for (int i = 0; i < endpoints.length; i++) {
+			SessionRequest request = new SessionRequest();
+			request.setId(id + "-" + i);
+			request.setEndpoint(endpoints[i]);
+			request.setStartMicros(micros);
+			request.setEndMicros(micros + 500);
+			session.addRequest(request);
+
+			micros += 1000500;
+		}
+
+		return session;
+	}
+
+}
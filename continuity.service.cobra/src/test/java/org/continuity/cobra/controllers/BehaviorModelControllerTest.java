@@ -0,0 +1,60 @@
+package org.continuity.cobra.controllers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import org.continuity.api.entities.config.SessionTailoringGroup;
+import org.continuity.cobra.entities.TraceRecord;
+import org.junit.Test;
+
+public class BehaviorModelControllerTest {
+
+	@Test
+	public void testPartitionTraces() {
+		SessionTailoringGroup first = new SessionTailoringGroup("first", Arrays.asList("s1", "s2"), Arrays.asList("a", "b"));
+		SessionTailoringGroup second = new SessionTailoringGroup("second", Arrays.asList("s2", "s3"), Arrays.asList("a", "c"));
+
+		TraceRecord a1 = trace("a", "s1");
+		TraceRecord a2 = trace("a", "s2");
+		TraceRecord b3 = trace("b", "s3");
+		TraceRecord c13 = trace("c", "s1", "s3");
+		TraceRecord d2 = trace("d", "s2");
+		TraceRecord unknown = trace("a", "s4");
+
+		Map<String, Map<String, List<TraceRecord>>> partitioned = BehaviorModelController.partitionTraces(Arrays.asList(first, second), Arrays.asList(a1, a2, b3, c13, d2, unknown));
+
+		assertThat(partitioned.keySet()).containsExactly("first", "second");
+
+		assertThat(partitioned.get("first").keySet()).containsExactly("a", "b");
+		assertThat(partitioned.get("first").get("a")).containsExactly(a1, a2);
+		assertThat(partitioned.get("first").get("b")).isEmpty();
+
+		assertThat(partitioned.get("second").keySet()).containsExactly("a", "c");
+		assertThat(partitioned.get("second").get("a")).containsExactly(a2);
+		assertThat(partitioned.get("second").get("c")).containsExactly(c13);
+	}
+
+	@Test
+	public void testPartitionTracesWithoutTraces() {
+		SessionTailoringGroup group = new SessionTailoringGroup("group", Collections.singletonList("s1"), Collections.singletonList("a"));
+
+		Map<String, Map<String, List<TraceRecord>>> partitioned = BehaviorModelController.partitionTraces(Collections.singletonList(group), Collections.emptyList());
+
+		assertThat(partitioned.keySet()).containsExactly("group");
+		assertThat(partitioned.get("group").keySet()).containsExactly("a");
+		assertThat(partitioned.get("group").get("a")).isEmpty();
+	}
+
+	private TraceRecord trace(String endpoint, String... sessionIds) {
+		TraceRecord record = new TraceRecord();
+		record.setEndpoint(endpoint);
+		record.setUniqueSessionIds(new HashSet<>(Arrays.asList(sessionIds)));
+		return record;
+	}
+
+}
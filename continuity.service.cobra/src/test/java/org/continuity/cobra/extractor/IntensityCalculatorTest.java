@@ -0,0 +1,91 @@
+package org.continuity.cobra.extractor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.continuity.api.entities.artifact.session.Session;
+import org.continuity.lctl.timeseries.IntensityRecord;
+import org.junit.Test;
+
+public class IntensityCalculatorTest {
+
+	private static final String GROUP = "0";
+
+	@Test
+	public void testSplitting() {
+		IntensityCalculator calculator = new IntensityCalculator(GROUP, 1000, 0, 10000, 0);
+
+		calculator.addSessions(Arrays.asList(session(500, 3500), session(1200, 1800)));
+
+		assertThat(timestamps(calculator.getRecords())).containsExactly(0L, 1L, 2L, 3L);
+		assertThat(intensities(calculator.getRecords())).containsExactly(1L, 2L, 1L, 1L);
+	}
+
+	@Test
+	public void testRange() {
+		IntensityCalculator calculator = new IntensityCalculator(GROUP, 1000, 1000, 3000, 0);
+
+		calculator.addSessions(Arrays.asList(session(500, 3500), session(1200, 1800)));
+
+		assertThat(timestamps(calculator.getRecords())).containsExactly(1L, 2L);
+		assertThat(intensities(calculator.getRecords())).containsExactly(2L, 1L);
+	}
+
+	@Test
+	public void testChunksAndGaps() {
+		IntensityCalculator calculator = new IntensityCalculator(GROUP, 1000, 0, 100000, 0);
+
+		calculator.addSessions(Arrays.asList(session(0, 10000), session(2000, 2000)));
+		calculator.addSessions(Collections.emptyList());
+		calculator.addSessions(Arrays.asList(session(5000, 7000), session(20000, 21000)));
+
+		List<IntensityRecord> records = calculator.getRecords();
+
+		assertThat(timestamps(records)).containsExactly(0L, 1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L, 20L);
+		assertThat(intensities(records)).containsExactly(1L, 1L, 1L, 1L, 1L, 2L, 2L, 1L, 1L, 1L, 1L);
+	}
+
+	@Test
+	public void testLeftShift() {
+		IntensityCalculator calculator = new IntensityCalculator(GROUP, 1000, 500, 10500, 500);
+
+		calculator.addSessions(Arrays.asList(session(500, 2500)));
+
+		assertThat(timestamps(calculator.getRecords())).containsExactly(0L, 1L);
+		assertThat(intensities(calculator.getRecords())).containsExactly(1L, 1L);
+	}
+
+	@Test
+	public void testLateSession() {
+		IntensityCalculator calculator = new IntensityCalculator(GROUP, 1000, 0, 10000, 0);
+
+		calculator.addSessions(Arrays.asList(session(5000, 6000)));
+		calculator.addSessions(Arrays.asList(session(1000, 8000)));
+
+		List<IntensityRecord> records = calculator.getRecords();
+
+		// the pieces of slots 1 to 4 have been passed after transforming these slots
+		assertThat(timestamps(records)).containsExactly(5L, 6L, 7L);
+		assertThat(intensities(records)).containsExactly(6L, 1L, 1L);
+	}
+
+	private Session session(long startMicros, long endMicros) {
+		Session session = new Session();
+		session.setStartMicros(startMicros);
+		session.setEndMicros(endMicros);
+		return session;
+	}
+
+	private List<Long> timestamps(List<IntensityRecord> records) {
+		return records.stream().map(IntensityRecord::getTimestamp).collect(Collectors.toList());
+	}
+
+	private List<Long> intensities(List<IntensityRecord> records) {
+		return records.stream().map(r -> r.getIntensity().get(GROUP)).collect(Collectors.toList());
+	}
+
+}
@@ -0,0 +1,68 @@
+package org.continuity.cobra.extractor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.continuity.api.entities.artifact.session.Session;
+import org.continuity.lctl.timeseries.IntensityRecord;
+import org.junit.Test;
+
+public class MultiGroupIntensityCalculatorTest {
+
+	@Test
+	public void testCombinedRecords() {
+		MultiGroupIntensityCalculator calculator = new MultiGroupIntensityCalculator(Arrays.asList("a", "b"), 1000, 0, 10000, 0);
+
+		calculator.addSessions(Arrays.asList(session("a", 0, 2000), session("b", 1000, 3000), session("c", 1000, 2000)));
+		calculator.addSessions(Arrays.asList(session("a", 1500, 2500)));
+
+		List<IntensityRecord> records = calculator.getRecords();
+
+		assertThat(records).extracting(IntensityRecord::getTimestamp).containsExactly(0L, 1L, 2L);
+		assertThat(records).extracting(IntensityRecord::getIntensity).containsExactly(intensity("a", 1L), intensity("a", 2L, "b", 1L), intensity("a", 1L, "b", 1L));
+	}
+
+	@Test
+	public void testEquivalentToSingleGroups() {
+		List<Session> sessions = Arrays.asList(session("a", 500, 3500), session("b", 1200, 1800), session("a", 2000, 9000), session("b", 4000, 4500));
+
+		MultiGroupIntensityCalculator multiCalculator = new MultiGroupIntensityCalculator(Arrays.asList("a", "b"), 1000, 0, 10000, 0);
+		multiCalculator.addSessions(sessions);
+
+		List<IntensityRecord> records = multiCalculator.getRecords();
+
+		for (String group : Arrays.asList("a", "b")) {
+			IntensityCalculator calculator = new IntensityCalculator(group, 1000, 0, 10000, 0);
+			calculator.addSessions(sessions.stream().filter(s -> group.equals(s.getGroupId())).collect(Collectors.toList()));
+
+			for (IntensityRecord expected : calculator.getRecords()) {
+				assertThat(records).filteredOn(r -> r.getTimestamp() == expected.getTimestamp()).extracting(r -> r.getIntensity().get(group))
+						.containsExactly(expected.getIntensity().get(group));
+			}
+		}
+	}
+
+	private Session session(String group, long startMicros, long endMicros) {
+		Session session = new Session();
+		session.setGroupId(group);
+		session.setStartMicros(startMicros);
+		session.setEndMicros(endMicros);
+		return session;
+	}
+
+	private Map<String, Long> intensity(Object... groupsAndIntensities) {
+		Map<String, Long> intensity = new HashMap<>();
+
+		for (int i = 0; i < groupsAndIntensities.length; i += 2) {
+			intensity.put((String) groupsAndIntensities[i], (Long) groupsAndIntensities[i + 1]);
+		}
+
+		return intensity;
+	}
+
+}
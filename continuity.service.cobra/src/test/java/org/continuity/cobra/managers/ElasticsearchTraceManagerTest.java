@@ -0,0 +1,33 @@
+package org.continuity.cobra.managers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.Test;
+
+public class ElasticsearchTraceManagerTest {
+
+	@Test
+	public void testPartition() {
+		List<List<String>> batches = ElasticsearchTraceManager.partition(Arrays.asList("a", "b", "c", "d", "e"), 2);
+
+		assertThat(batches).containsExactly(Arrays.asList("a", "b"), Arrays.asList("c", "d"), Collections.singletonList("e"));
+		assertThat(ElasticsearchTraceManager.partition(Collections.emptyList(), 2)).isEmpty();
+	}
+
+	@Test
+	public void testPartitionBelowTermsLimit() {
+		List<String> ids = IntStream.range(0, 70000).mapToObj(Integer::toString).collect(Collectors.toList());
+		List<List<String>> batches = ElasticsearchTraceManager.partition(ids, ElasticsearchTraceManager.MAX_TERMS_PER_QUERY);
+
+		assertThat(batches).hasSize(2);
+		assertThat(batches).allMatch(batch -> batch.size() < 65536);
+		assertThat(batches.stream().flatMap(List::stream).collect(Collectors.toList())).isEqualTo(ids);
+	}
+
+}
@@ -0,0 +1,158 @@
+package org.continuity.cobra.managers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+
+import org.continuity.api.entities.artifact.session.Session;
+import org.continuity.api.entities.artifact.session.SessionRequest;
+import org.continuity.idpa.AppId;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+public class OpenSessionStoreTest {
+
+	private static final AppId AID = AppId.fromString("test");
+
+	private static final List<String> TAILORING = Collections.singletonList(AppId.SERVICE_ALL);
+
+	private ElasticsearchSessionManager sessionManager;
+
+	private OpenSessionStore store;
+
+	@Before
+	public void setup() throws IOException, TimeoutException {
+		sessionManager = Mockito.mock(ElasticsearchSessionManager.class);
+		Mockito.when(sessionManager.readOpenSessions(Mockito.any(), Mockito.any(), Mockito.any())).thenReturn(new ArrayList<>(Arrays.asList(session("recovered", 1, false))));
+
+		store = new OpenSessionStore(sessionManager, Long.MAX_VALUE, 0, aid -> Duration.ofDays(1));
+	}
+
+	@Test
+	public void testRecovery() throws IOException, TimeoutException {
+		assertThat(store.getOpenSessions(AID, TAILORING)).extracting(Session::getSessionId).containsExactly("recovered");
+		assertThat(store.getOpenSessions(AID, TAILORING)).extracting(Session::getSessionId).containsExactly("recovered");
+
+		Mockito.verify(sessionManager, Mockito.times(1)).readOpenSessions(Mockito.any(), Mockito.any(), Mockito.any());
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testWriteBehind() throws IOException, TimeoutException {
+		store.getOpenSessions(AID, TAILORING);
+
+		Session open = session("open", 2, false);
+		Session finished = session("finished", 3, true);
+
+		assertThat(store.update(AID, TAILORING, Arrays.asList(open, finished), false)).isTrue();
+
+		ArgumentCaptor<Collection<Session>> written = ArgumentCaptor.forClass(Collection.class);
+		Mockito.verify(sessionManager).storeOrUpdateSessions(Mockito.eq(AID), written.capture(), Mockito.any(), Mockito.anyBoolean());
+		assertThat(written.getValue()).containsExactly(finished);
+		assertThat(store.getOpenSessions(AID, TAILORING)).extracting(Session::getSessionId).containsExactlyInAnyOrder("recovered", "open");
+
+		assertThat(store.update(AID, TAILORING, Collections.singletonList(open), false)).isFalse();
+		assertThat(open.getRequests()).isNotEmpty();
+
+		assertThat(store.update(AID, TAILORING, Collections.emptyList(), true)).isTrue();
+		Mockito.verify(sessionManager, Mockito.times(2)).storeOrUpdateSessions(Mockito.eq(AID), written.capture(), Mockito.any(), Mockito.anyBoolean());
+		assertThat(written.getValue()).containsExactly(open);
+		assertThat(open.getRequests()).isEmpty();
+		assertThat(open.isFresh()).isFalse();
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testSweepWritesBehind() throws IOException, TimeoutException, InterruptedException {
+		store = new OpenSessionStore(sessionManager, 50, 0, aid -> Duration.ofDays(1));
+		store.getOpenSessions(AID, TAILORING);
+
+		Session open = session("open", 2, false);
+		assertThat(store.update(AID, TAILORING, Collections.singletonList(open), false)).isFalse();
+
+		store.sweep();
+		Mockito.verify(sessionManager, Mockito.never()).storeOrUpdateSessions(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.anyBoolean());
+
+		Thread.sleep(100);
+		store.sweep();
+
+		ArgumentCaptor<Collection<Session>> written = ArgumentCaptor.forClass(Collection.class);
+		Mockito.verify(sessionManager).storeOrUpdateSessions(Mockito.eq(AID), written.capture(), Mockito.any(), Mockito.anyBoolean());
+		assertThat(written.getValue()).containsExactly(open);
+		assertThat(open.isFinished()).isFalse();
+		assertThat(store.getOpenSessions(AID, TAILORING)).extracting(Session::getSessionId).containsExactlyInAnyOrder("recovered", "open");
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testSweepFinishesTimedOutSessions() throws IOException, TimeoutException, InterruptedException {
+		store = new OpenSessionStore(sessionManager, Long.MAX_VALUE, 0, aid -> Duration.ofMillis(50));
+		List<Session> recovered = store.getOpenSessions(AID, TAILORING);
+
+		store.sweep();
+		assertThat(store.getOpenSessions(AID, TAILORING)).hasSize(1);
+
+		Thread.sleep(100);
+		store.sweep();
+
+		ArgumentCaptor<Collection<Session>> written = ArgumentCaptor.forClass(Collection.class);
+		Mockito.verify(sessionManager).storeOrUpdateSessions(Mockito.eq(AID), written.capture(), Mockito.any(), Mockito.anyBoolean());
+		assertThat(written.getValue()).containsExactlyElementsOf(recovered);
+		assertThat(recovered.get(0).isFinished()).isTrue();
+		assertThat(store.getOpenSessions(AID, TAILORING)).isEmpty();
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testSweepSkipsSessionsBeingUpdated() throws IOException, TimeoutException, InterruptedException {
+		store = new OpenSessionStore(sessionManager, 50, 0, aid -> Duration.ofDays(1));
+		store.getOpenSessions(AID, TAILORING);
+
+		Session open = session("open", 2, false);
+		assertThat(store.update(AID, TAILORING, Collections.singletonList(open), false)).isFalse();
+
+		// simulates a SessionUpdater adding a request while the sweep runs
+		store.getOpenSessions(AID, TAILORING);
+		open.addRequest(session("open", 4, false).getRequests().first());
+
+		Thread.sleep(100);
+		store.sweep();
+
+		Mockito.verify(sessionManager, Mockito.never()).storeOrUpdateSessions(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.anyBoolean());
+		assertThat(open.getRequests()).hasSize(2);
+
+		assertThat(store.update(AID, TAILORING, Collections.singletonList(open), false)).isTrue();
+
+		ArgumentCaptor<Collection<Session>> written = ArgumentCaptor.forClass(Collection.class);
+		Mockito.verify(sessionManager).storeOrUpdateSessions(Mockito.eq(AID), written.capture(), Mockito.any(), Mockito.anyBoolean());
+		assertThat(written.getValue()).containsExactly(open);
+		assertThat(open.getRequests()).isEmpty();
+		assertThat(open.isFinished()).isFalse();
+	}
+
+	private Session session(String id, long micros, boolean finished) {
+		Session session = new Session();
+		session.setSessionId(id);
+		session.setFresh(true);
+		session.setFinished(finished);
+
+		SessionRequest request = new SessionRequest();
+		request.setSessionId(id);
+		request.setEndpoint("foo");
+		request.setStartMicros(micros);
+		request.setEndMicros(micros + 1);
+		session.addRequest(request);
+
+		return session;
+	}
+
+}
@@ -0,0 +1,114 @@
+package org.continuity.cobra.managers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class SlicedScrollReaderTest {
+
+	private static final int NUM_SLICES = 4;
+
+	private static final int PAGES_PER_SLICE = 20;
+
+	private static final int PAGE_SIZE = 10;
+
+	private ExecutorService executor;
+
+	@Before
+	public void setup() {
+		executor = Executors.newCachedThreadPool();
+	}
+
+	@After
+	public void destroy() {
+		executor.shutdownNow();
+	}
+
+	@Test
+	public void testOrdered() throws IOException, TimeoutException {
+		SlicedScrollReader<Integer> reader = new SlicedScrollReader<>(executor, NUM_SLICES, 2, Comparator.naturalOrder(), 7);
+		List<List<Integer>> chunks = new ArrayList<>();
+
+		reader.read(this::scrollSlice, -1, chunks::add);
+
+		List<Integer> elements = chunks.stream().flatMap(List::stream).collect(Collectors.toList());
+
+		assertThat(elements).isSorted().hasSize(NUM_SLICES * PAGES_PER_SLICE * PAGE_SIZE);
+		assertThat(chunks.subList(0, chunks.size() - 1)).allMatch(c -> c.size() == 7);
+	}
+
+	@Test
+	public void testUnordered() throws IOException, TimeoutException {
+		SlicedScrollReader<Integer> reader = new SlicedScrollReader<>(executor, NUM_SLICES, 2, null, 7);
+		List<Integer> elements = new ArrayList<>();
+
+		reader.read(this::scrollSlice, -1, elements::addAll);
+
+		Collections.sort(elements);
+		assertThat(elements).containsExactlyElementsOf(IntStream.range(0, NUM_SLICES * PAGES_PER_SLICE * PAGE_SIZE).boxed().collect(Collectors.toList()));
+	}
+
+	@Test
+	public void testTotalSize() throws IOException, TimeoutException {
+		SlicedScrollReader<Integer> reader = new SlicedScrollReader<>(executor, NUM_SLICES, 2, Comparator.naturalOrder(), PAGE_SIZE);
+		List<Integer> elements = new ArrayList<>();
+
+		reader.read(this::scrollSlice, 25, elements::addAll);
+
+		assertThat(elements).containsExactlyElementsOf(IntStream.range(0, 25).boxed().collect(Collectors.toList()));
+	}
+
+	@Test
+	public void testFailure() throws TimeoutException {
+		SlicedScrollReader<Integer> reader = new SlicedScrollReader<>(executor, NUM_SLICES, 2, null, PAGE_SIZE);
+
+		try {
+			reader.read((slice, sink) -> {
+				if (slice == 2) {
+					throw new IOException("Test failure");
+				}
+
+				scrollSlice(slice, sink);
+			}, -1, page -> {
+			});
+
+			fail("Expected an IOException.");
+		} catch (IOException e) {
+			assertThat(e).hasMessage("Test failure");
+		}
+	}
+
+	/**
+	 * Slice {@code s} delivers all numbers {@code n} with {@code n % NUM_SLICES == s} in ascending
+	 * order.
+	 */
+	private void scrollSlice(int slice, Predicate<List<Integer>> sink) {
+		for (int page = 0; page < PAGES_PER_SLICE; page++) {
+			List<Integer> elements = new ArrayList<>();
+
+			for (int i = 0; i < PAGE_SIZE; i++) {
+				elements.add((((page * PAGE_SIZE) + i) * NUM_SLICES) + slice);
+			}
+
+			if (!sink.test(elements)) {
+				return;
+			}
+		}
+	}
+
+}
@@ -0,0 +1,115 @@
+package org.continuity.cobra.pipeline;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.spec.research.open.xtrace.api.core.Trace;
+
+public class TraceProcessingPipelineTest {
+
+	private static final int NUM_CHUNKS = 50;
+
+	private TraceProcessingPipeline pipeline;
+
+	private Random random = new Random();
+
+	@Before
+	public void setup() {
+		pipeline = new TraceProcessingPipeline(4, 3, 3);
+	}
+
+	@After
+	public void destroy() {
+		pipeline.destroy();
+	}
+
+	@Test
+	public void testGroupingOrder() throws IOException, TimeoutException, InterruptedException {
+		List<Integer> grouped = Collections.synchronizedList(new ArrayList<>());
+		List<Integer> persisted = Collections.synchronizedList(new ArrayList<>());
+		List<Boolean> lastFlags = Collections.synchronizedList(new ArrayList<>());
+
+		int numProcessed = pipeline.process(chunks(NUM_CHUNKS), c -> sleep(), c -> {
+			sleep();
+			grouped.add(c.getNumber());
+			lastFlags.add(c.isLast());
+		}, c -> {
+			assertThat(grouped).contains(c.getNumber());
+			sleep();
+			persisted.add(c.getNumber());
+		});
+
+		assertThat(numProcessed).isEqualTo(NUM_CHUNKS);
+		assertThat(grouped).isSorted().hasSize(NUM_CHUNKS);
+		assertThat(persisted).hasSize(NUM_CHUNKS);
+		assertThat(lastFlags.subList(0, NUM_CHUNKS - 1)).doesNotContain(true);
+		assertThat(lastFlags.get(NUM_CHUNKS - 1)).isTrue();
+	}
+
+	@Test
+	public void testEmptySource() throws IOException, TimeoutException, InterruptedException {
+		AtomicInteger numGrouped = new AtomicInteger(0);
+
+		int numProcessed = pipeline.process(chunks(0), c -> {
+		}, c -> {
+			assertThat(c.isLast()).isTrue();
+			assertThat(c.getTraces()).isEmpty();
+			numGrouped.incrementAndGet();
+		}, c -> {
+		});
+
+		assertThat(numProcessed).isEqualTo(1);
+		assertThat(numGrouped.get()).isEqualTo(1);
+	}
+
+	@Test
+	public void testFailure() throws TimeoutException, InterruptedException {
+		List<Integer> grouped = Collections.synchronizedList(new ArrayList<>());
+
+		try {
+			pipeline.process(chunks(NUM_CHUNKS), c -> {
+				if (c.getNumber() == 5) {
+					throw new IOException("Test failure");
+				}
+			}, c -> grouped.add(c.getNumber()), c -> {
+			});
+
+			fail("Expected an IOException.");
+		} catch (IOException e) {
+			assertThat(e).hasMessage("Test failure");
+		}
+
+		assertThat(grouped).isSorted().doesNotContain(5, 6, 7, 8);
+	}
+
+	private Iterator<List<Trace>> chunks(int num) {
+		List<List<Trace>> chunks = new ArrayList<>();
+
+		for (int i = 0; i < num; i++) {
+			chunks.add(Collections.emptyList());
+		}
+
+		return chunks.iterator();
+	}
+
+	private void sleep() {
+		try {
+			Thread.sleep(random.nextInt(5));
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+}
@@ -0,0 +1,150 @@
+package org.continuity.cobra.upload;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+
+public class UploadSplitterTest {
+
+	private final ObjectMapper mapper = new ObjectMapper();
+
+	@Test
+	public void testLines() throws IOException {
+		StringBuilder data = new StringBuilder();
+
+		for (int i = 0; i < 1000; i++) {
+			data.append("10.0.0.1 - - [01/Jan/2019:00:00:00 +0000] \"GET /item?id=").append(i).append(" HTTP/1.1\" 200 42\n");
+		}
+
+		UploadSplitter splitter = UploadSplitter.split("access-logs", data.toString(), 1000);
+		List<String> parts = parts(splitter);
+
+		assertThat(parts.size()).isGreaterThan(1);
+		assertThat(String.join("", parts)).isEqualTo(data.toString());
+
+		for (String part : parts) {
+			assertThat(part.length()).isLessThanOrEqualTo(1000);
+			assertThat(part).endsWith("\n");
+		}
+	}
+
+	@Test
+	public void testOversizedRecord() throws IOException {
+		String data = "short\n" + repeat('x', 50) + "\nshort";
+
+		List<String> parts = parts(UploadSplitter.split("session-logs", data, 10));
+
+		assertThat(parts).containsExactly("short\n", repeat('x', 50) + "\n", "short");
+	}
+
+	@Test
+	public void testSinglePart() throws IOException {
+		for (String datatype : new String[] { "access-logs", "csv", "open-xtrace" }) {
+			String data = "open-xtrace".equals(datatype) ? "[{\"a\":1},{\"b\":2}]" : "a;b\n1;2\n";
+			UploadSplitter splitter = UploadSplitter.split(datatype, data, 1000);
+
+			assertThat(splitter.size()).isEqualTo(1);
+			assertThat(splitter.get(0)).isSameAs(data);
+		}
+
+		assertThat(UploadSplitter.split("access-logs", "", 1000).get(0)).isEmpty();
+	}
+
+	@Test
+	public void testCsv() throws IOException {
+		String header = "session-id;start-micros;uri\n";
+		StringBuilder data = new StringBuilder(header);
+
+		for (int i = 0; i < 100; i++) {
+			data.append("s").append(i).append(";").append(i * 1000).append(";");
+
+			if ((i % 10) == 0) {
+				data.append("\"/quoted\nline;").append(i).append("\"\n");
+			} else {
+				data.append("/path/").append(i).append("\n");
+			}
+		}
+
+		List<String> parts = parts(UploadSplitter.split("csv", data.toString(), 200));
+		StringBuilder joined = new StringBuilder(header);
+
+		assertThat(parts.size()).isGreaterThan(1);
+
+		for (String part : parts) {
+			assertThat(part).startsWith(header);
+			assertThat(part.length()).isLessThanOrEqualTo(200);
+			assertThat(part.chars().filter(c -> c == '"').count() % 2).isEqualTo(0);
+
+			joined.append(part.substring(header.length()));
+		}
+
+		assertThat(joined.toString()).isEqualTo(data.toString());
+	}
+
+	@Test
+	public void testOpenXtrace() throws IOException {
+		ArrayNode array = mapper.createArrayNode();
+
+		for (int i = 0; i < 200; i++) {
+			array.addObject().put("traceId", i).putArray("children").addObject().put("text", "[{\"nested\": " + i + "}]");
+		}
+
+		array.addNull();
+		array.add(42);
+
+		String data = mapper.writerWithDefaultPrettyPrinter().writeValueAsString(array);
+		List<String> parts = parts(UploadSplitter.split("open-xtrace", data, 1000));
+		ArrayNode joined = mapper.createArrayNode();
+
+		assertThat(parts.size()).isGreaterThan(1);
+
+		for (String part : parts) {
+			JsonNode node = mapper.readTree(part);
+
+			assertThat(part.length()).isLessThanOrEqualTo(1000);
+			assertThat(node.isArray()).isTrue();
+
+			joined.addAll((ArrayNode) node);
+		}
+
+		assertThat(joined).isEqualTo(array);
+	}
+
+	@Test
+	public void testSingleTraceObject() throws IOException {
+		String data = "{\"traceId\": 1, \"text\": \"" + repeat('x', 100) + "\"}";
+		UploadSplitter splitter = UploadSplitter.split("open-xtrace", data, 10);
+
+		assertThat(splitter.size()).isEqualTo(1);
+		assertThat(splitter.get(0)).isEqualTo(data);
+	}
+
+	private List<String> parts(UploadSplitter splitter) {
+		List<String> parts = new ArrayList<>();
+
+		for (int i = 0; i < splitter.size(); i++) {
+			parts.add(splitter.get(i));
+		}
+
+		return parts;
+	}
+
+	private String repeat(char c, int times) {
+		StringBuilder builder = new StringBuilder();
+
+		for (int i = 0; i < times; i++) {
+			builder.append(c);
+		}
+
+		return builder.toString();
+	}
+
+}
@@ -0,0 +1,56 @@
+package org.continuity.idpa.amqp;
+
+import org.continuity.api.amqp.AmqpApi;
+import org.continuity.idpa.AppId;
+import org.continuity.idpa.VersionOrTimestamp;
+import org.continuity.idpa.storage.IdpaStorage;
+import org.continuity.idpa.storage.IdpaStorageListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.AmqpTemplate;
+
+/**
+ * Publishes an event whenever an application or annotation has been changed in the
+ * {@link IdpaStorage}, so that other services can invalidate cached models.
+ *
+ * @author Henning Schulz
+ *
+ */
+public class IdpaChangeNotifier implements IdpaStorageListener {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(IdpaChangeNotifier.class);
+
+	private final AmqpTemplate amqpTemplate;
+
+	public IdpaChangeNotifier(IdpaStorage storage, AmqpTemplate amqpTemplate) {
+		this.amqpTemplate = amqpTemplate;
+		storage.registerListener(this);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void onApplicationChanged(AppId aid, VersionOrTimestamp version) {
+		notifyChange(aid, version, AmqpApi.Idpa.CHANGED_APPLICATION);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void onAnnotationChanged(AppId aid, VersionOrTimestamp version) {
+		notifyChange(aid, version, AmqpApi.Idpa.CHANGED_ANNOTATION);
+	}
+
+	private void notifyChange(AppId aid, VersionOrTimestamp version, String changed) {
+		try {
+			amqpTemplate.convertAndSend(AmqpApi.Idpa.EVENT_CHANGED.name(), AmqpApi.Idpa.EVENT_CHANGED.formatRoutingKey().of(aid, version), changed);
+		} catch (AmqpException e) {
+			LOGGER.warn("{}@{}: Could not publish the change of the {}! Cached models might be outdated.", aid, version, changed);
+			LOGGER.warn("Exception:", e);
+		}
+	}
+
+}
@@ -1,7 +1,9 @@
 package org.continuity.idpa.config;
 
+import org.continuity.api.amqp.AmqpApi;
 import org.springframework.amqp.core.AmqpTemplate;
 import org.springframework.amqp.core.MessagePostProcessor;
+import org.springframework.amqp.core.TopicExchange;
 import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
@@ -51,4 +53,9 @@ public class RabbitMqConfig {
 		return rabbitTemplate;
 	}
 
+	@Bean
+	TopicExchange eventChangedExchange() {
+		return AmqpApi.Idpa.EVENT_CHANGED.create();
+	}
+
 }
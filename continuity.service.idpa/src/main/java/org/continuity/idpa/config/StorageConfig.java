@@ -1,8 +1,10 @@
 package org.continuity.idpa.config;
 
+import org.continuity.idpa.amqp.IdpaChangeNotifier;
 import org.continuity.idpa.storage.AnnotationStorageManager;
 import org.continuity.idpa.storage.ApplicationStorageManager;
 import org.continuity.idpa.storage.IdpaStorage;
+import org.springframework.amqp.core.AmqpTemplate;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -29,4 +31,9 @@ public class StorageConfig {
 		return new AnnotationStorageManager(storage);
 	}
 
+	@Bean
+	IdpaChangeNotifier idpaChangeNotifier(IdpaStorage storage, AmqpTemplate amqpTemplate) {
+		return new IdpaChangeNotifier(storage, amqpTemplate);
+	}
+
 }
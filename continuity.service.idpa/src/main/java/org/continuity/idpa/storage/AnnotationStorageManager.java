@@ -173,7 +173,7 @@ public class AnnotationStorageManager implements IdpaStorageListener {
 
 		IdpaEntry curr = null;
 
-		while (it.hasNext() && ((curr == null) || curr.getApplication().getVersionOrTimestamp().after(version))) {
+		while (it.hasNext() && ((curr == null) || curr.getApplicationVersion().after(version))) {
 			curr = it.next();
 		}
 
@@ -181,7 +181,7 @@ public class AnnotationStorageManager implements IdpaStorageListener {
 			consumer.accept(aid, curr);
 		}
 
-		while (it.hasNext() && (curr != null) && curr.getApplication().getVersionOrTimestamp().equals(version)) {
+		while (it.hasNext() && (curr != null) && version.equals(curr.getApplicationVersion())) {
 			curr = it.next();
 			consumer.accept(aid, curr);
 		}
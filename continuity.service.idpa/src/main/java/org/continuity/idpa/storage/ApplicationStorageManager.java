@@ -60,9 +60,11 @@ public class ApplicationStorageManager {
 		ApplicationChangeReport report = ApplicationChangeReport.empty(application.getVersionOrTimestamp());
 
 		Idpa before = repository.readLatestBefore(aid, application.getVersionOrTimestamp());
+		// each access parses a new copy, so we parse only once
+		Application beforeApplication = before == null ? null : before.getApplication();
 
 		if (before != null) {
-			detector.compareTo(before.getApplication());
+			detector.compareTo(beforeApplication);
 			report = detector.getReport();
 		} else {
 			report = ApplicationChangeReport.allOf(application);
@@ -91,7 +93,7 @@ public class ApplicationStorageManager {
 					consideredChangeTypes.removeAll(ignoredChanges);
 
 					ApplicationUpdater updater = new ApplicationUpdater();
-					report = updater.updateApplication(before.getApplication(), application, consideredChangeTypes);
+					report = updater.updateApplication(beforeApplication, application, consideredChangeTypes);
 					updatedApplication = report.getUpdatedApplication();
 				}
 
@@ -113,7 +115,7 @@ public class ApplicationStorageManager {
 			}
 		} else {
 			LOGGER.info("Nothing changed for app-id {} and timestamp {} compared to {}.", aid, application.getVersionOrTimestamp(),
-					(before == null ? "(none)" : before.getApplication().getVersionOrTimestamp()));
+					(before == null ? "(none)" : beforeApplication.getVersionOrTimestamp()));
 		}
 
 		return report;
@@ -2,6 +2,7 @@ package org.continuity.idpa.storage;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.NotDirectoryException;
 import java.nio.file.Path;
@@ -14,13 +15,17 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.ListIterator;
 import java.util.Map;
-import java.util.Objects;
-import java.util.stream.Collectors;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import org.apache.commons.io.FileUtils;
 import org.continuity.idpa.AppId;
 import org.continuity.idpa.Idpa;
+import org.continuity.idpa.IdpaElement;
 import org.continuity.idpa.VersionOrTimestamp;
 import org.continuity.idpa.annotation.ApplicationAnnotation;
 import org.continuity.idpa.application.Application;
@@ -30,7 +35,13 @@ import org.slf4j.LoggerFactory;
 
 /**
  * Stores IDPAs in different versions in a folder structure. For versioning, the version or
- * timestamp when a model was created is used.
+ * timestamp when a model was created is used. <br>
+ *
+ * The versions of each app-id are held in an in-memory index, which is rebuilt with a single
+ * directory listing after a change. Hence, looking up a version does not access the disk as long
+ * as nothing changed. The model files are read lazily and cached as text. Each access to a model
+ * parses a new copy from the cached text, so that readers can modify it without affecting each
+ * other. As parsing is not for free, callers should access a model once and reuse the copy.
  *
  * @author Henning Schulz
  *
@@ -52,7 +63,9 @@ public class IdpaStorage {
 
 	private final Path storagePath;
 
-	private final List<IdpaStorageListener> listeners = new ArrayList<>();
+	private final List<IdpaStorageListener> listeners = new CopyOnWriteArrayList<>();
+
+	private final ConcurrentMap<AppId, VersionIndex> indexes = new ConcurrentHashMap<>();
 
 	public IdpaStorage(String storagePath) {
 		this(Paths.get(storagePath));
@@ -67,6 +80,8 @@ public class IdpaStorage {
 		this.appSerializer = appSerializer;
 		this.annSerializer = annSerializer;
 
+		registerListener(new IndexInvalidator());
+
 		LOGGER.info("Using storage path {}.", storagePath.toAbsolutePath());
 	}
 
@@ -153,8 +168,7 @@ public class IdpaStorage {
 	 * @throws IOException
 	 */
 	public void markAsBroken(AppId aid, VersionOrTimestamp version) throws IOException {
-		Path path = getDirPath(aid, version).resolve(BROKEN_FILE_NAME);
-		Files.write(path, Collections.singletonList(BROKEN_CONTENT), StandardOpenOption.CREATE);
+		getIndex(aid).setBroken(version, true);
 	}
 
 	/**
@@ -167,8 +181,7 @@ public class IdpaStorage {
 	 * @throws IOException
 	 */
 	public boolean unmarkAsBroken(AppId aid, VersionOrTimestamp version) throws IOException {
-		Path path = getDirPath(aid, version).resolve(BROKEN_FILE_NAME);
-		return Files.deleteIfExists(path);
+		return getIndex(aid).setBroken(version, false);
 	}
 
 	/**
@@ -188,7 +201,8 @@ public class IdpaStorage {
 	 *
 	 * @param aid
 	 *            The app-id of the IDPA.
-	 * @return An <b>immutable</b> IDPA.
+	 * @return The IDPA, which cannot be modified. Each access to its application or annotation
+	 *         returns a new copy, though.
 	 */
 	public Idpa readLatest(AppId aid) {
 		return readLatestBefore(aid, VersionOrTimestamp.MAX_VALUE);
@@ -201,18 +215,16 @@ public class IdpaStorage {
 	 *            The app-id of the IDPA.
 	 * @param version
 	 *            The version to compare with.
-	 * @return An <b>immutable</b> IDPA.
+	 * @return The IDPA, which cannot be modified. Each access to its application or annotation
+	 *         returns a new copy, though.
 	 * @throws IOException
 	 *             If an error during reading the IDPA occurs.
 	 */
 	public Idpa readLatestBefore(AppId aid, VersionOrTimestamp version) {
-		for (IdpaEntry entry : iterate(aid)) {
-			if (!version.before(entry.getVersionOrTimestamp())) {
-				return entry;
-			}
-		}
+		List<IdpaEntry> entries = getEntries(aid);
+		int index = indexOfLatestBefore(entries, version);
 
-		return null;
+		return index < 0 ? null : entries.get(index);
 	}
 
 	/**
@@ -222,22 +234,16 @@ public class IdpaStorage {
 	 *            The app-id of the IDPA.
 	 * @param version
 	 *            The version to compare with.
-	 * @return An <b>immutable</b> IDPA.
+	 * @return The IDPA, which cannot be modified. Each access to its application or annotation
+	 *         returns a new copy, though.
 	 * @throws IOException
 	 *             If an error during reading the IDPA occurs.
 	 */
 	public Idpa readOldestAfter(AppId aid, VersionOrTimestamp version) {
-		IdpaEntry next = null;
+		List<IdpaEntry> entries = getEntries(aid);
+		int index = indexOfLatestBefore(entries, version) + 1;
 
-		for (IdpaEntry entry : iterate(aid)) {
-			if (!version.before(entry.getVersionOrTimestamp())) {
-				return next;
-			}
-
-			next = entry;
-		}
-
-		return next;
+		return index < entries.size() ? entries.get(index) : null;
 	}
 
 	/**
@@ -263,17 +269,19 @@ public class IdpaStorage {
 		}
 
 		Idpa idpa = readLatestBefore(aid, oldVersion);
-		Application application = idpa.getApplication();
+		Application application = idpa == null ? null : idpa.getApplication();
 
-		if (!oldVersion.equals(application.getVersionOrTimestamp())) {
+		if ((application == null) || !oldVersion.equals(application.getVersionOrTimestamp())) {
 			throw new IllegalArgumentException("There is no application model with app-id " + aid + " at version " + oldVersion + "!");
 		}
 
+		ApplicationAnnotation annotation = idpa.getAnnotation();
+
 		application.setVersionOrTimestamp(newVersion);
 		save(aid, application);
 
-		if (idpa.getAnnotation() != null) {
-			save(aid, newVersion, idpa.getAnnotation());
+		if (annotation != null) {
+			save(aid, newVersion, annotation);
 		}
 
 		delete(aid, oldVersion);
@@ -281,6 +289,7 @@ public class IdpaStorage {
 
 	private void delete(AppId aid, VersionOrTimestamp version) throws IOException {
 		FileUtils.deleteDirectory(getDirPath(aid).resolve(version.toString()).toFile());
+		getIndex(aid).invalidate(version, true, true);
 	}
 
 	private Path getDirPath(AppId aid) throws NotDirectoryException {
@@ -312,58 +321,196 @@ public class IdpaStorage {
 		}
 	}
 
+
 	/**
 	 * Returns an {@link Iterable} allowing to iterate over all IDPAs in combination with the
 	 * created version. The models are traversed in descending order. That is, the newest model
-	 * comes first.
+	 * comes first. Each iterator traverses the versions that are known when it is created.
 	 *
 	 * @param aid
 	 *            The app-id of the application models to be iterated.
 	 * @return An iterator.
 	 */
 	public Iterable<IdpaEntry> iterate(AppId aid) {
-		return new ApplicationIterable(aid);
+		return () -> {
+			List<IdpaEntry> entries = getEntries(aid);
+			ListIterator<IdpaEntry> it = entries.listIterator(entries.size());
+
+			return new Iterator<IdpaEntry>() {
+
+				@Override
+				public boolean hasNext() {
+					return it.hasPrevious();
+				}
+
+				@Override
+				public IdpaEntry next() {
+					return it.previous();
+				}
+
+			};
+		};
 	}
 
-	private class ApplicationIterable implements Iterable<IdpaEntry> {
+	/**
+	 * Gets the index of the latest entry that is not after the specified version.
+	 *
+	 * @param entries
+	 *            The entries in ascending order.
+	 * @param version
+	 *            The version to compare with.
+	 * @return The index or -1 if all entries are after the version.
+	 */
+	private static int indexOfLatestBefore(List<IdpaEntry> entries, VersionOrTimestamp version) {
+		int low = 0;
+		int high = entries.size() - 1;
 
-		private final AppId aid;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
 
-		public ApplicationIterable(AppId aid) {
-			this.aid = aid;
+			if (version.before(entries.get(mid).getVersionOrTimestamp())) {
+				high = mid - 1;
+			} else {
+				low = mid + 1;
+			}
 		}
 
-		/**
-		 * {@inheritDoc}
-		 */
+		return high;
+	}
+
+	private List<IdpaEntry> getEntries(AppId aid) {
+		try {
+			return getIndex(aid).getEntries();
+		} catch (NotDirectoryException e) {
+			LOGGER.error("Cannot iterate over application models of app-id {}!", aid);
+			return Collections.emptyList();
+		}
+	}
+
+	private VersionIndex getIndex(AppId aid) {
+		return indexes.computeIfAbsent(aid, VersionIndex::new);
+	}
+
+	/**
+	 * Invalidates the index on every change. Registered as first listener, so that other listeners
+	 * already see the changes.
+	 */
+	private class IndexInvalidator implements IdpaStorageListener {
+
 		@Override
-		public Iterator<IdpaEntry> iterator() {
-			try {
-				return new ApplicationIterator(aid);
-			} catch (NotDirectoryException e) {
-				LOGGER.error("Cannot iterate over application models of app-id {}!", aid);
-				return null;
-			}
+		public void onApplicationChanged(AppId aid, VersionOrTimestamp version) {
+			getIndex(aid).invalidate(version, true, false);
+		}
+
+		@Override
+		public void onAnnotationChanged(AppId aid, VersionOrTimestamp version) {
+			getIndex(aid).invalidate(version, false, true);
 		}
 
 	}
 
-	private class ApplicationIterator implements Iterator<IdpaEntry> {
+	/**
+	 * In-memory index of the stored versions of one app-id. The entries are built with one listing
+	 * of the app-id directory and reused until the next change. The cached model files are shared
+	 * between the entries and subsequent rebuilds as long as they did not change.
+	 *
+	 * @author Henning Schulz
+	 *
+	 */
+	private class VersionIndex {
 
 		private final AppId aid;
-		private final Iterator<VersionOrTimestamp> versionIterator;
-		private final Map<VersionOrTimestamp, Path> appPerVersion;
 
-		public ApplicationIterator(AppId aid) throws NotDirectoryException {
+		/**
+		 * Ascending list of entries or {@code null} if it needs to be rebuilt.
+		 */
+		private volatile List<IdpaEntry> entries = null;
+
+		private Map<VersionOrTimestamp, LazyModel<Application>> applications = new HashMap<>();
+
+		private Map<VersionOrTimestamp, LazyModel<ApplicationAnnotation>> annotations = new HashMap<>();
+
+		private VersionIndex(AppId aid) {
 			this.aid = aid;
+		}
+
+		private List<IdpaEntry> getEntries() throws NotDirectoryException {
+			List<IdpaEntry> current = entries;
 
+			if (current == null) {
+				synchronized (this) {
+					current = entries;
+
+					if (current == null) {
+						current = rebuild();
+						entries = current;
+					}
+				}
+			}
+
+			return current;
+		}
+
+		private List<IdpaEntry> rebuild() throws NotDirectoryException {
 			Path dir = getDirPath(aid);
-			List<VersionOrTimestamp> versions = Arrays.stream(dir.toFile().list()).filter(d -> !d.startsWith(".")).map(this::extractVersion).filter(Objects::nonNull).collect(Collectors.toList());
-			Collections.sort(versions);
-			this.appPerVersion = findApplicationPerVersion(dir, versions);
+			String[] folders = dir.toFile().list();
+			Map<VersionOrTimestamp, String> folderPerVersion = new TreeMap<>();
+
+			if (folders != null) {
+				Arrays.stream(folders).filter(d -> !d.startsWith(".")).forEach(d -> {
+					VersionOrTimestamp version = extractVersion(d);
+
+					if (version != null) {
+						folderPerVersion.put(version, d);
+					}
+				});
+			}
+
+			Map<VersionOrTimestamp, LazyModel<Application>> newApplications = new HashMap<>();
+			Map<VersionOrTimestamp, LazyModel<ApplicationAnnotation>> newAnnotations = new HashMap<>();
+			List<IdpaEntry> newEntries = new ArrayList<>(folderPerVersion.size());
+
+			Path appPath = null;
+			LazyModel<Application> application = null;
+
+			for (Map.Entry<VersionOrTimestamp, String> folder : folderPerVersion.entrySet()) {
+				VersionOrTimestamp version = folder.getKey();
+				Path path = dir.resolve(folder.getValue());
+
+				if (Files.exists(path.resolve(APPLICATION_FILE_NAME))) {
+					appPath = path;
+					application = reuseOrCreate(applications, version, appSerializer, path.resolve(APPLICATION_FILE_NAME));
+					newApplications.put(version, application);
+				}
+
+				LazyModel<ApplicationAnnotation> annotation = null;
+
+				if (Files.exists(path.resolve(ANNOTATION_FILE_NAME))) {
+					annotation = reuseOrCreate(annotations, version, annSerializer, path.resolve(ANNOTATION_FILE_NAME));
+					newAnnotations.put(version, annotation);
+				}
+
+				boolean broken = Files.exists(path.resolve(BROKEN_FILE_NAME));
 
-			Collections.reverse(versions);
-			this.versionIterator = versions.iterator();
+				newEntries.add(new IdpaEntry(version, appPath, path, application, annotation, broken));
+			}
+
+			this.applications = newApplications;
+			this.annotations = newAnnotations;
+
+			LOGGER.debug("Indexed {} versions of app-id {}.", newEntries.size(), aid);
+
+			return Collections.unmodifiableList(newEntries);
+		}
+
+		private <T extends IdpaElement> LazyModel<T> reuseOrCreate(Map<VersionOrTimestamp, LazyModel<T>> models, VersionOrTimestamp version, IdpaYamlSerializer<T> serializer, Path path) {
+			LazyModel<T> model = models.get(version);
+
+			if ((model == null) || !model.path.equals(path)) {
+				model = new LazyModel<>(serializer, path, version);
+			}
+
+			return model;
 		}
 
 		private VersionOrTimestamp extractVersion(String string) {
@@ -376,115 +523,156 @@ public class IdpaStorage {
 			return null;
 		}
 
-		private Map<VersionOrTimestamp, Path> findApplicationPerVersion(Path dir, List<VersionOrTimestamp> versions) {
-			Map<VersionOrTimestamp, Path> appPerVersion = new HashMap<>();
-			VersionOrTimestamp versionOfLastApp = null;
-
-			for (VersionOrTimestamp v : versions) {
-				if (dir.resolve(v.toString()).resolve(APPLICATION_FILE_NAME).toFile().exists()) {
-					versionOfLastApp = v;
-				}
+		/**
+		 * Marks the index to be rebuilt and drops the models of the changed version.
+		 */
+		private synchronized void invalidate(VersionOrTimestamp version, boolean application, boolean annotation) {
+			entries = null;
 
-				appPerVersion.put(v, dir.resolve(versionOfLastApp.toString()));
+			if (application) {
+				applications.remove(version);
 			}
 
-			return appPerVersion;
+			if (annotation) {
+				annotations.remove(version);
+			}
 		}
 
 		/**
-		 * {@inheritDoc}
+		 * Updates the broken mark of a version while holding the lock of the index, so that the
+		 * entries are consistent with the stored marks.
 		 */
-		@Override
-		public boolean hasNext() {
-			return versionIterator.hasNext();
+		private synchronized boolean setBroken(VersionOrTimestamp version, boolean broken) throws IOException {
+			Path path = getDirPath(aid, version).resolve(BROKEN_FILE_NAME);
+			boolean changed;
+
+			if (broken) {
+				Files.write(path, Collections.singletonList(BROKEN_CONTENT), StandardOpenOption.CREATE);
+				changed = true;
+			} else {
+				changed = Files.deleteIfExists(path);
+			}
+
+			List<IdpaEntry> current = entries;
+
+			if (current != null) {
+				int index = indexOfLatestBefore(current, version);
+
+				if ((index >= 0) && current.get(index).getVersionOrTimestamp().equals(version)) {
+					current.get(index).broken = broken;
+				} else {
+					entries = null;
+				}
+			}
+
+			return changed;
 		}
 
-		/**
-		 * {@inheritDoc}
-		 */
-		@Override
-		public IdpaEntry next() {
-			VersionOrTimestamp version = versionIterator.next();
-			String folder = version.toString();
+	}
+
+	/**
+	 * Reads the serialized model on first access and holds it afterwards. Each access parses a new
+	 * instance of the model, as the models are mutable and must not be shared between readers.
+	 *
+	 * @author Henning Schulz
+	 *
+	 * @param <T>
+	 *            The type of the model.
+	 */
+	private static class LazyModel<T extends IdpaElement> {
+
+		private final IdpaYamlSerializer<T> serializer;
 
-			Path path;
+		private final Path path;
+
+		private final VersionOrTimestamp version;
+
+		private volatile String yaml = null;
+
+		private LazyModel(IdpaYamlSerializer<T> serializer, Path path, VersionOrTimestamp version) {
+			this.serializer = serializer;
+			this.path = path;
+			this.version = version;
+		}
+
+		private T get() {
 			try {
-				path = getDirPath(aid).resolve(folder);
-			} catch (NotDirectoryException e) {
-				LOGGER.error("Could not read application {} for app-id {}! Returning null.", folder, aid);
+				return serializer.readFromYamlString(getYaml());
+			} catch (IOException e) {
+				LOGGER.error("Could not read model from {}! Returning null.", path);
 				LOGGER.error("Exception: ", e);
 				return null;
 			}
+		}
 
-			IdpaEntry entry = IdpaEntry.of(IdpaStorage.this, version, path);
-			entry.setAppPath(appPerVersion.get(entry.getVersionOrTimestamp()));
+		private String getYaml() throws IOException {
+			String current = yaml;
 
-			return entry;
+			if (current == null) {
+				synchronized (this) {
+					current = yaml;
+
+					if (current == null) {
+						current = new String(Files.readAllBytes(path), StandardCharsets.UTF_8);
+						yaml = current;
+					}
+				}
+			}
+
+			return current;
 		}
 
 	}
 
 	/**
-	 * Holds a application model in combination with the version when it was created.
+	 * Holds a application model in combination with the version when it was created. The entries
+	 * are shared between all readers, but each call of {@link #getApplication()} and
+	 * {@link #getAnnotation()} returns a new copy of the model, which can be modified freely.
 	 *
 	 * @author Henning Schulz
 	 *
 	 */
 	public static class IdpaEntry extends Idpa {
 
-		private final IdpaYamlSerializer<Application> appSerializer;
-
-		private final IdpaYamlSerializer<ApplicationAnnotation> annSerializer;
-
-		private Path appPath;
-		private Path annPath;
+		private final Path appPath;
+		private final Path annPath;
 
-		private IdpaEntry(IdpaStorage storage, VersionOrTimestamp version, Path path) {
-			this.appPath = path;
-			this.annPath = path;
+		private final LazyModel<Application> application;
+		private final LazyModel<ApplicationAnnotation> annotation;
 
-			this.appSerializer = storage.appSerializer;
-			this.annSerializer = storage.annSerializer;
+		private volatile boolean broken;
 
-			this.setVersionOrTimestamp(version);
-		}
+		private IdpaEntry(VersionOrTimestamp version, Path appPath, Path annPath, LazyModel<Application> application, LazyModel<ApplicationAnnotation> annotation, boolean broken) {
+			this.appPath = appPath;
+			this.annPath = annPath;
+			this.application = application;
+			this.annotation = annotation;
+			this.broken = broken;
 
-		private static IdpaEntry of(IdpaStorage storage, VersionOrTimestamp version, Path path) {
-			return new IdpaEntry(storage, version, path);
+			super.setVersionOrTimestamp(version);
 		}
 
 		@Override
 		public Application getApplication() {
-			if (appPath == null) {
-				return null;
-			}
-
-			try {
-				return appSerializer.readFromYaml(appPath.resolve(APPLICATION_FILE_NAME));
-			} catch (IOException e) {
-				LOGGER.error("Could not read application model from {}! Returning null.", appPath);
-				e.printStackTrace();
-				return null;
-			}
+			return application == null ? null : application.get();
 		}
 
 		@Override
 		public ApplicationAnnotation getAnnotation() {
-			if (!hasAnnotation()) {
-				return null;
-			}
+			return annotation == null ? null : annotation.get();
+		}
 
-			try {
-				return annSerializer.readFromYaml(annPath.resolve(ANNOTATION_FILE_NAME));
-			} catch (IOException e) {
-				LOGGER.error("Could not read annotation from {}! Returning null.", annPath);
-				e.printStackTrace();
-				return null;
-			}
+		/**
+		 * Gets the version of the application model without reading it.
+		 *
+		 * @return The version or {@code null} if there is no application model.
+		 */
+		public VersionOrTimestamp getApplicationVersion() {
+			return application == null ? null : application.version;
 		}
 
 		public boolean hasAnnotation() {
-			return (annPath != null) && annPath.resolve(ANNOTATION_FILE_NAME).toFile().exists();
+			return annotation != null;
 		}
 
 		public Path getAppPath() {
@@ -495,16 +683,8 @@ public class IdpaStorage {
 			return annPath;
 		}
 
-		public void setAppPath(Path path) {
-			this.appPath = path;
-		}
-
-		public void setAnnPath(Path path) {
-			this.annPath = path;
-		}
-
 		public boolean isBroken() {
-			return Files.exists(annPath.resolve(BROKEN_FILE_NAME));
+			return broken;
 		}
 
 		@Override
@@ -516,6 +696,11 @@ public class IdpaStorage {
 			return super.checkAdditionalFlag(key);
 		}
 
+		@Override
+		public void setVersionOrTimestamp(VersionOrTimestamp version) {
+			throw new UnsupportedOperationException("Cannot set the version of an IdpaStorage.IdpaEntry!");
+		}
+
 		@Override
 		public void setApplication(Application application) {
 			throw new UnsupportedOperationException("Cannot set the application of an IdpaStorage.IdpaEntry!");
@@ -526,6 +711,11 @@ public class IdpaStorage {
 			throw new UnsupportedOperationException("Cannot set the annotation of an IdpaStorage.IdpaEntry!");
 		}
 
+		@Override
+		public void addAdditionalFlag(String key, boolean value) {
+			throw new UnsupportedOperationException("Cannot add flags to an IdpaStorage.IdpaEntry!");
+		}
+
 	}
 
 }
@@ -0,0 +1,111 @@
+package org.continuity.idpa.storage;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.continuity.idpa.StaticIdpaTestInstance.APP_ID;
+import static org.continuity.idpa.StaticIdpaTestInstance.FIRST;
+import static org.continuity.idpa.StaticIdpaTestInstance.SECOND;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Random;
+
+import org.apache.commons.io.FileUtils;
+import org.continuity.idpa.Idpa;
+import org.continuity.idpa.VersionOrTimestamp;
+import org.continuity.idpa.application.Application;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ *
+ * @author Henning Schulz
+ *
+ */
+public class IdpaStorageTest {
+
+	private Path storageDir;
+
+	private IdpaStorage storage;
+
+	@Before
+	public void setup() {
+		storageDir = Paths.get("IdpaStorageTest-" + new Random().nextInt());
+		storage = new IdpaStorage(storageDir);
+	}
+
+	@After
+	public void cleanup() throws IOException {
+		FileUtils.deleteDirectory(storageDir.toFile());
+	}
+
+	@Test
+	public void testModelsAreCopiedOnAccess() throws IOException {
+		Application first = FIRST.getApplication();
+		storage.save(APP_ID, first);
+		storage.save(APP_ID, FIRST.getAnnotation());
+
+		Idpa idpa = storage.readLatest(APP_ID);
+		Application application = idpa.getApplication();
+		int numEndpoints = application.getEndpoints().size();
+
+		assertThat(storage.readLatest(APP_ID)).isSameAs(idpa);
+		assertThat(idpa.getApplication()).isNotSameAs(application);
+		assertThat(idpa.getAnnotation()).isNotSameAs(idpa.getAnnotation());
+		assertThat(((IdpaStorage.IdpaEntry) idpa).getApplicationVersion()).isEqualTo(first.getVersionOrTimestamp());
+
+		application.getEndpoints().clear();
+
+		assertThat(storage.readLatest(APP_ID).getApplication().getEndpoints()).hasSize(numEndpoints);
+	}
+
+	@Test
+	public void testModelsAreCachedWhileUnchanged() throws IOException {
+		Application first = FIRST.getApplication();
+		storage.save(APP_ID, first);
+
+		Idpa idpa = storage.readLatest(APP_ID);
+		idpa.getApplication();
+
+		Files.delete(((IdpaStorage.IdpaEntry) idpa).getAppPath().resolve("application.yml"));
+
+		assertThat(storage.readLatest(APP_ID).getApplication().getVersionOrTimestamp()).isEqualTo(first.getVersionOrTimestamp());
+	}
+
+	@Test
+	public void testChangesInvalidateTheIndex() throws IOException {
+		Application first = FIRST.getApplication();
+		Application second = SECOND.getApplication();
+		storage.save(APP_ID, first);
+
+		Idpa before = storage.readLatest(APP_ID);
+		assertThat(before.getVersionOrTimestamp()).isEqualTo(first.getVersionOrTimestamp());
+		assertThat(before.getAnnotation()).isNull();
+
+		storage.save(APP_ID, second);
+
+		assertThat(storage.readLatest(APP_ID).getVersionOrTimestamp()).isEqualTo(second.getVersionOrTimestamp());
+		assertThat(storage.readOldestAfter(APP_ID, first.getVersionOrTimestamp()).getVersionOrTimestamp()).isEqualTo(second.getVersionOrTimestamp());
+		assertThat(storage.readLatestBefore(APP_ID, second.getVersionOrTimestamp()).getApplication().getVersionOrTimestamp()).isEqualTo(second.getVersionOrTimestamp());
+		assertThat(storage.readLatestBefore(APP_ID, first.getVersionOrTimestamp()).getApplication().getVersionOrTimestamp()).isEqualTo(first.getVersionOrTimestamp());
+	}
+
+	@Test
+	public void testBrokenMark() throws IOException {
+		Application first = FIRST.getApplication();
+		VersionOrTimestamp version = first.getVersionOrTimestamp();
+		storage.save(APP_ID, first);
+
+		assertThat(storage.isBroken(APP_ID, version)).isFalse();
+
+		storage.markAsBroken(APP_ID, version);
+		assertThat(storage.isBroken(APP_ID, version)).isTrue();
+		assertThat(new IdpaStorage(storageDir).isBroken(APP_ID, version)).isTrue();
+
+		assertThat(storage.unmarkAsBroken(APP_ID, version)).isTrue();
+		assertThat(storage.isBroken(APP_ID, version)).isFalse();
+	}
+
+}
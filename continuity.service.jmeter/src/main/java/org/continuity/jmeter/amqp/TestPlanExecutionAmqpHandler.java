@@ -1,16 +1,13 @@
 package org.continuity.jmeter.amqp;
 
 import java.io.IOException;
-import java.nio.charset.Charset;
+import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.commons.io.FileUtils;
-import org.apache.jmeter.JMeter;
-import org.apache.jmeter.engine.StandardJMeterEngine;
-import org.apache.jmeter.testelement.TestStateListener;
+import org.apache.jmeter.save.SaveService;
+import org.apache.jorphan.collections.ListedHashTree;
 import org.continuity.api.amqp.AmqpApi;
 import org.continuity.api.entities.artifact.JMeterTestPlanBundle;
 import org.continuity.api.entities.config.TaskDescription;
@@ -22,10 +19,14 @@ import org.continuity.api.entities.report.TaskReport;
 import org.continuity.api.rest.RestApi;
 import org.continuity.commons.jmeter.JMeterPropertiesCorrector;
 import org.continuity.commons.jmeter.TestPlanWriter;
-import org.continuity.commons.storage.MemoryStorage;
 import org.continuity.commons.storage.MixedStorage;
 import org.continuity.commons.utils.JMeterUtils;
 import org.continuity.jmeter.config.RabbitMqConfig;
+import org.continuity.jmeter.execution.ExecutionListener;
+import org.continuity.jmeter.execution.JMeterExecutionManager;
+import org.continuity.jmeter.report.ReportStorage;
+import org.continuity.jmeter.report.ResultAggregator;
+import org.continuity.jmeter.report.ResultsFollower;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.amqp.AmqpException;
@@ -33,6 +34,7 @@ import org.springframework.amqp.core.AmqpTemplate;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 /**
@@ -55,14 +57,15 @@ public class TestPlanExecutionAmqpHandler {
 	private MixedStorage<JMeterTestPlanBundle> testplanStorage;
 
 	@Autowired
-	@Qualifier("reportStorage")
-	private MemoryStorage<String> reportStorage;
+	private ReportStorage reportStorage;
 
-	private JMeterPropertiesCorrector jmeterPropertiesCorrector = new JMeterPropertiesCorrector();
+	@Value("${report.throughput-resolution:1000}")
+	private long throughputResolution;
 
-	private final ConcurrentHashMap<Integer, Boolean> runningTests = new ConcurrentHashMap<>();
+	@Autowired
+	private JMeterExecutionManager executionManager;
 
-	private final AtomicInteger testCounter = new AtomicInteger(0);
+	private JMeterPropertiesCorrector jmeterPropertiesCorrector = new JMeterPropertiesCorrector();
 
 	/**
 	 * Listens to the {@link RabbitMqConfig#TASK_EXECUTE_QUEUE_NAME} queue and executes the JMeter
@@ -79,146 +82,152 @@ public class TestPlanExecutionAmqpHandler {
 		if (loadTestType != LoadTestType.JMETER) {
 			LOGGER.error("Task {}: Cannot execute {} tests!", task.getTaskId(), loadTestType);
 
-			TaskReport report = TaskReport.error(task.getTaskId(), TaskError.ILLEGAL_TYPE);
-			amqpTemplate.convertAndSend(AmqpApi.Global.EVENT_FINISHED.name(), AmqpApi.Global.EVENT_FINISHED.formatRoutingKey().of(RabbitMqConfig.SERVICE_NAME), report);
+			sendReport(TaskReport.error(task.getTaskId(), TaskError.ILLEGAL_TYPE));
 			return;
 		}
 
 		if (jmeterLink == null) {
 			LOGGER.error("Task {}: Cannot execute test. jmeter-link is null!", task.getTaskId());
 
-			TaskReport report = TaskReport.error(task.getTaskId(), TaskError.MISSING_SOURCE);
-			amqpTemplate.convertAndSend(AmqpApi.Global.EVENT_FINISHED.name(), AmqpApi.Global.EVENT_FINISHED.formatRoutingKey().of(RabbitMqConfig.SERVICE_NAME), report);
+			sendReport(TaskReport.error(task.getTaskId(), TaskError.MISSING_SOURCE));
 			return;
 		}
 
 		String storageId = jmeterLink.substring(jmeterLink.lastIndexOf("/") + 1);
 		JMeterTestPlanBundle testPlanBundle = testplanStorage.get(storageId);
 
+		Path tmpPath;
+
+		try {
+			tmpPath = Files.createTempDirectory("jmeter-test-plan");
+		} catch (IOException e) {
+			e.printStackTrace();
+			return;
+		}
+
+		Path resultsPath = tmpPath.resolve("results.csv");
+
+		// the stored test plan might be in use by other tests, so we work on an own copy
+		Path testPlanPath = testPlanWriter.write(testPlanBundle.getTestPlan(), testPlanBundle.getBehaviors(), tmpPath);
+		ListedHashTree testPlan = null;
+
+		if (testPlanPath != null) {
+			try {
+				testPlan = (ListedHashTree) SaveService.loadTree(testPlanPath.toFile());
+			} catch (IOException e) {
+				LOGGER.error("Task {}: Could not read the test plan!", task.getTaskId(), e);
+			}
+		}
+
+		if (testPlan == null) {
+			LOGGER.error("Task {}: Could not create a copy of the test plan!", task.getTaskId());
+			deleteTmpDir(task.getTaskId(), tmpPath);
+			sendReport(TaskReport.error(task.getTaskId(), TaskError.INTERNAL_ERROR));
+			return;
+		}
+
 		OrderOptions options = task.getOptions();
 
 		if (options == null) {
 			LOGGER.warn("Could not set JMeter properties, as they are null.");
 		} else {
 			if (options.getNumUsers() != null) {
-				jmeterPropertiesCorrector.setNumberOfUsers(testPlanBundle.getTestPlan(), options.getNumUsers());
+				jmeterPropertiesCorrector.setNumberOfUsers(testPlan, options.getNumUsers());
 				LOGGER.info("Set number of users to {}.", options.getNumUsers());
 			}
 			if (options.getDuration() != null) {
-				jmeterPropertiesCorrector.setDuration(testPlanBundle.getTestPlan(), options.getDuration());
+				jmeterPropertiesCorrector.setDuration(testPlan, options.getDuration());
 				LOGGER.info("Set duration to {}.", options.getDuration());
 			}
 			if (options.getRampup() != null) {
-				jmeterPropertiesCorrector.setRampup(testPlanBundle.getTestPlan(), options.getRampup());
+				jmeterPropertiesCorrector.setRampup(testPlan, options.getRampup());
 				LOGGER.info("Set rampup to {}.", options.getRampup());
 			}
 		}
 
-		Path tmpPath;
+		jmeterPropertiesCorrector.correctPaths(testPlan, tmpPath);
+		jmeterPropertiesCorrector.configureResultFile(testPlan, resultsPath);
+		jmeterPropertiesCorrector.prepareForHeadlessExecution(testPlan);
 
-		try {
-			tmpPath = Files.createTempDirectory("jmeter-test-plan");
+		// the test is executed in a separate JVM, which reads the test plan from the file
+		try (OutputStream out = Files.newOutputStream(testPlanPath)) {
+			SaveService.saveTree(testPlan, out);
 		} catch (IOException e) {
-			e.printStackTrace();
+			LOGGER.error("Task {}: Could not update the test plan at {}!", task.getTaskId(), testPlanPath, e);
+			deleteTmpDir(task.getTaskId(), tmpPath);
+			sendReport(TaskReport.error(task.getTaskId(), TaskError.INTERNAL_ERROR));
 			return;
 		}
 
-		Path resultsPath = tmpPath.resolve("results.csv");
-
-		jmeterPropertiesCorrector.correctPaths(testPlanBundle.getTestPlan(), tmpPath);
-		jmeterPropertiesCorrector.configureResultFile(testPlanBundle.getTestPlan(), resultsPath);
-		jmeterPropertiesCorrector.prepareForHeadlessExecution(testPlanBundle.getTestPlan());
-		Path testPlanPath = testPlanWriter.write(testPlanBundle.getTestPlan(), testPlanBundle.getBehaviors(), tmpPath);
 		LOGGER.info("Task {}: Created a test plan at {}.", task.getTaskId(), testPlanPath);
 
-		final int testId = testCounter.getAndIncrement();
-		runningTests.put(testId, true);
-
-		JMeter jmeter = new JMeter();
-		String[] arguments = { "-n", "-t", testPlanPath.toAbsolutePath().toString() };
+		String reportId = reportStorage.reserve(task.getAppId());
+		long duration = JMeterUtils.getDuration(testPlan);
+		long timeout = Math.min((duration * 1000) + 1800000, Math.max(300000, 2000 * duration));
 
-		StandardJMeterEngine.register(new TestStateListener() {
+		boolean accepted = executionManager.submit(task.getTaskId(), testPlanPath, timeout, new ExecutionListener() {
 
-			@Override
-			public void testStarted(String arg0) {
-				// do nothing
-			}
+			private ResultsFollower resultsFollower;
 
 			@Override
-			public void testStarted() {
-				// do nothing
+			public void executionStarted() {
+				resultsFollower = new ResultsFollower(resultsPath, reportStorage.getResultsPath(reportId), new ResultAggregator(throughputResolution));
+				resultsFollower.start();
 			}
 
 			@Override
-			public void testEnded(String arg0) {
-				testEnded();
-			}
+			public void executionEnded(boolean aborted) {
+				if (resultsFollower == null) {
+					LOGGER.warn("Task {}: The test has been cancelled before it started.", task.getTaskId());
+					deleteTmpDir(task.getTaskId(), tmpPath);
+					reportStorage.remove(reportId);
+					sendReport(TaskReport.error(task.getTaskId(), TaskError.CANCELLED));
+					return;
+				}
 
-			@Override
-			public void testEnded() {
 				try {
-					String appendix = "";
-
-					if ((runningTests.get(testId) == null) || !runningTests.get(testId)) {
-						LOGGER.warn("Task {}: The test {} has been aborted with force!", task.getTaskId(), testId);
-						appendix = "\nWARNING: The test has been aborted with force!\n";
+					if (aborted) {
+						LOGGER.warn("Task {}: The test has been aborted with force!", task.getTaskId());
 					}
 
-					runningTests.put(testId, false);
+					try {
+						reportStorage.putToReserved(reportId, resultsFollower.finish(aborted));
+					} finally {
+						// holds the test plan, the behavior files, the raw results, and the JMeter log
+						deleteTmpDir(task.getTaskId(), tmpPath);
+					}
 
-					String reportId = reportStorage.put(FileUtils.readFileToString(resultsPath.toFile(), Charset.defaultCharset()) + appendix, task.getAppId());
 					String reportLink = RestApi.JMeter.Report.GET.requestUrl(reportId).withoutProtocol().get();
 
-					TaskReport report = TaskReport.successful(task.getTaskId(), new ArtifactExchangeModel().getResultLinks().setLink(reportLink).parent());
-					amqpTemplate.convertAndSend(AmqpApi.Global.EVENT_FINISHED.name(), AmqpApi.Global.EVENT_FINISHED.formatRoutingKey().of(RabbitMqConfig.SERVICE_NAME), report);
+					sendReport(TaskReport.successful(task.getTaskId(), new ArtifactExchangeModel().getResultLinks().setLink(reportLink).parent()));
 
-					LOGGER.info("Task {}: JMeter test finished. Results are stored to {}.", task.getTaskId(), resultsPath);
+					LOGGER.info("Task {}: JMeter test finished. Results are stored as report {}.", task.getTaskId(), reportId);
 				} catch (AmqpException | IOException e) {
 					LOGGER.error("Task {}: Error when pushing the test results to the queue!", task.getTaskId(), e);
+				} catch (InterruptedException e) {
+					LOGGER.error("Task {}: Interrupted when collecting the test results!", task.getTaskId(), e);
+					Thread.currentThread().interrupt();
 				}
 			}
 		});
-		jmeter.start(arguments);
-
-		LOGGER.info("Task {}: Test {} started.", task.getTaskId(), testId);
-		new StopEngineAfterTime(testId, JMeterUtils.getDuration(testPlanBundle.getTestPlan())).start();
-	}
-
-	private class StopEngineAfterTime extends Thread {
-
-		private final int testId;
 
-		private final long endTime;
-
-		private StopEngineAfterTime(int testId, long duration) {
-			this.testId = testId;
-			this.endTime = System.currentTimeMillis() + Math.min((duration * 1000) + 1800000, Math.max(300000, 2000 * duration));
+		if (!accepted) {
+			deleteTmpDir(task.getTaskId(), tmpPath);
+			reportStorage.remove(reportId);
+			sendReport(TaskReport.error(task.getTaskId(), TaskError.REJECTED));
 		}
+	}
 
-		@Override
-		public void run() {
-			while (System.currentTimeMillis() < endTime) {
-				try {
-					sleep(60000);
-				} catch (InterruptedException e) {
-					LOGGER.warn("StopEngineAfterTime was interrupted!", e);
-				}
-			}
-
-			if (runningTests.get(testId) == null) {
-				LOGGER.error("There was not entry for test {}!", testId);
-				return;
-			}
-
-			if (runningTests.get(testId)) {
-				runningTests.put(testId, false);
-				StandardJMeterEngine.stopEngineNow();
-				LOGGER.warn("Test {} was still running. Aborted it.", testId);
-			}
-
-			runningTests.remove(testId);
+	private void deleteTmpDir(String taskId, Path tmpPath) {
+		try {
+			FileUtils.deleteDirectory(tmpPath.toFile());
+		} catch (IOException e) {
+			LOGGER.warn("Task {}: Could not delete the temporary directory {}!", taskId, tmpPath, e);
 		}
+	}
 
+	private void sendReport(TaskReport report) {
+		amqpTemplate.convertAndSend(AmqpApi.Global.EVENT_FINISHED.name(), AmqpApi.Global.EVENT_FINISHED.formatRoutingKey().of(RabbitMqConfig.SERVICE_NAME), report);
 	}
 
 }
@@ -1,6 +1,12 @@
 package org.continuity.jmeter.config;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
 import org.continuity.commons.jmeter.TestPlanWriter;
+import org.continuity.jmeter.execution.JMeterExecutionManager;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.stereotype.Component;
 
@@ -11,9 +17,18 @@ import org.springframework.stereotype.Component;
 @Component
 public class JMeterConfig {
 
+	private static final String JMETER_HOME = "../";
+
 	@Bean
 	public TestPlanWriter testPlanWriter() {
-		return new TestPlanWriter("../");
+		return new TestPlanWriter(JMETER_HOME);
+	}
+
+	@Bean(destroyMethod = "shutdown")
+	public JMeterExecutionManager executionManager(@Value("${jmeter.executions.max-concurrent:2}") int maxConcurrentTests, @Value("${jmeter.executions.queue-capacity:8}") int queueCapacity,
+			@Value("${jmeter.executions.jvm-options:}") String jvmOptions) {
+		List<String> options = jvmOptions.trim().isEmpty() ? Collections.emptyList() : Arrays.asList(jvmOptions.trim().split("\\s+"));
+		return new JMeterExecutionManager(maxConcurrentTests, queueCapacity, JMETER_HOME, options);
 	}
 
 }
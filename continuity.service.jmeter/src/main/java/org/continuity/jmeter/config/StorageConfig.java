@@ -1,10 +1,12 @@
 package org.continuity.jmeter.config;
 
 import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
 
 import org.continuity.api.entities.artifact.JMeterTestPlanBundle;
-import org.continuity.commons.storage.MemoryStorage;
+import org.continuity.commons.storage.JsonFileStorage;
 import org.continuity.commons.storage.MixedStorage;
+import org.continuity.jmeter.report.ReportStorage;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -15,13 +17,14 @@ public class StorageConfig {
 
 	@Bean
 	@Primary
-	public MixedStorage<JMeterTestPlanBundle> testPlanStorage(@Value("${storage.path:storage}") String storagePath) {
-		return new MixedStorage<>(Paths.get(storagePath), new JMeterTestPlanBundle());
+	public MixedStorage<JMeterTestPlanBundle> testPlanStorage(@Value("${storage.path:storage}") String storagePath, @Value("${storage.memory.max-size:100}") int maxMemorySize,
+			@Value("${storage.memory.ttl-minutes:60}") long ttlMinutes) {
+		return new MixedStorage<>(JMeterTestPlanBundle.class, new JsonFileStorage<>(Paths.get(storagePath), new JMeterTestPlanBundle()), maxMemorySize, ttlMinutes, TimeUnit.MINUTES);
 	}
 
 	@Bean
-	public MemoryStorage<String> reportStorage() {
-		return new MemoryStorage<>(String.class);
+	public ReportStorage reportStorage(@Value("${storage.path:storage}") String storagePath) {
+		return new ReportStorage(Paths.get(storagePath).resolve("reports"));
 	}
 
 }
@@ -0,0 +1,64 @@
+package org.continuity.jmeter.controllers;
+
+import static org.continuity.api.rest.RestApi.JMeter.Execution.ROOT;
+import static org.continuity.api.rest.RestApi.JMeter.Execution.Paths.CANCEL;
+import static org.continuity.api.rest.RestApi.JMeter.Execution.Paths.GET_ALL;
+
+import java.util.Map;
+
+import org.continuity.jmeter.execution.ExecutionState;
+import org.continuity.jmeter.execution.JMeterExecutionManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * REST endpoint for the currently queued and running tests.
+ *
+ * @author Henning Schulz
+ *
+ */
+@RestController
+@RequestMapping(ROOT)
+public class ExecutionController {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(ExecutionController.class);
+
+	@Autowired
+	private JMeterExecutionManager executionManager;
+
+	/**
+	 * Returns the states of all queued and running tests.
+	 *
+	 * @return Map from the task ID to the state of the test.
+	 */
+	@RequestMapping(value = GET_ALL, method = RequestMethod.GET)
+	public ResponseEntity<Map<String, ExecutionState>> getExecutions() {
+		return ResponseEntity.ok(executionManager.getExecutionStates());
+	}
+
+	/**
+	 * Cancels the test of the specified task. Other tests are not affected.
+	 *
+	 * @param taskId
+	 *            The ID of the task.
+	 * @return A confirmation or a 404 error response if there is no queued or running test for
+	 *         the task.
+	 */
+	@RequestMapping(value = CANCEL, method = RequestMethod.DELETE)
+	public ResponseEntity<String> cancelExecution(@PathVariable("task-id") String taskId) {
+		if (executionManager.cancel(taskId)) {
+			LOGGER.info("Cancelled the test of task {}.", taskId);
+			return ResponseEntity.ok("Cancelled.");
+		} else {
+			LOGGER.warn("Could not cancel the test of task {}, as there is none!", taskId);
+			return ResponseEntity.notFound().build();
+		}
+	}
+
+}
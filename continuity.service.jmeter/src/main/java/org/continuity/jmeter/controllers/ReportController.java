@@ -3,17 +3,29 @@ package org.continuity.jmeter.controllers;
 import static org.continuity.api.rest.RestApi.JMeter.Report.ROOT;
 import static org.continuity.api.rest.RestApi.JMeter.Report.Paths.DELETE;
 import static org.continuity.api.rest.RestApi.JMeter.Report.Paths.GET;
+import static org.continuity.api.rest.RestApi.JMeter.Report.Paths.GET_SUMMARY;
 
-import org.continuity.commons.storage.MemoryStorage;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+
+import org.continuity.jmeter.report.ReportStorage;
+import org.continuity.jmeter.report.ReportSummary;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.StreamUtils;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 /**
  * REST endpoint for test plan reports.
@@ -28,26 +40,63 @@ public class ReportController {
 	private static final Logger LOGGER = LoggerFactory.getLogger(ReportController.class);
 
 	@Autowired
-	@Qualifier("reportStorage")
-	private MemoryStorage<String> storage;
+	private ReportStorage storage;
 
 	/**
-	 * Returns the report that is stored with the specified ID.
+	 * Returns the results CSV of the report that is stored with the specified ID. If the client
+	 * accepts gzip encoding, the compressed file is sent as is, which also allows for range
+	 * requests. Otherwise, the results are decompressed while streaming them.
 	 *
 	 * @param id
 	 *            The ID of the report.
+	 * @param acceptEncoding
+	 *            The accepted encodings of the client.
 	 * @return A report or a 404 error response if not found.
 	 */
 	@RequestMapping(value = GET, method = RequestMethod.GET)
-	public ResponseEntity<String> getReport(@PathVariable String id) {
-		String report = storage.get(id);
+	public ResponseEntity<?> getReport(@PathVariable String id, @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+		ReportSummary summary = storage.get(id);
+		Path resultsPath = storage.getResultsPath(id);
+
+		if ((summary == null) || !summary.isFinished() || !resultsPath.toFile().exists()) {
+			LOGGER.warn("Could not find a report with id {}!", id);
+			return ResponseEntity.notFound().build();
+		}
+
+		LOGGER.info("Retrieved report with id {}.", id);
+
+		if ((acceptEncoding != null) && acceptEncoding.contains("gzip")) {
+			return ResponseEntity.ok().contentType(MediaType.TEXT_PLAIN).header(HttpHeaders.CONTENT_ENCODING, "gzip").body(new FileSystemResource(resultsPath.toFile()));
+		} else {
+			StreamingResponseBody body = out -> {
+				try (InputStream in = new GZIPInputStream(Files.newInputStream(resultsPath))) {
+					StreamUtils.copy(in, out);
+				}
+			};
+
+			return ResponseEntity.ok().contentType(MediaType.TEXT_PLAIN).body(body);
+		}
+	}
+
+	/**
+	 * Returns the summary of the report that is stored with the specified ID, which holds the
+	 * response time percentiles, error counts, and throughput per sampler.
+	 *
+	 * @param id
+	 *            The ID of the report.
+	 * @return The summary or a 404 error response if not found. If the test is still running,
+	 *         the summary will be empty and not marked as finished.
+	 */
+	@RequestMapping(value = GET_SUMMARY, method = RequestMethod.GET)
+	public ResponseEntity<ReportSummary> getReportSummary(@PathVariable String id) {
+		ReportSummary summary = storage.get(id);
 
-		if (report == null) {
+		if (summary == null) {
 			LOGGER.warn("Could not find a report with id {}!", id);
 			return ResponseEntity.notFound().build();
 		} else {
-			LOGGER.info("Retrieved report with id {}.", id);
-			return ResponseEntity.ok(report);
+			LOGGER.info("Retrieved the summary of report with id {}.", id);
+			return ResponseEntity.ok(summary);
 		}
 	}
 
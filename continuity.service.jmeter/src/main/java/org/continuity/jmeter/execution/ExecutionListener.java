@@ -0,0 +1,27 @@
+package org.continuity.jmeter.execution;
+
+/**
+ * Listener that is notified about the lifecycle of a test execution managed by the
+ * {@link JMeterExecutionManager}.
+ *
+ * @author Henning Schulz
+ *
+ */
+public interface ExecutionListener {
+
+	/**
+	 * Called in the executing thread before the test starts. Not called if the test is cancelled
+	 * while queued.
+	 */
+	void executionStarted();
+
+	/**
+	 * Called in the executing thread after the test has ended or in the cancelling thread if the
+	 * test has been cancelled while queued.
+	 *
+	 * @param aborted
+	 *            {@code true} if the test has been cancelled or stopped due to a timeout.
+	 */
+	void executionEnded(boolean aborted);
+
+}
@@ -0,0 +1,26 @@
+package org.continuity.jmeter.execution;
+
+/**
+ * State of a test execution managed by the {@link JMeterExecutionManager}.
+ *
+ * @author Henning Schulz
+ *
+ */
+public enum ExecutionState {
+
+	/**
+	 * Waiting for a free execution slot.
+	 */
+	QUEUED,
+
+	/**
+	 * The test is running.
+	 */
+	RUNNING,
+
+	/**
+	 * The test has been asked to stop, either due to a cancellation or due to a timeout.
+	 */
+	STOPPING;
+
+}
@@ -0,0 +1,304 @@
+package org.continuity.jmeter.execution;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+/**
+ * Executes JMeter tests concurrently. Each test runs in its own child JVM (see
+ * {@link JMeterProcess}), so that the tests are isolated from each other and can be stopped
+ * individually. At most {@code maxConcurrentTests} tests run at the same time. Further tests are
+ * queued, and tests are rejected if the queue is full. A single watchdog thread stops tests that
+ * exceed their timeout.
+ *
+ * @author Henning Schulz
+ *
+ */
+public class JMeterExecutionManager {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(JMeterExecutionManager.class);
+
+	private static final String LOG_FILE = "jmeter.log";
+
+	private static final int LOG_TAIL_LINES = 50;
+
+	private final ThreadPoolExecutor executor;
+
+	private final ScheduledExecutorService watchdog;
+
+	private final ConcurrentMap<String, Execution> executions = new ConcurrentHashMap<>();
+
+	private final String jmeterHome;
+
+	private final List<String> jvmOptions;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param maxConcurrentTests
+	 *            The maximum number of tests running at the same time.
+	 * @param queueCapacity
+	 *            The maximum number of tests waiting for execution.
+	 * @param jmeterHome
+	 *            The path to the root JMeter configuration folder.
+	 * @param jvmOptions
+	 *            Options passed to the JVMs executing the tests, e.g., the heap size.
+	 */
+	public JMeterExecutionManager(int maxConcurrentTests, int queueCapacity, String jmeterHome, List<String> jvmOptions) {
+		this.jmeterHome = jmeterHome;
+		this.jvmOptions = new ArrayList<>(jvmOptions);
+
+		CustomizableThreadFactory executionThreadFactory = new CustomizableThreadFactory("jmeter-execution-");
+		executionThreadFactory.setDaemon(true);
+		this.executor = new ThreadPoolExecutor(maxConcurrentTests, maxConcurrentTests, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueCapacity), executionThreadFactory);
+
+		CustomizableThreadFactory watchdogThreadFactory = new CustomizableThreadFactory("jmeter-watchdog-");
+		watchdogThreadFactory.setDaemon(true);
+		this.watchdog = Executors.newSingleThreadScheduledExecutor(watchdogThreadFactory);
+	}
+
+	/**
+	 * Submits a test for execution.
+	 *
+	 * @param taskId
+	 *            The ID of the task the test belongs to. Used for identifying the test.
+	 * @param testPlan
+	 *            The test plan file to be executed. Should not be shared with other tests. The
+	 *            output of JMeter is written to {@code jmeter.log} in the same directory.
+	 * @param timeout
+	 *            The time in milliseconds after which the running test will be stopped.
+	 * @param listener
+	 *            Listener to be notified about the start and end of the test.
+	 * @return {@code true} if the test has been accepted or {@code false} if the queue is full or
+	 *         there is already a test with the same task ID.
+	 */
+	public boolean submit(String taskId, Path testPlan, long timeout, ExecutionListener listener) {
+		Execution execution = new Execution(taskId, testPlan, timeout, listener);
+
+		if (executions.putIfAbsent(taskId, execution) != null) {
+			LOGGER.error("Task {}: There is already a test for this task!", taskId);
+			return false;
+		}
+
+		try {
+			executor.execute(execution);
+		} catch (RejectedExecutionException e) {
+			executions.remove(taskId);
+			LOGGER.warn("Task {}: Rejected the test, as there are already {} tests running and {} tests queued.", taskId, executor.getActiveCount(), executor.getQueue().size());
+			return false;
+		}
+
+		LOGGER.info("Task {}: Submitted the test. There are {} tests queued.", taskId, executor.getQueue().size());
+		return true;
+	}
+
+	/**
+	 * Cancels a test. If it is queued, it will not be executed. If it is running, it will be
+	 * stopped. Other tests are not affected.
+	 *
+	 * @param taskId
+	 *            The ID of the task the test belongs to.
+	 * @return {@code true} if there was a queued or running test for the task.
+	 */
+	public boolean cancel(String taskId) {
+		Execution execution = executions.get(taskId);
+
+		if (execution == null) {
+			return false;
+		}
+
+		LOGGER.info("Task {}: Cancelling the test.", taskId);
+		execution.stop();
+		return true;
+	}
+
+	/**
+	 * Gets the states of all queued and running tests.
+	 *
+	 * @return Map from task ID to state.
+	 */
+	public Map<String, ExecutionState> getExecutionStates() {
+		Map<String, ExecutionState> states = new TreeMap<>();
+
+		for (Execution execution : executions.values()) {
+			states.put(execution.taskId, execution.getState());
+		}
+
+		return states;
+	}
+
+	/**
+	 * Stops all tests and shuts down the manager.
+	 */
+	public void shutdown() {
+		executions.values().forEach(Execution::stop);
+		watchdog.shutdownNow();
+		executor.shutdownNow();
+	}
+
+	/**
+	 * Starts a test in a new child JVM.
+	 *
+	 * @param testPlan
+	 *            The test plan file.
+	 * @return The process executing the test.
+	 * @throws IOException
+	 *             If the child JVM could not be started.
+	 */
+	protected JMeterProcess startProcess(Path testPlan) throws IOException {
+		return JMeterProcess.start(testPlan, testPlan.resolveSibling(LOG_FILE), jmeterHome, jvmOptions);
+	}
+
+	private static String readLogTail(Path logFile) {
+		Deque<String> lines = new ArrayDeque<>(LOG_TAIL_LINES);
+
+		try (BufferedReader reader = Files.newBufferedReader(logFile, StandardCharsets.UTF_8)) {
+			String line;
+
+			while ((line = reader.readLine()) != null) {
+				if (lines.size() >= LOG_TAIL_LINES) {
+					lines.removeFirst();
+				}
+
+				lines.addLast(line);
+			}
+		} catch (IOException e) {
+			return "<could not read " + logFile + ": " + e.getMessage() + ">";
+		}
+
+		return String.join("\n", lines);
+	}
+
+	private class Execution implements Runnable {
+
+		private final String taskId;
+
+		private final Path testPlan;
+
+		private final long timeout;
+
+		private final ExecutionListener listener;
+
+		private ExecutionState state = ExecutionState.QUEUED;
+
+		private JMeterProcess process = null;
+
+		private Execution(String taskId, Path testPlan, long timeout, ExecutionListener listener) {
+			this.taskId = taskId;
+			this.testPlan = testPlan;
+			this.timeout = timeout;
+			this.listener = listener;
+		}
+
+		@Override
+		public void run() {
+			boolean cancelled;
+
+			synchronized (this) {
+				cancelled = state != ExecutionState.QUEUED;
+
+				if (!cancelled) {
+					state = ExecutionState.RUNNING;
+				}
+			}
+
+			if (cancelled) {
+				// cancelled after being taken from the queue
+				executions.remove(taskId, this);
+				listener.executionEnded(true);
+				return;
+			}
+
+			ScheduledFuture<?> watchdogFuture = null;
+
+			try {
+				listener.executionStarted();
+
+				JMeterProcess process = startProcess(testPlan);
+
+				synchronized (this) {
+					this.process = process;
+
+					if (state == ExecutionState.STOPPING) {
+						process.stop();
+					}
+				}
+
+				watchdogFuture = watchdog.schedule(this::timeout, timeout, TimeUnit.MILLISECONDS);
+
+				LOGGER.info("Task {}: Test started.", taskId);
+				int exitCode = process.waitFor();
+
+				if (exitCode != 0) {
+					// the log is deleted together with the test plan, so we keep its end
+					LOGGER.error("Task {}: The test ended with exit code {}. The JMeter log ends with:\n{}", taskId, exitCode, readLogTail(testPlan.resolveSibling(LOG_FILE)));
+				}
+			} catch (IOException | RuntimeException e) {
+				LOGGER.error("Task {}: Error during test execution!", taskId, e);
+			} catch (InterruptedException e) {
+				LOGGER.error("Task {}: Interrupted while waiting for the test to end!", taskId, e);
+				stop();
+				Thread.currentThread().interrupt();
+			} finally {
+				if (watchdogFuture != null) {
+					watchdogFuture.cancel(false);
+				}
+
+				boolean aborted = getState() == ExecutionState.STOPPING;
+				executions.remove(taskId, this);
+
+				listener.executionEnded(aborted);
+			}
+		}
+
+		private void timeout() {
+			LOGGER.warn("Task {}: The test is still running after {} ms. Aborting it.", taskId, timeout);
+			stop();
+		}
+
+		private void stop() {
+			boolean wasQueued;
+
+			synchronized (this) {
+				wasQueued = state == ExecutionState.QUEUED;
+				state = ExecutionState.STOPPING;
+
+				if (process != null) {
+					process.stop();
+				}
+			}
+
+			if (wasQueued && executor.remove(this)) {
+				executions.remove(taskId, this);
+				listener.executionEnded(true);
+			}
+		}
+
+		private synchronized ExecutionState getState() {
+			return state;
+		}
+
+	}
+
+}
@@ -0,0 +1,173 @@
+package org.continuity.jmeter.execution;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.jmeter.JMeter;
+import org.apache.jmeter.engine.StandardJMeterEngine;
+import org.apache.jmeter.save.SaveService;
+import org.apache.jmeter.util.JMeterUtils;
+import org.apache.jorphan.collections.HashTree;
+
+import net.sf.markov4jmeter.testplangenerator.JMeterEngineGateway;
+
+/**
+ * A JMeter test running in a child JVM. JMeter and the Markov4JMeter controllers keep state in
+ * static fields, e.g., the JMeter context, the properties, the result files, and the session
+ * arrival limits. Therefore, concurrent tests are only isolated from each other if each one runs
+ * in its own JVM. <br>
+ *
+ * The child JVM uses the class path of the service. If the service is executed as Spring Boot
+ * jar, the {@code PropertiesLauncher} is used for launching {@link #main(String[])}. The output
+ * of the child JVM is written to a log file. The test is stopped by writing {@code stop} to the
+ * standard input of the child JVM, which stops the engine and lets JMeter write the results.
+ *
+ * @author Henning Schulz
+ *
+ */
+public class JMeterProcess {
+
+	private static final String STOP_COMMAND = "stop";
+
+	private static final String BOOT_LOADER_PACKAGE = "org.springframework.boot.loader";
+
+	private static final long STOP_GRACE_PERIOD_SECONDS = 60;
+
+	private final Process process;
+
+	protected JMeterProcess(Process process) {
+		this.process = process;
+	}
+
+	/**
+	 * Starts a test in a child JVM.
+	 *
+	 * @param testPlan
+	 *            The test plan file.
+	 * @param logFile
+	 *            The file to which the output of the child JVM is written.
+	 * @param jmeterHome
+	 *            The path to the root JMeter configuration folder.
+	 * @param jvmOptions
+	 *            Options passed to the child JVM, e.g., the heap size.
+	 * @return The started process.
+	 * @throws IOException
+	 *             If the child JVM could not be started.
+	 */
+	public static JMeterProcess start(Path testPlan, Path logFile, String jmeterHome, List<String> jvmOptions) throws IOException {
+		List<String> command = new ArrayList<>();
+		command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+		command.addAll(jvmOptions);
+		command.add("-cp");
+		command.add(System.getProperty("java.class.path"));
+
+		if (JMeterProcess.class.getClassLoader().getClass().getName().startsWith(BOOT_LOADER_PACKAGE)) {
+			command.add("-Dloader.main=" + JMeterProcess.class.getName());
+			command.add(BOOT_LOADER_PACKAGE + ".PropertiesLauncher");
+		} else {
+			command.add(JMeterProcess.class.getName());
+		}
+
+		command.add(jmeterHome);
+		command.add(testPlan.toAbsolutePath().toString());
+
+		Process process = new ProcessBuilder(command).redirectErrorStream(true).redirectOutput(logFile.toFile()).start();
+		return new JMeterProcess(process);
+	}
+
+	/**
+	 * Waits until the test has ended. If the test does not end within a grace period after
+	 * {@link #stop()}, the child JVM is killed.
+	 *
+	 * @return The exit code of the child JVM.
+	 * @throws InterruptedException
+	 *             If interrupted while waiting.
+	 */
+	public int waitFor() throws InterruptedException {
+		return process.waitFor();
+	}
+
+	/**
+	 * Requests the test to stop. Does not wait for the test to end.
+	 */
+	public void stop() {
+		OutputStream in = process.getOutputStream();
+
+		try {
+			in.write((STOP_COMMAND + "\n").getBytes(StandardCharsets.UTF_8));
+			in.flush();
+		} catch (IOException e) {
+			// the process has already ended
+			return;
+		}
+
+		Thread killer = new Thread(() -> {
+			try {
+				if (!process.waitFor(STOP_GRACE_PERIOD_SECONDS, TimeUnit.SECONDS)) {
+					process.destroyForcibly();
+				}
+			} catch (InterruptedException e) {
+				process.destroyForcibly();
+			}
+		}, "jmeter-process-killer");
+
+		killer.setDaemon(true);
+		killer.start();
+	}
+
+	/**
+	 * Entry point of the child JVM.
+	 *
+	 * @param args
+	 *            The JMeter home and the path to the test plan file.
+	 * @throws IOException
+	 *             If the test plan cannot be read.
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length != 2) {
+			System.err.println("Usage: JMeterProcess <jmeter-home> <test-plan>");
+			System.exit(2);
+		}
+
+		JMeterEngineGateway.getInstance().initJMeter(args[0], "bin/jmeter.properties", Locale.ENGLISH);
+		JMeterUtils.initLogging();
+
+		HashTree testPlan = SaveService.loadTree(new File(args[1]));
+		JMeter.convertSubTree(testPlan);
+
+		StandardJMeterEngine engine = new StandardJMeterEngine();
+		engine.configure(testPlan);
+
+		Thread stopListener = new Thread(() -> {
+			try (BufferedReader reader = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))) {
+				String line;
+
+				do {
+					line = reader.readLine();
+				} while ((line != null) && !STOP_COMMAND.equals(line.trim()));
+			} catch (IOException e) {
+				// the parent is gone, so nobody will collect the results
+			}
+
+			engine.stopTest(true);
+		}, "stop-listener");
+
+		stopListener.setDaemon(true);
+		stopListener.start();
+
+		engine.run();
+
+		System.exit(0);
+	}
+
+}
@@ -0,0 +1,154 @@
+package org.continuity.jmeter.report;
+
+import java.util.Arrays;
+
+/**
+ * Histogram of non-negative values (e.g., latencies in milliseconds) with a fixed relative
+ * precision, similar to an HDR histogram. Values below {@value #SUB_BUCKET_COUNT} are counted
+ * exactly; larger values are counted in buckets whose width doubles with every power of two, which
+ * limits the relative error to {@code 1 / }{@value #HALF_SUB_BUCKET_COUNT}. Hence, the memory
+ * consumption only depends on the magnitude of the highest value and not on the number of
+ * recorded values.
+ *
+ * @author Henning Schulz
+ *
+ */
+public class LatencyHistogram {
+
+	private static final int SUB_BUCKET_BITS = 8;
+
+	private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+	private static final int HALF_SUB_BUCKET_COUNT = SUB_BUCKET_COUNT / 2;
+
+	private long[] counts = new long[SUB_BUCKET_COUNT];
+
+	private long totalCount = 0;
+
+	private long min = Long.MAX_VALUE;
+
+	private long max = Long.MIN_VALUE;
+
+	private double sum = 0;
+
+	/**
+	 * Records a value.
+	 *
+	 * @param value
+	 *            The value. Negative values are recorded as 0.
+	 */
+	public void record(long value) {
+		value = Math.max(0, value);
+		int index = indexOf(value);
+
+		if (index >= counts.length) {
+			counts = Arrays.copyOf(counts, Math.max(index + 1, counts.length * 2));
+		}
+
+		counts[index]++;
+		totalCount++;
+		sum += value;
+		min = Math.min(min, value);
+		max = Math.max(max, value);
+	}
+
+	/**
+	 * Adds all values recorded by another histogram to this one.
+	 *
+	 * @param other
+	 *            The other histogram.
+	 */
+	public void add(LatencyHistogram other) {
+		if (other.counts.length > counts.length) {
+			counts = Arrays.copyOf(counts, other.counts.length);
+		}
+
+		for (int i = 0; i < other.counts.length; i++) {
+			counts[i] += other.counts[i];
+		}
+
+		totalCount += other.totalCount;
+		sum += other.sum;
+		min = Math.min(min, other.min);
+		max = Math.max(max, other.max);
+	}
+
+	public long getTotalCount() {
+		return totalCount;
+	}
+
+	/**
+	 * @return The lowest recorded value or 0 if there is none.
+	 */
+	public long getMin() {
+		return totalCount == 0 ? 0 : min;
+	}
+
+	/**
+	 * @return The highest recorded value or 0 if there is none.
+	 */
+	public long getMax() {
+		return totalCount == 0 ? 0 : max;
+	}
+
+	/**
+	 * @return The exact mean of the recorded values or 0 if there is none.
+	 */
+	public double getMean() {
+		return totalCount == 0 ? 0 : sum / totalCount;
+	}
+
+	/**
+	 * Determines the value at a percentile. The returned value is the highest value that is
+	 * equivalent to the actual one within the precision of the histogram, but not higher than
+	 * the recorded maximum.
+	 *
+	 * @param percentile
+	 *            The percentile between 0 and 100.
+	 * @return The value at the percentile or 0 if no value has been recorded.
+	 */
+	public long getValueAtPercentile(double percentile) {
+		if (totalCount == 0) {
+			return 0;
+		}
+
+		long targetCount = Math.max(1, (long) Math.ceil((Math.min(100, Math.max(0, percentile)) / 100) * totalCount));
+		long cumulativeCount = 0;
+
+		for (int i = 0; i < counts.length; i++) {
+			cumulativeCount += counts[i];
+
+			if (cumulativeCount >= targetCount) {
+				return Math.min(highestEquivalentValue(i), max);
+			}
+		}
+
+		return max;
+	}
+
+	private static int indexOf(long value) {
+		if (value < SUB_BUCKET_COUNT) {
+			return (int) value;
+		}
+
+		int shift = (63 - Long.numberOfLeadingZeros(value)) - SUB_BUCKET_BITS + 1;
+		int subBucket = (int) (value >> shift);
+
+		return SUB_BUCKET_COUNT + ((shift - 1) * HALF_SUB_BUCKET_COUNT) + (subBucket - HALF_SUB_BUCKET_COUNT);
+	}
+
+	private static long highestEquivalentValue(int index) {
+		if (index < SUB_BUCKET_COUNT) {
+			return index;
+		}
+
+		int offset = index - SUB_BUCKET_COUNT;
+		int shift = (offset / HALF_SUB_BUCKET_COUNT) + 1;
+		long subBucket = (offset % HALF_SUB_BUCKET_COUNT) + HALF_SUB_BUCKET_COUNT;
+
+		long value = ((subBucket + 1) << shift) - 1;
+
+		return value < 0 ? Long.MAX_VALUE : value;
+	}
+
+}
@@ -0,0 +1,73 @@
+package org.continuity.jmeter.report;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.continuity.commons.storage.FileStorage;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Stores JMeter reports in the file system. Each report consists of a {@link ReportSummary},
+ * which is the stored entity, and of the gzip-compressed results CSV file, which is written
+ * directly to {@link #getResultsPath(String)} while the test is running.
+ *
+ * @author Henning Schulz
+ *
+ */
+public class ReportStorage extends FileStorage<ReportSummary> {
+
+	private static final String SUMMARY_FILE_EXT = "-summary.json";
+
+	private static final String RESULTS_FILE_EXT = "-results.csv.gz";
+
+	private final ObjectMapper mapper = new ObjectMapper();
+
+	private final Path storagePath;
+
+	public ReportStorage(Path storagePath) {
+		super(storagePath, new ReportSummary());
+
+		this.storagePath = storagePath;
+	}
+
+	/**
+	 * Gets the path of the gzip-compressed results of a report.
+	 *
+	 * @param id
+	 *            The ID of the report.
+	 * @return The path, which does not need to exist.
+	 */
+	public Path getResultsPath(String id) {
+		return storagePath.resolve(id + RESULTS_FILE_EXT);
+	}
+
+	@Override
+	protected void write(Path dirPath, String id, ReportSummary entity) throws IOException {
+		writeAtomically(dirPath.resolve(id + SUMMARY_FILE_EXT), path -> mapper.writeValue(path.toFile(), entity));
+	}
+
+	@Override
+	protected ReportSummary read(Path dirPath, String id) throws IOException {
+		Path path = dirPath.resolve(id + SUMMARY_FILE_EXT);
+
+		if (path.toFile().exists()) {
+			return mapper.readValue(path.toFile(), ReportSummary.class);
+		} else {
+			return null;
+		}
+	}
+
+	@Override
+	protected boolean remove(Path dirPath, String id) throws IOException {
+		boolean resultsRemoved = Files.deleteIfExists(dirPath.resolve(id + RESULTS_FILE_EXT));
+		return Files.deleteIfExists(dirPath.resolve(id + SUMMARY_FILE_EXT)) || resultsRemoved;
+	}
+
+	@Override
+	protected String getIdForFile(String filename) {
+		return filename.endsWith(SUMMARY_FILE_EXT) ? filename.substring(0, filename.length() - SUMMARY_FILE_EXT.length()) : null;
+	}
+
+}
@@ -0,0 +1,109 @@
+package org.continuity.jmeter.report;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+/**
+ * Summary of the results of a JMeter load test, which is aggregated while the test is running.
+ * An empty summary represents a test that has not finished, yet.
+ *
+ * @author Henning Schulz
+ *
+ */
+@JsonPropertyOrder({ "finished", "aborted", "start-time", "end-time", "throughput-resolution", "total", "samplers" })
+public class ReportSummary {
+
+	private boolean finished = false;
+
+	private boolean aborted = false;
+
+	@JsonProperty("start-time")
+	private long startTime;
+
+	@JsonProperty("end-time")
+	private long endTime;
+
+	@JsonProperty("throughput-resolution")
+	private long throughputResolution;
+
+	private SamplerSummary total;
+
+	private List<SamplerSummary> samplers;
+
+	public boolean isFinished() {
+		return finished;
+	}
+
+	public void setFinished(boolean finished) {
+		this.finished = finished;
+	}
+
+	/**
+	 * @return Whether the test has been aborted with force.
+	 */
+	public boolean isAborted() {
+		return aborted;
+	}
+
+	public void setAborted(boolean aborted) {
+		this.aborted = aborted;
+	}
+
+	/**
+	 * @return The start of the first throughput interval in milliseconds since the epoch.
+	 */
+	public long getStartTime() {
+		return startTime;
+	}
+
+	public void setStartTime(long startTime) {
+		this.startTime = startTime;
+	}
+
+	/**
+	 * @return The end of the last throughput interval in milliseconds since the epoch.
+	 */
+	public long getEndTime() {
+		return endTime;
+	}
+
+	public void setEndTime(long endTime) {
+		this.endTime = endTime;
+	}
+
+	/**
+	 * @return The length of the throughput intervals in milliseconds.
+	 */
+	public long getThroughputResolution() {
+		return throughputResolution;
+	}
+
+	public void setThroughputResolution(long throughputResolution) {
+		this.throughputResolution = throughputResolution;
+	}
+
+	/**
+	 * @return The summary of all samples.
+	 */
+	public SamplerSummary getTotal() {
+		return total;
+	}
+
+	public void setTotal(SamplerSummary total) {
+		this.total = total;
+	}
+
+	/**
+	 * @return The summaries per sampler label.
+	 */
+	public List<SamplerSummary> getSamplers() {
+		return samplers;
+	}
+
+	public void setSamplers(List<SamplerSummary> samplers) {
+		this.samplers = samplers;
+	}
+
+}
@@ -0,0 +1,230 @@
+package org.continuity.jmeter.report;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Aggregates the lines of a JMeter results CSV file one by one into {@link SamplerStatistics} per
+ * sampler label. Thus, the results never need to be held in memory as a whole. The first line is
+ * expected to hold the field names; otherwise, the default JMeter field order is assumed.
+ *
+ * @author Henning Schulz
+ *
+ */
+public class ResultAggregator {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(ResultAggregator.class);
+
+	private static final List<String> DEFAULT_FIELDS = Arrays.asList("timeStamp", "elapsed", "label", "responseCode", "responseMessage", "threadName", "dataType", "success", "failureMessage",
+			"bytes", "sentBytes", "grpThreads", "allThreads", "URL", "Latency", "IdleTime", "Connect");
+
+	private static final char DELIMITER = ',';
+
+	private static final char QUOTE = '"';
+
+	private static final int MAX_PENDING_LENGTH = 1 << 16;
+
+	private final long resolution;
+
+	private final SamplerStatistics total;
+
+	private final Map<String, SamplerStatistics> statisticsPerLabel = new LinkedHashMap<>();
+
+	private boolean fieldsInitialized = false;
+
+	private int timestampIndex;
+
+	private int elapsedIndex;
+
+	private int labelIndex;
+
+	private int successIndex;
+
+	private int bytesIndex;
+
+	private int sentBytesIndex;
+
+	private StringBuilder pendingLine = null;
+
+	private long malformedLines = 0;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param resolution
+	 *            The length of the intervals for which the throughput is calculated in
+	 *            milliseconds.
+	 */
+	public ResultAggregator(long resolution) {
+		this.resolution = resolution;
+		this.total = new SamplerStatistics(resolution);
+	}
+
+	/**
+	 * Adds a line of the results CSV file. Lines belonging to a quoted field spanning several
+	 * lines are joined before being processed.
+	 *
+	 * @param line
+	 *            The line without the line break.
+	 */
+	public void addLine(String line) {
+		if (pendingLine != null) {
+			line = pendingLine.append('\n').append(line).toString();
+			pendingLine = null;
+		}
+
+		if (line.trim().isEmpty()) {
+			return;
+		}
+
+		List<String> fields = split(line);
+
+		if ((fields == null) && (line.length() > MAX_PENDING_LENGTH)) {
+			malformedLines++;
+		} else if (fields == null) {
+			pendingLine = new StringBuilder(line);
+		} else if (!fieldsInitialized) {
+			initFieldIndices(fields);
+		} else {
+			addSample(fields);
+		}
+	}
+
+	private void initFieldIndices(List<String> fields) {
+		boolean isHeader = fields.contains("elapsed") && fields.contains("label");
+		List<String> fieldNames = isHeader ? fields : DEFAULT_FIELDS;
+
+		timestampIndex = fieldNames.indexOf("timeStamp");
+		elapsedIndex = fieldNames.indexOf("elapsed");
+		labelIndex = fieldNames.indexOf("label");
+		successIndex = fieldNames.indexOf("success");
+		bytesIndex = fieldNames.indexOf("bytes");
+		sentBytesIndex = fieldNames.indexOf("sentBytes");
+		fieldsInitialized = true;
+
+		if (!isHeader) {
+			LOGGER.warn("The results do not start with a header. Assuming the default fields {}.", DEFAULT_FIELDS);
+			addSample(fields);
+		}
+	}
+
+	private void addSample(List<String> fields) {
+		long elapsed;
+
+		try {
+			elapsed = Long.parseLong(fields.get(elapsedIndex));
+		} catch (NumberFormatException | IndexOutOfBoundsException e) {
+			malformedLines++;
+			return;
+		}
+
+		long timestamp = parseLong(fields, timestampIndex, -1);
+		boolean success = (successIndex < 0) || (successIndex >= fields.size()) || Boolean.parseBoolean(fields.get(successIndex));
+		long bytes = parseLong(fields, bytesIndex, 0);
+		long sentBytes = parseLong(fields, sentBytesIndex, 0);
+		String label = (labelIndex >= 0) && (labelIndex < fields.size()) ? fields.get(labelIndex) : "";
+
+		total.addSample(timestamp, elapsed, success, bytes, sentBytes);
+		statisticsPerLabel.computeIfAbsent(label, l -> new SamplerStatistics(resolution)).addSample(timestamp, elapsed, success, bytes, sentBytes);
+	}
+
+	private long parseLong(List<String> fields, int index, long defaultValue) {
+		if ((index < 0) || (index >= fields.size())) {
+			return defaultValue;
+		}
+
+		try {
+			return Long.parseLong(fields.get(index));
+		} catch (NumberFormatException e) {
+			return defaultValue;
+		}
+	}
+
+	/**
+	 * Splits a CSV line into its fields.
+	 *
+	 * @param line
+	 *            The line.
+	 * @return The fields or {@code null} if a quoted field is not closed.
+	 */
+	static List<String> split(String line) {
+		List<String> fields = new ArrayList<>();
+		StringBuilder field = new StringBuilder();
+		boolean quoted = false;
+
+		for (int i = 0; i < line.length(); i++) {
+			char c = line.charAt(i);
+
+			if (quoted) {
+				if (c != QUOTE) {
+					field.append(c);
+				} else if (((i + 1) < line.length()) && (line.charAt(i + 1) == QUOTE)) {
+					field.append(QUOTE);
+					i++;
+				} else {
+					quoted = false;
+				}
+			} else if (c == QUOTE) {
+				quoted = true;
+			} else if (c == DELIMITER) {
+				fields.add(field.toString());
+				field.setLength(0);
+			} else {
+				field.append(c);
+			}
+		}
+
+		if (quoted) {
+			return null;
+		}
+
+		fields.add(field.toString());
+		return fields;
+	}
+
+	/**
+	 * @return The number of lines that could not be interpreted as a sample.
+	 */
+	public long getMalformedLines() {
+		return malformedLines;
+	}
+
+	/**
+	 * Creates a summary of all samples added so far.
+	 *
+	 * @return The summary. Will be marked as finished.
+	 */
+	public ReportSummary createSummary() {
+		long startInterval = total.getFirstInterval();
+		int numIntervals = startInterval < 0 ? 0 : Math.toIntExact((total.getLastInterval() - startInterval) + 1);
+
+		ReportSummary summary = new ReportSummary();
+		summary.setFinished(true);
+		summary.setThroughputResolution(resolution);
+
+		if (startInterval >= 0) {
+			summary.setStartTime(startInterval * resolution);
+			summary.setEndTime((startInterval + numIntervals) * resolution);
+		}
+
+		summary.setTotal(SamplerSummary.fromStatistics("TOTAL", total, startInterval, numIntervals));
+
+		List<SamplerSummary> samplers = new ArrayList<>(statisticsPerLabel.size());
+
+		for (Entry<String, SamplerStatistics> entry : statisticsPerLabel.entrySet()) {
+			samplers.add(SamplerSummary.fromStatistics(entry.getKey(), entry.getValue(), startInterval, numIntervals));
+		}
+
+		summary.setSamplers(samplers);
+
+		return summary;
+	}
+
+}
@@ -0,0 +1,185 @@
+package org.continuity.jmeter.report;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Follows the results CSV file of a running JMeter test, similar to {@code tail -f}. Each
+ * complete line is passed to a {@link ResultAggregator} and all content is copied to a
+ * gzip-compressed report file. Hence, the results are aggregated and compressed while the test
+ * is running and never need to be held in memory.
+ *
+ * @author Henning Schulz
+ *
+ */
+public class ResultsFollower extends Thread {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(ResultsFollower.class);
+
+	private static final long POLL_INTERVAL = 500;
+
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	private static final String ABORTED_APPENDIX = "\nWARNING: The test has been aborted with force!\n";
+
+	private final Path resultsPath;
+
+	private final Path reportPath;
+
+	private final ResultAggregator aggregator;
+
+	private final Charset charset = Charset.defaultCharset();
+
+	private final ByteArrayOutputStream lineBuffer = new ByteArrayOutputStream();
+
+	private volatile boolean finishing = false;
+
+	private volatile boolean aborted = false;
+
+	private IOException error = null;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param resultsPath
+	 *            The results CSV file to be followed. Does not need to exist, yet.
+	 * @param reportPath
+	 *            The file to which the compressed results are to be written.
+	 * @param aggregator
+	 *            The aggregator to be used.
+	 */
+	public ResultsFollower(Path resultsPath, Path reportPath, ResultAggregator aggregator) {
+		super("results-follower-" + resultsPath.getFileName());
+		setDaemon(true);
+
+		this.resultsPath = resultsPath;
+		this.reportPath = reportPath;
+		this.aggregator = aggregator;
+	}
+
+	@Override
+	public void run() {
+		try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(reportPath), BUFFER_SIZE)) {
+			if (awaitResultsFile()) {
+				follow(out);
+			} else {
+				LOGGER.warn("The results file {} has never been created!", resultsPath);
+			}
+
+			if (aborted) {
+				out.write(ABORTED_APPENDIX.getBytes(charset));
+			}
+		} catch (IOException e) {
+			LOGGER.error("Error when following the results file {}!", resultsPath, e);
+			error = e;
+		} catch (InterruptedException e) {
+			LOGGER.warn("Following the results file {} was interrupted!", resultsPath);
+			error = new IOException(e);
+		}
+	}
+
+	private boolean awaitResultsFile() throws InterruptedException {
+		while (!Files.exists(resultsPath)) {
+			if (finishing) {
+				return Files.exists(resultsPath);
+			}
+
+			sleep(POLL_INTERVAL);
+		}
+
+		return true;
+	}
+
+	private void follow(OutputStream out) throws IOException, InterruptedException {
+		byte[] buffer = new byte[BUFFER_SIZE];
+
+		try (InputStream in = Files.newInputStream(resultsPath)) {
+			while (true) {
+				// checked before reading to ensure the end is reached after the test has ended
+				boolean lastRound = finishing;
+				int read = in.read(buffer);
+
+				if (read > 0) {
+					out.write(buffer, 0, read);
+					processLines(buffer, read);
+				} else if (lastRound) {
+					break;
+				} else {
+					sleep(POLL_INTERVAL);
+				}
+			}
+		}
+
+		if (lineBuffer.size() > 0) {
+			passLine();
+		}
+	}
+
+	private void processLines(byte[] buffer, int length) {
+		int lineStart = 0;
+
+		for (int i = 0; i < length; i++) {
+			if (buffer[i] == '\n') {
+				lineBuffer.write(buffer, lineStart, i - lineStart);
+				passLine();
+				lineStart = i + 1;
+			}
+		}
+
+		lineBuffer.write(buffer, lineStart, length - lineStart);
+	}
+
+	private void passLine() {
+		String line = new String(lineBuffer.toByteArray(), charset);
+		lineBuffer.reset();
+
+		if (line.endsWith("\r")) {
+			line = line.substring(0, line.length() - 1);
+		}
+
+		aggregator.addLine(line);
+	}
+
+	/**
+	 * Reads the remainder of the results file, completes the report file, and waits until this
+	 * thread has terminated. Should be called after the test has ended.
+	 *
+	 * @param aborted
+	 *            Whether the test has been aborted with force. If so, a warning is appended to the
+	 *            report.
+	 * @return The summary of the results.
+	 * @throws IOException
+	 *             If reading the results or writing the report failed.
+	 * @throws InterruptedException
+	 *             If interrupted while waiting for the thread to terminate.
+	 */
+	public ReportSummary finish(boolean aborted) throws IOException, InterruptedException {
+		this.aborted = aborted;
+		this.finishing = true;
+
+		join();
+
+		if (error != null) {
+			throw error;
+		}
+
+		if (aggregator.getMalformedLines() > 0) {
+			LOGGER.warn("Ignored {} malformed lines in {}.", aggregator.getMalformedLines(), resultsPath);
+		}
+
+		ReportSummary summary = aggregator.createSummary();
+		summary.setAborted(aborted);
+
+		return summary;
+	}
+
+}
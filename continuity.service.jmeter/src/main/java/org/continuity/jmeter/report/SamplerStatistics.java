@@ -0,0 +1,160 @@
+package org.continuity.jmeter.report;
+
+import java.util.Arrays;
+
+/**
+ * Aggregated statistics of the samples of one sampler (or of all samplers). Holds a
+ * {@link LatencyHistogram} of the response times, error and byte counts, and the number of
+ * samples per time interval.
+ *
+ * @author Henning Schulz
+ *
+ */
+public class SamplerStatistics {
+
+	private final long resolution;
+
+	private final LatencyHistogram histogram = new LatencyHistogram();
+
+	private long errors = 0;
+
+	private long receivedBytes = 0;
+
+	private long sentBytes = 0;
+
+	private long firstInterval = -1;
+
+	private long[] samplesPerInterval = new long[0];
+
+	/**
+	 * Constructor.
+	 *
+	 * @param resolution
+	 *            The length of the intervals for which the number of samples is counted in
+	 *            milliseconds.
+	 */
+	public SamplerStatistics(long resolution) {
+		this.resolution = resolution;
+	}
+
+	/**
+	 * Adds a sample.
+	 *
+	 * @param timestamp
+	 *            The timestamp of the sample in milliseconds. Negative timestamps are not added to
+	 *            the time series.
+	 * @param elapsed
+	 *            The response time in milliseconds.
+	 * @param success
+	 *            Whether the sample was successful.
+	 * @param receivedBytes
+	 *            The number of received bytes.
+	 * @param sentBytes
+	 *            The number of sent bytes.
+	 */
+	public void addSample(long timestamp, long elapsed, boolean success, long receivedBytes, long sentBytes) {
+		histogram.record(elapsed);
+
+		if (!success) {
+			errors++;
+		}
+
+		this.receivedBytes += receivedBytes;
+		this.sentBytes += sentBytes;
+
+		if (timestamp >= 0) {
+			countInInterval(timestamp / resolution);
+		}
+	}
+
+	private void countInInterval(long interval) {
+		if (firstInterval < 0) {
+			firstInterval = interval;
+		}
+
+		if (interval < firstInterval) {
+			// samples are written when they end, so earlier ones can follow
+			int shift = Math.toIntExact(firstInterval - interval);
+			long[] shifted = new long[samplesPerInterval.length + shift];
+			System.arraycopy(samplesPerInterval, 0, shifted, shift, samplesPerInterval.length);
+
+			samplesPerInterval = shifted;
+			firstInterval = interval;
+		}
+
+		int index = Math.toIntExact(interval - firstInterval);
+
+		if (index >= samplesPerInterval.length) {
+			samplesPerInterval = Arrays.copyOf(samplesPerInterval, Math.max(index + 1, samplesPerInterval.length * 2));
+		}
+
+		samplesPerInterval[index]++;
+	}
+
+	public LatencyHistogram getHistogram() {
+		return histogram;
+	}
+
+	public long getErrors() {
+		return errors;
+	}
+
+	public long getReceivedBytes() {
+		return receivedBytes;
+	}
+
+	public long getSentBytes() {
+		return sentBytes;
+	}
+
+	/**
+	 * Gets the index of the first interval holding a sample, which is the timestamp of its start
+	 * divided by the resolution.
+	 *
+	 * @return The index of the first interval or -1 if there are no samples with a timestamp.
+	 */
+	public long getFirstInterval() {
+		return firstInterval;
+	}
+
+	/**
+	 * Gets the number of samples per interval, starting at {@code startInterval}.
+	 *
+	 * @param startInterval
+	 *            The index of the first interval to be returned. Has to be lower or equal to
+	 *            {@link #getFirstInterval()}.
+	 * @param numIntervals
+	 *            The number of intervals to be returned.
+	 * @return The number of samples per interval.
+	 */
+	public long[] getSamplesPerInterval(long startInterval, int numIntervals) {
+		long[] samples = new long[numIntervals];
+
+		if (firstInterval >= 0) {
+			int offset = Math.toIntExact(firstInterval - startInterval);
+			System.arraycopy(samplesPerInterval, 0, samples, offset, Math.min(samplesPerInterval.length, numIntervals - offset));
+		}
+
+		return samples;
+	}
+
+	/**
+	 * Gets the index of the last interval holding a sample.
+	 *
+	 * @return The index of the last interval or -1 if there are no samples with a timestamp.
+	 */
+	public long getLastInterval() {
+		if (firstInterval < 0) {
+			return -1;
+		}
+
+		int last = samplesPerInterval.length - 1;
+
+		while ((last > 0) && (samplesPerInterval[last] == 0)) {
+			last--;
+		}
+
+		return firstInterval + last;
+	}
+
+}
@@ -0,0 +1,173 @@
+package org.continuity.jmeter.report;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+/**
+ * Summary of the samples of one sampler (or of all samplers) of a load test.
+ *
+ * @author Henning Schulz
+ *
+ */
+@JsonPropertyOrder({ "label", "samples", "errors", "min", "mean", "max", "percentiles", "received-bytes", "sent-bytes", "throughput" })
+public class SamplerSummary {
+
+	private static final double[] PERCENTILES = { 50, 90, 95, 99, 99.9 };
+
+	private String label;
+
+	private long samples;
+
+	private long errors;
+
+	private long min;
+
+	private double mean;
+
+	private long max;
+
+	private Map<String, Long> percentiles;
+
+	@JsonProperty("received-bytes")
+	private long receivedBytes;
+
+	@JsonProperty("sent-bytes")
+	private long sentBytes;
+
+	private long[] throughput;
+
+	public SamplerSummary() {
+	}
+
+	/**
+	 * Creates a summary from the statistics of a sampler.
+	 *
+	 * @param label
+	 *            The label of the sampler.
+	 * @param statistics
+	 *            The statistics.
+	 * @param startInterval
+	 *            The index of the first interval of the throughput.
+	 * @param numIntervals
+	 *            The number of intervals of the throughput.
+	 * @return The summary.
+	 */
+	public static SamplerSummary fromStatistics(String label, SamplerStatistics statistics, long startInterval, int numIntervals) {
+		SamplerSummary summary = new SamplerSummary();
+		LatencyHistogram histogram = statistics.getHistogram();
+
+		summary.label = label;
+		summary.samples = histogram.getTotalCount();
+		summary.errors = statistics.getErrors();
+		summary.min = histogram.getMin();
+		summary.mean = histogram.getMean();
+		summary.max = histogram.getMax();
+		summary.percentiles = new LinkedHashMap<>();
+
+		for (double percentile : PERCENTILES) {
+			String key = (percentile == Math.rint(percentile)) ? Long.toString((long) percentile) : Double.toString(percentile);
+			summary.percentiles.put(key, histogram.getValueAtPercentile(percentile));
+		}
+
+		summary.receivedBytes = statistics.getReceivedBytes();
+		summary.sentBytes = statistics.getSentBytes();
+		summary.throughput = statistics.getSamplesPerInterval(startInterval, numIntervals);
+
+		return summary;
+	}
+
+	public String getLabel() {
+		return label;
+	}
+
+	public void setLabel(String label) {
+		this.label = label;
+	}
+
+	public long getSamples() {
+		return samples;
+	}
+
+	public void setSamples(long samples) {
+		this.samples = samples;
+	}
+
+	public long getErrors() {
+		return errors;
+	}
+
+	public void setErrors(long errors) {
+		this.errors = errors;
+	}
+
+	public long getMin() {
+		return min;
+	}
+
+	public void setMin(long min) {
+		this.min = min;
+	}
+
+	public double getMean() {
+		return mean;
+	}
+
+	public void setMean(double mean) {
+		this.mean = mean;
+	}
+
+	public long getMax() {
+		return max;
+	}
+
+	public void setMax(long max) {
+		this.max = max;
+	}
+
+	/**
+	 * Gets the response times at the 50th, 90th, 95th, 99th, and 99.9th percentile.
+	 *
+	 * @return Map from the percentile to the response time.
+	 */
+	public Map<String, Long> getPercentiles() {
+		return percentiles;
+	}
+
+	public void setPercentiles(Map<String, Long> percentiles) {
+		this.percentiles = percentiles;
+	}
+
+	public long getReceivedBytes() {
+		return receivedBytes;
+	}
+
+	public void setReceivedBytes(long receivedBytes) {
+		this.receivedBytes = receivedBytes;
+	}
+
+	public long getSentBytes() {
+		return sentBytes;
+	}
+
+	public void setSentBytes(long sentBytes) {
+		this.sentBytes = sentBytes;
+	}
+
+	/**
+	 * Gets the number of samples per interval, starting at the start time of the report.
+	 *
+	 * @return The number of samples per interval.
+	 * @see ReportSummary#getThroughputResolution()
+	 */
+	public long[] getThroughput() {
+		return throughput;
+	}
+
+	public void setThroughput(long[] throughput) {
+		this.throughput = throughput;
+	}
+
+}
@@ -0,0 +1,151 @@
+package org.continuity.jmeter.execution;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class JMeterExecutionManagerTest {
+
+	private static final long TIMEOUT = 60000;
+
+	private static final Path TEST_PLAN = Paths.get("testplan.jmx");
+
+	private JMeterExecutionManager manager;
+
+	private LinkedBlockingQueue<String> events;
+
+	@Before
+	public void setup() {
+		events = new LinkedBlockingQueue<>();
+
+		manager = createManager(1, 1);
+	}
+
+	@After
+	public void cleanup() {
+		manager.shutdown();
+	}
+
+	@Test
+	public void testAdmissionAndCancellation() throws InterruptedException {
+		assertThat(manager.submit("first", TEST_PLAN, TIMEOUT, new RecordingListener("first"))).isTrue();
+		assertThat(nextEvent()).isEqualTo("first started");
+
+		assertThat(manager.submit("second", TEST_PLAN, TIMEOUT, new RecordingListener("second"))).isTrue();
+		assertThat(manager.submit("third", TEST_PLAN, TIMEOUT, new RecordingListener("third"))).isFalse();
+		assertThat(manager.submit("first", TEST_PLAN, TIMEOUT, new RecordingListener("first"))).isFalse();
+
+		assertThat(manager.getExecutionStates()).containsEntry("first", ExecutionState.RUNNING).containsEntry("second", ExecutionState.QUEUED).hasSize(2);
+
+		assertThat(manager.cancel("second")).isTrue();
+		assertThat(nextEvent()).isEqualTo("second ended aborted");
+
+		assertThat(manager.cancel("first")).isTrue();
+		assertThat(nextEvent()).isEqualTo("first ended aborted");
+
+		assertThat(manager.cancel("first")).isFalse();
+		assertThat(manager.getExecutionStates()).isEmpty();
+	}
+
+	@Test
+	public void testQueuedTestStartsAfterRunningOne() throws InterruptedException {
+		manager.submit("first", TEST_PLAN, TIMEOUT, new RecordingListener("first"));
+		manager.submit("second", TEST_PLAN, TIMEOUT, new RecordingListener("second"));
+		assertThat(nextEvent()).isEqualTo("first started");
+
+		manager.cancel("first");
+
+		assertThat(nextEvent()).isEqualTo("first ended aborted");
+		assertThat(nextEvent()).isEqualTo("second started");
+	}
+
+	@Test
+	public void testWatchdog() throws InterruptedException {
+		manager.submit("first", TEST_PLAN, 100, new RecordingListener("first"));
+
+		assertThat(nextEvent()).isEqualTo("first started");
+		assertThat(nextEvent()).isEqualTo("first ended aborted");
+	}
+
+	@Test
+	public void testConcurrentExecution() throws InterruptedException {
+		manager.shutdown();
+		manager = createManager(2, 2);
+
+		manager.submit("first", TEST_PLAN, TIMEOUT, new RecordingListener("first"));
+		manager.submit("second", TEST_PLAN, TIMEOUT, new RecordingListener("second"));
+		assertThat(Arrays.asList(nextEvent(), nextEvent())).containsExactlyInAnyOrder("first started", "second started");
+
+		manager.cancel("first");
+		assertThat(nextEvent()).isEqualTo("first ended aborted");
+		assertThat(manager.getExecutionStates()).containsEntry("second", ExecutionState.RUNNING).hasSize(1);
+
+		manager.cancel("second");
+		assertThat(nextEvent()).isEqualTo("second ended aborted");
+	}
+
+	private JMeterExecutionManager createManager(int maxConcurrentTests, int queueCapacity) {
+		return new JMeterExecutionManager(maxConcurrentTests, queueCapacity, "../", Collections.emptyList()) {
+			@Override
+			protected JMeterProcess startProcess(Path testPlan) {
+				return new BlockingProcess();
+			}
+		};
+	}
+
+	private String nextEvent() throws InterruptedException {
+		return events.poll(10, TimeUnit.SECONDS);
+	}
+
+	private class RecordingListener implements ExecutionListener {
+
+		private final String name;
+
+		private RecordingListener(String name) {
+			this.name = name;
+		}
+
+		@Override
+		public void executionStarted() {
+			events.add(name + " started");
+		}
+
+		@Override
+		public void executionEnded(boolean aborted) {
+			events.add(name + " ended" + (aborted ? " aborted" : ""));
+		}
+
+	}
+
+	private static class BlockingProcess extends JMeterProcess {
+
+		private final CountDownLatch stopped = new CountDownLatch(1);
+
+		private BlockingProcess() {
+			super(null);
+		}
+
+		@Override
+		public int waitFor() throws InterruptedException {
+			stopped.await();
+			return 0;
+		}
+
+		@Override
+		public void stop() {
+			stopped.countDown();
+		}
+
+	}
+
+}
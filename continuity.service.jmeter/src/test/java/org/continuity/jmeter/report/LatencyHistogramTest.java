@@ -0,0 +1,67 @@
+package org.continuity.jmeter.report;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class LatencyHistogramTest {
+
+	@Test
+	public void testExactForSmallValues() {
+		LatencyHistogram histogram = new LatencyHistogram();
+
+		for (int i = 1; i <= 100; i++) {
+			histogram.record(i);
+		}
+
+		assertThat(histogram.getTotalCount()).isEqualTo(100);
+		assertThat(histogram.getMin()).isEqualTo(1);
+		assertThat(histogram.getMax()).isEqualTo(100);
+		assertThat(histogram.getMean()).isEqualTo(50.5);
+		assertThat(histogram.getValueAtPercentile(50)).isEqualTo(50);
+		assertThat(histogram.getValueAtPercentile(99)).isEqualTo(99);
+		assertThat(histogram.getValueAtPercentile(100)).isEqualTo(100);
+	}
+
+	@Test
+	public void testRelativeErrorForLargeValues() {
+		Random random = new Random(42);
+		LatencyHistogram histogram = new LatencyHistogram();
+		long[] values = new long[10000];
+
+		for (int i = 0; i < values.length; i++) {
+			values[i] = (long) Math.exp(random.nextDouble() * 20);
+			histogram.record(values[i]);
+		}
+
+		Arrays.sort(values);
+
+		for (double percentile : new double[] { 10, 50, 90, 99, 99.9 }) {
+			long expected = values[(int) Math.ceil((percentile / 100) * values.length) - 1];
+			assertThat((double) histogram.getValueAtPercentile(percentile)).isCloseTo(expected, within(expected / 64.0));
+		}
+
+		assertThat(histogram.getValueAtPercentile(100)).isEqualTo(values[values.length - 1]);
+	}
+
+	@Test
+	public void testAdd() {
+		LatencyHistogram first = new LatencyHistogram();
+		LatencyHistogram second = new LatencyHistogram();
+
+		first.record(10);
+		second.record(1000000);
+		second.record(20);
+		first.add(second);
+
+		assertThat(first.getTotalCount()).isEqualTo(3);
+		assertThat(first.getMin()).isEqualTo(10);
+		assertThat(first.getMax()).isEqualTo(1000000);
+		assertThat(first.getValueAtPercentile(50)).isEqualTo(20);
+	}
+
+}
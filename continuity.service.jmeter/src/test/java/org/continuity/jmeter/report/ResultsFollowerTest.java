@@ -0,0 +1,113 @@
+package org.continuity.jmeter.report;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.GZIPInputStream;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ResultsFollowerTest {
+
+	private static final String HEADER = "timeStamp,elapsed,label,responseCode,responseMessage,threadName,dataType,success,failureMessage,bytes,sentBytes,grpThreads,allThreads,URL,Latency,IdleTime,Connect\n";
+
+	private static final String RESULTS = HEADER //
+			+ "1000,10,home,200,OK,Thread 1-1,text,true,,100,10,1,1,http://localhost/home,9,0,1\n" //
+			+ "1500,30,\"buy, now\",200,OK,Thread 1-1,text,true,,200,20,1,1,http://localhost/buy,29,0,1\n" //
+			+ "900,20,home,500,\"Internal\nError\",Thread 1-2,text,false,,50,10,2,2,http://localhost/home,19,0,1\n" //
+			+ "2100,40,home,200,OK,Thread 1-2,text,true,,100,10,2,2,http://localhost/home,39,0,1\n";
+
+	private Path dir;
+
+	@Before
+	public void setup() throws IOException {
+		dir = Files.createTempDirectory("results-follower-test");
+	}
+
+	@After
+	public void cleanup() throws IOException {
+		FileUtils.deleteDirectory(dir.toFile());
+	}
+
+	@Test
+	public void testFollowGrowingFile() throws IOException, InterruptedException {
+		Path resultsPath = dir.resolve("results.csv");
+		Path reportPath = dir.resolve("report.csv.gz");
+
+		ResultsFollower follower = new ResultsFollower(resultsPath, reportPath, new ResultAggregator(1000));
+		follower.start();
+
+		// write in chunks that split lines
+		try (OutputStream out = Files.newOutputStream(resultsPath, StandardOpenOption.CREATE_NEW)) {
+			byte[] bytes = RESULTS.getBytes(Charset.defaultCharset());
+
+			for (int i = 0; i < bytes.length; i += 37) {
+				out.write(bytes, i, Math.min(37, bytes.length - i));
+				out.flush();
+				Thread.sleep(5);
+			}
+		}
+
+		ReportSummary summary = follower.finish(false);
+
+		assertThat(summary.isFinished()).isTrue();
+		assertThat(summary.isAborted()).isFalse();
+		assertThat(summary.getStartTime()).isEqualTo(0);
+		assertThat(summary.getEndTime()).isEqualTo(3000);
+		assertThat(summary.getTotal().getSamples()).isEqualTo(4);
+		assertThat(summary.getTotal().getErrors()).isEqualTo(1);
+		assertThat(summary.getTotal().getReceivedBytes()).isEqualTo(450);
+		assertThat(summary.getTotal().getMax()).isEqualTo(40);
+		assertThat(summary.getTotal().getThroughput()).containsExactly(1, 2, 1);
+
+		assertThat(summary.getSamplers()).extracting(SamplerSummary::getLabel).containsExactly("home", "buy, now");
+		assertThat(summary.getSamplers().get(0).getSamples()).isEqualTo(3);
+		assertThat(summary.getSamplers().get(0).getPercentiles().get("50")).isEqualTo(20);
+		assertThat(summary.getSamplers().get(0).getThroughput()).containsExactly(1, 1, 1);
+		assertThat(summary.getSamplers().get(1).getThroughput()).containsExactly(0, 1, 0);
+
+		assertThat(decompress(reportPath)).isEqualTo(RESULTS);
+	}
+
+	@Test
+	public void testAborted() throws IOException, InterruptedException {
+		Path resultsPath = dir.resolve("results.csv");
+		Path reportPath = dir.resolve("report.csv.gz");
+		Files.write(resultsPath, HEADER.getBytes(Charset.defaultCharset()));
+
+		ResultsFollower follower = new ResultsFollower(resultsPath, reportPath, new ResultAggregator(1000));
+		follower.start();
+
+		ReportSummary summary = follower.finish(true);
+
+		assertThat(summary.isAborted()).isTrue();
+		assertThat(summary.getTotal().getSamples()).isEqualTo(0);
+		assertThat(decompress(reportPath)).startsWith(HEADER).contains("WARNING: The test has been aborted with force!");
+	}
+
+	private String decompress(Path path) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+		try (InputStream in = new GZIPInputStream(Files.newInputStream(path))) {
+			byte[] buffer = new byte[1024];
+			int read;
+
+			while ((read = in.read(buffer)) > 0) {
+				out.write(buffer, 0, read);
+			}
+		}
+
+		return new String(out.toByteArray(), Charset.defaultCharset());
+	}
+
+}
@@ -96,7 +96,7 @@ public class OrchestrationAmqpHandler {
 	private void finishRecipe(OrderReport report, String recipeId) {
 		amqpTemplate.convertAndSend(AmqpApi.Orchestrator.EVENT_FINISHED.name(), AmqpApi.Orchestrator.EVENT_FINISHED.formatRoutingKey().of(report.getOrderId()), report);
 
-		storage.remove(report.getOrderId());
+		storage.remove(recipeId);
 
 		LOGGER.info("{} Sent recipe to finished queue.", LoggingUtils.formatPrefix(report.getOrderId(), recipeId));
 	}
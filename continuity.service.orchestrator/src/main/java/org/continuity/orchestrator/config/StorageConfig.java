@@ -1,9 +1,11 @@
 package org.continuity.orchestrator.config;
 
 import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
 
 import org.continuity.api.entities.deserialization.YamlJackson2HttpMessageConverter;
 import org.continuity.commons.storage.MemoryStorage;
+import org.continuity.orchestrator.entities.OrderReportCounter;
 import org.continuity.orchestrator.entities.Recipe;
 import org.continuity.orchestrator.storage.ConfigurationStorage;
 import org.continuity.orchestrator.storage.TestingContextStorage;
@@ -19,8 +21,13 @@ public class StorageConfig {
 
 	@Bean
 	@Primary
-	public MemoryStorage<Recipe> recipeStorage() {
-		return new MemoryStorage<>(Recipe.class);
+	public MemoryStorage<Recipe> recipeStorage(@Value("${storage.memory.max-size:0}") int maxSize, @Value("${storage.memory.ttl-minutes:10080}") long ttlMinutes) {
+		return new MemoryStorage<>(Recipe.class, maxSize, ttlMinutes, TimeUnit.MINUTES);
+	}
+
+	@Bean
+	public MemoryStorage<OrderReportCounter> orderCounterStorage(@Value("${storage.memory.max-size:0}") int maxSize, @Value("${storage.memory.ttl-minutes:10080}") long ttlMinutes) {
+		return new MemoryStorage<>(OrderReportCounter.class, maxSize, ttlMinutes, TimeUnit.MINUTES);
 	}
 
 	@Bean
@@ -70,7 +70,8 @@ public class OrchestrationController {
 
 	private static final Logger LOGGER = LoggerFactory.getLogger(OrchestrationController.class);
 
-	private final MemoryStorage<OrderReportCounter> orderCounterStorage = new MemoryStorage<>(OrderReportCounter.class);
+	@Autowired
+	private MemoryStorage<OrderReportCounter> orderCounterStorage;
 
 	@Autowired
 	private MemoryStorage<Recipe> recipeStorage;
@@ -225,6 +226,7 @@ public class OrchestrationController {
 
 			if (reportNumber == reportCounter.getNumReports()) {
 				deleteResponseQueue(orderId);
+				orderCounterStorage.remove(orderId);
 				LOGGER.info("{} Returning report number {}/{}. Therefore, deleting the response queue.", LoggingUtils.formatPrefix(orderId), reportNumber, reportCounter.getNumReports());
 			}
 
@@ -66,7 +66,7 @@ public class WorkloadModelAmqpHandler {
 	 * @throws SecurityException
 	 * @see WessbasModelController
 	 */
-	@RabbitListener(queues = RabbitMqConfig.TASK_CREATE_WORKLOAD_QUEUE_NAME)
+	@RabbitListener(queues = RabbitMqConfig.TASK_CREATE_WORKLOAD_QUEUE_NAME, containerFactory = "workloadContainerFactory")
 	public void onMonitoringDataAvailable(TaskDescription task) throws SecurityException, IOException, GeneratorException {
 		LOGGER.info("Task {}: Received new task for creating a workload model for app-id '{}'", task.getTaskId(), task.getAppId());
 
@@ -79,40 +79,48 @@ public class WorkloadModelAmqpHandler {
 			LOGGER.error("Task {}: Cannot process {} behavior model for app-id {}!", task.getTaskId(), task.getSource().getBehaviorModelLinks().getType(), task.getAppId());
 			report = TaskReport.error(task.getTaskId(), TaskError.ILLEGAL_TYPE);
 		} else {
-			List<String> pathParams = RestApi.Wessbas.BehaviorModel.GET.parsePathParameters(task.getSource().getBehaviorModelLinks().getLink());
-			WessbasPipelineManager pipelineManager;
-			BehaviorModelPack behaviorModel;
+			// each task works in its own temp directory, which is deleted afterwards
+			WessbasPipelineManager pipelineManager = new WessbasPipelineManager(restTemplate);
 
-			if ((pathParams == null) || pathParams.isEmpty()) {
-				LOGGER.info("Task {}: Transforming externally created Markov behavior model to the WESSBAS format.", task.getTaskId());
-				LOGGER.warn("Task {}: Service-tailoring is currently not supported in this case!", task.getTaskId());
-
-				pipelineManager = new WessbasPipelineManager(restTemplate);
-				behaviorModel = pipelineManager.createBehaviorModelFromMarkovChains(task);
-			} else {
-				LOGGER.info("Task {}: Using internally created behavior model.", task.getTaskId());
-
-				behaviorModel = behaviorStorage.get(pathParams.get(0));
-				pipelineManager = new WessbasPipelineManager(restTemplate, behaviorModel.getPathToBehaviorModelFiles());
+			try {
+				report = createWorkloadModel(task, pipelineManager);
+			} finally {
+				pipelineManager.cleanup();
 			}
+		}
 
-			WessbasBundle workloadModel = pipelineManager.transformBehaviorModelToWorkloadModelIncludingTailoring(behaviorModel, task);
+		amqpTemplate.convertAndSend(AmqpApi.Global.EVENT_FINISHED.name(), AmqpApi.Global.EVENT_FINISHED.formatRoutingKey().of(RabbitMqConfig.SERVICE_NAME), report);
+	}
 
-			if (workloadModel == null) {
-				LOGGER.info("Task {}: Could not create a new workload model for app-id '{}'.", task.getTaskId(), task.getAppId());
+	private TaskReport createWorkloadModel(TaskDescription task, WessbasPipelineManager pipelineManager) throws SecurityException, IOException, GeneratorException {
+		List<String> pathParams = RestApi.Wessbas.BehaviorModel.GET.parsePathParameters(task.getSource().getBehaviorModelLinks().getLink());
+		BehaviorModelPack behaviorModel;
 
-				report = TaskReport.error(task.getTaskId(), TaskError.INTERNAL_ERROR);
-			} else {
-				String storageId = storage.put(workloadModel, task.getAppId(), task.isLongTermUse());
+		if ((pathParams == null) || pathParams.isEmpty()) {
+			LOGGER.info("Task {}: Transforming externally created Markov behavior model to the WESSBAS format.", task.getTaskId());
+			LOGGER.warn("Task {}: Service-tailoring is currently not supported in this case!", task.getTaskId());
 
-				LOGGER.info("Task {}: Created a new workload model with id '{}'.", task.getTaskId(), storageId);
+			behaviorModel = pipelineManager.createBehaviorModelFromMarkovChains(task);
+		} else {
+			LOGGER.info("Task {}: Using internally created behavior model.", task.getTaskId());
 
-				WorkloadModelPack responsePack = new WorkloadModelPack(applicationName, storageId, task.getAppId(), TailoringUtils.doTailoring(task.getEffectiveServices()));
-				report = TaskReport.successful(task.getTaskId(), responsePack);
-			}
+			behaviorModel = pipelineManager.importBehaviorModel(behaviorStorage.get(pathParams.get(0)));
 		}
 
-		amqpTemplate.convertAndSend(AmqpApi.Global.EVENT_FINISHED.name(), AmqpApi.Global.EVENT_FINISHED.formatRoutingKey().of(RabbitMqConfig.SERVICE_NAME), report);
+		WessbasBundle workloadModel = pipelineManager.transformBehaviorModelToWorkloadModelIncludingTailoring(behaviorModel, task);
+
+		if (workloadModel == null) {
+			LOGGER.info("Task {}: Could not create a new workload model for app-id '{}'.", task.getTaskId(), task.getAppId());
+
+			return TaskReport.error(task.getTaskId(), TaskError.INTERNAL_ERROR);
+		} else {
+			String storageId = storage.put(workloadModel, task.getAppId(), task.isLongTermUse());
+
+			LOGGER.info("Task {}: Created a new workload model with id '{}'.", task.getTaskId(), storageId);
+
+			WorkloadModelPack responsePack = new WorkloadModelPack(applicationName, storageId, task.getAppId(), TailoringUtils.doTailoring(task.getEffectiveServices()));
+			return TaskReport.successful(task.getTaskId(), responsePack);
+		}
 	}
 
 }
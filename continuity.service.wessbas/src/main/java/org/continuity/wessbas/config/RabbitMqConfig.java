@@ -14,9 +14,11 @@ import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
 import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.amqp.SimpleRabbitListenerContainerFactoryConfigurer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 
@@ -64,6 +66,7 @@ public class RabbitMqConfig {
 	}
 
 	@Bean
+	@Primary
 	SimpleRabbitListenerContainerFactory containerFactory(ConnectionFactory connectionFactory, MessageConverter converter, SimpleRabbitListenerContainerFactoryConfigurer configurer) {
 		SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
 		configurer.configure(factory, connectionFactory);
@@ -72,6 +75,24 @@ public class RabbitMqConfig {
 		return factory;
 	}
 
+	/**
+	 * Container factory for the workload model creation. Processes up to
+	 * {@code wessbas.workload.workers} tasks concurrently and fetches one task per worker at a
+	 * time.
+	 */
+	@Bean
+	SimpleRabbitListenerContainerFactory workloadContainerFactory(ConnectionFactory connectionFactory, MessageConverter converter, SimpleRabbitListenerContainerFactoryConfigurer configurer,
+			@Value("${wessbas.workload.workers:4}") int workers) {
+		SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+		configurer.configure(factory, connectionFactory);
+		factory.setMessageConverter(converter);
+		factory.setAfterReceivePostProcessors(typeRemovingProcessor());
+		factory.setConcurrentConsumers(workers);
+		factory.setMaxConcurrentConsumers(workers);
+		factory.setPrefetchCount(1);
+		return factory;
+	}
+
 	@Bean
 	TopicExchange taskCreateExchange() {
 		return AmqpApi.Global.TASK_CREATE.create();
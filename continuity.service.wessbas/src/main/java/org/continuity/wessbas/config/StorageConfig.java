@@ -1,6 +1,7 @@
 package org.continuity.wessbas.config;
 
 import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
 
 import org.continuity.commons.storage.MixedStorage;
 import org.continuity.wessbas.entities.BehaviorModelPack;
@@ -14,8 +15,9 @@ import org.springframework.context.annotation.Configuration;
 public class StorageConfig {
 
 	@Bean
-	public MixedStorage<WessbasBundle> wessbasStorage(@Value("${storage.path:storage}") String storagePath) {
-		return new MixedStorage<>(WessbasBundle.class, new WessbasFileStorage(Paths.get(storagePath)));
+	public MixedStorage<WessbasBundle> wessbasStorage(@Value("${storage.path:storage}") String storagePath, @Value("${storage.memory.max-size:100}") int maxMemorySize,
+			@Value("${storage.memory.ttl-minutes:60}") long ttlMinutes) {
+		return new MixedStorage<>(WessbasBundle.class, new WessbasFileStorage(Paths.get(storagePath)), maxMemorySize, ttlMinutes, TimeUnit.MINUTES);
 	}
 	
 	@Bean
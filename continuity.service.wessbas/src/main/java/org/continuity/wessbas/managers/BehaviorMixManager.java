@@ -20,7 +20,6 @@ import net.sf.markov4jmeter.behavior.BehaviorMix;
 import net.sf.markov4jmeter.behavior.Session;
 import net.sf.markov4jmeter.behaviormodelextractor.BehaviorModelExtractor;
 import net.sf.markov4jmeter.behaviormodelextractor.extraction.ExtractionException;
-import net.sf.markov4jmeter.m4jdslmodelgenerator.GeneratorException;
 import wessbas.commons.parser.ParseException;
 
 /**
@@ -78,11 +77,34 @@ public class BehaviorMixManager {
 	 * @return The generated workload model.
 	 */
 	public SessionsBundlePack runPipeline(String sessionLog) {
+		Path sessionLogsPath;
+
+		try {
+			sessionLogsPath = writeSessionLogIntoFile(sessionLog);
+		} catch (IOException e) {
+			LOGGER.error("Could not write the session logs!", e);
+			return null;
+		}
+
+		return runPipeline(sessionLogsPath);
+	}
+
+	/**
+	 * Runs the pipeline on session logs that are already stored in a file and returns a
+	 * SessionsBundlePack that holds a list of SessionBundles. Avoids holding the whole session
+	 * logs in memory.
+	 *
+	 * @param sessionLogsPath
+	 *            Path to the file holding the session logs.
+	 *
+	 * @return The generated workload model.
+	 */
+	public SessionsBundlePack runPipeline(Path sessionLogsPath) {
 		BehaviorMix mix;
 		SessionsBundlePack sessionsBundles;
 
 		try {
-			mix = convertSessionLogIntoBehaviorMix(sessionLog);
+			mix = createBehaviorMix(sessionLogsPath);
 			sessionsBundles = extractSessions(version, mix);
 
 		} catch (Exception e) {
@@ -94,20 +116,6 @@ public class BehaviorMixManager {
 		return sessionsBundles;
 	}
 
-	/**
-	 * This method extracts the Behavior Mix from a session log.
-	 *
-	 * @param sessionLog
-	 * @throws IOException
-	 * @throws GeneratorException
-	 * @throws SecurityException
-	 */
-	private BehaviorMix convertSessionLogIntoBehaviorMix(String sessionLog) throws IOException, SecurityException, GeneratorException, ExtractionException, ParseException {
-		Path sessionLogsPath = writeSessionLogIntoFile(sessionLog);
-		BehaviorMix mix = createBehaviorMix(sessionLogsPath);
-		return mix;
-	}
-
 	/**
 	 *
 	 * @param sessionLog
@@ -5,12 +5,16 @@ import static java.util.stream.Collectors.mapping;
 import static java.util.stream.Collectors.summingDouble;
 import static java.util.stream.Collectors.toList;
 
+import java.io.BufferedReader;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -20,17 +24,18 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.Objects;
 import java.util.Optional;
 import java.util.Properties;
 import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
-import org.apache.commons.lang3.Range;
+import org.apache.commons.io.FileUtils;
 import org.continuity.api.entities.artifact.ForecastIntensityRecord;
 import org.continuity.api.entities.artifact.SessionsBundlePack;
 import org.continuity.api.entities.artifact.SimplifiedSession;
+import org.continuity.api.entities.artifact.markovbehavior.DenseMarkovChain;
 import org.continuity.api.entities.artifact.markovbehavior.MarkovBehaviorModel;
 import org.continuity.api.entities.artifact.markovbehavior.NormalDistribution;
 import org.continuity.api.entities.artifact.markovbehavior.RelativeMarkovChain;
@@ -47,8 +52,6 @@ import org.continuity.wessbas.entities.WessbasBundle;
 import org.continuity.wessbas.entities.WessbasDslInstance;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.MediaType;
 import org.springframework.web.client.RestClientException;
@@ -73,6 +76,12 @@ public class WessbasPipelineManager {
 
 	public static final String PREFIX_BEHAVIOR_MODEL = "gen_behavior_model";
 
+	private static final String FILENAME_SESSIONS = "sessions.dat";
+
+	private static final String FILENAME_WORKLOAD_INTENSITY = "workloadIntensity.properties";
+
+	private static final String FILENAME_BEHAVIOR_MIX = "behaviormix.txt";
+
 	private static final Logger LOGGER = LoggerFactory.getLogger(WessbasPipelineManager.class);
 
 	private RestTemplate restTemplate;
@@ -109,6 +118,77 @@ public class WessbasPipelineManager {
 		LOGGER.info("Set working directory to {}", workingDir);
 	}
 
+	/**
+	 * Gets the working directory, in which all files are created.
+	 *
+	 * @return The working directory.
+	 */
+	public Path getWorkingDir() {
+		return workingDir;
+	}
+
+	/**
+	 * Copies a previously created behavior model into the working directory. Hence, the behavior
+	 * model can be transformed and modularized without changing the original files, which might be
+	 * used by other tasks concurrently. The session logs are linked instead of copied if possible,
+	 * as they are only read.
+	 *
+	 * @param behaviorModelPack
+	 *            The behavior model to be copied.
+	 * @return A {@link BehaviorModelPack} pointing to the copy.
+	 * @throws IOException
+	 */
+	public BehaviorModelPack importBehaviorModel(BehaviorModelPack behaviorModelPack) throws IOException {
+		Path sourceDir = behaviorModelPack.getPathToBehaviorModelFiles();
+
+		LOGGER.info("Copying the behavior model from {} to {}...", sourceDir, workingDir);
+
+		List<Path> sourceFiles;
+
+		try (Stream<Path> paths = Files.walk(sourceDir)) {
+			sourceFiles = paths.collect(Collectors.toList());
+		}
+
+		for (Path source : sourceFiles) {
+			Path target = workingDir.resolve(sourceDir.relativize(source).toString());
+
+			if (Files.isDirectory(source)) {
+				Files.createDirectories(target);
+			} else if (FILENAME_SESSIONS.equals(source.getFileName().toString())) {
+				linkOrCopy(source, target);
+			} else if (FILENAME_BEHAVIOR_MIX.equals(source.getFileName().toString())) {
+				// the behavior mix holds absolute paths to the behavior models
+				String behaviorMix = new String(Files.readAllBytes(source), StandardCharsets.UTF_8);
+				Files.write(target, behaviorMix.replace(sourceDir.toString(), workingDir.toString()).getBytes(StandardCharsets.UTF_8));
+			} else {
+				Files.copy(source, target, StandardCopyOption.REPLACE_EXISTING);
+			}
+		}
+
+		return new BehaviorModelPack(behaviorModelPack.getSessionsBundlePack(), workingDir);
+	}
+
+	private void linkOrCopy(Path source, Path target) throws IOException {
+		try {
+			Files.createLink(target, source);
+		} catch (UnsupportedOperationException | IOException e) {
+			LOGGER.debug("Could not link {}. Copying it instead.", source);
+			Files.copy(source, target, StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
+	/**
+	 * Deletes the working directory including all files.
+	 */
+	public void cleanup() {
+		try {
+			FileUtils.deleteDirectory(workingDir.toFile());
+			LOGGER.info("Deleted working directory {}.", workingDir);
+		} catch (IOException e) {
+			LOGGER.warn("Could not delete working directory {}!", workingDir, e);
+		}
+	}
+
 	/**
 	 * Runs the whole pipeline by creating a behavior model and transforming it into a workload
 	 * model.
@@ -154,21 +234,23 @@ public class WessbasPipelineManager {
 	 * @throws IOException
 	 */
 	public BehaviorModelPack createBehaviorModelFromSessions(TaskDescription task, long interval) throws IOException {
-		HttpHeaders headers = new HttpHeaders();
-		headers.setAccept(Collections.singletonList(MediaType.TEXT_PLAIN));
+		Path sessionLogsPath = workingDir.resolve(FILENAME_SESSIONS);
 
-		String sessionLogs;
 		try {
-			sessionLogs = restTemplate.exchange(WebUtils.addProtocolIfMissing(task.getSource().getSessionLinks().getExtendedLink()), HttpMethod.GET, new HttpEntity<>(headers), String.class).getBody();
+			restTemplate.execute(WebUtils.addProtocolIfMissing(task.getSource().getSessionLinks().getExtendedLink()), HttpMethod.GET,
+					request -> request.getHeaders().setAccept(Collections.singletonList(MediaType.TEXT_PLAIN)), response -> {
+						Files.copy(response.getBody(), sessionLogsPath, StandardCopyOption.REPLACE_EXISTING);
+						return null;
+					});
 		} catch (RestClientException e) {
 			LOGGER.error("Error when retrieving the session logs!", e);
 			return null;
 		}
 
-		createWorkloadIntensity(sessionLogs, interval);
+		createWorkloadIntensity(sessionLogsPath, interval);
 
 		BehaviorMixManager behaviorManager = new BehaviorMixManager(task.getVersion(), workingDir);
-		SessionsBundlePack sessionsBundles = behaviorManager.runPipeline(sessionLogs);
+		SessionsBundlePack sessionsBundles = behaviorManager.runPipeline(sessionLogsPath);
 
 		return new BehaviorModelPack(sessionsBundles, workingDir);
 	}
@@ -187,18 +269,23 @@ public class WessbasPipelineManager {
 
 		MarkovBehaviorModel markovModel = restTemplate.getForObject(WebUtils.addProtocolIfMissing(task.getSource().getBehaviorModelLinks().getLink()), MarkovBehaviorModel.class);
 
-		for (RelativeMarkovChain chain : markovModel.getMarkovChains()) {
-			for (String state : chain.getRequestStates()) {
-				double maxProb = chain.getTransitions().entrySet().stream().filter(e -> !state.equals(e.getKey())).map(Entry::getValue).map(map -> map.get(state)).filter(Objects::nonNull)
-						.mapToDouble(RelativeMarkovTransition::getProbability).max().orElse(0);
+		List<RelativeMarkovChain> cleanedChains = new ArrayList<>(markovModel.getMarkovChains().size());
+
+		for (RelativeMarkovChain origChain : markovModel.getMarkovChains()) {
+			DenseMarkovChain chain = DenseMarkovChain.fromMarkovChain(origChain);
 
-				if (maxProb < RelativeMarkovTransition.PRECISION) {
+			for (String state : chain.getRequestStates()) {
+				if (chain.getMaxIncomingProbability(state) < RelativeMarkovTransition.PRECISION) {
 					LOGGER.info("Markov chain {}: removing state {} because it has no incoming transitions larger than {}.", chain.getId(), state, RelativeMarkovTransition.PRECISION);
 					chain.removeState(state, NormalDistribution.ZERO);
 				}
 			}
+
+			cleanedChains.add(chain.toMarkovChain());
 		}
 
+		markovModel.setMarkovChains(cleanedChains);
+
 		markovModel.synchronizeMarkovChains();
 
 		List<ForecastIntensityRecord> intensities = loadIntensities(task.getSource().getIntensity());
@@ -279,10 +366,16 @@ public class WessbasPipelineManager {
 		}
 
 		Properties intensityProps = new Properties();
-		intensityProps.load(Files.newInputStream(workingDir.resolve("workloadIntensity.properties")));
+
+		try (InputStream in = Files.newInputStream(workingDir.resolve(FILENAME_WORKLOAD_INTENSITY))) {
+			intensityProps.load(in);
+		}
 
 		Properties behaviorProperties = new Properties();
-		behaviorProperties.load(Files.newInputStream(workingDir.resolve("behaviormodelextractor").resolve("behaviormix.txt")));
+
+		try (InputStream in = Files.newInputStream(workingDir.resolve("behaviormodelextractor").resolve(FILENAME_BEHAVIOR_MIX))) {
+			behaviorProperties.load(in);
+		}
 
 		Map<String, String> intensities = new HashMap<>();
 		Enumeration<?> propsEnum = intensityProps.propertyNames();
@@ -309,8 +402,14 @@ public class WessbasPipelineManager {
 		return Arrays.asList(records);
 	}
 
-	private Properties createWorkloadIntensity(String sessionLogs, long interval) throws IOException {
-		return createWorkloadIntensity(calculateIntensity(sessionLogs, interval));
+	private Properties createWorkloadIntensity(Path sessionLogsPath, long interval) throws IOException {
+		List<SimplifiedSession> sessions;
+
+		try (BufferedReader reader = Files.newBufferedReader(sessionLogsPath, StandardCharsets.UTF_8)) {
+			sessions = SimplifiedSessionLogsDeserializer.parse(reader);
+		}
+
+		return createWorkloadIntensity(IntensityCalculationUtils.calculateAverageIntensity(sessions, interval));
 	}
 
 	private Properties createWorkloadIntensity(List<ForecastIntensityRecord> intensities) throws IOException {
@@ -353,7 +452,9 @@ public class WessbasPipelineManager {
 			properties.put(KEY_INTENSITY_RESOLUTION, Integer.toString(resolution));
 		}
 
-		properties.store(Files.newOutputStream(workingDir.resolve("workloadIntensity.properties"), StandardOpenOption.CREATE), null);
+		try (OutputStream out = Files.newOutputStream(workingDir.resolve(FILENAME_WORKLOAD_INTENSITY))) {
+			properties.store(out, null);
+		}
 
 		return properties;
 	}
@@ -398,7 +499,7 @@ public class WessbasPipelineManager {
 		String last = mix.get(mix.size() - 1);
 		mix.set(mix.size() - 1, last.substring(0, last.length() - 3));
 
-		Files.write(dir.resolve("behaviormix.txt"), mix);
+		Files.write(dir.resolve(FILENAME_BEHAVIOR_MIX), mix);
 	}
 
 	private void writeBehaviorModels(MarkovBehaviorModel markovModel, Path dir) throws FileNotFoundException, SecurityException, NullPointerException, IOException {
@@ -415,79 +516,14 @@ public class WessbasPipelineManager {
 
 	private void writeDummySessionsDat() throws IOException {
 		List<String> content = Collections.singletonList("SID;\"ID\":0:0");
-		Files.write(workingDir.resolve("sessions.dat"), content);
+		Files.write(workingDir.resolve(FILENAME_SESSIONS), content);
 	}
 
 	private WorkloadModel generateWessbasModel(Properties workloadIntensityProperties, Properties behaviorModelsProperties) throws FileNotFoundException, SecurityException, GeneratorException {
 		M4jdslModelGenerator generator = new M4jdslModelGenerator();
-		final String sessionDatFilePath = workingDir.resolve("sessions.dat").toString();
+		final String sessionDatFilePath = workingDir.resolve(FILENAME_SESSIONS).toString();
 
 		return generator.generateWorkloadModel(workloadIntensityProperties, behaviorModelsProperties, null, sessionDatFilePath, false);
 	}
 
-	/**
-	 * Calculate intensity based on the parallel session logs.
-	 *
-	 * @param sessions
-	 *            the session logs
-	 * @param interval
-	 *            the used interval/ resolution
-	 * @return the intensity which represents the number of users.
-	 */
-	private int calculateIntensity(String sessionLogsString, long interval) {
-		List<SimplifiedSession> sessions = SimplifiedSessionLogsDeserializer.parse(sessionLogsString);
-		IntensityCalculationUtils.sortSessions(sessions);
-		long startTime = sessions.get(0).getStartTime();
-
-		long highestEndTime = 0;
-
-		for (SimplifiedSession session : sessions) {
-			if (session.getEndTime() > highestEndTime) {
-				highestEndTime = session.getEndTime();
-			}
-		}
-
-		// The time range for which an intensity will be calculated
-		long rangeLength = Math.min(interval, highestEndTime - startTime);
-
-		// rounds highest end time up
-		long roundedHighestEndTime = highestEndTime;
-		if ((highestEndTime % rangeLength) != 0) {
-			roundedHighestEndTime = (highestEndTime - (highestEndTime % rangeLength)) + rangeLength;
-		}
-
-		long completePeriod = roundedHighestEndTime - startTime;
-		long amountOfRanges = completePeriod / rangeLength;
-
-		ArrayList<Range<Long>> listOfRanges = IntensityCalculationUtils.calculateRanges(startTime, amountOfRanges, rangeLength);
-
-		// Remove first and last range from list if necessary
-		if (listOfRanges.get(0).getMinimum() != startTime) {
-			listOfRanges.remove(0);
-		}
-
-		if (listOfRanges.get(listOfRanges.size() - 1).getMaximum() != highestEndTime) {
-			listOfRanges.remove(listOfRanges.size() - 1);
-		}
-
-		// This map is used to hold necessary information which will be saved into DB
-		List<Integer> intensities = new ArrayList<Integer>();
-
-		for (Range<Long> range : listOfRanges) {
-			ArrayList<SimplifiedSession> sessionsInRange = new ArrayList<SimplifiedSession>();
-			for (SimplifiedSession session : sessions) {
-				Range<Long> sessionRange = Range.between(session.getStartTime(), session.getEndTime());
-				if (sessionRange.containsRange(range) || range.contains(session.getStartTime()) || range.contains(session.getEndTime())) {
-					sessionsInRange.add(session);
-				}
-			}
-			int intensityOfRange = (int) IntensityCalculationUtils.calculateIntensityForRange(range, sessionsInRange, rangeLength);
-			intensities.add(intensityOfRange);
-		}
-
-		// TODO: use list as varying intensity?
-
-		return Math.toIntExact(Math.round(intensities.stream().mapToDouble(a -> a).average().getAsDouble()));
-	}
-
 }
\ No newline at end of file
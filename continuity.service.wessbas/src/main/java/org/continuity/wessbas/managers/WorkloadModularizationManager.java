@@ -2,19 +2,21 @@ package org.continuity.wessbas.managers;
 
 import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 import org.continuity.api.entities.artifact.SessionsBundle;
 import org.continuity.api.entities.artifact.SimplifiedSession;
+import org.continuity.api.entities.artifact.markovbehavior.DenseMarkovChain;
 import org.continuity.api.entities.artifact.markovbehavior.MarkovBehaviorModel;
 import org.continuity.api.entities.artifact.markovbehavior.NormalDistribution;
 import org.continuity.api.entities.artifact.markovbehavior.RelativeMarkovChain;
-import org.continuity.api.entities.config.SessionTailoringDescription;
+import org.continuity.api.entities.config.BatchSessionTailoringDescription;
+import org.continuity.api.entities.config.SessionTailoringGroup;
 import org.continuity.api.entities.exchange.ArtifactExchangeModel;
 import org.continuity.api.entities.order.ServiceSpecification;
 import org.continuity.api.rest.RestApi;
@@ -23,6 +25,7 @@ import org.continuity.idpa.VersionOrTimestamp;
 import org.continuity.wessbas.entities.BehaviorModelPack;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
@@ -76,11 +79,6 @@ public class WorkloadModularizationManager {
 	 */
 	private RestTemplate eurekaRestTemplate;
 
-	/**
-	 * The current working directory
-	 */
-	private Path workingDir;
-
 	/**
 	 * The csv handler.
 	 */
@@ -101,34 +99,29 @@ public class WorkloadModularizationManager {
 		this.csvHandler = new CSVHandler(CSVHandler.LINEBREAK_TYPE_UNIX);
 		this.aid = aid;
 		this.version = version;
-
-		Path tmpDir;
-		try {
-			tmpDir = Files.createTempDirectory("wessbas-modularization");
-		} catch (IOException e) {
-			LOGGER.error("Could not create a temp directory!");
-			e.printStackTrace();
-			tmpDir = Paths.get("wessbas-modularization");
-		}
-
-		workingDir = tmpDir;
-
-		LOGGER.info("Set working directory to {}", workingDir);
 	}
 
 	public void runPipeline(VersionOrTimestamp version, ArtifactExchangeModel linkExchangeModel, BehaviorModelPack behaviorModelPack, List<ServiceSpecification> services) {
 		List<SessionsBundle> sessionBundles = behaviorModelPack.getSessionsBundlePack().getSessionsBundles();
 
-		MarkovBehaviorModel behaviorModel = new MarkovBehaviorModel();
+		Map<SessionsBundle, RelativeMarkovChain> markovChains = new LinkedHashMap<>();
 
 		for (SessionsBundle sessionBundle : sessionBundles) {
 			try {
-				behaviorModel.addMarkovChain(modularizeUserGroup(sessionBundle, behaviorModelPack, services));
+				markovChains.put(sessionBundle, readMarkovChain(sessionBundle, behaviorModelPack));
 			} catch (IOException e) {
 				LOGGER.error("Could not modularize behavior model!", e);
 			}
 		}
 
+		Map<String, Map<String, RelativeMarkovChain>> subChains = retrieveSubChains(markovChains, services);
+
+		MarkovBehaviorModel behaviorModel = new MarkovBehaviorModel();
+
+		for (RelativeMarkovChain markovChain : markovChains.values()) {
+			behaviorModel.addMarkovChain(modularizeUserGroup(markovChain, subChains.getOrDefault(markovChain.getId(), Collections.emptyMap()), behaviorModelPack));
+		}
+
 		behaviorModel.synchronizeMarkovChains();
 
 		for (RelativeMarkovChain chain : behaviorModel.getMarkovChains()) {
@@ -143,73 +136,88 @@ public class WorkloadModularizationManager {
 		}
 	}
 
+	private RelativeMarkovChain readMarkovChain(SessionsBundle sessionBundle, BehaviorModelPack behaviorModelPack) throws FileNotFoundException, IOException {
+		String behaviorFile = behaviorModelPack.getPathToBehaviorModelFiles().resolve("behaviormodelextractor").resolve(FILENAME + sessionBundle.getBehaviorId() + FILE_EXT).toFile().toString();
+		RelativeMarkovChain markovChain = RelativeMarkovChain.fromCsv(csvHandler.readValues(behaviorFile));
+		markovChain.setId(FILENAME + sessionBundle.getBehaviorId());
+
+		return markovChain;
+	}
+
 	/**
 	 * Modularizes a certain behavior model. That is, each Markov state representing a request that
 	 * is not in the set of tested services is replaced by several other states representing the
 	 * behavior that this request causes at the target services.
 	 *
-	 * @param sessionBundle
-	 *            The session bundle which is modularized
-	 * @param services
-	 *            The targeted load test of the modularized services.
+	 * @param markovChain
+	 *            The Markov chain to be modularized.
+	 * @param subChains
+	 *            The tailored sub chains per Markov state.
 	 * @return The modularized Markov chain.
-	 * @throws IOException
-	 * @throws NullPointerException
-	 * @throws FileNotFoundException
 	 */
-	private RelativeMarkovChain modularizeUserGroup(SessionsBundle sessionBundle, BehaviorModelPack behaviorModelPack, List<ServiceSpecification> services)
-			throws FileNotFoundException, IOException {
-		LOGGER.info("Modularizing behavior model {} at path {}...", sessionBundle.getBehaviorId(), behaviorModelPack.getPathToBehaviorModelFiles());
+	private RelativeMarkovChain modularizeUserGroup(RelativeMarkovChain markovChain, Map<String, RelativeMarkovChain> subChains, BehaviorModelPack behaviorModelPack) {
+		LOGGER.info("Modularizing behavior model {} at path {}...", markovChain.getId(), behaviorModelPack.getPathToBehaviorModelFiles());
 
-		String behaviorFile = behaviorModelPack.getPathToBehaviorModelFiles().resolve("behaviormodelextractor").resolve(FILENAME + sessionBundle.getBehaviorId() + FILE_EXT).toFile().toString();
-		RelativeMarkovChain markovChain = RelativeMarkovChain.fromCsv(csvHandler.readValues(behaviorFile));
-		markovChain.setId(FILENAME + sessionBundle.getBehaviorId());
+		DenseMarkovChain denseChain = DenseMarkovChain.fromMarkovChain(markovChain);
 
 		for (String state : markovChain.getRequestStates()) {
-			RelativeMarkovChain subChain = retrieveSubChain(aid, state, version, services, sessionBundle);
-			modularizeMarkovState(markovChain, state, subChain);
+			RelativeMarkovChain subChain = subChains.get(state);
+			modularizeMarkovState(denseChain, state, subChain);
 		}
 
 		LOGGER.info("Modularization of {} done.", behaviorModelPack.getPathToBehaviorModelFiles());
 
-		return markovChain;
+		return denseChain.toMarkovChain();
 	}
 
-	private RelativeMarkovChain retrieveSubChain(AppId aid, String state, VersionOrTimestamp version, List<ServiceSpecification> services, SessionsBundle sessionBundle) {
-		SessionTailoringDescription description = createTailoringDescription(aid, state, version, services, sessionBundle);
+	/**
+	 * Retrieves the tailored sub chains of all Markov states of all Markov chains with one request.
+	 *
+	 * @return The sub chains per Markov chain ID and state. Empty if the sub chains could not be
+	 *         retrieved.
+	 */
+	private Map<String, Map<String, RelativeMarkovChain>> retrieveSubChains(Map<SessionsBundle, RelativeMarkovChain> markovChains, List<ServiceSpecification> services) {
+		BatchSessionTailoringDescription description = createTailoringDescription(aid, version, services, markovChains);
 
 		HttpHeaders headers = new HttpHeaders();
 		headers.setAccept(Collections.singletonList(MediaType.APPLICATION_JSON));
-		HttpEntity<SessionTailoringDescription> entity = new HttpEntity<SessionTailoringDescription>(description, headers);
+		HttpEntity<BatchSessionTailoringDescription> entity = new HttpEntity<>(description, headers);
 
-		ResponseEntity<RelativeMarkovChain> response;
+		ResponseEntity<Map<String, Map<String, RelativeMarkovChain>>> response;
 		try {
-			response = eurekaRestTemplate.exchange(RestApi.Cobra.BehaviorModel.CREATE.requestUrl().get(), HttpMethod.POST, entity, RelativeMarkovChain.class);
+			response = eurekaRestTemplate.exchange(RestApi.Cobra.BehaviorModel.CREATE_BATCH.requestUrl().get(), HttpMethod.POST, entity,
+					new ParameterizedTypeReference<Map<String, Map<String, RelativeMarkovChain>>>() {
+					});
 		} catch (HttpStatusCodeException e) {
-			LOGGER.error("Could not retrieve tailored Markov chain!", e);
-			LOGGER.warn("Ignoring tailoring of state {}.", state);
-			return null;
+			LOGGER.error("Could not retrieve tailored Markov chains!", e);
+			LOGGER.warn("Ignoring tailoring of all states.");
+			return Collections.emptyMap();
 		}
 
-		return response.getBody();
+		return (response.getBody() == null) ? Collections.emptyMap() : response.getBody();
 	}
 
-	private SessionTailoringDescription createTailoringDescription(AppId aid, String state, VersionOrTimestamp version, List<ServiceSpecification> services, SessionsBundle sessionBundle) {
-		List<String> sessionIds = sessionBundle.getSessions().stream().map(SimplifiedSession::getId).collect(Collectors.toList());
+	private BatchSessionTailoringDescription createTailoringDescription(AppId aid, VersionOrTimestamp version, List<ServiceSpecification> services,
+			Map<SessionsBundle, RelativeMarkovChain> markovChains) {
+		List<SessionTailoringGroup> groups = new ArrayList<>();
+
+		for (Map.Entry<SessionsBundle, RelativeMarkovChain> entry : markovChains.entrySet()) {
+			List<String> sessionIds = entry.getKey().getSessions().stream().map(SimplifiedSession::getId).collect(Collectors.toList());
+			groups.add(new SessionTailoringGroup(entry.getValue().getId(), sessionIds, entry.getValue().getRequestStates()));
+		}
 
-		SessionTailoringDescription description = new SessionTailoringDescription();
+		BatchSessionTailoringDescription description = new BatchSessionTailoringDescription();
 
 		description.setAid(aid);
-		description.setRootEndpoint(state);
 		description.setVersion(version);
 		description.setTailoring(services.stream().map(ServiceSpecification::getService).collect(Collectors.toList()));
 		description.setIncludePrePostProcessing(true);
-		description.setSessionIds(sessionIds);
+		description.setGroups(groups);
 
 		return description;
 	}
 
-	private void modularizeMarkovState(RelativeMarkovChain markovChain, String state, RelativeMarkovChain subChain) {
+	private void modularizeMarkovState(DenseMarkovChain markovChain, String state, RelativeMarkovChain subChain) {
 		if ((subChain == null) || ((subChain.getNumberOfRequestStates() == 1) && subChain.getRequestStates().contains(state))) {
 			LOGGER.info("Keeping state {}.", state);
 			return;
@@ -221,7 +229,7 @@ public class WorkloadModularizationManager {
 			markovChain.removeState(state, responseTime);
 		} else {
 			LOGGER.info("Replacing state {}.", state);
-			markovChain.replaceState(state, subChain);
+			markovChain.replaceState(state, DenseMarkovChain.fromMarkovChain(subChain));
 		}
 	}
 
@@ -37,9 +37,11 @@ public class WessbasFileStorage extends FileStorage<WessbasBundle> {
 			// For reserving a slot, an empty bundle is passed. In this case, only the folder should
 			// be created.
 
-			XmiEcoreHandler.getInstance().ecoreToXMI(entity.getWorkloadModel(), idDir.resolve(FILE_WESSBAS).toString());
+			writeAtomically(idDir.resolve(FILE_WESSBAS), path -> XmiEcoreHandler.getInstance().ecoreToXMI(entity.getWorkloadModel(), path.toString()));
 
-			mapper.writer().writeValue(idDir.resolve(FILE_BUNDLE).toFile(), entity);
+			// the bundle marks the artifact as complete, so writing it last ensures that the
+			// workload model exists when the bundle is found
+			writeAtomically(idDir.resolve(FILE_BUNDLE), path -> mapper.writer().writeValue(path.toFile(), entity));
 		}
 	}
 
@@ -47,10 +49,13 @@ public class WessbasFileStorage extends FileStorage<WessbasBundle> {
 	protected WessbasBundle read(Path dirPath, String id) throws IOException {
 		Path idDir = toIdDir(dirPath, id);
 
-		if (idDir.toFile().exists()) {
-			WorkloadModel workloadModel = (WorkloadModel) XmiEcoreHandler.getInstance().xmiToEcore(idDir.resolve(FILE_WESSBAS).toString());
+		File bundleFile = idDir.resolve(FILE_BUNDLE).toFile();
+
+		// a reserved slot does not have a bundle yet
+		if (bundleFile.exists()) {
+			WessbasBundle bundle = mapper.readValue(bundleFile, WessbasBundle.class);
 
-			WessbasBundle bundle = mapper.readValue(idDir.resolve(FILE_BUNDLE).toFile(), WessbasBundle.class);
+			WorkloadModel workloadModel = (WorkloadModel) XmiEcoreHandler.getInstance().xmiToEcore(idDir.resolve(FILE_WESSBAS).toString());
 			bundle.setWorkloadModel(workloadModel);
 
 			return bundle;
@@ -70,6 +75,11 @@ public class WessbasFileStorage extends FileStorage<WessbasBundle> {
 		}
 	}
 
+	@Override
+	protected String getIdForFile(String filename) {
+		return filename;
+	}
+
 	private Path toIdDir(Path dirPath, String id) {
 		return dirPath.resolve(id);
 	}
@@ -2,7 +2,9 @@ package org.continuity.wessbas.managers;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.text.ParseException;
 import java.util.Arrays;
 import java.util.HashMap;
@@ -26,7 +28,11 @@ import org.continuity.wessbas.entities.WessbasBundle;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mockito;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.web.client.RequestCallback;
+import org.springframework.web.client.ResponseExtractor;
 import org.springframework.web.client.RestTemplate;
 
 import m4jdsl.WorkloadModel;
@@ -56,6 +62,12 @@ public class WessbasPipelineTest {
 		Mockito.when(restMock.getForObject(Mockito.anyString(), Mockito.eq(String.class))).thenReturn(SESSION_LOG);
 		Mockito.when(restMock.exchange(Mockito.anyString(), Mockito.any(), Mockito.any(), Mockito.any(Class.class))).thenReturn(ResponseEntity.ok(SESSION_LOG));
 		Mockito.when(restMock.getForObject(Mockito.anyString(), Mockito.eq(MarkovBehaviorModel.class))).thenReturn(behaviorModel);
+		Mockito.when(restMock.execute(Mockito.anyString(), Mockito.any(HttpMethod.class), Mockito.any(RequestCallback.class), Mockito.any(ResponseExtractor.class))).thenAnswer(invocation -> {
+			ClientHttpResponse response = Mockito.mock(ClientHttpResponse.class);
+			Mockito.when(response.getBody()).thenReturn(new ByteArrayInputStream(SESSION_LOG.getBytes(StandardCharsets.UTF_8)));
+			ResponseExtractor<?> extractor = invocation.getArgument(3);
+			return extractor.extractData(response);
+		});
 
 		pipelineManager = new WessbasPipelineManager(restMock);
 	}
@@ -0,0 +1,70 @@
+package org.continuity.wessbas.managers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+
+import org.apache.commons.io.FileUtils;
+import org.continuity.wessbas.entities.BehaviorModelPack;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.springframework.web.client.RestTemplate;
+
+public class WessbasWorkspaceTest {
+
+	private Path origDir;
+
+	private WessbasPipelineManager pipelineManager;
+
+	@Before
+	public void setup() throws IOException {
+		origDir = Files.createTempDirectory("wessbas-test");
+		Path extractorDir = Files.createDirectories(origDir.resolve("behaviormodelextractor"));
+
+		Files.write(origDir.resolve("sessions.dat"), Collections.singletonList("SID;\"ID\":0:0"));
+		Files.write(origDir.resolve("workloadIntensity.properties"), Collections.singletonList("wl.type.value=1"));
+		Files.write(extractorDir.resolve("behaviormodel0.csv"), Collections.singletonList("orig"));
+		Files.write(extractorDir.resolve("behaviormix.txt"), Collections.singletonList("behaviorModels = gen_behavior_model0; " + extractorDir.resolve("gen_behavior_model0.csv") + "; 1.0; "
+				+ extractorDir.resolve("behaviormodel0.csv")));
+
+		pipelineManager = new WessbasPipelineManager(Mockito.mock(RestTemplate.class));
+	}
+
+	@After
+	public void cleanup() throws IOException {
+		FileUtils.deleteDirectory(origDir.toFile());
+		pipelineManager.cleanup();
+	}
+
+	@Test
+	public void testImportIsIsolated() throws IOException {
+		BehaviorModelPack pack = pipelineManager.importBehaviorModel(new BehaviorModelPack(null, origDir));
+		Path workingDir = pipelineManager.getWorkingDir();
+
+		assertThat(pack.getPathToBehaviorModelFiles()).isEqualTo(workingDir);
+		assertThat(workingDir.resolve("sessions.dat")).exists();
+		assertThat(workingDir.resolve("workloadIntensity.properties")).hasContent("wl.type.value=1");
+
+		String behaviorMix = new String(Files.readAllBytes(workingDir.resolve("behaviormodelextractor").resolve("behaviormix.txt")), StandardCharsets.UTF_8);
+		assertThat(behaviorMix).contains(workingDir.resolve("behaviormodelextractor").resolve("behaviormodel0.csv").toString()).doesNotContain(origDir.toString());
+
+		Files.write(workingDir.resolve("behaviormodelextractor").resolve("behaviormodel0.csv"), Collections.singletonList("modularized"));
+		assertThat(origDir.resolve("behaviormodelextractor").resolve("behaviormodel0.csv")).hasContent("orig");
+	}
+
+	@Test
+	public void testCleanup() throws IOException {
+		pipelineManager.importBehaviorModel(new BehaviorModelPack(null, origDir));
+		pipelineManager.cleanup();
+
+		assertThat(pipelineManager.getWorkingDir()).doesNotExist();
+		assertThat(origDir.resolve("sessions.dat")).exists();
+	}
+
+}